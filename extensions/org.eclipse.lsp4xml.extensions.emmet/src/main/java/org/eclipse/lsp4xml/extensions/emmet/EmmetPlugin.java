@@ -10,7 +10,11 @@
  */
 package org.eclipse.lsp4xml.extensions.emmet;
 
+import java.util.concurrent.CompletableFuture;
+
 import org.eclipse.lsp4j.InitializeParams;
+import org.eclipse.lsp4xml.extensions.emmet.emmetio.expand.ExpandAbbreviation;
+import org.eclipse.lsp4xml.extensions.emmet.emmetio.extract.ExtractAbbreviation;
 import org.eclipse.lsp4xml.extensions.emmet.participants.EmmetCompletionParticipant;
 import org.eclipse.lsp4xml.services.extensions.ICompletionParticipant;
 import org.eclipse.lsp4xml.services.extensions.IXMLExtension;
@@ -33,6 +37,12 @@ public class EmmetPlugin implements IXMLExtension {
 	@Override
 	public void start(InitializeParams params, XMLExtensionsRegistry registry) {
 		registry.registerCompletionParticipant(completionParticipant);
+		// load the emmet scripts in background to avoid slowing down the first
+		// completion
+		CompletableFuture.runAsync(() -> {
+			ExtractAbbreviation.warmUp();
+			ExpandAbbreviation.warmUp();
+		});
 	}
 
 	@Override
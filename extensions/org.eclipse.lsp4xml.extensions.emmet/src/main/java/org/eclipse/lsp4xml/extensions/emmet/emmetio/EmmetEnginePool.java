@@ -0,0 +1,141 @@
+/**
+ *  Copyright (c) 2019 Red Hat Inc. and others.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v2.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v20.html
+ *
+ *  Contributors:
+ *  Red Hat Inc. - initial API and implementation
+ */
+package org.eclipse.lsp4xml.extensions.emmet.emmetio;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.script.ScriptEngineManager;
+
+/**
+ * Pool of initialized script engines.
+ *
+ * <p>
+ * A Nashorn script engine which has evaluated the emmet scripts is expensive
+ * to create (some seconds) and must not be used by several threads at the same
+ * time. The pool creates the engines on demand (at most maxSize) and gives each
+ * engine to one thread at a time.
+ * </p>
+ *
+ * <pre>
+ * T engine = pool.acquire();
+ * try {
+ * 	// use the engine
+ * } finally {
+ * 	pool.release(engine);
+ * }
+ * </pre>
+ *
+ * @param <T> the engine type.
+ */
+public class EmmetEnginePool<T> {
+
+	/**
+	 * The time in milliseconds to wait for a released engine before checking
+	 * again if an engine can be created (when the creation of an other thread has
+	 * failed).
+	 */
+	private static final long WAIT_INTERVAL = 100;
+
+	private static class NashornHolder {
+
+		// Nashorn is removed since JDK 15
+		static final boolean AVAILABLE = new ScriptEngineManager().getEngineByName("nashorn") != null;
+	}
+
+	private final Callable<T> factory;
+
+	private final int maxSize;
+
+	private final BlockingQueue<T> available;
+
+	private final AtomicInteger created;
+
+	/**
+	 * Create a pool of engines.
+	 *
+	 * @param factory the factory which creates and initializes an engine.
+	 * @param maxSize the maximum number of engines.
+	 */
+	public EmmetEnginePool(Callable<T> factory, int maxSize) {
+		this.factory = factory;
+		this.maxSize = maxSize;
+		this.available = new LinkedBlockingQueue<>();
+		this.created = new AtomicInteger();
+	}
+
+	/**
+	 * Returns an available engine, creates it if the maximum number of engines is
+	 * not reached or waits for an engine released by an other thread.
+	 *
+	 * @return an available engine.
+	 * @throws Exception if the engine cannot be created.
+	 */
+	public T acquire() throws Exception {
+		T engine = available.poll();
+		while (engine == null) {
+			if (created.incrementAndGet() <= maxSize) {
+				try {
+					return factory.call();
+				} catch (Exception e) {
+					created.decrementAndGet();
+					throw e;
+				}
+			}
+			created.decrementAndGet();
+			engine = available.poll(WAIT_INTERVAL, TimeUnit.MILLISECONDS);
+		}
+		return engine;
+	}
+
+	/**
+	 * Release the given engine acquired with {@link #acquire()}.
+	 *
+	 * @param engine the engine to release.
+	 */
+	public void release(T engine) {
+		available.offer(engine);
+	}
+
+	/**
+	 * Create the first engine of the pool if it doesn't exist.
+	 *
+	 * @throws Exception if the engine cannot be created.
+	 */
+	public void warmUp() throws Exception {
+		if (created.get() == 0) {
+			release(acquire());
+		}
+	}
+
+	/**
+	 * Returns <code>true</code> if the Nashorn script engine (used to evaluate the
+	 * emmet scripts) is available and <code>false</code> otherwise.
+	 *
+	 * @return <code>true</code> if the Nashorn script engine is available and
+	 *         <code>false</code> otherwise.
+	 */
+	public static boolean isNashornAvailable() {
+		return NashornHolder.AVAILABLE;
+	}
+
+	/**
+	 * Returns the number of created engines.
+	 *
+	 * @return the number of created engines.
+	 */
+	public int getCreatedEngines() {
+		return created.get();
+	}
+}
@@ -11,47 +11,122 @@
 package org.eclipse.lsp4xml.extensions.emmet.emmetio.expand;
 
 import java.io.InputStreamReader;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 import javax.script.Invocable;
 import javax.script.ScriptEngine;
 import javax.script.ScriptEngineManager;
 import javax.script.ScriptException;
 
+import org.eclipse.lsp4xml.extensions.emmet.emmetio.EmmetEnginePool;
+
 /**
  * @see https://github.com/emmetio/expand-abbreviation/blob/master/index.js
  *
  */
 public class ExpandAbbreviation {
 
-	private static ScriptEngine engine;
+	private static final Logger LOGGER = Logger.getLogger(ExpandAbbreviation.class.getName());
 
-	static {
-		// load extract-abbreviation-full.js
-		try {
-			engine = new ScriptEngineManager().getEngineByName("nashorn");
+	private static final int MAX_ENGINES = 2;
+
+	private static final int MAX_CACHED_EXPANSIONS = 200;
+
+	/**
+	 * Nashorn engine which has loaded expand-full.js with the expand options.
+	 */
+	private static class ExpandEngine {
+
+		private final Invocable invocable;
+
+		private final Object emmet;
+
+		private final Object options;
+
+		ExpandEngine() throws ScriptException {
+			ScriptEngine engine = new ScriptEngineManager().getEngineByName("nashorn");
 			// https://cdnjs.cloudflare.com/ajax/libs/babel-polyfill/6.26.0/polyfill.min.js
 			engine.eval(new InputStreamReader(ExpandAbbreviation.class.getResourceAsStream("polyfill.min.js")));
 			// generated from expand-abbreviation github project with "no modules"
 			engine.eval(new InputStreamReader(ExpandAbbreviation.class.getResourceAsStream("expand-full.js")));
-		} catch (ScriptException e) {
-			e.printStackTrace();
-		}
-	}
-
-	public static String expand(String abbr, ExpandOptions config) {
-		try {
-			Invocable inv = (Invocable) engine;
+			this.invocable = (Invocable) engine;
+			this.emmet = engine.get("emmet");
 			StringBuilder options = new StringBuilder("({");
 			// disable html snippets (to avoid generates <a href="" ></a> whith a abbr
 			options.append("snippets: emmet.createSnippetsRegistry(null, 'xml', {})");
 			//options.append(", syntax: \"" + config.getSyntax() + "\"");
 			options.append("})");
-			Object jsOptions = engine.eval(options.toString());
-			Object obj = engine.get("emmet");
-			return (String) inv.invokeMethod(obj, "expand", abbr, jsOptions);
+			this.options = engine.eval(options.toString());
+		}
+
+		String expand(String abbr) throws ScriptException, NoSuchMethodException {
+			return (String) invocable.invokeMethod(emmet, "expand", abbr, options);
+		}
+	}
+
+	private static final EmmetEnginePool<ExpandEngine> ENGINES = new EmmetEnginePool<>(ExpandEngine::new,
+			MAX_ENGINES);
+
+	/**
+	 * The recent expansions (the options are the same for each expansion).
+	 */
+	private static final Map<String, String> EXPANSIONS = new LinkedHashMap<String, String>(16, 0.75f, true) {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+			return size() > MAX_CACHED_EXPANSIONS;
+		}
+	};
+
+	public static String expand(String abbr, ExpandOptions config) {
+		if (!EmmetEnginePool.isNashornAvailable()) {
+			return null;
+		}
+		synchronized (EXPANSIONS) {
+			String expanded = EXPANSIONS.get(abbr);
+			if (expanded != null) {
+				return expanded;
+			}
+		}
+		ExpandEngine engine = null;
+		try {
+			engine = ENGINES.acquire();
+			String expanded = engine.expand(abbr);
+			if (expanded != null) {
+				synchronized (EXPANSIONS) {
+					EXPANSIONS.put(abbr, expanded);
+				}
+			}
+			return expanded;
 		} catch (Exception e) {
 			e.printStackTrace();
 			return null;
+		} finally {
+			if (engine != null) {
+				ENGINES.release(engine);
+			}
+		}
+	}
+
+	/**
+	 * Initialize the first expand engine (which loads the emmet scripts) if the
+	 * Nashorn script engine is available.
+	 */
+	public static void warmUp() {
+		if (!EmmetEnginePool.isNashornAvailable()) {
+			LOGGER.log(Level.WARNING,
+					"Nashorn script engine is not available, the emmet expand scripts are not loaded");
+			return;
+		}
+		try {
+			ENGINES.warmUp();
+		} catch (Exception e) {
+			LOGGER.log(Level.SEVERE, "Error while loading the emmet expand scripts", e);
 		}
 	}
 }
@@ -11,6 +11,8 @@
 package org.eclipse.lsp4xml.extensions.emmet.emmetio.extract;
 
 import java.io.InputStreamReader;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 import javax.script.Bindings;
 import javax.script.Invocable;
@@ -18,6 +20,8 @@ import javax.script.ScriptEngine;
 import javax.script.ScriptEngineManager;
 import javax.script.ScriptException;
 
+import org.eclipse.lsp4xml.extensions.emmet.emmetio.EmmetEnginePool;
+
 /**
  * Translate JS
  * https://github.com/emmetio/extract-abbreviation/blob/master/index.js to Java
@@ -25,20 +29,22 @@ import javax.script.ScriptException;
  */
 public class ExtractAbbreviation {
 
-	private static ScriptEngine engine;
+	private static final Logger LOGGER = Logger.getLogger(ExtractAbbreviation.class.getName());
+
+	private static final int MAX_ENGINES = 2;
 
-	static {
+	private static final EmmetEnginePool<Invocable> ENGINES = new EmmetEnginePool<>(
+			ExtractAbbreviation::createEngine, MAX_ENGINES);
+
+	private static Invocable createEngine() throws ScriptException {
 		// load extract-abbreviation-full.js
-		try {
-			engine = new ScriptEngineManager().getEngineByName("nashorn");
-			// https://cdnjs.cloudflare.com/ajax/libs/babel-polyfill/6.26.0/polyfill.min.js
-			engine.eval(new InputStreamReader(ExtractAbbreviation.class.getResourceAsStream("polyfill.min.js")));
-			// generated from extract-abbreviation github project with "no modules"
-			engine.eval(new InputStreamReader(
-					ExtractAbbreviation.class.getResourceAsStream("extract-abbreviation-full.js")));
-		} catch (ScriptException e) {
-			e.printStackTrace();
-		}
+		ScriptEngine engine = new ScriptEngineManager().getEngineByName("nashorn");
+		// https://cdnjs.cloudflare.com/ajax/libs/babel-polyfill/6.26.0/polyfill.min.js
+		engine.eval(new InputStreamReader(ExtractAbbreviation.class.getResourceAsStream("polyfill.min.js")));
+		// generated from extract-abbreviation github project with "no modules"
+		engine.eval(
+				new InputStreamReader(ExtractAbbreviation.class.getResourceAsStream("extract-abbreviation-full.js")));
+		return (Invocable) engine;
 	}
 
 	/**
@@ -68,8 +74,12 @@ public class ExtractAbbreviation {
 	 *         if abbreviation can be extracted, `null` otherwise
 	 */
 	public static ExtractAbbreviationResult extractAbbreviation(String line, Integer pos, EmmetOptions options) {
+		if (!EmmetEnginePool.isNashornAvailable()) {
+			return null;
+		}
+		Invocable inv = null;
 		try {
-			Invocable inv = (Invocable) engine;
+			inv = ENGINES.acquire();
 			Bindings s = (Bindings) inv.invokeFunction("emmet", line, pos);
 			if (s == null) {
 				return null;
@@ -82,8 +92,29 @@ public class ExtractAbbreviation {
 					start != null ? start.intValue() : 0, end != null ? end.intValue() : 0);
 		} catch (Exception e) {
 			e.printStackTrace();
+		} finally {
+			if (inv != null) {
+				ENGINES.release(inv);
+			}
 		}
 		return null;
 	}
 
+	/**
+	 * Initialize the first extract engine (which loads the emmet scripts) if the
+	 * Nashorn script engine is available.
+	 */
+	public static void warmUp() {
+		if (!EmmetEnginePool.isNashornAvailable()) {
+			LOGGER.log(Level.WARNING,
+					"Nashorn script engine is not available, the emmet extract scripts are not loaded");
+			return;
+		}
+		try {
+			ENGINES.warmUp();
+		} catch (Exception e) {
+			LOGGER.log(Level.SEVERE, "Error while loading the emmet extract scripts", e);
+		}
+	}
+
 }
@@ -0,0 +1,118 @@
+/**
+ *  Copyright (c) 2019 Red Hat Inc. and others.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v2.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v20.html
+ *
+ *  Contributors:
+ *  Red Hat Inc. - initial API and implementation
+ */
+package org.eclipse.lsp4xml.extensions.emmet.emmetio;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class EmmetEnginePoolTest {
+
+	@Test
+	public void testReuseEngines() throws Exception {
+		AtomicInteger count = new AtomicInteger();
+		EmmetEnginePool<Integer> pool = new EmmetEnginePool<>(count::incrementAndGet, 2);
+		pool.warmUp();
+		Assert.assertEquals(1, pool.getCreatedEngines());
+
+		Integer first = pool.acquire();
+		Integer second = pool.acquire();
+		Assert.assertNotEquals(first, second);
+		Assert.assertEquals(2, pool.getCreatedEngines());
+
+		// max size reached: wait for a released engine
+		CompletableFuture<Integer> third = CompletableFuture.supplyAsync(() -> {
+			try {
+				return pool.acquire();
+			} catch (Exception e) {
+				throw new RuntimeException(e);
+			}
+		});
+		try {
+			third.get(100, TimeUnit.MILLISECONDS);
+			Assert.fail("The pool must wait for a released engine");
+		} catch (TimeoutException e) {
+			// expected
+		}
+		pool.release(first);
+		Assert.assertEquals(first, third.get(5, TimeUnit.SECONDS));
+		Assert.assertEquals(2, count.get());
+	}
+
+	@Test
+	public void testEngineCreationError() throws Exception {
+		AtomicInteger count = new AtomicInteger();
+		EmmetEnginePool<Integer> pool = new EmmetEnginePool<>(() -> {
+			if (count.incrementAndGet() == 1) {
+				throw new IllegalStateException();
+			}
+			return count.get();
+		}, 1);
+		try {
+			pool.acquire();
+			Assert.fail("The engine creation must fail");
+		} catch (IllegalStateException e) {
+			// expected
+		}
+		Assert.assertEquals(0, pool.getCreatedEngines());
+		Assert.assertEquals(Integer.valueOf(2), pool.acquire());
+	}
+
+	@Test
+	public void testEngineCreationErrorWithWaitingThreads() throws Exception {
+		CountDownLatch creating = new CountDownLatch(1);
+		CountDownLatch fail = new CountDownLatch(1);
+		EmmetEnginePool<Integer> pool = new EmmetEnginePool<>(() -> {
+			creating.countDown();
+			fail.await();
+			throw new IllegalStateException();
+		}, 1);
+		CompletableFuture<Integer> first = acquireAsync(pool);
+		creating.await(5, TimeUnit.SECONDS);
+		// max size reached: the other threads wait for a released engine
+		CompletableFuture<Integer> second = acquireAsync(pool);
+		CompletableFuture<Integer> third = acquireAsync(pool);
+		TimeUnit.MILLISECONDS.sleep(50);
+
+		// the creation fails, no engine is released: the waiting threads try to
+		// create the engine instead of waiting forever
+		fail.countDown();
+		assertCreationError(first);
+		assertCreationError(second);
+		assertCreationError(third);
+		Assert.assertEquals(0, pool.getCreatedEngines());
+	}
+
+	private static CompletableFuture<Integer> acquireAsync(EmmetEnginePool<Integer> pool) {
+		return CompletableFuture.supplyAsync(() -> {
+			try {
+				return pool.acquire();
+			} catch (Exception e) {
+				throw new RuntimeException(e);
+			}
+		});
+	}
+
+	private static void assertCreationError(CompletableFuture<Integer> engine) throws Exception {
+		try {
+			engine.get(5, TimeUnit.SECONDS);
+			Assert.fail("The engine creation must fail");
+		} catch (ExecutionException e) {
+			Assert.assertTrue(e.getCause().getCause() instanceof IllegalStateException);
+		}
+	}
+}
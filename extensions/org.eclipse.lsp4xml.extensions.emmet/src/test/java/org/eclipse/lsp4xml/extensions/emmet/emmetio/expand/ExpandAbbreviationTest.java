@@ -10,6 +10,12 @@
  */
 package org.eclipse.lsp4xml.extensions.emmet.emmetio.expand;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -22,4 +28,21 @@ public class ExpandAbbreviationTest {
 		String code = ExpandAbbreviation.expand("a>b", options);
 		Assert.assertEquals("<a><b></b></a>", code);
 	}
+
+	@Test
+	public void testConcurrentExpand() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<String>> results = new ArrayList<>();
+			for (int i = 0; i < 20; i++) {
+				String abbr = "a" + i + ">b";
+				results.add(executor.submit(() -> ExpandAbbreviation.expand(abbr, new ExpandOptions())));
+			}
+			for (int i = 0; i < 20; i++) {
+				Assert.assertEquals("<a" + i + "><b></b></a" + i + ">", results.get(i).get());
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
 }
@@ -10,6 +10,7 @@
  */
 package org.eclipse.lsp4xml.extensions.web;
 
+import java.util.function.Predicate;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -53,6 +54,11 @@ public class WebPlugin implements IXMLExtension {
 	public void stop(XMLExtensionsRegistry registry) {
 	}
 
+	@Override
+	public Predicate<DOMDocument> getActivationCondition() {
+		return WebPlugin::match;
+	}
+
 	public static boolean match(DOMDocument document) {
 		return document.getDocumentURI().endsWith(WEB_XML);
 	}
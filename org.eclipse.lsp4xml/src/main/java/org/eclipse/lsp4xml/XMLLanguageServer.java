@@ -14,6 +14,7 @@ package org.eclipse.lsp4xml;
 import static org.eclipse.lsp4j.jsonrpc.CompletableFutures.computeAsync;
 import static org.eclipse.lsp4xml.utils.VersionHelper.getVersion;
 
+import java.io.IOException;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
@@ -26,6 +27,9 @@ import org.eclipse.lsp4j.InitializeResult;
 import org.eclipse.lsp4j.InitializedParams;
 import org.eclipse.lsp4j.ServerCapabilities;
 import org.eclipse.lsp4j.TextDocumentPositionParams;
+import org.eclipse.lsp4j.jsonrpc.ResponseErrorException;
+import org.eclipse.lsp4j.jsonrpc.messages.ResponseError;
+import org.eclipse.lsp4j.jsonrpc.messages.ResponseErrorCode;
 import org.eclipse.lsp4j.services.LanguageClient;
 import org.eclipse.lsp4j.services.LanguageServer;
 import org.eclipse.lsp4j.services.TextDocumentService;
@@ -34,13 +38,16 @@ import org.eclipse.lsp4xml.client.ExtendedClientCapabilities;
 import org.eclipse.lsp4xml.commons.ModelTextDocument;
 import org.eclipse.lsp4xml.commons.ParentProcessWatcher.ProcessLanguageServer;
 import org.eclipse.lsp4xml.customservice.AutoCloseTagResponse;
+import org.eclipse.lsp4xml.customservice.FlightRecordingParams;
 import org.eclipse.lsp4xml.customservice.XMLCustomService;
 import org.eclipse.lsp4xml.dom.DOMDocument;
+import org.eclipse.lsp4xml.jfr.XMLFlightRecording;
 import org.eclipse.lsp4xml.extensions.contentmodel.settings.ContentModelSettings;
 import org.eclipse.lsp4xml.extensions.contentmodel.settings.XMLValidationSettings;
 import org.eclipse.lsp4xml.logs.LogHelper;
 import org.eclipse.lsp4xml.services.IXMLDocumentProvider;
 import org.eclipse.lsp4xml.services.XMLLanguageService;
+import org.eclipse.lsp4xml.services.extensions.SharedComponents;
 import org.eclipse.lsp4xml.settings.AllXMLSettings;
 import org.eclipse.lsp4xml.settings.XMLCompletionSettings;
 import org.eclipse.lsp4xml.settings.InitializationOptionsSettings;
@@ -71,14 +78,35 @@ public class XMLLanguageServer
 	private LanguageClient languageClient;
 	private final ScheduledExecutorService delayer;
 	private Integer parentProcessId;
+	private final SharedComponents sharedComponents;
+	private final XMLFlightRecording flightRecording;
 	public XMLCapabilityManager capabilityManager;
 
 	public XMLLanguageServer() {
-		xmlLanguageService = new XMLLanguageService();
+		this(null);
+	}
+
+	/**
+	 * Creates a XML language server which shares the given components (compiled
+	 * grammars, content model documents, etc) with the other servers of the JVM.
+	 * 
+	 * <p>
+	 * A server with shared components doesn't stop the JVM when it exits.
+	 * </p>
+	 * 
+	 * @param sharedComponents the shared components and null if the components
+	 *                         are not shared.
+	 */
+	public XMLLanguageServer(SharedComponents sharedComponents) {
+		this.sharedComponents = sharedComponents;
+		xmlLanguageService = new XMLLanguageService(sharedComponents);
 		xmlLanguageService.setDocumentProvider(this);
+		// Index the workspace for the workspace/symbol request
+		xmlLanguageService.getWorkspaceIndex().setEnabled(true);
 		xmlTextDocumentService = new XMLTextDocumentService(this);
 		xmlWorkspaceService = new XMLWorkspaceService(this);
 		delayer = Executors.newScheduledThreadPool(1);
+		flightRecording = new XMLFlightRecording();
 	}
 
 	@Override
@@ -114,6 +142,9 @@ public class XMLLanguageServer
 	@Override
 	public void initialized(InitializedParams params) {
 		capabilityManager.initializeCapabilities();
+		// start in background the extensions which are not started by an opened
+		// document
+		CompletableFuture.runAsync(xmlLanguageService::activateAllExtensions);
 	}
 
 	/**
@@ -160,6 +191,7 @@ public class XMLLanguageServer
 			if (serverSettings != null) {
 				String workDir = serverSettings.getNormalizedWorkDir();
 				FilesUtils.setCachePathSetting(workDir);
+				xmlTextDocumentService.setParallelParsingThreshold(serverSettings.getParallelParsingThreshold());
 			}
 		}
 		ContentModelSettings cmSettings = ContentModelSettings
@@ -185,8 +217,21 @@ public class XMLLanguageServer
 
 	@Override
 	public void exit(int exitCode) {
-		delayer.shutdown();
-		System.exit(exitCode);
+		dispose();
+		if (sharedComponents == null) {
+			System.exit(exitCode);
+		}
+		// the other servers of the JVM are running, the launcher closes the
+		// connection of this server
+	}
+
+	/**
+	 * Stop the threads of this server (delayed tasks, workspace indexing). Called
+	 * when the server exits or when the client disconnects without exit.
+	 */
+	public void dispose() {
+		delayer.shutdownNow();
+		xmlLanguageService.getWorkspaceIndex().dispose();
 	}
 
 	@Override
@@ -227,11 +272,32 @@ public class XMLLanguageServer
 
 	@Override
 	public CompletableFuture<AutoCloseTagResponse> closeTag(TextDocumentPositionParams params) {
+		ModelTextDocument<DOMDocument> document = xmlTextDocumentService.getDocument(params.getTextDocument().getUri());
+		if (document != null) {
+			// Try to close the tag without waiting for the parse of the new text
+			AutoCloseTagResponse response = getXMLLanguageService().doAutoClose(document, params.getPosition(),
+					document.getPreviousModel(), document.getLastChange());
+			if (response != null) {
+				return CompletableFuture.completedFuture(response);
+			}
+		}
 		return xmlTextDocumentService.computeDOMAsync(params.getTextDocument(), (cancelChecker, xmlDocument) -> {
 			return getXMLLanguageService().doAutoClose(xmlDocument, params.getPosition(), cancelChecker);
 		});
 	}
 
+	@Override
+	public CompletableFuture<String> flightRecording(FlightRecordingParams params) {
+		return computeAsync(cancelChecker -> {
+			try {
+				return flightRecording.execute(params.action);
+			} catch (IOException | RuntimeException e) {
+				throw new ResponseErrorException(
+						new ResponseError(ResponseErrorCode.InternalError, e.getMessage(), null));
+			}
+		});
+	}
+
 	@Override
 	public DOMDocument getDocument(String uri) {
 		ModelTextDocument<DOMDocument> document = xmlTextDocumentService.getDocument(uri);
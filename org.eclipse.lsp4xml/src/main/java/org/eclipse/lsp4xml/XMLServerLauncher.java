@@ -23,6 +23,8 @@ import org.eclipse.lsp4j.jsonrpc.MessageConsumer;
 import org.eclipse.lsp4j.launch.LSPLauncher;
 import org.eclipse.lsp4j.services.LanguageClient;
 import org.eclipse.lsp4xml.commons.ParentProcessWatcher;
+import org.eclipse.lsp4xml.jfr.RequestEventsRecorder;
+import org.eclipse.lsp4xml.jfr.XMLEvents;
 
 public class XMLServerLauncher {
 
@@ -63,6 +65,10 @@ public class XMLServerLauncher {
 		} else {
 			wrapper = new ParentProcessWatcher(server);
 		}
+		if (XMLEvents.isAvailable()) {
+			// record a Java Flight Recorder event for each LSP request
+			wrapper = new RequestEventsRecorder().andThen(wrapper);
+		}
 		Launcher<LanguageClient> launcher = LSPLauncher.createServerLauncher(server, in, out,
 				Executors.newCachedThreadPool(), wrapper);
 		server.setClient(launcher.getRemoteProxy());
@@ -9,6 +9,7 @@
  */
 package org.eclipse.lsp4xml;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.InetSocketAddress;
@@ -16,15 +17,26 @@ import java.nio.channels.AsynchronousServerSocketChannel;
 import java.nio.channels.AsynchronousSocketChannel;
 import java.nio.channels.Channels;
 import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 import org.eclipse.lsp4j.jsonrpc.Launcher;
 import org.eclipse.lsp4j.jsonrpc.MessageConsumer;
 import org.eclipse.lsp4j.services.LanguageClient;
+import org.eclipse.lsp4xml.jfr.RequestEventsRecorder;
+import org.eclipse.lsp4xml.jfr.XMLEvents;
+import org.eclipse.lsp4xml.services.extensions.SharedComponents;
 
 public class XMLServerSocketLauncher {
 
+	private static final Logger LOGGER = Logger.getLogger(XMLServerSocketLauncher.class.getName());
+
 	private static final int DEFAULT_PORT = 5_008;
 	
 	/**
@@ -38,6 +50,13 @@ public class XMLServerSocketLauncher {
 	 * Launches {@link XMLLanguageServer} using asynchronous server-socket channel and makes it accessible through the JSON
 	 * RPC protocol defined by the LSP.
 	 * 
+	 * <p>
+	 * Each connection has its own {@link XMLLanguageServer} (settings, opened documents) but all the servers share the
+	 * compiled grammars, the content model documents, the resolved entities content and the downloaded resources (see
+	 * {@link SharedComponents}), so the editors which connect to the same launcher don't compile the same XML Schemas
+	 * again.
+	 * </p>
+	 * 
 	 * @param args standard launch arguments. may contain <code>--port</code> argument to change the default port 5008
 	 */
 	public void launch(String[] args) throws Exception {
@@ -50,13 +69,47 @@ public class XMLServerSocketLauncher {
 			final InputStream in = Channels.newInputStream(socketChannel);
 			final OutputStream out = Channels.newOutputStream(socketChannel);
 			final ExecutorService executorService = Executors.newCachedThreadPool();
-			XMLLanguageServer languageServer = new XMLLanguageServer();
+			final SharedComponents sharedComponents = SharedComponents.acquire();
+			XMLLanguageServer languageServer = new XMLLanguageServer(sharedComponents) {
+
+				@Override
+				public void exit(int exitCode) {
+					super.exit(exitCode);
+					close(socketChannel);
+				}
+			};
+			Function<MessageConsumer, MessageConsumer> wrapper = it -> it;
+			if (XMLEvents.isAvailable()) {
+				// record a Java Flight Recorder event for each LSP request
+				wrapper = new RequestEventsRecorder();
+			}
 			final Launcher<LanguageClient> launcher = Launcher.createIoLauncher(languageServer, LanguageClient.class,
-					in, out, executorService, (MessageConsumer it) -> {
-						return it;
-					});
+					in, out, executorService, wrapper);
 			languageServer.setClient(launcher.getRemoteProxy());
-			launcher.startListening();
+			final Future<?> listening = launcher.startListening();
+			executorService.execute(() -> {
+				try {
+					listening.get();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				} catch (ExecutionException | CancellationException e) {
+					LOGGER.log(Level.WARNING, "Error while listening to the client connection", e);
+				} finally {
+					// the client is disconnected (with or without exit)
+					close(socketChannel);
+					languageServer.dispose();
+					sharedComponents.release();
+					executorService.shutdown();
+				}
+			});
+		}
+	}
+
+	private static void close(AsynchronousSocketChannel socketChannel) {
+		try {
+			socketChannel.close();
+		} catch (IOException e) {
+			LOGGER.log(Level.WARNING, "Error while closing the client connection", e);
 		}
 	}
 
@@ -17,8 +17,10 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -52,7 +54,9 @@ import org.eclipse.lsp4j.FoldingRangeRequestParams;
 import org.eclipse.lsp4j.Hover;
 import org.eclipse.lsp4j.Location;
 import org.eclipse.lsp4j.LocationLink;
+import org.eclipse.lsp4j.Position;
 import org.eclipse.lsp4j.PublishDiagnosticsParams;
+import org.eclipse.lsp4j.Range;
 import org.eclipse.lsp4j.ReferenceParams;
 import org.eclipse.lsp4j.RenameParams;
 import org.eclipse.lsp4j.SymbolInformation;
@@ -65,9 +69,12 @@ import org.eclipse.lsp4j.jsonrpc.CancelChecker;
 import org.eclipse.lsp4j.jsonrpc.messages.Either;
 import org.eclipse.lsp4j.services.TextDocumentService;
 import org.eclipse.lsp4xml.client.ExtendedClientCapabilities;
+import org.eclipse.lsp4xml.commons.BadLocationException;
 import org.eclipse.lsp4xml.commons.ModelTextDocument;
 import org.eclipse.lsp4xml.commons.ModelTextDocuments;
+import org.eclipse.lsp4xml.commons.StaleModel;
 import org.eclipse.lsp4xml.commons.TextDocument;
+import org.eclipse.lsp4xml.commons.TextDocumentVersionChecker;
 import org.eclipse.lsp4xml.commons.TextDocuments;
 import org.eclipse.lsp4xml.dom.DOMDocument;
 import org.eclipse.lsp4xml.dom.DOMParser;
@@ -87,10 +94,31 @@ import org.eclipse.lsp4xml.utils.XMLPositionUtility;
  */
 public class XMLTextDocumentService implements TextDocumentService {
 
+	/**
+	 * Maximum number of text changes applied since the load of the last DOM
+	 * document to answer a request with this stale DOM document.
+	 */
+	private static final int MAX_STALE_CHANGES = 10;
+
+	/**
+	 * Function which computes a result for a position of a DOM document.
+	 */
+	@FunctionalInterface
+	private interface DOMPositionFunction<R> {
+
+		R apply(CancelChecker cancelChecker, DOMDocument xmlDocument, Position position);
+	}
+
 	private final XMLLanguageServer xmlLanguageServer;
 	private final TextDocuments<ModelTextDocument<DOMDocument>> documents;
 	private SharedSettings sharedSettings;
 
+	/**
+	 * URIs of the documents whose published diagnostics come from the fast syntax
+	 * validation.
+	 */
+	private final Set<String> syntaxDiagnosticsPublished = ConcurrentHashMap.newKeySet();
+
 	/**
 	 * Save context.
 	 */
@@ -134,16 +162,70 @@ public class XMLTextDocumentService implements TextDocumentService {
 	private boolean hierarchicalDocumentSymbolSupport;
 	private boolean definitionLinkSupport;
 	private boolean typeDefinitionLinkSupport;
+	private volatile int parallelParsingThreshold;
 
 	public XMLTextDocumentService(XMLLanguageServer xmlLanguageServer) {
 		this.xmlLanguageServer = xmlLanguageServer;
 		DOMParser parser = DOMParser.getInstance();
 		this.documents = new ModelTextDocuments<DOMDocument>((document, cancelChecker) -> {
-			return parser.parse(document, getXMLLanguageService().getResolverExtensionManager(), true, cancelChecker);
+			DOMDocument xmlDocument;
+			if (isValidationOnly(document)) {
+				// Large file: don't build the DOM nodes, the document is only validated
+				xmlDocument = parser.createValidationOnlyDocument(document,
+						getXMLLanguageService().getResolverExtensionManager(), cancelChecker);
+			} else if (isParallelParsing(document)) {
+				// Huge file: parse the children of the document element in parallel
+				xmlDocument = parser.parseInParallel(document, getXMLLanguageService().getResolverExtensionManager(),
+						true, cancelChecker);
+			} else {
+				xmlDocument = parser.parse(document, getXMLLanguageService().getResolverExtensionManager(), true,
+						cancelChecker);
+			}
+			// the cancel checker (which checks the version of the text document) stops
+			// the parse, but the loaded DOM document is used by the requests after the
+			// next changes (stale DOM document), each request checks its own cancellation
+			xmlDocument.setCancelChecker(null);
+			return xmlDocument;
 		});
 		this.sharedSettings = new SharedSettings();
 	}
 
+	/**
+	 * Returns true if the given document is too large to build its DOM document
+	 * and must be only validated and false otherwise.
+	 * 
+	 * @param document the text document.
+	 * @return true if the given document is too large to build its DOM document
+	 *         and false otherwise.
+	 */
+	private boolean isValidationOnly(TextDocument document) {
+		return document != null
+				&& sharedSettings.getValidationSettings().isValidationOnly(document.getText().length());
+	}
+
+	/**
+	 * Returns true if the given document must be parsed in parallel and false
+	 * otherwise.
+	 * 
+	 * @param document the text document.
+	 * @return true if the given document must be parsed in parallel and false
+	 *         otherwise.
+	 */
+	private boolean isParallelParsing(TextDocument document) {
+		return parallelParsingThreshold > 0 && document.getText().length() > parallelParsingThreshold;
+	}
+
+	/**
+	 * Set the size (in characters) from which a document is parsed in parallel (0
+	 * to disable the parallel parsing).
+	 * 
+	 * @param parallelParsingThreshold the size (in characters) from which a
+	 *                                 document is parsed in parallel.
+	 */
+	public void setParallelParsingThreshold(int parallelParsingThreshold) {
+		this.parallelParsingThreshold = parallelParsingThreshold;
+	}
+
 	public void updateClientCapabilities(ClientCapabilities capabilities,
 			ExtendedClientCapabilities extendedClientCapabilities) {
 		TextDocumentClientCapabilities textDocumentClientCapabilities = capabilities.getTextDocument();
@@ -180,10 +262,21 @@ public class XMLTextDocumentService implements TextDocumentService {
 
 	@Override
 	public CompletableFuture<Hover> hover(TextDocumentPositionParams params) {
-		return computeDOMAsync(params.getTextDocument(), (cancelChecker, xmlDocument) -> {
-			return getXMLLanguageService().doHover(xmlDocument, params.getPosition(), sharedSettings.getHoverSettings(),
-					cancelChecker);
-		});
+		return computeDOMAsync(params.getTextDocument(), params.getPosition(),
+				(cancelChecker, xmlDocument, position) -> {
+					return getXMLLanguageService().doHover(xmlDocument, position, sharedSettings.getHoverSettings(),
+							cancelChecker);
+				}, (hover, staleModel) -> {
+					if (hover.getRange() == null) {
+						return hover;
+					}
+					Range range = toCurrentRange(hover.getRange(), staleModel);
+					if (range == null) {
+						return null;
+					}
+					hover.setRange(range);
+					return hover;
+				});
 	}
 
 	private XMLFormattingOptions getFormattingSettings(String uri) {
@@ -194,9 +287,19 @@ public class XMLTextDocumentService implements TextDocumentService {
 
 	@Override
 	public CompletableFuture<List<? extends DocumentHighlight>> documentHighlight(TextDocumentPositionParams params) {
-		return computeDOMAsync(params.getTextDocument(), (cancelChecker, xmlDocument) -> {
-			return getXMLLanguageService().findDocumentHighlights(xmlDocument, params.getPosition(), cancelChecker);
-		});
+		return computeDOMAsync(params.getTextDocument(), params.getPosition(),
+				(cancelChecker, xmlDocument, position) -> {
+					return getXMLLanguageService().findDocumentHighlights(xmlDocument, position, cancelChecker);
+				}, (highlights, staleModel) -> {
+					for (DocumentHighlight highlight : highlights) {
+						Range range = toCurrentRange(highlight.getRange(), staleModel);
+						if (range == null) {
+							return null;
+						}
+						highlight.setRange(range);
+					}
+					return highlights;
+				});
 	}
 
 	@Override
@@ -232,20 +335,26 @@ public class XMLTextDocumentService implements TextDocumentService {
 
 	@Override
 	public CompletableFuture<List<? extends TextEdit>> formatting(DocumentFormattingParams params) {
-		return computeAsync((cancelChecker) -> {
+		// the formatting DOM document is kept with the DOM document of the current text
+		return computeDOMAsync(params.getTextDocument(), (cancelChecker, xmlDocument) -> {
 			String uri = params.getTextDocument().getUri();
-			TextDocument document = getDocument(uri);
-			return getXMLLanguageService().format(document, null,
+			if (isValidationOnly(xmlDocument.getTextDocument())) {
+				return Collections.emptyList();
+			}
+			return getXMLLanguageService().format(xmlDocument, null,
 					XMLFormattingOptions.create(params.getOptions(), getFormattingSettings(uri)));
 		});
 	}
 
 	@Override
 	public CompletableFuture<List<? extends TextEdit>> rangeFormatting(DocumentRangeFormattingParams params) {
-		return computeAsync((cancelChecker) -> {
+		// the formatting DOM document is kept with the DOM document of the current text
+		return computeDOMAsync(params.getTextDocument(), (cancelChecker, xmlDocument) -> {
 			String uri = params.getTextDocument().getUri();
-			TextDocument document = getDocument(uri);
-			return getXMLLanguageService().format(document, params.getRange(),
+			if (isValidationOnly(xmlDocument.getTextDocument())) {
+				return Collections.emptyList();
+			}
+			return getXMLLanguageService().format(xmlDocument, params.getRange(),
 					XMLFormattingOptions.create(params.getOptions(), getFormattingSettings(uri)));
 		});
 	}
@@ -260,6 +369,7 @@ public class XMLTextDocumentService implements TextDocumentService {
 	@Override
 	public void didOpen(DidOpenTextDocumentParams params) {
 		TextDocument document = documents.onDidOpenTextDocument(params);
+		getXMLLanguageService().getWorkspaceIndex().documentChanged(document.getUri(), document.getText());
 		triggerValidationFor(document);
 	}
 
@@ -269,6 +379,7 @@ public class XMLTextDocumentService implements TextDocumentService {
 	@Override
 	public void didChange(DidChangeTextDocumentParams params) {
 		TextDocument document = documents.onDidChangeTextDocument(params);
+		getXMLLanguageService().getWorkspaceIndex().documentChanged(document.getUri(), document.getText());
 		triggerValidationFor(document);
 	}
 
@@ -277,14 +388,20 @@ public class XMLTextDocumentService implements TextDocumentService {
 		documents.onDidCloseTextDocument(params);
 		TextDocumentIdentifier document = params.getTextDocument();
 		String uri = document.getUri();
+		syntaxDiagnosticsPublished.remove(uri);
+		getXMLLanguageService().getWorkspaceIndex().documentClosed(uri);
 		xmlLanguageServer.getLanguageClient()
 				.publishDiagnostics(new PublishDiagnosticsParams(uri, new ArrayList<Diagnostic>()));
 	}
 
 	@Override
 	public CompletableFuture<List<FoldingRange>> foldingRange(FoldingRangeRequestParams params) {
-		return computeDOMAsync(params.getTextDocument(), (cancelChecker, xmlDocument) -> {
-			return getXMLLanguageService().getFoldingRanges(xmlDocument, sharedSettings.getFoldingSettings(),
+		// the folding ranges are computed with the scanner, don't wait for the DOM
+		// document
+		TextDocument document = getDocument(params.getTextDocument().getUri());
+		TextDocument snapshot = new TextDocument(document.getText(), document.getUri());
+		return computeAsync(cancelChecker -> {
+			return getXMLLanguageService().getFoldingRanges(snapshot, sharedSettings.getFoldingSettings(),
 					cancelChecker);
 		});
 	}
@@ -412,7 +529,8 @@ public class XMLTextDocumentService implements TextDocumentService {
 			xmlLanguageServer.schedule(() -> {
 				documents.forEach(document -> {
 					try {
-						validate(document.getModel().getNow(null));
+						DOMDocument xmlDocument = document.getModel().getNow(null);
+						validate(xmlDocument, createVersionChecker(document, xmlDocument));
 					} catch (CancellationException e) {
 						// Ignore the error and continue to validate other documents
 					}
@@ -421,19 +539,73 @@ public class XMLTextDocumentService implements TextDocumentService {
 		}
 	}
 
-	@SuppressWarnings("unchecked")
 	private void triggerValidationFor(TextDocument document) {
-		((ModelTextDocument<DOMDocument>) document).getModel().thenAcceptAsync(xmlDocument -> {
-			validate(xmlDocument);
+		// the given document can be the snapshot of the text parsed for a DOM
+		// document, validate the opened document
+		ModelTextDocument<DOMDocument> modelDocument = getDocument(document.getUri());
+		if (modelDocument == null) {
+			return;
+		}
+		modelDocument.getModel().thenApply(xmlDocument -> {
+			// publish the syntax errors as soon as the DOM document is parsed
+			publishSyntaxDiagnostics(xmlDocument, createVersionChecker(modelDocument, xmlDocument));
+			return xmlDocument;
+		}).thenAcceptAsync(xmlDocument -> {
+			// the full validation (with Xerces) replaces the syntax errors
+			validate(xmlDocument, createVersionChecker(modelDocument, xmlDocument));
 		});
 	}
 
-	private void validate(DOMDocument xmlDocument) throws CancellationException {
-		CancelChecker cancelChecker = xmlDocument.getCancelChecker();
+	/**
+	 * Returns a cancel checker which cancels the validation of the given DOM
+	 * document when the given opened document is changed.
+	 * 
+	 * @param document    the opened document.
+	 * @param xmlDocument the DOM document of the opened document.
+	 * @return a cancel checker which cancels the validation of the given DOM
+	 *         document when the given opened document is changed.
+	 */
+	private static CancelChecker createVersionChecker(ModelTextDocument<DOMDocument> document,
+			DOMDocument xmlDocument) {
+		return new TextDocumentVersionChecker(document, xmlDocument.getTextDocument().getVersion());
+	}
+
+	/**
+	 * Publish the syntax errors computed from the DOM document without Xerces.
+	 * 
+	 * <p>
+	 * Diagnostics are published only when there is a syntax error or when a syntax
+	 * error was published before (to remove it), otherwise the diagnostics of the
+	 * last full validation are kept until the next one replaces them.
+	 * </p>
+	 * 
+	 * @param xmlDocument   the DOM document.
+	 * @param cancelChecker the cancel checker.
+	 * @throws CancellationException
+	 */
+	private void publishSyntaxDiagnostics(DOMDocument xmlDocument, CancelChecker cancelChecker)
+			throws CancellationException {
 		cancelChecker.checkCanceled();
-		getXMLLanguageService().publishDiagnostics(xmlDocument,
-				params -> xmlLanguageServer.getLanguageClient().publishDiagnostics(params),
-				(doc) -> triggerValidationFor(doc), sharedSettings.getValidationSettings(), cancelChecker);
+		String uri = xmlDocument.getDocumentURI();
+		List<Diagnostic> diagnostics = getXMLLanguageService().doSyntaxDiagnostics(xmlDocument, cancelChecker,
+				sharedSettings.getValidationSettings());
+		if (diagnostics.isEmpty()) {
+			if (!syntaxDiagnosticsPublished.remove(uri)) {
+				return;
+			}
+		} else {
+			syntaxDiagnosticsPublished.add(uri);
+		}
+		cancelChecker.checkCanceled();
+		xmlLanguageServer.getLanguageClient().publishDiagnostics(new PublishDiagnosticsParams(uri, diagnostics));
+	}
+
+	private void validate(DOMDocument xmlDocument, CancelChecker cancelChecker) throws CancellationException {
+		cancelChecker.checkCanceled();
+		getXMLLanguageService().publishDiagnostics(xmlDocument, params -> {
+			syntaxDiagnosticsPublished.remove(params.getUri());
+			xmlLanguageServer.getLanguageClient().publishDiagnostics(params);
+		}, (doc) -> triggerValidationFor(doc), sharedSettings.getValidationSettings(), cancelChecker);
 	}
 
 	private XMLLanguageService getXMLLanguageService() {
@@ -514,6 +686,92 @@ public class XMLTextDocumentService implements TextDocumentService {
 		return computeModelAsync(getDocument(documentIdentifier.getUri()).getModel(), code);
 	}
 
+	/**
+	 * Compute the DOM Document for a given uri in a future and then apply the given
+	 * function with the given position.
+	 * 
+	 * <p>
+	 * When the DOM document of the current text is not loaded yet, the function
+	 * is applied with the last loaded DOM document (if at most
+	 * {@link #MAX_STALE_CHANGES} changes were applied since its load and if they
+	 * don't touch the given position) and the result is translated to the current
+	 * text with <code>toCurrent</code>. When the result cannot be translated, the
+	 * function is applied with the DOM document of the current text.
+	 * </p>
+	 * 
+	 * @param <R>
+	 * @param documentIdentifier the document indetifier.
+	 * @param position           the position in the current text.
+	 * @param code               the function which computes the result for a DOM
+	 *                           document and a position of this document.
+	 * @param toCurrent          a bi function which translates a non null result
+	 *                           computed with the stale DOM document to the current
+	 *                           text and returns null if the result touches a
+	 *                           changed range of the text.
+	 * @return the computed value in a future.
+	 */
+	private <R> CompletableFuture<R> computeDOMAsync(TextDocumentIdentifier documentIdentifier, Position position,
+			DOMPositionFunction<R> code, BiFunction<R, StaleModel<DOMDocument>, R> toCurrent) {
+		ModelTextDocument<DOMDocument> document = getDocument(documentIdentifier.getUri());
+		CompletableFuture<DOMDocument> model = document.getModel();
+		StaleModel<DOMDocument> staleModel = model.isDone() ? null : document.getStaleModel(MAX_STALE_CHANGES);
+		Position stalePosition = staleModel != null ? toModelPosition(position, staleModel) : null;
+		if (stalePosition == null) {
+			return computeModelAsync(model,
+					(cancelChecker, xmlDocument) -> code.apply(cancelChecker, xmlDocument, position));
+		}
+		return computeAsync(cancelChecker -> {
+			R result = code.apply(cancelChecker, staleModel.getModel(), stalePosition);
+			R currentResult = result != null ? toCurrent.apply(result, staleModel) : null;
+			if (result != null && currentResult == null) {
+				// the result touches a changed range of the text, wait for the DOM document of
+				// the current text
+				return computeModelAsync(model,
+						(modelCancelChecker, xmlDocument) -> code.apply(modelCancelChecker, xmlDocument, position));
+			}
+			return CompletableFuture.completedFuture(currentResult);
+		}).thenCompose(result -> result);
+	}
+
+	/**
+	 * Returns the position in the stale DOM document of the given position of the
+	 * current text and null if it touches a changed range of the text.
+	 * 
+	 * <p>
+	 * The positions of the stale DOM document are computed with the text snapshot
+	 * it was parsed from, not with the opened document which has changed since.
+	 * </p>
+	 */
+	private static Position toModelPosition(Position position, StaleModel<DOMDocument> staleModel) {
+		try {
+			int offset = staleModel.toModelOffset(staleModel.getDocument().offsetAt(position));
+			return offset != -1 ? staleModel.getModel().getTextDocument().positionAt(offset) : null;
+		} catch (BadLocationException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Returns the range in the current text of the given range of the stale DOM
+	 * document and null if it touches a changed range of the text (the offsets of
+	 * the range are computed with the text snapshot of the stale DOM document).
+	 */
+	private static Range toCurrentRange(Range range, StaleModel<DOMDocument> staleModel) {
+		try {
+			TextDocument modelDocument = staleModel.getModel().getTextDocument();
+			int start = modelDocument.offsetAt(range.getStart());
+			int end = modelDocument.offsetAt(range.getEnd());
+			if (staleModel.isModified(start, end)) {
+				return null;
+			}
+			TextDocument document = staleModel.getDocument();
+			return new Range(document.positionAt(staleModel.toCurrentOffset(start)),
+					document.positionAt(staleModel.toCurrentOffset(end)));
+		} catch (BadLocationException e) {
+			return null;
+		}
+	}
+
 	private static <R, M> CompletableFuture<R> computeModelAsync(CompletableFuture<M> loadModel,
 			BiFunction<CancelChecker, M, R> code) {
 		CompletableFuture<CancelChecker> start = new CompletableFuture<>();
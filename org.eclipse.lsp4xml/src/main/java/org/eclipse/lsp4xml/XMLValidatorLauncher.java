@@ -0,0 +1,144 @@
+/**
+ *  Copyright (c) 2019 Red Hat Inc. and others.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v2.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v20.html
+ *
+ *  Contributors:
+ *  Red Hat Inc. - initial API and implementation
+ */
+package org.eclipse.lsp4xml;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.lsp4j.DiagnosticSeverity;
+import org.eclipse.lsp4xml.batch.BatchValidationReport;
+import org.eclipse.lsp4xml.batch.BatchValidationResult;
+import org.eclipse.lsp4xml.batch.BatchValidator;
+
+/**
+ * Validates XML files from the command line with the validation of the XML
+ * language server (see {@link BatchValidator}), for instance in a CI build.
+ *
+ * <pre>
+ * java -cp org.eclipse.lsp4xml-uber.jar org.eclipse.lsp4xml.XMLValidatorLauncher
+ *     [--settings settings.json] [--format json|sarif] [--output report.json]
+ *     [--parallelism n] [--extensions xml,xsd,dtd] [--root dir] path...
+ * </pre>
+ *
+ * <p>
+ * The exit code is 0 when no error is reported, 1 when an error is reported and
+ * 2 when the arguments are wrong.
+ * </p>
+ *
+ */
+public class XMLValidatorLauncher {
+
+	private static final String USAGE = "Usage: XMLValidatorLauncher [--settings settings.json] [--format json|sarif]"
+			+ " [--output file] [--parallelism n] [--extensions xml,xsd,dtd] [--root dir] path...";
+
+	/**
+	 * Calls {@link #launch(String[], PrintStream, PrintStream)} and exits with its
+	 * exit code.
+	 */
+	public static void main(String[] args) {
+		System.exit(launch(args, System.out, System.err));
+	}
+
+	/**
+	 * Validates the files of the given arguments and writes the report in the
+	 * output file or in the given output stream.
+	 *
+	 * @param args standard launch arguments.
+	 * @param out  the stream of the report when there is no <code>--output</code>
+	 *             argument.
+	 * @param err  the stream of the statistics and of the errors.
+	 * @return the exit code.
+	 */
+	public static int launch(String[] args, PrintStream out, PrintStream err) {
+		Path settings = null;
+		Path output = null;
+		Path root = null;
+		String format = BatchValidationReport.JSON;
+		int parallelism = 0;
+		List<String> extensions = BatchValidator.DEFAULT_EXTENSIONS;
+		List<Path> paths = new ArrayList<>();
+		try {
+			for (int i = 0; i < args.length; i++) {
+				String arg = args[i];
+				switch (arg) {
+				case "--settings":
+					settings = Paths.get(getValue(args, ++i, arg));
+					break;
+				case "--format":
+					format = getValue(args, ++i, arg);
+					break;
+				case "--output":
+					output = Paths.get(getValue(args, ++i, arg));
+					break;
+				case "--parallelism":
+					parallelism = Integer.parseInt(getValue(args, ++i, arg));
+					break;
+				case "--extensions":
+					extensions = Arrays.asList(getValue(args, ++i, arg).split(","));
+					break;
+				case "--root":
+					root = Paths.get(getValue(args, ++i, arg));
+					break;
+				default:
+					paths.add(Paths.get(arg));
+				}
+			}
+			if (paths.isEmpty()) {
+				throw new IllegalArgumentException("No file or directory to validate");
+			}
+			if (!BatchValidationReport.JSON.equals(format) && !BatchValidationReport.SARIF.equals(format)) {
+				throw new IllegalArgumentException("Unknown report format '" + format + "'");
+			}
+		} catch (IllegalArgumentException e) {
+			err.println(e.getMessage());
+			err.println(USAGE);
+			return 2;
+		}
+
+		BatchValidator validator = new BatchValidator(parallelism);
+		validator.setExtensions(extensions);
+		validator.setRootUri((root != null ? root : Paths.get("")).toAbsolutePath().toUri().toString());
+		try {
+			if (settings != null) {
+				validator.updateSettings(settings);
+			}
+			BatchValidationResult result = validator.validate(paths);
+			String report = BatchValidationReport.toString(result, format);
+			if (output != null) {
+				try (Writer writer = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+					writer.write(report);
+				}
+			} else {
+				out.println(report);
+			}
+			err.println(BatchValidationReport.getSummary(result));
+			return result.getDiagnosticsCount(DiagnosticSeverity.Error) > 0 ? 1 : 0;
+		} catch (IOException e) {
+			err.println(e.getMessage());
+			return 2;
+		}
+	}
+
+	private static String getValue(String[] args, int index, String option) {
+		if (index >= args.length) {
+			throw new IllegalArgumentException("Missing value of the option '" + option + "'");
+		}
+		return args[index];
+	}
+}
@@ -10,16 +10,20 @@
  */
 package org.eclipse.lsp4xml;
 
+import static org.eclipse.lsp4j.jsonrpc.CompletableFutures.computeAsync;
+
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
 import org.eclipse.lsp4j.DidChangeConfigurationParams;
 import org.eclipse.lsp4j.DidChangeWatchedFilesParams;
+import org.eclipse.lsp4j.FileChangeType;
 import org.eclipse.lsp4j.FileEvent;
 import org.eclipse.lsp4j.SymbolInformation;
 import org.eclipse.lsp4j.WorkspaceSymbolParams;
 import org.eclipse.lsp4j.services.WorkspaceService;
 import org.eclipse.lsp4xml.XMLTextDocumentService;
+import org.eclipse.lsp4xml.services.index.XMLWorkspaceIndex;
 /**
  * XML workspace service.
  *
@@ -34,7 +38,9 @@ public class XMLWorkspaceService implements WorkspaceService {
 
 	@Override
 	public CompletableFuture<List<? extends SymbolInformation>> symbol(WorkspaceSymbolParams params) {
-		return null;
+		return computeAsync(cancelChecker -> {
+			return xmlLanguageServer.getXMLLanguageService().findWorkspaceSymbols(params.getQuery(), cancelChecker);
+		});
 	}
 
 	@Override
@@ -46,8 +52,15 @@ public class XMLWorkspaceService implements WorkspaceService {
 	@Override
 	public void didChangeWatchedFiles(DidChangeWatchedFilesParams params) {
 		XMLTextDocumentService xmlTextDocumentService = (XMLTextDocumentService) xmlLanguageServer.getTextDocumentService();
+		XMLWorkspaceIndex workspaceIndex = xmlLanguageServer.getXMLLanguageService().getWorkspaceIndex();
 		List<FileEvent> changes = params.getChanges();
 		for (FileEvent change: changes) {
+			// Update the workspace symbols index
+			if (change.getType() == FileChangeType.Deleted) {
+				workspaceIndex.fileDeleted(change.getUri());
+			} else {
+				workspaceIndex.fileChanged(change.getUri());
+			}
 			if (!xmlTextDocumentService.documentIsOpen(change.getUri())) {
 				xmlTextDocumentService.doSave(change.getUri());
 			}
@@ -0,0 +1,192 @@
+/**
+ *  Copyright (c) 2019 Red Hat Inc. and others.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v2.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v20.html
+ *
+ *  Contributors:
+ *  Red Hat Inc. - initial API and implementation
+ */
+package org.eclipse.lsp4xml.batch;
+
+import org.eclipse.lsp4j.Diagnostic;
+import org.eclipse.lsp4j.DiagnosticSeverity;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4xml.utils.VersionHelper;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+/**
+ * Reports of a {@link BatchValidationResult} in JSON (diagnostics of the LSP
+ * protocol) or in SARIF 2.1.0 (Static Analysis Results Interchange Format,
+ * read by the code scanning tools of the CI servers).
+ *
+ */
+public class BatchValidationReport {
+
+	public static final String JSON = "json";
+
+	public static final String SARIF = "sarif";
+
+	private static final String SARIF_SCHEMA = "https://raw.githubusercontent.com/oasis-tcs/sarif-spec/master/Schemata/sarif-schema-2.1.0.json";
+
+	private static final String TOOL_NAME = "lsp4xml";
+
+	private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+
+	private BatchValidationReport() {
+	}
+
+	/**
+	 * Returns the report of the given result in the given format.
+	 *
+	 * @param result the batch validation result.
+	 * @param format the format ({@link #JSON} or {@link #SARIF}).
+	 * @return the report of the given result in the given format.
+	 */
+	public static String toString(BatchValidationResult result, String format) {
+		if (JSON.equals(format)) {
+			return GSON.toJson(toJSON(result));
+		}
+		if (SARIF.equals(format)) {
+			return GSON.toJson(toSARIF(result));
+		}
+		throw new IllegalArgumentException(
+				"Unknown report format '" + format + "', expected '" + JSON + "' or '" + SARIF + "'");
+	}
+
+	/**
+	 * Returns the JSON report of the given result.
+	 *
+	 * @param result the batch validation result.
+	 * @return the JSON report of the given result.
+	 */
+	public static JsonObject toJSON(BatchValidationResult result) {
+		JsonObject report = new JsonObject();
+		JsonArray files = new JsonArray();
+		for (FileDiagnostics file : result.getFiles()) {
+			JsonObject fileReport = new JsonObject();
+			fileReport.addProperty("uri", file.getUri());
+			fileReport.add("diagnostics", GSON.toJsonTree(file.getDiagnostics()));
+			files.add(fileReport);
+		}
+		report.add("files", files);
+		report.add("statistics", getStatistics(result));
+		return report;
+	}
+
+	/**
+	 * Returns the SARIF 2.1.0 report of the given result.
+	 *
+	 * @param result the batch validation result.
+	 * @return the SARIF 2.1.0 report of the given result.
+	 */
+	public static JsonObject toSARIF(BatchValidationResult result) {
+		JsonObject driver = new JsonObject();
+		driver.addProperty("name", TOOL_NAME);
+		driver.addProperty("version", VersionHelper.getVersion());
+		JsonObject tool = new JsonObject();
+		tool.add("driver", driver);
+
+		JsonArray results = new JsonArray();
+		for (FileDiagnostics file : result.getFiles()) {
+			for (Diagnostic diagnostic : file.getDiagnostics()) {
+				results.add(toSARIFResult(file.getUri(), diagnostic));
+			}
+		}
+
+		JsonObject properties = new JsonObject();
+		properties.add("statistics", getStatistics(result));
+
+		JsonObject run = new JsonObject();
+		run.add("tool", tool);
+		run.add("results", results);
+		run.add("properties", properties);
+		JsonArray runs = new JsonArray();
+		runs.add(run);
+
+		JsonObject report = new JsonObject();
+		report.addProperty("$schema", SARIF_SCHEMA);
+		report.addProperty("version", "2.1.0");
+		report.add("runs", runs);
+		return report;
+	}
+
+	private static JsonObject toSARIFResult(String uri, Diagnostic diagnostic) {
+		JsonObject message = new JsonObject();
+		message.addProperty("text", diagnostic.getMessage());
+
+		JsonObject artifactLocation = new JsonObject();
+		artifactLocation.addProperty("uri", uri);
+		// SARIF lines and columns are 1-based
+		Position start = diagnostic.getRange().getStart();
+		Position end = diagnostic.getRange().getEnd();
+		JsonObject region = new JsonObject();
+		region.addProperty("startLine", start.getLine() + 1);
+		region.addProperty("startColumn", start.getCharacter() + 1);
+		region.addProperty("endLine", end.getLine() + 1);
+		region.addProperty("endColumn", end.getCharacter() + 1);
+		JsonObject physicalLocation = new JsonObject();
+		physicalLocation.add("artifactLocation", artifactLocation);
+		physicalLocation.add("region", region);
+		JsonObject location = new JsonObject();
+		location.add("physicalLocation", physicalLocation);
+		JsonArray locations = new JsonArray();
+		locations.add(location);
+
+		JsonObject result = new JsonObject();
+		if (diagnostic.getCode() != null) {
+			result.addProperty("ruleId", diagnostic.getCode());
+		}
+		result.addProperty("level", getSARIFLevel(diagnostic.getSeverity()));
+		result.add("message", message);
+		result.add("locations", locations);
+		return result;
+	}
+
+	private static String getSARIFLevel(DiagnosticSeverity severity) {
+		if (severity == null) {
+			return "error";
+		}
+		switch (severity) {
+		case Error:
+			return "error";
+		case Warning:
+			return "warning";
+		default:
+			return "note";
+		}
+	}
+
+	private static JsonObject getStatistics(BatchValidationResult result) {
+		JsonObject statistics = new JsonObject();
+		statistics.addProperty("files", result.getFiles().size());
+		statistics.addProperty("bytes", result.getTotalSize());
+		statistics.addProperty("errors", result.getDiagnosticsCount(DiagnosticSeverity.Error));
+		statistics.addProperty("warnings", result.getDiagnosticsCount(DiagnosticSeverity.Warning));
+		statistics.addProperty("elapsedMillis", result.getElapsedMillis());
+		statistics.addProperty("parallelism", result.getParallelism());
+		statistics.addProperty("filesPerSecond", result.getFilesPerSecond());
+		statistics.addProperty("bytesPerSecond", result.getBytesPerSecond());
+		return statistics;
+	}
+
+	/**
+	 * Returns the summary of the statistics of the given result.
+	 *
+	 * @param result the batch validation result.
+	 * @return the summary of the statistics of the given result.
+	 */
+	public static String getSummary(BatchValidationResult result) {
+		return String.format("%d files (%.1f MB) validated in %d ms with %d threads: %d errors, %d warnings"
+				+ " (%.1f files/s, %.2f MB/s)", result.getFiles().size(), result.getTotalSize() / 1048576.0,
+				result.getElapsedMillis(), result.getParallelism(),
+				result.getDiagnosticsCount(DiagnosticSeverity.Error),
+				result.getDiagnosticsCount(DiagnosticSeverity.Warning), result.getFilesPerSecond(),
+				result.getBytesPerSecond() / 1048576.0);
+	}
+}
@@ -0,0 +1,100 @@
+/**
+ *  Copyright (c) 2019 Red Hat Inc. and others.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v2.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v20.html
+ *
+ *  Contributors:
+ *  Red Hat Inc. - initial API and implementation
+ */
+package org.eclipse.lsp4xml.batch;
+
+import java.util.List;
+
+import org.eclipse.lsp4j.DiagnosticSeverity;
+
+/**
+ * Result of a batch validation: the diagnostics of the validated files and the
+ * throughput statistics.
+ *
+ */
+public class BatchValidationResult {
+
+	private final List<FileDiagnostics> files;
+
+	private final long elapsedMillis;
+
+	private final int parallelism;
+
+	public BatchValidationResult(List<FileDiagnostics> files, long elapsedMillis, int parallelism) {
+		this.files = files;
+		this.elapsedMillis = elapsedMillis;
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * Returns the diagnostics of the validated files.
+	 *
+	 * @return the diagnostics of the validated files.
+	 */
+	public List<FileDiagnostics> getFiles() {
+		return files;
+	}
+
+	/**
+	 * Returns the elapsed time of the validation in milliseconds.
+	 *
+	 * @return the elapsed time of the validation in milliseconds.
+	 */
+	public long getElapsedMillis() {
+		return elapsedMillis;
+	}
+
+	/**
+	 * Returns the number of threads which validated the files.
+	 *
+	 * @return the number of threads which validated the files.
+	 */
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * Returns the total size in bytes of the validated files.
+	 *
+	 * @return the total size in bytes of the validated files.
+	 */
+	public long getTotalSize() {
+		return files.stream().mapToLong(FileDiagnostics::getSize).sum();
+	}
+
+	/**
+	 * Returns the number of diagnostics with the given severity.
+	 *
+	 * @param severity the diagnostic severity.
+	 * @return the number of diagnostics with the given severity.
+	 */
+	public long getDiagnosticsCount(DiagnosticSeverity severity) {
+		return files.stream().flatMap(file -> file.getDiagnostics().stream())
+				.filter(diagnostic -> diagnostic.getSeverity() == severity).count();
+	}
+
+	/**
+	 * Returns the number of validated files by second.
+	 *
+	 * @return the number of validated files by second.
+	 */
+	public double getFilesPerSecond() {
+		return files.size() * 1000.0 / Math.max(1, elapsedMillis);
+	}
+
+	/**
+	 * Returns the number of validated bytes by second.
+	 *
+	 * @return the number of validated bytes by second.
+	 */
+	public double getBytesPerSecond() {
+		return getTotalSize() * 1000.0 / Math.max(1, elapsedMillis);
+	}
+}
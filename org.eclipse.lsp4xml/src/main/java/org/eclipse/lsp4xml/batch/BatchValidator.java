@@ -0,0 +1,350 @@
+/**
+ *  Copyright (c) 2019 Red Hat Inc. and others.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v2.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v20.html
+ *
+ *  Contributors:
+ *  Red Hat Inc. - initial API and implementation
+ */
+package org.eclipse.lsp4xml.batch;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Predicate;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.eclipse.lsp4j.Diagnostic;
+import org.eclipse.lsp4j.DiagnosticSeverity;
+import org.eclipse.lsp4j.InitializeParams;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4xml.commons.TextDocument;
+import org.eclipse.lsp4xml.dom.DOMDocument;
+import org.eclipse.lsp4xml.dom.DOMParser;
+import org.eclipse.lsp4xml.extensions.contentmodel.settings.ContentModelSettings;
+import org.eclipse.lsp4xml.extensions.contentmodel.settings.XMLValidationSettings;
+import org.eclipse.lsp4xml.services.XMLLanguageService;
+import org.eclipse.lsp4xml.services.extensions.save.AbstractSaveContext;
+import org.eclipse.lsp4xml.settings.AllXMLSettings;
+import org.eclipse.lsp4xml.uriresolver.CacheResourceDownloadingException;
+import org.eclipse.lsp4xml.utils.XMLPositionUtility;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+/**
+ * Validates the XML files of directory trees without a language client, with
+ * the same validation pipeline as the XML language server (see
+ * {@link XMLLanguageService#doDiagnostics(DOMDocument, org.eclipse.lsp4j.jsonrpc.CancelChecker, XMLValidationSettings)}).
+ *
+ * <p>
+ * The files are validated in parallel in a work-stealing fork/join pool. All
+ * the validations share the same {@link XMLLanguageService}, so each XML
+ * Schema, DTD and catalog is loaded once (grammar pool and content model
+ * cache) for the whole batch. The files are read with memory-mapped I/O and
+ * decoded as UTF-8.
+ * </p>
+ *
+ */
+public class BatchValidator {
+
+	public static final List<String> DEFAULT_EXTENSIONS = Collections
+			.unmodifiableList(Arrays.asList("xml", "xsd", "dtd"));
+
+	private static final Logger LOGGER = Logger.getLogger(BatchValidator.class.getName());
+
+	private static final String BOM = "\uFEFF";
+
+	private final XMLLanguageService xmlLanguageService;
+
+	private final XMLValidationSettings validationSettings;
+
+	private final int parallelism;
+
+	private final Map<String, DOMDocument> validatedDocuments;
+
+	private Set<String> extensions;
+
+	public BatchValidator(int parallelism) {
+		this.xmlLanguageService = new XMLLanguageService();
+		// the documents being validated play the role of the opened documents
+		this.validatedDocuments = new ConcurrentHashMap<>();
+		xmlLanguageService.setDocumentProvider(validatedDocuments::get);
+		this.validationSettings = new XMLValidationSettings();
+		this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+		setExtensions(DEFAULT_EXTENSIONS);
+	}
+
+	/**
+	 * Initializes the validator with the given root URI used to resolve the
+	 * relative paths of the catalogs and of the file associations.
+	 *
+	 * @param rootUri the root URI.
+	 */
+	public void setRootUri(String rootUri) {
+		InitializeParams params = new InitializeParams();
+		params.setRootUri(rootUri);
+		xmlLanguageService.initializeParams(params);
+	}
+
+	/**
+	 * Set the extensions (without the dot) of the files to validate.
+	 *
+	 * @param extensions the extensions of the files to validate.
+	 */
+	public void setExtensions(Collection<String> extensions) {
+		this.extensions = extensions.stream().map(extension -> extension.toLowerCase(Locale.ENGLISH))
+				.collect(Collectors.toCollection(LinkedHashSet::new));
+	}
+
+	/**
+	 * Returns the XML language service used to validate the files.
+	 *
+	 * @return the XML language service used to validate the files.
+	 */
+	XMLLanguageService getXMLLanguageService() {
+		return xmlLanguageService;
+	}
+
+	/**
+	 * Update the validator with the given settings which have the same structure
+	 * as the settings of the language client (catalogs, file associations,
+	 * validation settings), with or without the root <code>xml</code> key.
+	 *
+	 * @param settingsFile the JSON settings file.
+	 * @throws IOException if the settings file cannot be read.
+	 */
+	public void updateSettings(Path settingsFile) throws IOException {
+		try (Reader reader = Files.newBufferedReader(settingsFile, StandardCharsets.UTF_8)) {
+			JsonElement json = new JsonParser().parse(reader);
+			if (!json.isJsonObject()) {
+				throw new IOException("The settings file '" + settingsFile + "' must contain a JSON object");
+			}
+			JsonObject settings = json.getAsJsonObject();
+			updateSettings(settings.has("xml") ? AllXMLSettings.getAllXMLSettings(settings) : settings);
+		}
+	}
+
+	/**
+	 * Update the validator with the given XML settings.
+	 *
+	 * @param xmlSettings the XML settings.
+	 */
+	public void updateSettings(Object xmlSettings) {
+		if (xmlSettings == null) {
+			return;
+		}
+		ContentModelSettings cmSettings = ContentModelSettings.getContentModelXMLSettings(xmlSettings);
+		if (cmSettings != null) {
+			validationSettings.merge(cmSettings.getValidation());
+		}
+		xmlLanguageService.doSave(new SettingsSaveContext(xmlSettings));
+	}
+
+	/**
+	 * Validates the files of the given paths (files or directories walked
+	 * recursively).
+	 *
+	 * @param paths the files and directories to validate.
+	 * @return the result of the validation.
+	 * @throws IOException if a directory cannot be walked.
+	 */
+	public BatchValidationResult validate(List<Path> paths) throws IOException {
+		List<Path> files = collectFiles(paths);
+		long start = System.currentTimeMillis();
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+		try {
+			List<ForkJoinTask<FileDiagnostics>> tasks = files.stream()
+					.map(file -> ForkJoinTask.adapt(() -> validate(file))).collect(Collectors.toList());
+			pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+			List<FileDiagnostics> result = tasks.stream().map(ForkJoinTask::join).collect(Collectors.toList());
+			return new BatchValidationResult(result, System.currentTimeMillis() - start, parallelism);
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Validates the given file.
+	 *
+	 * @param file the file to validate.
+	 * @return the diagnostics of the file.
+	 */
+	FileDiagnostics validate(Path file) {
+		String uri = file.toUri().toString();
+		String text;
+		long size;
+		try {
+			size = Files.size(file);
+			text = read(file);
+		} catch (IOException e) {
+			return createFileError(uri, 0, "Cannot read the file: " + e.getMessage());
+		}
+		try {
+			TextDocument document = new TextDocument(text, uri);
+			DOMDocument xmlDocument = validationSettings.isValidationOnly(text.length())
+					? DOMParser.getInstance().createValidationOnlyDocument(document,
+							xmlLanguageService.getResolverExtensionManager(), null)
+					: DOMParser.getInstance().parse(document, xmlLanguageService.getResolverExtensionManager(), true,
+							null);
+			validatedDocuments.put(uri, xmlDocument);
+			try {
+				return new FileDiagnostics(uri, size, doDiagnostics(xmlDocument));
+			} finally {
+				validatedDocuments.remove(uri);
+			}
+		} catch (RuntimeException e) {
+			// an error in the validation of a file doesn't stop the batch
+			LOGGER.log(Level.SEVERE, "Error while validating '" + uri + "'", e);
+			return createFileError(uri, size, "Cannot validate the file: " + e.getMessage());
+		}
+	}
+
+	private static FileDiagnostics createFileError(String uri, long size, String message) {
+		Diagnostic diagnostic = new Diagnostic(new Range(new Position(0, 0), new Position(0, 0)), message,
+				DiagnosticSeverity.Error, "XML");
+		return new FileDiagnostics(uri, size, Collections.singletonList(diagnostic));
+	}
+
+	private List<Diagnostic> doDiagnostics(DOMDocument xmlDocument) {
+		try {
+			return xmlLanguageService.doDiagnostics(xmlDocument, () -> {
+			}, validationSettings);
+		} catch (CacheResourceDownloadingException e) {
+			CompletableFuture<Path> future = e.getFuture();
+			if (future == null) {
+				// the resource is not downloaded in the cache folder (path traversal)
+				return createOneDiagnosticInRoot(xmlDocument, e.getMessage());
+			}
+			// an XML Schema or DTD is downloading, there is no editor to refresh, the
+			// validation waits for the download and is restarted.
+			try {
+				waitFor(future);
+				future.get();
+			} catch (InterruptedException ie) {
+				Thread.currentThread().interrupt();
+				return createOneDiagnosticInRoot(xmlDocument, e.getMessage());
+			} catch (ExecutionException downloadException) {
+				return createOneDiagnosticInRoot(xmlDocument, downloadException.getCause().getMessage());
+			}
+			return doDiagnostics(xmlDocument);
+		}
+	}
+
+	/**
+	 * Waits for the given future as a managed blocker, so the fork/join pool can
+	 * start a compensating thread to keep validating the other files during the
+	 * wait.
+	 *
+	 * @param future the future to wait for.
+	 * @throws InterruptedException if the wait is interrupted.
+	 */
+	private static void waitFor(CompletableFuture<?> future) throws InterruptedException {
+		ForkJoinPool.managedBlock(new ForkJoinPool.ManagedBlocker() {
+
+			@Override
+			public boolean block() throws InterruptedException {
+				try {
+					future.get();
+				} catch (ExecutionException e) {
+					// the error is reported by the caller
+				}
+				return true;
+			}
+
+			@Override
+			public boolean isReleasable() {
+				return future.isDone();
+			}
+		});
+	}
+
+	private static List<Diagnostic> createOneDiagnosticInRoot(DOMDocument document, String message) {
+		Range range = document.getDocumentElement() != null
+				? XMLPositionUtility.selectStartTag(document.getDocumentElement())
+				: new Range(new Position(0, 0), new Position(0, 0));
+		List<Diagnostic> diagnostics = new ArrayList<>();
+		diagnostics.add(new Diagnostic(range, message, DiagnosticSeverity.Error, "XML"));
+		return diagnostics;
+	}
+
+	/**
+	 * Returns the content of the given file read with memory-mapped I/O.
+	 *
+	 * @param file the file.
+	 * @return the content of the given file.
+	 * @throws IOException if the file cannot be read.
+	 */
+	static String read(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			MappedByteBuffer buffer = channel.map(MapMode.READ_ONLY, 0, channel.size());
+			String text = StandardCharsets.UTF_8.decode(buffer).toString();
+			return text.startsWith(BOM) ? text.substring(BOM.length()) : text;
+		}
+	}
+
+	private List<Path> collectFiles(List<Path> paths) throws IOException {
+		Set<Path> files = new LinkedHashSet<>();
+		for (Path path : paths) {
+			if (Files.isDirectory(path)) {
+				try (Stream<Path> walk = Files.walk(path)) {
+					walk.filter(Files::isRegularFile).filter(this::isValidatedFile).sorted().forEach(files::add);
+				}
+			} else {
+				files.add(path);
+			}
+		}
+		return new ArrayList<>(files);
+	}
+
+	private boolean isValidatedFile(Path file) {
+		String fileName = file.getFileName().toString();
+		int index = fileName.lastIndexOf('.');
+		return index != -1 && extensions.contains(fileName.substring(index + 1).toLowerCase(Locale.ENGLISH));
+	}
+
+	private static class SettingsSaveContext extends AbstractSaveContext {
+
+		public SettingsSaveContext(Object settings) {
+			super(settings);
+		}
+
+		@Override
+		public DOMDocument getDocument(String uri) {
+			// there is no opened document
+			return null;
+		}
+
+		@Override
+		public void collectDocumentToValidate(Predicate<DOMDocument> validateDocumentPredicate) {
+			// the documents are validated once the settings are updated
+		}
+	}
+}
@@ -0,0 +1,61 @@
+/**
+ *  Copyright (c) 2019 Red Hat Inc. and others.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v2.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v20.html
+ *
+ *  Contributors:
+ *  Red Hat Inc. - initial API and implementation
+ */
+package org.eclipse.lsp4xml.batch;
+
+import java.util.List;
+
+import org.eclipse.lsp4j.Diagnostic;
+
+/**
+ * Diagnostics of a file validated by the {@link BatchValidator}.
+ *
+ */
+public class FileDiagnostics {
+
+	private final String uri;
+
+	private final long size;
+
+	private final List<Diagnostic> diagnostics;
+
+	public FileDiagnostics(String uri, long size, List<Diagnostic> diagnostics) {
+		this.uri = uri;
+		this.size = size;
+		this.diagnostics = diagnostics;
+	}
+
+	/**
+	 * Returns the file URI.
+	 *
+	 * @return the file URI.
+	 */
+	public String getUri() {
+		return uri;
+	}
+
+	/**
+	 * Returns the file size in bytes.
+	 *
+	 * @return the file size in bytes.
+	 */
+	public long getSize() {
+		return size;
+	}
+
+	/**
+	 * Returns the diagnostics of the file.
+	 *
+	 * @return the diagnostics of the file.
+	 */
+	public List<Diagnostic> getDiagnostics() {
+		return diagnostics;
+	}
+}
@@ -9,14 +9,18 @@
 *******************************************************************************/
 package org.eclipse.lsp4xml.commons;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.BiFunction;
 import java.util.logging.Logger;
 
+import org.eclipse.lsp4j.TextDocumentContentChangeEvent;
 import org.eclipse.lsp4j.TextDocumentItem;
 import org.eclipse.lsp4j.jsonrpc.CancelChecker;
 import org.eclipse.lsp4j.jsonrpc.CompletableFutures;
+import org.eclipse.lsp4xml.commons.StaleModel.TextChange;
 
 /**
  * A {@link TextDocument} which is associate to a model loaded in async.
@@ -29,10 +33,38 @@ public class ModelTextDocument<T> extends TextDocument {
 
 	private static final Logger LOGGER = Logger.getLogger(ModelTextDocument.class.getName());
 
+	private static final int MAX_TEXT_CHANGES = 100;
+
 	private final BiFunction<TextDocument, CancelChecker, T> parse;
 
 	private CompletableFuture<T> model;
 
+	/**
+	 * Model loaded for a version of the document.
+	 */
+	private static class LoadedModel<T> {
+
+		private final T model;
+
+		private final int version;
+
+		LoadedModel(T model, int version) {
+			this.model = model;
+			this.version = version;
+		}
+	}
+
+	private volatile LoadedModel<T> lastLoadedModel;
+
+	private volatile int previousVersion;
+
+	private volatile TextDocumentContentChangeEvent lastChange;
+
+	/**
+	 * The text changes applied since the load of the last loaded model.
+	 */
+	private final List<TextChange> textChanges = new ArrayList<>();
+
 	public ModelTextDocument(TextDocumentItem document, BiFunction<TextDocument, CancelChecker, T> parse) {
 		super(document);
 		this.parse = parse;
@@ -47,11 +79,17 @@ public class ModelTextDocument<T> extends TextDocument {
 	 * Returns the completable future which loads the model. The process of parse od
 	 * the model is stopped as soon as possible when text content changed.
 	 * 
+	 * <p>
+	 * The model is loaded with a snapshot of the text, so a loaded model stays
+	 * consistent with its text when the document changes.
+	 * </p>
+	 * 
 	 * @return the completable future which loads the model.
 	 */
 	public CompletableFuture<T> getModel() {
 		if (model == null) {
 			int version = super.getVersion();
+			String text = super.getText();
 			model = CompletableFutures.computeAsync((requestCancelChecker) -> {
 				long start = System.currentTimeMillis();
 				try {
@@ -61,7 +99,11 @@ public class ModelTextDocument<T> extends TextDocument {
 					MultiCancelChecker cancelChecker = new MultiCancelChecker(requestCancelChecker,
 							new TextDocumentVersionChecker(this, version));
 					// parse the model
-					return parse.apply(this, cancelChecker);
+					TextDocument snapshot = new TextDocument(text, getUri());
+					snapshot.setVersion(version);
+					T loadedModel = parse.apply(snapshot, cancelChecker);
+					modelLoaded(loadedModel, version, text);
+					return loadedModel;
 				} catch (CancellationException e) {
 					LOGGER.fine("Stop parsing parsing of model with version '" + version + "' in "
 							+ (System.currentTimeMillis() - start) + "ms");
@@ -84,11 +126,115 @@ public class ModelTextDocument<T> extends TextDocument {
 
 	@Override
 	public void setVersion(int version) {
+		previousVersion = super.getVersion();
+		lastChange = null;
 		super.setVersion(version);
 		// version changed, cancel the completable future which load the model
 		cancelModel();
 	}
 
+	@Override
+	public void update(List<TextDocumentContentChangeEvent> changes) {
+		TextChange textChange = changes.size() == 1 && isIncremental() ? createTextChange(changes.get(0)) : null;
+		super.update(changes);
+		lastChange = changes.size() == 1 && isIncremental() ? changes.get(0) : null;
+		synchronized (textChanges) {
+			LoadedModel<T> loadedModel = lastLoadedModel;
+			if (loadedModel == null) {
+				return;
+			}
+			if (textChange == null || loadedModel.version == getVersion() || textChanges.size() >= MAX_TEXT_CHANGES) {
+				// the changes since the last loaded model cannot be tracked
+				lastLoadedModel = null;
+				textChanges.clear();
+			} else {
+				textChanges.add(textChange);
+			}
+		}
+	}
+
+	private TextChange createTextChange(TextDocumentContentChangeEvent change) {
+		if (change.getRange() == null) {
+			// the whole text is replaced
+			return null;
+		}
+		try {
+			int start = offsetAt(change.getRange().getStart());
+			int end = offsetAt(change.getRange().getEnd());
+			return new TextChange(start, end - start, change.getText().length());
+		} catch (BadLocationException e) {
+			return null;
+		}
+	}
+
+	private void modelLoaded(T loadedModel, int version, String text) {
+		synchronized (textChanges) {
+			// ignore a model loaded for a text which has changed since
+			if (version == getVersion() && text == getText()) {
+				lastLoadedModel = new LoadedModel<>(loadedModel, version);
+				textChanges.clear();
+			}
+		}
+	}
+
+	/**
+	 * Returns the last loaded model with the text changes applied to the document
+	 * since its load, and null if there is no loaded model, if the model is loaded
+	 * for the current version or if more than <code>maxChanges</code> changes
+	 * were applied since its load.
+	 * 
+	 * <p>
+	 * A request which accepts a stale model can use it instead of waiting for the
+	 * load of the model of the current version, when the text changes don't
+	 * touch the positions used by the request.
+	 * </p>
+	 * 
+	 * @param maxChanges the maximum number of changes applied since the load of
+	 *                   the model.
+	 * @return the last loaded model with the text changes applied to the document
+	 *         since its load and null otherwise.
+	 */
+	public StaleModel<T> getStaleModel(int maxChanges) {
+		synchronized (textChanges) {
+			LoadedModel<T> loadedModel = lastLoadedModel;
+			if (loadedModel == null || textChanges.isEmpty() || textChanges.size() > maxChanges) {
+				return null;
+			}
+			TextDocument document = new TextDocument(getText(), getUri());
+			document.setVersion(getVersion());
+			return new StaleModel<>(loadedModel.model, loadedModel.version, new ArrayList<>(textChanges), document);
+		}
+	}
+
+	/**
+	 * Returns the model loaded for the version of the document before the last
+	 * change and null if it was not loaded.
+	 * 
+	 * <p>
+	 * The text of this model is the current text without the
+	 * {@link #getLastChange()}. It can be used to answer a request without waiting
+	 * for the load of the model of the current version.
+	 * </p>
+	 * 
+	 * @return the model loaded for the version of the document before the last
+	 *         change and null if it was not loaded.
+	 */
+	public T getPreviousModel() {
+		LoadedModel<T> loadedModel = lastLoadedModel;
+		return loadedModel != null && loadedModel.version == previousVersion ? loadedModel.model : null;
+	}
+
+	/**
+	 * Returns the last incremental change applied to the document and null if the
+	 * last update contains several changes or replaced the whole text.
+	 * 
+	 * @return the last incremental change applied to the document and null if the
+	 *         last update contains several changes or replaced the whole text.
+	 */
+	public TextDocumentContentChangeEvent getLastChange() {
+		return lastChange;
+	}
+
 	/**
 	 * Cancel the completable future which loads the model.
 	 */
@@ -0,0 +1,166 @@
+/**
+ *  Copyright (c) 2019 Red Hat Inc. and others.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v2.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v20.html
+ *
+ *  Contributors:
+ *  Red Hat Inc. - initial API and implementation
+ */
+package org.eclipse.lsp4xml.commons;
+
+import java.util.List;
+
+/**
+ * A model loaded for an older version of a {@link ModelTextDocument} with the
+ * text changes applied to the document since this version.
+ *
+ * <p>
+ * The changes translate an offset of the current text to the offset of the
+ * same character in the text of the model (and vice versa), as long as this
+ * character was not modified by a change.
+ * </p>
+ *
+ * @param <T> the model type (ex : DOM Document)
+ */
+public class StaleModel<T> {
+
+	/**
+	 * Replacement of a range of the text.
+	 */
+	static class TextChange {
+
+		final int start;
+
+		final int removedLength;
+
+		final int insertedLength;
+
+		TextChange(int start, int removedLength, int insertedLength) {
+			this.start = start;
+			this.removedLength = removedLength;
+			this.insertedLength = insertedLength;
+		}
+	}
+
+	private final T model;
+
+	private final int version;
+
+	private final List<TextChange> changes;
+
+	private final TextDocument document;
+
+	StaleModel(T model, int version, List<TextChange> changes, TextDocument document) {
+		this.model = model;
+		this.version = version;
+		this.changes = changes;
+		this.document = document;
+	}
+
+	/**
+	 * Returns the model.
+	 *
+	 * @return the model.
+	 */
+	public T getModel() {
+		return model;
+	}
+
+	/**
+	 * Returns the version of the document for which the model was loaded.
+	 *
+	 * @return the version of the document for which the model was loaded.
+	 */
+	public int getVersion() {
+		return version;
+	}
+
+	/**
+	 * Returns a snapshot of the current text of the document (with its version).
+	 *
+	 * @return a snapshot of the current text of the document.
+	 */
+	public TextDocument getDocument() {
+		return document;
+	}
+
+	/**
+	 * Returns the number of changes applied to the document since the model was
+	 * loaded.
+	 *
+	 * @return the number of changes applied to the document since the model was
+	 *         loaded.
+	 */
+	public int getChangesCount() {
+		return changes.size();
+	}
+
+	/**
+	 * Returns the offset in the text of the model of the given offset of the
+	 * current text and -1 if the offset touches a changed range of the text.
+	 *
+	 * @param offset the offset in the current text.
+	 * @return the offset in the text of the model of the given offset of the
+	 *         current text and -1 if the offset touches a changed range of the
+	 *         text.
+	 */
+	public int toModelOffset(int offset) {
+		for (int i = changes.size() - 1; i >= 0; i--) {
+			TextChange change = changes.get(i);
+			if (offset > change.start + change.insertedLength) {
+				offset += change.removedLength - change.insertedLength;
+			} else if (offset >= change.start) {
+				return -1;
+			}
+		}
+		return offset;
+	}
+
+	/**
+	 * Returns the offset in the current text of the given offset of the text of
+	 * the model and -1 if the offset touches a changed range of the text.
+	 *
+	 * @param modelOffset the offset in the text of the model.
+	 * @return the offset in the current text of the given offset of the text of
+	 *         the model and -1 if the offset touches a changed range of the text.
+	 */
+	public int toCurrentOffset(int modelOffset) {
+		return isModified(modelOffset, modelOffset) ? -1 : translate(modelOffset);
+	}
+
+	/**
+	 * Returns true if the given range of the text of the model (bounds included)
+	 * touches a changed range of the text and false otherwise.
+	 *
+	 * @param modelStart the start offset in the text of the model.
+	 * @param modelEnd   the end offset in the text of the model.
+	 * @return true if the given range of the text of the model touches a changed
+	 *         range of the text and false otherwise.
+	 */
+	public boolean isModified(int modelStart, int modelEnd) {
+		int start = modelStart;
+		int end = modelEnd;
+		for (TextChange change : changes) {
+			if (start > change.start + change.removedLength) {
+				int delta = change.insertedLength - change.removedLength;
+				start += delta;
+				end += delta;
+			} else if (end >= change.start) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private int translate(int modelOffset) {
+		int offset = modelOffset;
+		for (TextChange change : changes) {
+			if (offset > change.start + change.removedLength) {
+				offset += change.insertedLength - change.removedLength;
+			}
+		}
+		return offset;
+	}
+}
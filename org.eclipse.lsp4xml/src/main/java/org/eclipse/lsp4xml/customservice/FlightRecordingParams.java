@@ -0,0 +1,30 @@
+/**
+ *  Copyright (c) 2019 Red Hat Inc. and others.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v2.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v20.html
+ *
+ *  Contributors:
+ *  Red Hat Inc. - initial API and implementation
+ */
+package org.eclipse.lsp4xml.customservice;
+
+/**
+ * Parameters of the <code>xml/flightRecording</code> request.
+ *
+ */
+public class FlightRecordingParams {
+
+	/**
+	 * The action to execute on the flight recording: "start", "stop" or "dump".
+	 */
+	public String action;
+
+	public FlightRecordingParams() {
+	}
+
+	public FlightRecordingParams(String action) {
+		this.action = action;
+	}
+}
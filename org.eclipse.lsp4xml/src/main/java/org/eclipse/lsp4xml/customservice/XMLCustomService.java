@@ -25,6 +25,16 @@ public interface XMLCustomService {
 
 	@JsonRequest
 	CompletableFuture<AutoCloseTagResponse> closeTag(TextDocumentPositionParams params);
+
+	/**
+	 * Starts, stops or dumps the Java Flight Recorder recording of the server and
+	 * returns the path of the dumped file (null for the start action).
+	 * 
+	 * @param params the flight recording action.
+	 * @return the path of the dumped file (null for the start action).
+	 */
+	@JsonRequest
+	CompletableFuture<String> flightRecording(FlightRecordingParams params);
 }
 
 
@@ -16,6 +16,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import org.eclipse.lsp4j.Position;
@@ -36,6 +37,7 @@ import org.w3c.dom.Document;
 import org.w3c.dom.DocumentFragment;
 import org.w3c.dom.EntityReference;
 import org.w3c.dom.NodeList;
+import org.w3c.dom.UserDataHandler;
 
 /**
  * XML document.
@@ -56,11 +58,14 @@ public class DOMDocument extends DOMNode implements Document {
 	private String schemaPrefix;
 	private boolean hasExternalGrammar;
 	private CancelChecker cancelChecker;
+	private boolean validationOnly;
+	private final Map<String, Object> userData;
 
 	public DOMDocument(TextDocument textDocument, URIResolverExtensionManager resolverExtensionManager) {
 		super(0, textDocument.getText().length());
 		this.textDocument = textDocument;
 		this.resolverExtensionManager = resolverExtensionManager;
+		this.userData = new ConcurrentHashMap<>();
 		resetGrammar();
 	}
 
@@ -72,6 +77,48 @@ public class DOMDocument extends DOMNode implements Document {
 		return cancelChecker;
 	}
 
+	/**
+	 * Returns true if the DOM nodes of the document was not built (large file)
+	 * and the document must be only validated with its text content and false
+	 * otherwise.
+	 * 
+	 * @return true if the DOM nodes of the document was not built (large file)
+	 *         and false otherwise.
+	 */
+	public boolean isValidationOnly() {
+		return validationOnly;
+	}
+
+	void setValidationOnly(boolean validationOnly) {
+		this.validationOnly = validationOnly;
+	}
+
+	/**
+	 * Returns the object associated to the given key on this document (ex : an
+	 * index of the document shared by the participants) and null otherwise.
+	 * 
+	 * <p>
+	 * A DOM document is never updated (a new DOM document is parsed for each
+	 * version of the text document), an object computed from the DOM document is
+	 * stored on it and is released with it.
+	 * </p>
+	 * 
+	 * @param key the key.
+	 * @return the object associated to the given key on this document and null
+	 *         otherwise.
+	 */
+	@Override
+	public Object getUserData(String key) {
+		return userData.get(key);
+	}
+
+	@Override
+	public Object setUserData(String key, Object data, UserDataHandler handler) {
+		// the DOM document is never cloned, imported or renamed, the handler is never
+		// called
+		return data != null ? userData.put(key, data) : userData.remove(key);
+	}
+
 	public List<DOMNode> getRoots() {
 		return super.getChildren();
 	}
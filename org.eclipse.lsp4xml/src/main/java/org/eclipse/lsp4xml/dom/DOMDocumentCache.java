@@ -0,0 +1,210 @@
+/**
+ *  Copyright (c) 2019 Red Hat Inc. and others.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v2.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v20.html
+ *
+ *  Contributors:
+ *  Red Hat Inc. - initial API and implementation
+ */
+package org.eclipse.lsp4xml.dom;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.lsp4xml.services.IXMLDocumentProvider;
+import org.eclipse.lsp4xml.uriresolver.URIResolverExtensionManager;
+import org.eclipse.lsp4xml.utils.IOUtils;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Cache of the parsed {@link DOMDocument} of the files which are referenced by
+ * a document (ex : xs:include schemaLocation of an XML Schema) and which are
+ * not opened in the editor.
+ *
+ * <p>
+ * When the file is opened, the {@link DOMDocument} of the editor is returned
+ * (see {@link #setDocumentProvider(IXMLDocumentProvider)}). Otherwise the
+ * parsed document is cached per resolved URI and is parsed again when the last
+ * modified time of the file changes. The cache is bounded with a maximum size
+ * expressed as the total length of the cached document texts (see
+ * {@link #setMaxSize(long)}), the least recently used documents are evicted
+ * first.
+ * </p>
+ *
+ */
+public class DOMDocumentCache {
+
+	/**
+	 * Default maximum size (in characters) of the cache: 4 M characters.
+	 */
+	public static final long DEFAULT_MAX_SIZE = 4 * 1024 * 1024;
+
+	private static class CachedDocument {
+
+		private final long lastModified;
+
+		private final int length;
+
+		private final DOMDocument document;
+
+		CachedDocument(long lastModified, int length, DOMDocument document) {
+			this.lastModified = lastModified;
+			this.length = length;
+			this.document = document;
+		}
+	}
+
+	private final URIResolverExtensionManager resolverExtensionManager;
+
+	private final AtomicLong hitCount;
+
+	private final AtomicLong missCount;
+
+	private volatile IXMLDocumentProvider documentProvider;
+
+	private volatile long maxSize;
+
+	private volatile Cache<String, CachedDocument> documents;
+
+	public DOMDocumentCache(URIResolverExtensionManager resolverExtensionManager) {
+		this.resolverExtensionManager = resolverExtensionManager;
+		this.hitCount = new AtomicLong();
+		this.missCount = new AtomicLong();
+		setMaxSize(DEFAULT_MAX_SIZE);
+	}
+
+	/**
+	 * Set the provider of the documents opened in the editor.
+	 *
+	 * @param documentProvider the provider of the documents opened in the editor.
+	 */
+	public void setDocumentProvider(IXMLDocumentProvider documentProvider) {
+		this.documentProvider = documentProvider;
+	}
+
+	/**
+	 * Set the maximum size (total length of the cached document texts) of the
+	 * cache. A size lower or equal to 0 disables the cache.
+	 *
+	 * @param maxSize the maximum size of the cache.
+	 */
+	public synchronized void setMaxSize(long maxSize) {
+		if (documents != null && this.maxSize == maxSize) {
+			return;
+		}
+		this.maxSize = maxSize;
+		this.documents = maxSize > 0 ? CacheBuilder.newBuilder() //
+				.maximumWeight(maxSize) //
+				.weigher((String uri, CachedDocument document) -> document.length) //
+				.build() : null;
+	}
+
+	/**
+	 * Returns the maximum size (total length of the cached document texts) of the
+	 * cache.
+	 *
+	 * @return the maximum size of the cache.
+	 */
+	public long getMaxSize() {
+		return maxSize;
+	}
+
+	/**
+	 * Returns the DOM document of the given resolved URI: the document opened in
+	 * the editor if any, the cached document if the file has not changed since it
+	 * was parsed and the parsed content of the file otherwise.
+	 *
+	 * @param documentURI the resolved URI.
+	 * @return the DOM document of the given resolved URI.
+	 * @throws IOException when the file cannot be read.
+	 */
+	public DOMDocument getDocument(String documentURI) throws IOException {
+		IXMLDocumentProvider documentProvider = this.documentProvider;
+		if (documentProvider != null) {
+			DOMDocument openedDocument = documentProvider.getDocument(documentURI);
+			if (openedDocument != null && documentURI.equals(openedDocument.getDocumentURI())) {
+				return openedDocument;
+			}
+		}
+		Cache<String, CachedDocument> documents = this.documents;
+		Path file = documents != null ? toFile(documentURI) : null;
+		if (file == null) {
+			// the document cannot be cached
+			try (InputStream input = new URL(documentURI).openStream()) {
+				return parse(IOUtils.convertStreamToString(input), documentURI);
+			}
+		}
+		long lastModified = Files.getLastModifiedTime(file).toMillis();
+		CachedDocument cachedDocument = documents.getIfPresent(documentURI);
+		if (cachedDocument != null && cachedDocument.lastModified == lastModified) {
+			hitCount.incrementAndGet();
+			return cachedDocument.document;
+		}
+		missCount.incrementAndGet();
+		String text;
+		try (InputStream input = Files.newInputStream(file)) {
+			text = IOUtils.convertStreamToString(input);
+		}
+		DOMDocument document = parse(text, documentURI);
+		if (text.length() <= maxSize) {
+			documents.put(documentURI, new CachedDocument(lastModified, text.length(), document));
+		} else {
+			documents.invalidate(documentURI);
+		}
+		return document;
+	}
+
+	private DOMDocument parse(String text, String documentURI) {
+		return DOMParser.getInstance().parse(text, documentURI, resolverExtensionManager);
+	}
+
+	/**
+	 * Returns the number of times the document was served from the memory.
+	 *
+	 * @return the number of times the document was served from the memory.
+	 */
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	/**
+	 * Returns the number of times the document was parsed from the file system.
+	 *
+	 * @return the number of times the document was parsed from the file system.
+	 */
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+	/**
+	 * Clear the cache.
+	 */
+	public void clear() {
+		Cache<String, CachedDocument> documents = this.documents;
+		if (documents != null) {
+			documents.invalidateAll();
+		}
+	}
+
+	private static Path toFile(String documentURI) {
+		if (documentURI == null || !documentURI.startsWith("file:")) {
+			return null;
+		}
+		try {
+			Path file = Paths.get(new URI(documentURI));
+			return Files.isRegularFile(file) ? file : null;
+		} catch (Exception e) {
+			return null;
+		}
+	}
+}
@@ -10,7 +10,11 @@
  */
 package org.eclipse.lsp4xml.dom;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.UserDataHandler;
 
 /**
  * A doctype node.
@@ -29,8 +33,11 @@ public class DOMDocumentType extends DTDDeclNode implements org.w3c.dom.Document
 
 	private String content; // |<!DOCTYPE ... >|
 
+	private final Map<String, Object> userData;
+
 	public DOMDocumentType(int start, int end) {
 		super(start, end);
+		this.userData = new ConcurrentHashMap<>();
 	}
 	
 	@Override
@@ -38,6 +45,27 @@ public class DOMDocumentType extends DTDDeclNode implements org.w3c.dom.Document
 		return this;
 	}
 
+	/**
+	 * Returns the object associated to the given key on this DOCTYPE (ex : an
+	 * index of the DTD declarations shared by the participants) and null
+	 * otherwise.
+	 *
+	 * @param key the key.
+	 * @return the object associated to the given key on this DOCTYPE and null
+	 *         otherwise.
+	 * @see DOMDocument#getUserData(String)
+	 */
+	@Override
+	public Object getUserData(String key) {
+		return userData.get(key);
+	}
+
+	@Override
+	public Object setUserData(String key, Object data, UserDataHandler handler) {
+		// the DOCTYPE is never cloned, imported or renamed, the handler is never called
+		return data != null ? userData.put(key, data) : userData.remove(key);
+	}
+
 	public String getContent() {
 		if (content == null) {
 			content = getOwnerDocument().getText().substring(getStart(), getEnd());
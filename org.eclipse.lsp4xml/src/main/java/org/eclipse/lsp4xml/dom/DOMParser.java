@@ -10,6 +10,12 @@
  */
 package org.eclipse.lsp4xml.dom;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -17,8 +23,11 @@ import org.eclipse.lsp4j.jsonrpc.CancelChecker;
 import org.eclipse.lsp4xml.commons.BadLocationException;
 import org.eclipse.lsp4xml.commons.TextDocument;
 import org.eclipse.lsp4xml.dom.parser.Scanner;
+import org.eclipse.lsp4xml.dom.parser.ScannerState;
 import org.eclipse.lsp4xml.dom.parser.TokenType;
 import org.eclipse.lsp4xml.dom.parser.XMLScanner;
+import org.eclipse.lsp4xml.jfr.XMLEvent;
+import org.eclipse.lsp4xml.jfr.XMLEvents;
 import org.eclipse.lsp4xml.uriresolver.URIResolverExtensionManager;
 import org.eclipse.lsp4xml.utils.DOMUtils;
 import org.eclipse.lsp4xml.utils.StringUtils;
@@ -33,6 +42,10 @@ public class DOMParser {
 
 	private static final DOMParser INSTANCE = new DOMParser();
 
+	private static final int MIN_CHUNK_SIZE = 1024 * 1024;
+
+	private static final int CHUNKS_BY_THREAD = 4;
+
 	public static DOMParser getInstance() {
 		return INSTANCE;
 	}
@@ -57,600 +70,947 @@ public class DOMParser {
 		return parse(document, resolverExtensionManager, ignoreWhitespaceContent, null);
 	}
 
+	/**
+	 * Returns a DOM document without DOM nodes for the given large text document.
+	 * The text content is not scanned, the document can be only validated.
+	 * 
+	 * @param document                 the text document.
+	 * @param resolverExtensionManager the resolver extension manager.
+	 * @param monitor                  the cancel checker.
+	 * @return a DOM document without DOM nodes for the given large text document.
+	 */
+	public DOMDocument createValidationOnlyDocument(TextDocument document,
+			URIResolverExtensionManager resolverExtensionManager, CancelChecker monitor) {
+		DOMDocument xmlDocument = new DOMDocument(document, resolverExtensionManager);
+		xmlDocument.setCancelChecker(monitor);
+		xmlDocument.setValidationOnly(true);
+		return xmlDocument;
+	}
 	public DOMDocument parse(TextDocument document, URIResolverExtensionManager resolverExtensionManager, boolean ignoreWhitespaceContent, CancelChecker monitor) {
+		XMLEvent event = XMLEvents.parse(document, false);
 		boolean isDTD = DOMUtils.isDTD(document.getUri());
-		boolean inDTDInternalSubset = false;
 		String text = document.getText();
 		Scanner scanner = XMLScanner.createScanner(text, 0, isDTD);
 		DOMDocument xmlDocument = new DOMDocument(document, resolverExtensionManager);
 		xmlDocument.setCancelChecker(monitor);
-		
+
 		DOMNode curr = isDTD ? new DOMDocumentType(0, text.length()) : xmlDocument;
 		if (isDTD) {
 			xmlDocument.addChild(curr);
 
 			// This DOMDocumentType object is hidden, and just represents the DTD file
 			// nothing should affect it's closed status
-			curr.closed = true; 
+			curr.closed = true;
 		}
-		DOMNode lastClosed = curr;
-		DOMAttr attr = null;
-		int endTagOpenOffset = -1;
-		String pendingAttribute = null;
-		DOMNode tempWhitespaceContent = null;
-		boolean isInitialDeclaration = true; // A declaration can have multiple internal declarations
-		TokenType token = scanner.scan();
-		while (token != TokenType.EOS) {
-			if (monitor != null) {
-				monitor.checkCanceled();
-			}
-			if(tempWhitespaceContent != null && token != TokenType.EndTagOpen) {
-				tempWhitespaceContent = null;
+		ParseContext context = new ParseContext(xmlDocument, curr, ignoreWhitespaceContent, monitor);
+		context.parse(scanner);
+		context.close();
+		event.close();
+		return xmlDocument;
+	}
+
+	/**
+	 * Parse the given document like
+	 * {@link #parse(TextDocument, URIResolverExtensionManager, boolean, CancelChecker)}
+	 * by parsing in parallel the children of the document element.
+	 *
+	 * <p>
+	 * The text is pre-scanned to find split offsets between the children of the
+	 * document element (outside comments, CDATA sections, processing instructions
+	 * and attribute values). The chunks between these offsets are parsed in the
+	 * fork/join common pool and their nodes are added to the document element.
+	 * When a chunk doesn't end with all its nodes closed (the split offsets are
+	 * wrong for a malformed document), the document is parsed sequentially, so
+	 * the DOM document is always the same as the one of the sequential parse.
+	 * </p>
+	 *
+	 * @param document                 the text document.
+	 * @param resolverExtensionManager the resolver extension manager.
+	 * @param ignoreWhitespaceContent  true if whitespace content must be ignored.
+	 * @param monitor                  the cancel checker.
+	 * @return the DOM document.
+	 */
+	public DOMDocument parseInParallel(TextDocument document, URIResolverExtensionManager resolverExtensionManager,
+			boolean ignoreWhitespaceContent, CancelChecker monitor) {
+		int parallelism = ForkJoinPool.getCommonPoolParallelism();
+		if (parallelism <= 1) {
+			return parse(document, resolverExtensionManager, ignoreWhitespaceContent, monitor);
+		}
+		int chunkSize = Math.max(MIN_CHUNK_SIZE, document.getText().length() / (parallelism * CHUNKS_BY_THREAD));
+		return parseInParallel(document, resolverExtensionManager, ignoreWhitespaceContent, monitor, chunkSize);
+	}
+
+	DOMDocument parseInParallel(TextDocument document, URIResolverExtensionManager resolverExtensionManager,
+			boolean ignoreWhitespaceContent, CancelChecker monitor, int chunkSize) {
+		String text = document.getText();
+		List<Integer> splitOffsets = DOMUtils.isDTD(document.getUri()) ? Collections.emptyList()
+				: findSplitOffsets(text, chunkSize);
+		if (splitOffsets.isEmpty()) {
+			return parse(document, resolverExtensionManager, ignoreWhitespaceContent, monitor);
+		}
+		XMLEvent event = XMLEvents.parse(document, true);
+		try {
+			// initialize the line tracker (used for the comments) before parsing the
+			// chunks
+			document.positionAt(0);
+		} catch (BadLocationException e) {
+			LOGGER.log(Level.SEVERE, "XMLParser bad offset in document", e);
+		}
+		DOMDocument xmlDocument = new DOMDocument(document, resolverExtensionManager);
+		xmlDocument.setCancelChecker(monitor);
+
+		// parse the chunks between the split offsets in parallel
+		List<ForkJoinTask<ParseContext>> chunks = new ArrayList<>(splitOffsets.size() - 1);
+		for (int i = 0; i < splitOffsets.size() - 1; i++) {
+			int start = splitOffsets.get(i);
+			int end = splitOffsets.get(i + 1);
+			chunks.add(ForkJoinTask.adapt(() -> {
+				ParseContext chunk = new ParseContext(xmlDocument, xmlDocument.createElement(start, end),
+						ignoreWhitespaceContent, monitor);
+				chunk.parseChunk(XMLScanner.createScanner(text, start, end, ScannerState.WithinContent));
+				return chunk;
+			}).fork());
+		}
+		try {
+			// parse the text before the first split offset (prolog, start tag of the
+			// document element, first children)
+			ParseContext context = new ParseContext(xmlDocument, xmlDocument, ignoreWhitespaceContent, monitor);
+			context.parse(XMLScanner.createScanner(text, 0, splitOffsets.get(0), ScannerState.WithinContent));
+			boolean parallel = context.isWithinDocumentElementContent();
+			for (int i = 0; i < chunks.size() && parallel; i++) {
+				parallel = context.append(chunks.get(i).join());
+			}
+			if (!parallel) {
+				LOGGER.fine("Cannot parse '" + document.getUri() + "' in parallel, parse it sequentially");
+				return parse(document, resolverExtensionManager, ignoreWhitespaceContent, monitor);
+			}
+			// parse the text after the last split offset (last children, end tag of the
+			// document element)
+			context.parse(XMLScanner.createScanner(text, splitOffsets.get(splitOffsets.size() - 1), text.length(),
+					ScannerState.WithinContent));
+			context.close();
+			event.close();
+			return xmlDocument;
+		} finally {
+			for (ForkJoinTask<ParseContext> chunk : chunks) {
+				chunk.cancel(false);
 			}
-			switch (token) {
-			case StartTagOpen: {
-				if(!curr.isClosed() && curr.parent != null) {
-					//The next node's parent (curr) is not closed at this point
-					//so the node's parent (curr) will have its end position updated
-					//to a newer end position.
-					curr.end = scanner.getTokenOffset();
+		}
+	}
+
+	/**
+	 * Returns the offsets of the '<' of start tags of children of the document
+	 * element where the text can be split in chunks of at least chunkSize
+	 * characters.
+	 *
+	 * <p>
+	 * The pre-scan stops (and returns the offsets found before) when the text is
+	 * not well-formed enough to be split safely.
+	 * </p>
+	 *
+	 * @param text      the text to split.
+	 * @param chunkSize the minimal chunk size.
+	 * @return the split offsets.
+	 */
+	static List<Integer> findSplitOffsets(String text, int chunkSize) {
+		List<Integer> offsets = new ArrayList<>();
+		int length = text.length();
+		int depth = 0;
+		int nextOffset = chunkSize;
+		int pos = 0;
+		while (pos < length) {
+			int start = text.indexOf('<', pos);
+			if (start == -1 || start + 1 >= length) {
+				break;
+			}
+			char c = text.charAt(start + 1);
+			int end;
+			if (c == '!') {
+				if (text.startsWith("<!--", start)) {
+					end = skip(text, start + 4, "-->");
+				} else if (text.startsWith("<![CDATA[", start)) {
+					end = skip(text, start + 9, "]]>");
+				} else if (depth == 0) {
+					// DOCTYPE, the text is split only when it has no internal subset
+					end = skip(text, start + 2, ">");
+					if (end == -1 || text.lastIndexOf('[', end) > start) {
+						break;
+					}
+				} else {
+					// DTD declaration in the content
+					break;
 				}
-				if((curr.isClosed()) || curr.isDoctype()) {
-					//The next node being considered is a child of 'curr'
-					//and if 'curr' is already closed then 'curr' was not updated properly.
-					//Or if we get a Doctype node then we know it was not closed and 'curr'
-					//wasn't updated properly.
-					curr = curr.parent;
-					inDTDInternalSubset = false; //In case it was previously in the internal subset
+			} else if (c == '?') {
+				end = skip(text, start + 2, "?>");
+			} else if (c == '/') {
+				end = skip(text, start + 2, ">");
+				depth--;
+				if (depth <= 0) {
+					// end of the document element
+					break;
 				}
-				DOMElement child = xmlDocument.createElement(scanner.getTokenOffset(), scanner.getTokenEnd());
-				child.startTagOpenOffset = scanner.getTokenOffset();
-				curr.addChild(child);
-				curr = child;
+			} else if (c == '_' || c == ':' || Character.isLetter(c)) {
+				if (depth == 1 && start >= nextOffset) {
+					offsets.add(start);
+					nextOffset = start + chunkSize;
+				}
+				end = skipStartTag(text, start + 1);
+				if (end != -1 && text.charAt(end - 2) != '/') {
+					depth++;
+				}
+			} else {
+				end = start + 1;
+			}
+			if (end == -1) {
 				break;
 			}
+			pos = end;
+		}
+		return offsets;
+	}
 
-			case StartTag: {
-				DOMElement element = (DOMElement) curr;
-				element.tag = scanner.getTokenText();
-				curr.end = scanner.getTokenEnd();
+	/**
+	 * Returns the offset after the given end delimiter and -1 if it is not found.
+	 */
+	private static int skip(String text, int from, String endDelimiter) {
+		int end = text.indexOf(endDelimiter, from);
+		return end != -1 ? end + endDelimiter.length() : -1;
+	}
+
+	/**
+	 * Returns the offset after the '>' of the start tag (ignoring the '>' in the
+	 * attribute values) and -1 if the start tag is not closed.
+	 */
+	private static int skipStartTag(String text, int from) {
+		for (int i = from; i < text.length(); i++) {
+			char c = text.charAt(i);
+			switch (c) {
+			case '"':
+			case '\'':
+				i = text.indexOf(c, i + 1);
+				if (i == -1) {
+					return -1;
+				}
 				break;
+			case '>':
+				return i + 1;
+			case '<':
+				return -1;
+			default:
 			}
+		}
+		return -1;
+	}
 
-			
-			case StartTagClose:
-				if (curr.isElement()) {
-					DOMElement element = (DOMElement) curr;
-					curr.end = scanner.getTokenEnd(); // might be later set to end tag position
-					element.startTagCloseOffset = scanner.getTokenOffset();
+	/**
+	 * State of the parse of the text (or of a chunk of the text) of a document.
+	 */
+	private static class ParseContext {
+
+		private final DOMDocument xmlDocument;
+		private final TextDocument document;
+		private final String text;
+		private final boolean ignoreWhitespaceContent;
+		private final CancelChecker monitor;
+
+		/**
+		 * The node which contains the nodes of a chunk and null when the context
+		 * parses the start of the text.
+		 */
+		private final DOMNode chunkParent;
+		/**
+		 * The comments of a chunk parsed before the first closed node of the chunk.
+		 */
+		private final List<DOMComment> commentsToUpdate;
+		/**
+		 * true if the current attribute is known (false for a chunk until an attribute
+		 * is parsed).
+		 */
+		private boolean attrKnown;
+		/**
+		 * true if a chunk uses the current attribute of the previous chunk.
+		 */
+		private boolean previousAttrUsed;
+		/**
+		 * true if the parse of a chunk reached a state which doesn't exist in the
+		 * sequential parse.
+		 */
+		private boolean chunkFailed;
+		private Scanner scanner;
+
+		private DOMNode curr;
+		private DOMNode lastClosed;
+		private DOMAttr attr = null;
+		private int endTagOpenOffset = -1;
+		private String pendingAttribute = null;
+		private DOMNode tempWhitespaceContent = null;
+		private boolean isInitialDeclaration = true; // A declaration can have multiple internal declarations
+		private boolean inDTDInternalSubset = false;
+
+		ParseContext(DOMDocument xmlDocument, DOMNode curr, boolean ignoreWhitespaceContent,
+				CancelChecker monitor) {
+			this.xmlDocument = xmlDocument;
+			this.document = xmlDocument.getTextDocument();
+			this.text = document.getText();
+			this.ignoreWhitespaceContent = ignoreWhitespaceContent;
+			this.monitor = monitor;
+			this.curr = curr;
+			this.commentsToUpdate = new ArrayList<>();
+			boolean chunk = curr != xmlDocument && !curr.isDoctype();
+			this.chunkParent = chunk ? curr : null;
+			// the last closed node of a chunk is unknown until a node is closed in the
+			// chunk
+			this.lastClosed = chunk ? null : curr;
+			this.attrKnown = !chunk;
+		}
 
-					//never enters isEmptyElement() is always false
-					if (element.getTagName() != null && isEmptyElement(element.getTagName()) && curr.parent != null) {
-						curr.closed = true;
-						curr = curr.parent;
+		void parse(Scanner scanner) {
+			this.scanner = scanner;
+			TokenType token = scanner.scan();
+			while (token != TokenType.EOS) {
+				if (monitor != null) {
+					monitor.checkCanceled();
+				}
+				if(tempWhitespaceContent != null && token != TokenType.EndTagOpen) {
+					tempWhitespaceContent = null;
+				}
+				switch (token) {
+				case StartTagOpen: {
+					if(!curr.isClosed() && curr.parent != null) {
+						//The next node's parent (curr) is not closed at this point
+						//so the node's parent (curr) will have its end position updated
+						//to a newer end position.
+						curr.end = scanner.getTokenOffset();
 					}
-				} else if (curr.isProcessingInstruction() || curr.isProlog()) {
-					DOMProcessingInstruction element = (DOMProcessingInstruction) curr;
-					curr.end = scanner.getTokenEnd(); // might be later set to end tag position
-					element.startTagClose = true;
-					if (element.getTarget() != null && isEmptyElement(element.getTarget()) && curr.parent != null) {
-						curr.closed = true;
+					if((curr.isClosed()) || curr.isDoctype()) {
+						//The next node being considered is a child of 'curr'
+						//and if 'curr' is already closed then 'curr' was not updated properly.
+						//Or if we get a Doctype node then we know it was not closed and 'curr'
+						//wasn't updated properly.
 						curr = curr.parent;
+						inDTDInternalSubset = false; //In case it was previously in the internal subset
 					}
+					DOMElement child = xmlDocument.createElement(scanner.getTokenOffset(), scanner.getTokenEnd());
+					child.startTagOpenOffset = scanner.getTokenOffset();
+					curr.addChild(child);
+					curr = child;
+					break;
 				}
-				curr.end = scanner.getTokenEnd();
-				break;
 
-			case EndTagOpen:
-				if(tempWhitespaceContent != null) {
-					curr.addChild(tempWhitespaceContent);
-					tempWhitespaceContent = null;
+				case StartTag: {
+					DOMElement element = (DOMElement) curr;
+					element.tag = scanner.getTokenText();
+					curr.end = scanner.getTokenEnd();
+					break;
 				}
-				endTagOpenOffset = scanner.getTokenOffset();
-				curr.end = scanner.getTokenOffset();
-				break;
-
-			case EndTag:
-				// end tag (ex: </root>)
-				String closeTag = scanner.getTokenText();
-				DOMNode current = curr;
 
-				/**
-				eg: <a><b><c></d> will set a,b,c end position to the start of |</d>
-				*/
-				while (!(curr.isElement() && ((DOMElement) curr).isSameTag(closeTag)) && curr.parent != null) {
-					curr.end = endTagOpenOffset;
-					curr = curr.parent;
-				}
-				if (curr != xmlDocument) {
-					curr.closed = true;
+			
+				case StartTagClose:
 					if (curr.isElement()) {
-						((DOMElement) curr).endTagOpenOffset = endTagOpenOffset;
+						DOMElement element = (DOMElement) curr;
+						curr.end = scanner.getTokenEnd(); // might be later set to end tag position
+						element.startTagCloseOffset = scanner.getTokenOffset();
+
+						//never enters isEmptyElement() is always false
+						if (element.getTagName() != null && isEmptyElement(element.getTagName()) && curr.parent != null) {
+							curr.closed = true;
+							curr = curr.parent;
+						}
 					} else if (curr.isProcessingInstruction() || curr.isProlog()) {
-						((DOMProcessingInstruction) curr).endTagOpenOffset = endTagOpenOffset;
+						DOMProcessingInstruction element = (DOMProcessingInstruction) curr;
+						curr.end = scanner.getTokenEnd(); // might be later set to end tag position
+						element.startTagClose = true;
+						if (element.getTarget() != null && isEmptyElement(element.getTarget()) && curr.parent != null) {
+							curr.closed = true;
+							curr = curr.parent;
+						}
 					}
 					curr.end = scanner.getTokenEnd();
-				} else {
-					// element open tag not found (ex: <root>) add a fake element which only has an
-					// end tag (no start tag).
-					DOMElement element = xmlDocument.createElement(scanner.getTokenOffset() - 2, scanner.getTokenEnd());
-					element.endTagOpenOffset = endTagOpenOffset;
-					element.tag = closeTag;
-					current.addChild(element);
-					curr = element;
-				}
-				break;
-
-			case StartTagSelfClose:
-				if (curr.parent != null) {
-					curr.closed = true;
-					((DOMElement) curr).selfClosed = true;
-					curr.end = scanner.getTokenEnd();
-					lastClosed = curr;
-					curr = curr.parent;
-				}
-				break;
+					break;
 
-			case EndTagClose:
-				if (curr.parent != null) {
-					curr.end = scanner.getTokenEnd();
-					lastClosed = curr;
-					if(lastClosed.isElement()) {
-						((DOMElement) curr).endTagCloseOffset = scanner.getTokenOffset();
+				case EndTagOpen:
+					if(tempWhitespaceContent != null) {
+						curr.addChild(tempWhitespaceContent);
+						tempWhitespaceContent = null;
+					}
+					endTagOpenOffset = scanner.getTokenOffset();
+					curr.end = scanner.getTokenOffset();
+					break;
+
+				case EndTag:
+					// end tag (ex: </root>)
+					String closeTag = scanner.getTokenText();
+					DOMNode current = curr;
+
+					/**
+					eg: <a><b><c></d> will set a,b,c end position to the start of |</d>
+					*/
+					while (!(curr.isElement() && ((DOMElement) curr).isSameTag(closeTag)) && curr.parent != null) {
+						curr.end = endTagOpenOffset;
+						curr = curr.parent;
 					}
-					if(curr.isDoctype()) {
+					if (curr != xmlDocument) {
 						curr.closed = true;
+						if (curr.isElement()) {
+							((DOMElement) curr).endTagOpenOffset = endTagOpenOffset;
+						} else if (curr.isProcessingInstruction() || curr.isProlog()) {
+							((DOMProcessingInstruction) curr).endTagOpenOffset = endTagOpenOffset;
+						}
+						curr.end = scanner.getTokenEnd();
+					} else {
+						// element open tag not found (ex: <root>) add a fake element which only has an
+						// end tag (no start tag).
+						DOMElement element = xmlDocument.createElement(scanner.getTokenOffset() - 2, scanner.getTokenEnd());
+						element.endTagOpenOffset = endTagOpenOffset;
+						element.tag = closeTag;
+						current.addChild(element);
+						curr = element;
 					}
-					curr = curr.parent;
+					break;
+
+				case StartTagSelfClose:
+					if (curr.parent != null) {
+						curr.closed = true;
+						((DOMElement) curr).selfClosed = true;
+						curr.end = scanner.getTokenEnd();
+						lastClosed = curr;
+						curr = curr.parent;
+					}
+					break;
+
+				case EndTagClose:
+					if (curr.parent != null) {
+						curr.end = scanner.getTokenEnd();
+						lastClosed = curr;
+						if(lastClosed.isElement()) {
+							((DOMElement) curr).endTagCloseOffset = scanner.getTokenOffset();
+						}
+						if(curr.isDoctype()) {
+							curr.closed = true;
+						}
+						curr = curr.parent;
 					
-				}
-				break;
+					}
+					break;
 
-			case AttributeName: {
-				pendingAttribute = scanner.getTokenText();
-				attr = new DOMAttr(pendingAttribute, scanner.getTokenOffset(),
-						scanner.getTokenOffset() + pendingAttribute.length(), curr);
-				curr.setAttributeNode(attr);
-				curr.end = scanner.getTokenEnd();
-				break;
-			}
+				case AttributeName: {
+					pendingAttribute = scanner.getTokenText();
+					attr = new DOMAttr(pendingAttribute, scanner.getTokenOffset(),
+							scanner.getTokenOffset() + pendingAttribute.length(), curr);
+					curr.setAttributeNode(attr);
+					curr.end = scanner.getTokenEnd();
+					attrKnown = true;
+					break;
+				}
 
-			case DelimiterAssign: {
-				if(attr != null) {
-					//Sets the value to the '=' position in case there is no AttributeValue
-					attr.setValue(null, scanner.getTokenOffset(), scanner.getTokenEnd());
-					attr.setDelimiter(true);
+				case DelimiterAssign: {
+					useAttr();
+					if(attr != null) {
+						//Sets the value to the '=' position in case there is no AttributeValue
+						attr.setValue(null, scanner.getTokenOffset(), scanner.getTokenEnd());
+						attr.setDelimiter(true);
+					}
+					break;
 				}
-				break;
-			}
 
-			case AttributeValue: {
-				String value = scanner.getTokenText();
-				if (curr.hasAttributes() && attr != null) {
-					attr.setValue(value, scanner.getTokenOffset(), scanner.getTokenOffset() + value.length());
+				case AttributeValue: {
+					useAttr();
+					String value = scanner.getTokenText();
+					if (curr.hasAttributes() && attr != null) {
+						attr.setValue(value, scanner.getTokenOffset(), scanner.getTokenOffset() + value.length());
+					}
+					pendingAttribute = null;
+					attr = null;
+					curr.end = scanner.getTokenEnd();
+					break;
 				}
-				pendingAttribute = null;
-				attr = null;
-				curr.end = scanner.getTokenEnd();
-				break;
-			}
 
-			case CDATATagOpen: {
-				DOMCDATASection cdataNode = xmlDocument.createCDataSection(scanner.getTokenOffset(), text.length());
-				curr.addChild(cdataNode);
-				curr = cdataNode;
-				break;
-			}
+				case CDATATagOpen: {
+					DOMCDATASection cdataNode = xmlDocument.createCDataSection(scanner.getTokenOffset(), text.length());
+					curr.addChild(cdataNode);
+					curr = cdataNode;
+					break;
+				}
 
-			case CDATAContent: {
-				DOMCDATASection cdataNode = (DOMCDATASection) curr;
-				cdataNode.startContent = scanner.getTokenOffset();
-				cdataNode.endContent = scanner.getTokenEnd();
-				curr.end = scanner.getTokenEnd();
-				break;
-			}
+				case CDATAContent: {
+					DOMCDATASection cdataNode = (DOMCDATASection) curr;
+					cdataNode.startContent = scanner.getTokenOffset();
+					cdataNode.endContent = scanner.getTokenEnd();
+					curr.end = scanner.getTokenEnd();
+					break;
+				}
 
-			case CDATATagClose: {
-				curr.end = scanner.getTokenEnd();
-				curr.closed = true;
-				curr = curr.parent;
-				break;
-			}
+				case CDATATagClose: {
+					curr.end = scanner.getTokenEnd();
+					curr.closed = true;
+					curr = curr.parent;
+					break;
+				}
 
-			case StartPrologOrPI: {
-				DOMProcessingInstruction prologOrPINode = xmlDocument
-						.createProcessingInstruction(scanner.getTokenOffset(), text.length());
-				curr.addChild(prologOrPINode);
-				curr = prologOrPINode;
-				break;
-			}
+				case StartPrologOrPI: {
+					DOMProcessingInstruction prologOrPINode = xmlDocument
+							.createProcessingInstruction(scanner.getTokenOffset(), text.length());
+					curr.addChild(prologOrPINode);
+					curr = prologOrPINode;
+					break;
+				}
 
-			case PIName: {
-				DOMProcessingInstruction processingInstruction = ((DOMProcessingInstruction) curr);
-				processingInstruction.target = scanner.getTokenText();
-				processingInstruction.processingInstruction = true;
-				break;
-			}
+				case PIName: {
+					DOMProcessingInstruction processingInstruction = ((DOMProcessingInstruction) curr);
+					processingInstruction.target = scanner.getTokenText();
+					processingInstruction.processingInstruction = true;
+					break;
+				}
 
-			case PrologName: {
-				DOMProcessingInstruction processingInstruction = ((DOMProcessingInstruction) curr);
-				processingInstruction.target = scanner.getTokenText();
-				processingInstruction.prolog = true;
-				break;
-			}
+				case PrologName: {
+					DOMProcessingInstruction processingInstruction = ((DOMProcessingInstruction) curr);
+					processingInstruction.target = scanner.getTokenText();
+					processingInstruction.prolog = true;
+					break;
+				}
 
-			case PIContent: {
-				DOMProcessingInstruction processingInstruction = (DOMProcessingInstruction) curr;
-				processingInstruction.startContent = scanner.getTokenOffset();
-				processingInstruction.endContent = scanner.getTokenEnd();
-				break;
-			}
+				case PIContent: {
+					DOMProcessingInstruction processingInstruction = (DOMProcessingInstruction) curr;
+					processingInstruction.startContent = scanner.getTokenOffset();
+					processingInstruction.endContent = scanner.getTokenEnd();
+					break;
+				}
 
-			case PIEnd:
-			case PrologEnd: {
-				curr.end = scanner.getTokenEnd();
-				curr.closed = true;
-				curr = curr.parent;
-				break;
-			}
+				case PIEnd:
+				case PrologEnd: {
+					curr.end = scanner.getTokenEnd();
+					curr.closed = true;
+					curr = curr.parent;
+					break;
+				}
 
-			case StartCommentTag: {
-				//Incase the tag before the comment tag (curr) was not properly closed
-				//curr should be set to the root node.
-				if(xmlDocument.isDTD() || inDTDInternalSubset) {
-					while(!curr.isDoctype()) {
+				case StartCommentTag: {
+					//Incase the tag before the comment tag (curr) was not properly closed
+					//curr should be set to the root node.
+					if(xmlDocument.isDTD() || inDTDInternalSubset) {
+						while(!curr.isDoctype()) {
+							curr = curr.parent;
+						}
+					}
+					else if((curr.isClosed())) {
 						curr = curr.parent;
 					}
-				}
-				else if((curr.isClosed())) {
-					curr = curr.parent;
-				}
-				DOMComment comment = xmlDocument.createComment(scanner.getTokenOffset(), text.length());
-				curr.addChild(comment);
-				curr = comment;
-				try {
-					int endLine = document.positionAt(lastClosed.end).getLine();
-					int startLine = document.positionAt(curr.start).getLine();
-					if (endLine == startLine && lastClosed.end <= curr.start) {
-						comment.commentSameLineEndTag = true;
+					DOMComment comment = xmlDocument.createComment(scanner.getTokenOffset(), text.length());
+					curr.addChild(comment);
+					curr = comment;
+					if (lastClosed != null) {
+						updateCommentSameLineEndTag(comment, lastClosed);
+					} else {
+						// the last closed node is in a previous chunk
+						commentsToUpdate.add(comment);
 					}
-				} catch (BadLocationException e) {
-					LOGGER.log(Level.SEVERE, "XMLParser StartCommentTag bad offset in document", e);
+					break;
 				}
-				break;
-			}
-
-			case Comment: {
-				DOMComment comment = (DOMComment) curr;
-				comment.startContent = scanner.getTokenOffset();
-				comment.endContent = scanner.getTokenEnd();
-				break;
-			}
 
-			case EndCommentTag: {
-				curr.end = scanner.getTokenEnd();
-				curr.closed = true;
-				curr = curr.parent;
-				break;
-			}
+				case Comment: {
+					DOMComment comment = (DOMComment) curr;
+					comment.startContent = scanner.getTokenOffset();
+					comment.endContent = scanner.getTokenEnd();
+					break;
+				}
 
-			case Content: {
-				// FIXME: don't use getTokenText (substring) to know if the content is only
-				// spaces or line feed (scanner should know that). 
-				boolean currIsDeclNode = curr instanceof DTDDeclNode;
-				if (currIsDeclNode) {
-					curr.end = scanner.getTokenOffset() - 1;
-					while(!curr.isDoctype()) {
-						curr = curr.getParentNode();
-					}	
+				case EndCommentTag: {
+					curr.end = scanner.getTokenEnd();
+					curr.closed = true;
+					curr = curr.parent;
+					break;
 				}
-				int start = scanner.getTokenOffset();
-				int end = scanner.getTokenEnd();
-				DOMText textNode = xmlDocument.createText(start, end);
-				textNode.closed = true;
 
-				String content = scanner.getTokenText();
-				if(StringUtils.isWhitespace(content)) {
-					if(ignoreWhitespaceContent) {
-						if(curr.hasChildNodes()) {
-							break;
-						}
+				case Content: {
+					// FIXME: don't use getTokenText (substring) to know if the content is only
+					// spaces or line feed (scanner should know that). 
+					boolean currIsDeclNode = curr instanceof DTDDeclNode;
+					if (currIsDeclNode) {
+						curr.end = scanner.getTokenOffset() - 1;
+						while(!curr.isDoctype()) {
+							curr = curr.getParentNode();
+						}	
+					}
+					int start = scanner.getTokenOffset();
+					int end = scanner.getTokenEnd();
+					DOMText textNode = xmlDocument.createText(start, end);
+					textNode.closed = true;
+
+					String content = scanner.getTokenText();
+					if(StringUtils.isWhitespace(content)) {
+						if(ignoreWhitespaceContent) {
+							if(curr.hasChildNodes()) {
+								break;
+							}
 						
-						tempWhitespaceContent = textNode;
-						break;
+							tempWhitespaceContent = textNode;
+							break;
 						
-					}
-					else if(!currIsDeclNode) {
-						textNode.setWhitespace(true);
-					}
-					else {
-						break;
-					}
+						}
+						else if(!currIsDeclNode) {
+							textNode.setWhitespace(true);
+						}
+						else {
+							break;
+						}
 					
-				}
-
-				curr.addChild(textNode);
-				break;
-			}
+					}
 
-			// DTD
+					curr.addChild(textNode);
+					break;
+				}
 
-			case DTDStartDoctypeTag: {
-				DOMDocumentType doctype = xmlDocument.createDocumentType(scanner.getTokenOffset(), text.length());
-				curr.addChild(doctype);
-				doctype.parent = curr;
-				curr = doctype;
-				break;
-			}
+				// DTD
 
-			case DTDDoctypeName: {
-				DOMDocumentType doctype = (DOMDocumentType) curr;
-				doctype.setName(scanner.getTokenOffset(), scanner.getTokenEnd());
-				break;
-			}
+				case DTDStartDoctypeTag: {
+					DOMDocumentType doctype = xmlDocument.createDocumentType(scanner.getTokenOffset(), text.length());
+					curr.addChild(doctype);
+					doctype.parent = curr;
+					curr = doctype;
+					break;
+				}
 
-			case DTDDocTypeKindPUBLIC: {
-				DOMDocumentType doctype = (DOMDocumentType) curr;
-				doctype.setKind(scanner.getTokenOffset(), scanner.getTokenEnd());
-				break;
-			}
+				case DTDDoctypeName: {
+					DOMDocumentType doctype = (DOMDocumentType) curr;
+					doctype.setName(scanner.getTokenOffset(), scanner.getTokenEnd());
+					break;
+				}
 
-			case DTDDocTypeKindSYSTEM: {
-				DOMDocumentType doctype = (DOMDocumentType) curr;
-				doctype.setKind(scanner.getTokenOffset(), scanner.getTokenEnd());
-				break;
-			}
+				case DTDDocTypeKindPUBLIC: {
+					DOMDocumentType doctype = (DOMDocumentType) curr;
+					doctype.setKind(scanner.getTokenOffset(), scanner.getTokenEnd());
+					break;
+				}
 
-			case DTDDoctypePublicId: {
-				DOMDocumentType doctype = (DOMDocumentType) curr;
-				doctype.setPublicId(scanner.getTokenOffset(), scanner.getTokenEnd());
-				break;
-			}
+				case DTDDocTypeKindSYSTEM: {
+					DOMDocumentType doctype = (DOMDocumentType) curr;
+					doctype.setKind(scanner.getTokenOffset(), scanner.getTokenEnd());
+					break;
+				}
 
-			case DTDDoctypeSystemId: {
-				DOMDocumentType doctype = (DOMDocumentType) curr;
-				doctype.setSystemId(scanner.getTokenOffset(), scanner.getTokenEnd());
-				break;
-			}
+				case DTDDoctypePublicId: {
+					DOMDocumentType doctype = (DOMDocumentType) curr;
+					doctype.setPublicId(scanner.getTokenOffset(), scanner.getTokenEnd());
+					break;
+				}
 
-			case DTDStartInternalSubset: {
-				DOMDocumentType doctype = (DOMDocumentType) curr;
-				doctype.setStartInternalSubset(scanner.getTokenOffset());
-				inDTDInternalSubset = true;
-				break;
-			}
+				case DTDDoctypeSystemId: {
+					DOMDocumentType doctype = (DOMDocumentType) curr;
+					doctype.setSystemId(scanner.getTokenOffset(), scanner.getTokenEnd());
+					break;
+				}
 
-			case DTDEndInternalSubset: {
-				while (!curr.isDoctype()) {
-					curr.end = scanner.getTokenOffset() - 1;
-					curr = curr.getParentNode();
+				case DTDStartInternalSubset: {
+					DOMDocumentType doctype = (DOMDocumentType) curr;
+					doctype.setStartInternalSubset(scanner.getTokenOffset());
+					inDTDInternalSubset = true;
+					break;
 				}
-				inDTDInternalSubset = false;
-				DOMDocumentType doctype = (DOMDocumentType) curr;
-				doctype.setEndInternalSubset(scanner.getTokenEnd());
-				break;
-			}
 
-			case DTDStartElement: {
-				//If previous 'curr' was an unclosed DTD Declaration
-				while (!curr.isDoctype()) {
-					curr.end = scanner.getTokenOffset();
-					curr = curr.getParentNode();
+				case DTDEndInternalSubset: {
+					while (!curr.isDoctype()) {
+						curr.end = scanner.getTokenOffset() - 1;
+						curr = curr.getParentNode();
+					}
+					inDTDInternalSubset = false;
+					DOMDocumentType doctype = (DOMDocumentType) curr;
+					doctype.setEndInternalSubset(scanner.getTokenEnd());
+					break;
 				}
-				
-				DTDElementDecl child = new DTDElementDecl(scanner.getTokenOffset(), text.length());
-				curr.addChild(child);
-				curr = child;
-				break;
-			}
 
-			case DTDElementDeclName: {
-				DTDElementDecl element = (DTDElementDecl) curr;
-				element.setName(scanner.getTokenOffset(), scanner.getTokenEnd());
-				break;
-			}
+				case DTDStartElement: {
+					//If previous 'curr' was an unclosed DTD Declaration
+					while (!curr.isDoctype()) {
+						curr.end = scanner.getTokenOffset();
+						curr = curr.getParentNode();
+					}
+				
+					DTDElementDecl child = new DTDElementDecl(scanner.getTokenOffset(), text.length());
+					curr.addChild(child);
+					curr = child;
+					break;
+				}
 
-			case DTDElementCategory: {
-				DTDElementDecl element = (DTDElementDecl) curr;
-				element.setCategory(scanner.getTokenOffset(), scanner.getTokenEnd());
-				break;
-			}
+				case DTDElementDeclName: {
+					DTDElementDecl element = (DTDElementDecl) curr;
+					element.setName(scanner.getTokenOffset(), scanner.getTokenEnd());
+					break;
+				}
 
-			case DTDStartElementContent: {
-				DTDElementDecl element = (DTDElementDecl) curr;
-				element.setContent(scanner.getTokenOffset(), scanner.getTokenEnd());
-				break;
-			}
+				case DTDElementCategory: {
+					DTDElementDecl element = (DTDElementDecl) curr;
+					element.setCategory(scanner.getTokenOffset(), scanner.getTokenEnd());
+					break;
+				}
 
-			case DTDElementContent: {
-				DTDElementDecl element = (DTDElementDecl) curr;
-				element.updateLastParameterEnd(scanner.getTokenEnd());
-				break;
-			}
+				case DTDStartElementContent: {
+					DTDElementDecl element = (DTDElementDecl) curr;
+					element.setContent(scanner.getTokenOffset(), scanner.getTokenEnd());
+					break;
+				}
 
-			case DTDEndElementContent: {
-				DTDElementDecl element = (DTDElementDecl) curr;
-				element.updateLastParameterEnd(scanner.getTokenEnd());
-				break;
-			}
+				case DTDElementContent: {
+					DTDElementDecl element = (DTDElementDecl) curr;
+					element.updateLastParameterEnd(scanner.getTokenEnd());
+					break;
+				}
 
-			case DTDStartAttlist: {
-				while (!curr.isDoctype()) { // If previous DTD Decl was unclosed
-					curr.end = scanner.getTokenOffset();
-					curr = curr.getParentNode();
+				case DTDEndElementContent: {
+					DTDElementDecl element = (DTDElementDecl) curr;
+					element.updateLastParameterEnd(scanner.getTokenEnd());
+					break;
 				}
-				DTDAttlistDecl child = new DTDAttlistDecl(scanner.getTokenOffset(), text.length());
+
+				case DTDStartAttlist: {
+					while (!curr.isDoctype()) { // If previous DTD Decl was unclosed
+						curr.end = scanner.getTokenOffset();
+						curr = curr.getParentNode();
+					}
+					DTDAttlistDecl child = new DTDAttlistDecl(scanner.getTokenOffset(), text.length());
 		
-				isInitialDeclaration = true;
-				curr.addChild(child);
-				curr = child;
-				break;
-			}
+					isInitialDeclaration = true;
+					curr.addChild(child);
+					curr = child;
+					break;
+				}
 
-			case DTDAttlistElementName: {
-				DTDAttlistDecl attribute = (DTDAttlistDecl) curr;
-				attribute.setName(scanner.getTokenOffset(), scanner.getTokenEnd());
-				break;
-			}
+				case DTDAttlistElementName: {
+					DTDAttlistDecl attribute = (DTDAttlistDecl) curr;
+					attribute.setName(scanner.getTokenOffset(), scanner.getTokenEnd());
+					break;
+				}
 
-			case DTDAttlistAttributeName: {
-				DTDAttlistDecl attribute = (DTDAttlistDecl) curr;
-				if(isInitialDeclaration == false) {
-					// All additional declarations are created as new DTDAttlistDecl's
-					DTDAttlistDecl child = new DTDAttlistDecl(attribute.getStart(), attribute.getEnd());
-					attribute.addAdditionalAttDecl(child);
-					child.parent = attribute;
+				case DTDAttlistAttributeName: {
+					DTDAttlistDecl attribute = (DTDAttlistDecl) curr;
+					if(isInitialDeclaration == false) {
+						// All additional declarations are created as new DTDAttlistDecl's
+						DTDAttlistDecl child = new DTDAttlistDecl(attribute.getStart(), attribute.getEnd());
+						attribute.addAdditionalAttDecl(child);
+						child.parent = attribute;
 
-					attribute = child;
-					curr = child;
+						attribute = child;
+						curr = child;
+					}
+					attribute.setAttributeName(scanner.getTokenOffset(), scanner.getTokenEnd());
+					break;
 				}
-				attribute.setAttributeName(scanner.getTokenOffset(), scanner.getTokenEnd());
-				break;
-			}
 
-			case DTDAttlistAttributeType: {
-				DTDAttlistDecl attribute = (DTDAttlistDecl) curr;
-				attribute.setAttributeType(scanner.getTokenOffset(), scanner.getTokenEnd());
-				break;
-			}
+				case DTDAttlistAttributeType: {
+					DTDAttlistDecl attribute = (DTDAttlistDecl) curr;
+					attribute.setAttributeType(scanner.getTokenOffset(), scanner.getTokenEnd());
+					break;
+				}
 
-			case DTDAttlistAttributeValue: {
-				DTDAttlistDecl attribute = (DTDAttlistDecl) curr;
-				attribute.setAttributeValue(scanner.getTokenOffset(), scanner.getTokenEnd());
+				case DTDAttlistAttributeValue: {
+					DTDAttlistDecl attribute = (DTDAttlistDecl) curr;
+					attribute.setAttributeValue(scanner.getTokenOffset(), scanner.getTokenEnd());
 
-				if(attribute.parent.isDTDAttListDecl()) { // Is not the root/main ATTLIST node
-					curr = attribute.parent;
-				}
-				else {
-					isInitialDeclaration = false;
+					if(attribute.parent.isDTDAttListDecl()) { // Is not the root/main ATTLIST node
+						curr = attribute.parent;
+					}
+					else {
+						isInitialDeclaration = false;
+					}
+					break;
 				}
-				break;
-			}
 		
-			case DTDStartEntity: {
-				while (!curr.isDoctype()) { // If previous DTD Decl was unclosed
-					curr.end = scanner.getTokenOffset();
-					curr = curr.getParentNode();
+				case DTDStartEntity: {
+					while (!curr.isDoctype()) { // If previous DTD Decl was unclosed
+						curr.end = scanner.getTokenOffset();
+						curr = curr.getParentNode();
+					}
+					DTDEntityDecl child = new DTDEntityDecl(scanner.getTokenOffset(), text.length());
+					curr.addChild(child);
+					curr = child;
+					break;
 				}
-				DTDEntityDecl child = new DTDEntityDecl(scanner.getTokenOffset(), text.length());
-				curr.addChild(child);
-				curr = child;
-				break;
-			}
 
-			case DTDEntityPercent: {
-				DTDEntityDecl entity = (DTDEntityDecl) curr;
-				entity.setPercent(scanner.getTokenOffset(), scanner.getTokenEnd());
-				break;
-			}
+				case DTDEntityPercent: {
+					DTDEntityDecl entity = (DTDEntityDecl) curr;
+					entity.setPercent(scanner.getTokenOffset(), scanner.getTokenEnd());
+					break;
+				}
 
-			case DTDEntityName : {
-				DTDEntityDecl entity = (DTDEntityDecl) curr;
-				entity.setName(scanner.getTokenOffset(), scanner.getTokenEnd());
-				break;
-			}
+				case DTDEntityName : {
+					DTDEntityDecl entity = (DTDEntityDecl) curr;
+					entity.setName(scanner.getTokenOffset(), scanner.getTokenEnd());
+					break;
+				}
 
-			case DTDEntityValue : {
-				DTDEntityDecl entity = (DTDEntityDecl) curr;
-				entity.setValue(scanner.getTokenOffset(), scanner.getTokenEnd());
-				break;
-			}
+				case DTDEntityValue : {
+					DTDEntityDecl entity = (DTDEntityDecl) curr;
+					entity.setValue(scanner.getTokenOffset(), scanner.getTokenEnd());
+					break;
+				}
 
-			case DTDEntityKindPUBLIC:
-			case DTDEntityKindSYSTEM: {
-				DTDEntityDecl entity = (DTDEntityDecl) curr;
-				entity.setKind(scanner.getTokenOffset(), scanner.getTokenEnd());
-				break;
-			}
+				case DTDEntityKindPUBLIC:
+				case DTDEntityKindSYSTEM: {
+					DTDEntityDecl entity = (DTDEntityDecl) curr;
+					entity.setKind(scanner.getTokenOffset(), scanner.getTokenEnd());
+					break;
+				}
 
-			case DTDEntityPublicId: {
-				DTDEntityDecl entity = (DTDEntityDecl) curr;
-				entity.setPublicId(scanner.getTokenOffset(), scanner.getTokenEnd());
-				break;
-			}
+				case DTDEntityPublicId: {
+					DTDEntityDecl entity = (DTDEntityDecl) curr;
+					entity.setPublicId(scanner.getTokenOffset(), scanner.getTokenEnd());
+					break;
+				}
 
-			case DTDEntitySystemId: {
-				DTDEntityDecl entity = (DTDEntityDecl) curr;
-				entity.setSystemId(scanner.getTokenOffset(), scanner.getTokenEnd());
-				break;
-			}
+				case DTDEntitySystemId: {
+					DTDEntityDecl entity = (DTDEntityDecl) curr;
+					entity.setSystemId(scanner.getTokenOffset(), scanner.getTokenEnd());
+					break;
+				}
 
-			case DTDStartNotation: {
-				while (!curr.isDoctype()) { // If previous DTD Decl was unclosed
-					curr.end = scanner.getTokenOffset();
-					curr = curr.getParentNode();
+				case DTDStartNotation: {
+					while (!curr.isDoctype()) { // If previous DTD Decl was unclosed
+						curr.end = scanner.getTokenOffset();
+						curr = curr.getParentNode();
+					}
+					DTDNotationDecl child = new DTDNotationDecl(scanner.getTokenOffset(), text.length());
+					curr.addChild(child);
+					curr = child;
+					isInitialDeclaration = true;
+					break;
 				}
-				DTDNotationDecl child = new DTDNotationDecl(scanner.getTokenOffset(), text.length());
-				curr.addChild(child);
-				curr = child;
-				isInitialDeclaration = true;
-				break;
-			}
 
-			case DTDNotationName: {
-				DTDNotationDecl notation = (DTDNotationDecl) curr;
-				notation.setName(scanner.getTokenOffset(), scanner.getTokenEnd());
-				break;
-			}
+				case DTDNotationName: {
+					DTDNotationDecl notation = (DTDNotationDecl) curr;
+					notation.setName(scanner.getTokenOffset(), scanner.getTokenEnd());
+					break;
+				}
 
-			case DTDNotationKindPUBLIC: {
-				DTDNotationDecl notation = (DTDNotationDecl) curr;
-				notation.setKind(scanner.getTokenOffset(), scanner.getTokenEnd());
-				break;
-			}
+				case DTDNotationKindPUBLIC: {
+					DTDNotationDecl notation = (DTDNotationDecl) curr;
+					notation.setKind(scanner.getTokenOffset(), scanner.getTokenEnd());
+					break;
+				}
 
-			case DTDNotationKindSYSTEM: {
-				DTDNotationDecl notation = (DTDNotationDecl) curr;
-				notation.setKind(scanner.getTokenOffset(), scanner.getTokenEnd());
-				break;
-			}
+				case DTDNotationKindSYSTEM: {
+					DTDNotationDecl notation = (DTDNotationDecl) curr;
+					notation.setKind(scanner.getTokenOffset(), scanner.getTokenEnd());
+					break;
+				}
 
-			case DTDNotationPublicId: {
-				DTDNotationDecl notation = (DTDNotationDecl) curr;
-				notation.setPublicId(scanner.getTokenOffset(), scanner.getTokenEnd());
-				break;
-			}
+				case DTDNotationPublicId: {
+					DTDNotationDecl notation = (DTDNotationDecl) curr;
+					notation.setPublicId(scanner.getTokenOffset(), scanner.getTokenEnd());
+					break;
+				}
 
-			case DTDNotationSystemId: {
-				DTDNotationDecl notation = (DTDNotationDecl) curr;
-				notation.setSystemId(scanner.getTokenOffset(), scanner.getTokenEnd());
-				break;
-			}
+				case DTDNotationSystemId: {
+					DTDNotationDecl notation = (DTDNotationDecl) curr;
+					notation.setSystemId(scanner.getTokenOffset(), scanner.getTokenEnd());
+					break;
+				}
 
-			case DTDEndTag: {
-				if ((curr.isDTDElementDecl() || curr.isDTDAttListDecl() || curr.isDTDEntityDecl() || curr.isDTDNotationDecl()) ) {
-					while(curr.parent != null && !curr.parent.isDoctype()) {
+				case DTDEndTag: {
+					if ((curr.isDTDElementDecl() || curr.isDTDAttListDecl() || curr.isDTDEntityDecl() || curr.isDTDNotationDecl()) ) {
+						while(curr.parent != null && !curr.parent.isDoctype()) {
+							curr = curr.parent;
+						}
+						curr.end = scanner.getTokenEnd();
+						curr.closed = true;
 						curr = curr.parent;
 					}
-					curr.end = scanner.getTokenEnd();
+					break;
+				}
+			
+				case DTDEndDoctypeTag: {
+					((DOMDocumentType) curr).end = scanner.getTokenEnd();
 					curr.closed = true;
 					curr = curr.parent;
+					break;
 				}
-				break;
+
+				case DTDUnrecognizedParameters: {
+					DTDDeclNode node = (DTDDeclNode) curr;
+					node.setUnrecognized(scanner.getTokenOffset(), ((XMLScanner)scanner).getLastNonWhitespaceOffset());
+					break;
+				}
+
+				default:
+				}
+				token = scanner.scan();
 			}
-			
-			case DTDEndDoctypeTag: {
-				((DOMDocumentType) curr).end = scanner.getTokenEnd();
-				curr.closed = true;
-				curr = curr.parent;
-				break;
+		}
+
+		void parseChunk(Scanner scanner) {
+			try {
+				parse(scanner);
+			} catch (CancellationException e) {
+				throw e;
+			} catch (RuntimeException e) {
+				// ex : the end tag of the document element closes the chunk parent, the
+				// chunk cannot be parsed without the previous chunks, the document is parsed
+				// sequentially
+				LOGGER.log(Level.FINE, "Cannot parse a chunk of '" + document.getUri() + "' at offset "
+						+ scanner.getTokenOffset() + ", parse the document sequentially", e);
+				chunkFailed = true;
 			}
+		}
 
-			case DTDUnrecognizedParameters: {
-				DTDDeclNode node = (DTDDeclNode) curr;
-				node.setUnrecognized(scanner.getTokenOffset(), ((XMLScanner)scanner).getLastNonWhitespaceOffset());
-				break;
+		private void useAttr() {
+			if (!attrKnown) {
+				previousAttrUsed = true;
+				attrKnown = true;
 			}
+		}
 
-			default:
+		private void updateCommentSameLineEndTag(DOMComment comment, DOMNode lastClosed) {
+			try {
+				int endLine = document.positionAt(lastClosed.end).getLine();
+				int startLine = document.positionAt(comment.start).getLine();
+				if (endLine == startLine && lastClosed.end <= comment.start) {
+					comment.commentSameLineEndTag = true;
+				}
+			} catch (BadLocationException e) {
+				LOGGER.log(Level.SEVERE, "XMLParser StartCommentTag bad offset in document", e);
 			}
-			token = scanner.scan();
 		}
-		while (curr.parent != null ) {
-			curr.end = text.length();
-			curr = curr.parent;
+
+		/**
+		 * Returns true if the parse stopped in the content of the document element
+		 * and false otherwise.
+		 */
+		boolean isWithinDocumentElementContent() {
+			return curr.isElement() && curr.parent == xmlDocument && !curr.isClosed() && !inDTDInternalSubset
+					&& scanner.getScannerState() == ScannerState.WithinContent;
+		}
+
+		/**
+		 * Adds the nodes of the given parsed chunk to the current node and returns
+		 * true if the chunk was parsed like in the sequential parse and false
+		 * otherwise.
+		 */
+		boolean append(ParseContext chunk) {
+			DOMNode parent = chunk.chunkParent;
+			if (chunk.chunkFailed || chunk.curr != parent || parent.isClosed() || chunk.inDTDInternalSubset
+					|| chunk.scanner.getScannerState() != ScannerState.WithinContent
+					|| (chunk.previousAttrUsed && attr != null)) {
+				return false;
+			}
+			for (DOMNode child : parent.getChildren()) {
+				curr.addChild(child);
+			}
+			for (DOMComment comment : chunk.commentsToUpdate) {
+				updateCommentSameLineEndTag(comment, lastClosed);
+			}
+			if (chunk.lastClosed != null) {
+				lastClosed = chunk.lastClosed;
+			}
+			if (chunk.attrKnown) {
+				attr = chunk.attr;
+			}
+			return true;
+		}
+
+		void close() {
+			while (curr.parent != null ) {
+				curr.end = text.length();
+				curr = curr.parent;
+			}
 		}
-		return xmlDocument;
 	}
 
 	private static boolean isEmptyElement(String tag) {
@@ -11,6 +11,7 @@
 package org.eclipse.lsp4xml.dom;
 
 import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 /**
  * DTD Element Declaration <!ELEMENT
@@ -121,6 +122,23 @@ public class DTDElementDecl extends DTDDeclNode {
 	 * @param collector the collector to collect parameters.
 	 */
 	public void collectParameters(DTDDeclParameter target, BiConsumer<DTDDeclParameter, DTDDeclParameter> collector) {
+		String searchWord = target.getParameter();
+		String text = getOwnerDocument().getText();
+		collectParameters(parameter -> {
+			if (isMatchName(searchWord, text, parameter.getStart(), parameter.getEnd())) {
+				collector.accept(parameter, target);
+			}
+		});
+	}
+
+	/**
+	 * Collect the parameters (the words) declared after the element name (ex :
+	 * 'svg', 'title' and 'font-face' for <!ELEMENT element-name (svg, title,
+	 * font-face)).
+	 * 
+	 * @param collector the collector to collect parameters.
+	 */
+	public void collectParameters(Consumer<DTDDeclParameter> collector) {
 		DTDDeclParameter name = getNameParameter();
 		if (name == null) {
 			return;
@@ -129,7 +147,6 @@ public class DTDElementDecl extends DTDDeclNode {
 		int end = getEnd();
 
 		String text = getOwnerDocument().getText();
-		text.length();
 		int wordStart = -1;
 		int wordEnd = -1;
 		// Loop for content after <!ELEMENT element-name (
@@ -152,10 +169,7 @@ public class DTDElementDecl extends DTDDeclNode {
 			}
 			if (wordStart != -1 && wordEnd != -1) {
 				// a word was found
-				boolean check = isMatchName(target.getParameter(), text, wordStart, wordEnd);
-				if (check) {
-					collector.accept(new DTDDeclParameter(this, wordStart, wordEnd), target);
-				}
+				collector.accept(new DTDDeclParameter(this, wordStart, wordEnd));
 				wordStart = -1;
 				wordEnd = -1;
 			}
@@ -42,8 +42,20 @@ public class MultiLineStream {
 	private final Map<Pattern, Matcher> regexpCache;
 
 	public MultiLineStream(String source, int position) {
+		this(source, position, source.length());
+	}
+
+	/**
+	 * Creates a stream on the range of the given source which starts at the given
+	 * position and stops at the given end offset (exclusive).
+	 * 
+	 * @param source    the source.
+	 * @param position  the start offset.
+	 * @param endOffset the end offset (exclusive).
+	 */
+	public MultiLineStream(String source, int position, int endOffset) {
 		this.source = source;
-		this.len = source.length();
+		this.len = endOffset;
 		this.position = position;
 		this.regexpCache = new HashMap<>();
 	}
@@ -105,7 +105,11 @@ public class XMLScanner implements Scanner {
 	private int nbBraceOpened;
 
 	public XMLScanner(String input, int initialOffset, ScannerState initialState, boolean isDTDFile) {
-		stream = new MultiLineStream(input, initialOffset);
+		this(input, initialOffset, input.length(), initialState, isDTDFile);
+	}
+
+	public XMLScanner(String input, int initialOffset, int endOffset, ScannerState initialState, boolean isDTDFile) {
+		stream = new MultiLineStream(input, initialOffset, endOffset);
 		state = initialState;
 		tokenOffset = 0;
 		isInsideDTDContent = ScannerState.DTDWithinContent.equals(initialState);
@@ -1047,4 +1051,18 @@ public class XMLScanner implements Scanner {
 		return new XMLScanner(input, initialOffset, initialState, isDTDFile);
 	}
 
+	/**
+	 * Returns a scanner which scans the range of the given input which starts at
+	 * the initial offset and stops at the end offset (exclusive).
+	 * 
+	 * @param input         the input.
+	 * @param initialOffset the start offset.
+	 * @param endOffset     the end offset (exclusive).
+	 * @param initialState  the initial state.
+	 * @return a scanner which scans the given range of the input.
+	 */
+	public static Scanner createScanner(String input, int initialOffset, int endOffset, ScannerState initialState) {
+		return new XMLScanner(input, initialOffset, endOffset, initialState, false);
+	}
+
 }
@@ -50,6 +50,12 @@ public class XMLCatalogURIResolverExtension implements URIResolverExtension {
 		return CATALOG_SYSTEM;
 	}
 
+	@Override
+	public boolean isCacheable() {
+		// the result depends on the content of the catalog document
+		return false;
+	}
+
 	@Override
 	public XMLInputSource resolveEntity(XMLResourceIdentifier resourceIdentifier) throws XNIException, IOException {
 		if (hasDTDorXMLSchema(resourceIdentifier.getBaseSystemId())) {
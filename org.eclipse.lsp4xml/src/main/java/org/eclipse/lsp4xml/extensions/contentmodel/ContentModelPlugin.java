@@ -16,9 +16,11 @@ import org.eclipse.lsp4xml.services.extensions.IDocumentLinkParticipant;
 import org.eclipse.lsp4xml.services.extensions.IHoverParticipant;
 import org.eclipse.lsp4xml.services.extensions.ITypeDefinitionParticipant;
 import org.eclipse.lsp4xml.services.extensions.IXMLExtension;
+import org.eclipse.lsp4xml.services.extensions.SharedComponents;
 import org.eclipse.lsp4xml.services.extensions.XMLExtensionsRegistry;
 import org.eclipse.lsp4xml.services.extensions.diagnostics.IDiagnosticsParticipant;
 import org.eclipse.lsp4xml.services.extensions.save.ISaveContext;
+import org.eclipse.lsp4xml.services.index.XMLWorkspaceIndex;
 import org.eclipse.lsp4xml.uriresolver.URIResolverExtensionManager;
 import org.eclipse.lsp4xml.utils.DOMUtils;
 
@@ -117,17 +119,39 @@ public class ContentModelPlugin implements IXMLExtension {
 				});
 			}
 		}
+		if (settings.getSchemaBundles() != null) {
+			// Update schema bundles
+			boolean schemaBundlesChanged = contentModelManager.setSchemaBundles(settings.getSchemaBundles());
+			if (schemaBundlesChanged) {
+				// Validate all opened XML files
+				context.collectDocumentToValidate(d -> {
+					DOMDocument xml = context.getDocument(d.getDocumentURI());
+					if (xml == null) {
+						return false;
+					}
+					xml.resetGrammar();
+					return true;
+				});
+			}
+		}
 		// Update use cache, only if it is set in the settings.
 		Boolean useCache = settings.isUseCache();
 		if (useCache != null) {
 			contentModelManager.setUseCache(useCache);
 		}
+		// Update the in-memory cache size, only if it is set in the settings.
+		Long entityCacheMaxSize = settings.getEntityCacheMaxSize();
+		if (entityCacheMaxSize != null) {
+			contentModelManager.setEntityCacheMaxSize(entityCacheMaxSize);
+		}
 	}
 
 	@Override
 	public void start(InitializeParams params, XMLExtensionsRegistry registry) {
 		URIResolverExtensionManager resolverManager = registry.getComponent(URIResolverExtensionManager.class);
-		contentModelManager = new ContentModelManager(resolverManager);
+		SharedComponents sharedComponents = registry.getComponent(SharedComponents.class);
+		contentModelManager = new ContentModelManager(resolverManager, sharedComponents);
+		contentModelManager.setWorkspaceIndex(registry.getComponent(XMLWorkspaceIndex.class));
 		registry.registerComponent(contentModelManager);
 		if (params != null) {
 			contentModelManager.setRootURI(params.getRootUri());
@@ -11,21 +11,29 @@
 package org.eclipse.lsp4xml.extensions.contentmodel.model;
 
 import java.nio.file.Path;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
 import org.apache.xerces.xni.grammars.XMLGrammarPool;
 import org.eclipse.lsp4xml.dom.DOMDocument;
 import org.eclipse.lsp4xml.dom.DOMElement;
 import org.eclipse.lsp4xml.extensions.contentmodel.participants.diagnostics.LSPXMLGrammarPool;
+import org.eclipse.lsp4xml.extensions.contentmodel.participants.diagnostics.XMLValidator;
 import org.eclipse.lsp4xml.extensions.contentmodel.settings.XMLFileAssociation;
 import org.eclipse.lsp4xml.extensions.contentmodel.uriresolver.XMLCacheResolverExtension;
 import org.eclipse.lsp4xml.extensions.contentmodel.uriresolver.XMLCatalogResolverExtension;
 import org.eclipse.lsp4xml.extensions.contentmodel.uriresolver.XMLFileAssociationResolverExtension;
+import org.eclipse.lsp4xml.jfr.XMLEvent;
+import org.eclipse.lsp4xml.jfr.XMLEvents;
+import org.eclipse.lsp4xml.services.extensions.SharedComponents;
+import org.eclipse.lsp4xml.services.index.XMLWorkspaceIndex;
 import org.eclipse.lsp4xml.uriresolver.CacheResourceDownloadingException;
+import org.eclipse.lsp4xml.uriresolver.CacheResourcesManager;
 import org.eclipse.lsp4xml.uriresolver.URIResolverExtensionManager;
 import org.eclipse.lsp4xml.utils.StringUtils;
 import org.eclipse.lsp4xml.utils.URIUtils;
@@ -36,7 +44,41 @@ import org.eclipse.lsp4xml.utils.URIUtils;
  */
 public class ContentModelManager {
 
-	private final Map<String, CMDocument> cmDocumentCache;
+	/**
+	 * The compiled grammars and the content model documents loaded with the same
+	 * XML catalogs, schema bundles and file associations, keyed by the resolved
+	 * URI of the grammars.
+	 */
+	private static class GrammarCaches {
+
+		private final LSPXMLGrammarPool grammarPool = new LSPXMLGrammarPool();
+
+		private final Map<String, CMDocument> cmDocuments = Collections.synchronizedMap(new HashMap<>());
+
+		/**
+		 * Remove the grammars and the content model document loaded from the given
+		 * URI.
+		 */
+		void evict(String uri) {
+			grammarPool.removeGrammars(uri);
+			synchronized (cmDocuments) {
+				cmDocuments.remove(uri);
+			}
+		}
+
+		void clear() {
+			grammarPool.clear();
+			synchronized (cmDocuments) {
+				cmDocuments.clear();
+			}
+		}
+	}
+
+	private final SharedComponents sharedComponents;
+
+	private volatile GrammarCaches caches;
+
+	private String rootUri;
 
 	private final URIResolverExtensionManager resolverManager;
 	private final List<ContentModelProvider> modelProviders;
@@ -44,23 +86,85 @@ public class ContentModelManager {
 	private final XMLCacheResolverExtension cacheResolverExtension;
 	private final XMLCatalogResolverExtension catalogResolverExtension;
 	private final XMLFileAssociationResolverExtension fileAssociationResolver;
-	private final XMLGrammarPool grammarPool;
+
+	private XMLWorkspaceIndex workspaceIndex;
 
 	public ContentModelManager(URIResolverExtensionManager resolverManager) {
+		this(resolverManager, null);
+	}
+
+	/**
+	 * Creates a content model manager which shares the compiled grammars, the
+	 * content model documents and the downloaded resources with the other servers
+	 * of the JVM.
+	 * 
+	 * <p>
+	 * The imports and includes of a grammar are resolved with the XML catalogs
+	 * and the schema bundles of the server which loads it, so the servers share
+	 * the caches only when they use the same XML catalogs, schema bundles and file
+	 * associations. A server which doesn't use the cache has its own caches.
+	 * </p>
+	 * 
+	 * @param resolverManager  the URI resolver manager.
+	 * @param sharedComponents the shared components and null if the caches are
+	 *                         not shared.
+	 */
+	public ContentModelManager(URIResolverExtensionManager resolverManager, SharedComponents sharedComponents) {
 		this.resolverManager = resolverManager;
-		modelProviders = new ArrayList<>();
-		cmDocumentCache = Collections.synchronizedMap(new HashMap<>());
+		// the providers are registered by the extensions which start lazily while
+		// other documents are validated
+		modelProviders = new CopyOnWriteArrayList<>();
 		fileAssociationResolver = new XMLFileAssociationResolverExtension();
 		resolverManager.registerResolver(fileAssociationResolver);
 		catalogResolverExtension = new XMLCatalogResolverExtension();
 		resolverManager.registerResolver(catalogResolverExtension);
-		cacheResolverExtension = new XMLCacheResolverExtension();
+		this.sharedComponents = sharedComponents;
+		CacheResourcesManager cacheResourcesManager;
+		if (sharedComponents != null) {
+			// evict a refreshed resource from the caches of all the servers
+			cacheResourcesManager = sharedComponents.getComponent(CacheResourcesManager.class,
+					() -> createCacheResourcesManager(uri -> sharedComponents.getComponents(GrammarCaches.class)
+							.forEach(caches -> caches.evict(uri))));
+		} else {
+			caches = new GrammarCaches();
+			cacheResourcesManager = createCacheResourcesManager(uri -> caches.evict(uri));
+		}
+		cacheResolverExtension = new XMLCacheResolverExtension(resolverManager.getEntityContentCache(),
+				cacheResourcesManager);
 		resolverManager.registerResolver(cacheResolverExtension);
-		grammarPool = new LSPXMLGrammarPool();
 		// Use cache by default
 		setUseCache(true);
 	}
 
+	/**
+	 * Use the shared caches of the current XML catalogs, schema bundles and file
+	 * associations (when the caches are shared and used).
+	 */
+	private void updateSharedCaches() {
+		// the external DTD check results depend on the same settings
+		XMLValidator.clearExternalDTDCache();
+		if (sharedComponents == null) {
+			return;
+		}
+		if (!cacheResolverExtension.isUseCache()) {
+			// the grammars compiled while the cache is not used are not shared
+			caches = new GrammarCaches();
+			return;
+		}
+		StringBuilder key = new StringBuilder(GrammarCaches.class.getName());
+		key.append("|catalogs=").append(Arrays.toString(catalogResolverExtension.getCatalogs()));
+		key.append("|schemaBundles=").append(cacheResolverExtension.getSchemaBundlePaths());
+		// the file associations patterns are relative to the root URI
+		key.append("|fileAssociations=").append(rootUri).append(':');
+		XMLFileAssociation[] fileAssociations = fileAssociationResolver.getFileAssociations();
+		if (fileAssociations != null) {
+			for (XMLFileAssociation fileAssociation : fileAssociations) {
+				key.append(fileAssociation.getPattern()).append("=").append(fileAssociation.getSystemId()).append(';');
+			}
+		}
+		caches = sharedComponents.getComponent(key.toString(), GrammarCaches::new);
+	}
+
 	public CMElementDeclaration findCMElement(DOMElement element) throws Exception {
 		return findCMElement(element, element.getNamespaceURI());
 	}
@@ -140,8 +244,33 @@ public class ContentModelManager {
 		if (cmDocument != null) {
 			return cmDocument;
 		}
+		try (XMLEvent event = XMLEvents.cmDocumentLoad(resolvedUri)) {
+			cmDocument = createCMDocument(resolvedUri, modelProvider);
+		}
+		// Cache the document
+		if (cmDocument != null) {
+			cache(resolvedUri, cmDocument);
+		}
+		return cmDocument;
+	}
+
+	/**
+	 * Returns the content model document created from the given resolved URI and
+	 * null if the document is downloading.
+	 * 
+	 * @param resolvedUri   the resolved URI of the XML Schema, DTD.
+	 * @param modelProvider the content model provider.
+	 * @return the content model document created from the given resolved URI and
+	 *         null if the document is downloading.
+	 */
+	private CMDocument createCMDocument(String resolvedUri, ContentModelProvider modelProvider) {
+		CMDocument cmDocument = null;
 		boolean isFileResource = URIUtils.isFileResource(resolvedUri);
-		if (!isFileResource && cacheResolverExtension.isUseCache()) {
+		if (!isFileResource && cacheResolverExtension.isInSchemaBundle(resolvedUri)) {
+			// The DTD/XML Schema is provided by a schema bundle, it is loaded from the
+			// bundle by the cache resolver.
+			cmDocument = modelProvider.createCMDocument(resolvedUri);
+		} else if (!isFileResource && cacheResolverExtension.isUseCache()) {
 			// The DTD/XML Schema comes from http://, ftp:// etc and cache manager is
 			// activated
 			// Try to load the DTD/XML Schema with the cache manager
@@ -160,14 +289,22 @@ public class ContentModelManager {
 		} else {
 			cmDocument = modelProvider.createCMDocument(resolvedUri);
 		}
-		// Cache the document
-		if (cmDocument != null) {
-			cache(resolvedUri, cmDocument);
-		}
 		return cmDocument;
 	}
 
+	/**
+	 * Creates the cache resources manager which evicts the grammars and the content
+	 * model documents of a resource with the given evict function when its cached
+	 * file is refreshed.
+	 */
+	private static CacheResourcesManager createCacheResourcesManager(Consumer<String> evict) {
+		CacheResourcesManager cacheResourcesManager = new CacheResourcesManager();
+		cacheResourcesManager.addRefreshListener(evict);
+		return cacheResourcesManager;
+	}
+
 	private CMDocument getCMDocumentFromCache(String key) {
+		Map<String, CMDocument> cmDocumentCache = caches.cmDocuments;
 		CMDocument document = null;
 		synchronized (cmDocumentCache) {
 			document = cmDocumentCache.get(key);
@@ -180,6 +317,7 @@ public class ContentModelManager {
 	}
 
 	private void cache(String key, CMDocument cmDocument) {
+		Map<String, CMDocument> cmDocumentCache = caches.cmDocuments;
 		synchronized (cmDocumentCache) {
 			cmDocumentCache.put(key, cmDocument);
 		}
@@ -249,7 +387,10 @@ public class ContentModelManager {
 	 * @return true if catalogs changed and false otherwise
 	 */
 	public boolean setCatalogs(String[] catalogs) {
-		return catalogResolverExtension.setCatalogs(catalogs);
+		boolean catalogsChanged = catalogResolverExtension.setCatalogs(catalogs);
+		resolverManager.clearResolvedURIs();
+		updateSharedCaches();
+		return catalogsChanged;
 	}
 
 	/**
@@ -257,6 +398,8 @@ public class ContentModelManager {
 	 */
 	public void refreshCatalogs() {
 		catalogResolverExtension.refreshCatalogs();
+		resolverManager.clearResolvedURIs();
+		updateSharedCaches();
 	}
 
 	/**
@@ -266,20 +409,76 @@ public class ContentModelManager {
 	 * @return true if file associations changed and false otherwise
 	 */
 	public boolean setFileAssociations(XMLFileAssociation[] fileAssociations) {
-		return this.fileAssociationResolver.setFileAssociations(fileAssociations);
+		boolean fileAssociationsChanged = this.fileAssociationResolver.setFileAssociations(fileAssociations);
+		if (fileAssociationsChanged) {
+			resolverManager.clearResolvedURIs();
+			updateSharedCaches();
+		}
+		return fileAssociationsChanged;
 	}
 
 	public void setRootURI(String rootUri) {
 		rootUri = URIUtils.sanitizingUri(rootUri);
 		fileAssociationResolver.setRootUri(rootUri);
 		catalogResolverExtension.setRootUri(rootUri);
+		resolverManager.clearResolvedURIs();
+		this.rootUri = rootUri;
+		updateSharedCaches();
+		if (workspaceIndex != null) {
+			workspaceIndex.setRootURI(rootUri);
+		}
+	}
+
+	/**
+	 * Set the workspace index which must index the workspace root.
+	 * 
+	 * @param workspaceIndex the workspace index.
+	 */
+	public void setWorkspaceIndex(XMLWorkspaceIndex workspaceIndex) {
+		this.workspaceIndex = workspaceIndex;
 	}
 
 	public void setUseCache(boolean useCache) {
 		cacheResolverExtension.setUseCache(useCache);
-		if (!useCache) {
-			grammarPool.clear();
+		if (sharedComponents != null) {
+			// the shared caches are used by the other servers, use other caches
+			updateSharedCaches();
+		} else if (!useCache) {
+			caches.grammarPool.clear();
+			XMLValidator.clearExternalDTDCache();
+		}
+	}
+
+	/**
+	 * Register the schema bundles archives (zip/jar) file paths.
+	 * 
+	 * @param schemaBundles the schema bundles file paths.
+	 * @return true if the schema bundles changed and false otherwise.
+	 */
+	public boolean setSchemaBundles(String[] schemaBundles) {
+		boolean schemaBundlesChanged = cacheResolverExtension.setSchemaBundles(schemaBundles);
+		if (schemaBundlesChanged) {
+			// Grammars and content models loaded from the previous bundles or from the
+			// cache must be reloaded.
+			if (sharedComponents != null) {
+				updateSharedCaches();
+			} else {
+				caches.clear();
+				XMLValidator.clearExternalDTDCache();
+			}
 		}
+		return schemaBundlesChanged;
+	}
+
+	/**
+	 * Set the maximum size (in bytes) of the in-memory cache of the resolved
+	 * entities content.
+	 * 
+	 * @param entityCacheMaxSize the maximum size (in bytes), 0 disables the
+	 *                           in-memory cache.
+	 */
+	public void setEntityCacheMaxSize(long entityCacheMaxSize) {
+		resolverManager.getEntityContentCache().setMaxSize(entityCacheMaxSize);
 	}
 
 	public void registerModelProvider(ContentModelProvider modelProvider) {
@@ -291,7 +490,7 @@ public class ContentModelManager {
 	}
 
 	public XMLGrammarPool getGrammarPool() {
-		return cacheResolverExtension.isUseCache() ? grammarPool : null;
+		return cacheResolverExtension.isUseCache() ? caches.grammarPool : null;
 	}
 
 }
\ No newline at end of file
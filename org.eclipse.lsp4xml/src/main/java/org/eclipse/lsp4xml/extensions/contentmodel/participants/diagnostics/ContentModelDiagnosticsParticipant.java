@@ -17,6 +17,8 @@ import org.eclipse.lsp4j.Diagnostic;
 import org.eclipse.lsp4j.jsonrpc.CancelChecker;
 import org.eclipse.lsp4xml.dom.DOMDocument;
 import org.eclipse.lsp4xml.extensions.contentmodel.ContentModelPlugin;
+import org.eclipse.lsp4xml.jfr.XMLEvent;
+import org.eclipse.lsp4xml.jfr.XMLEvents;
 import org.eclipse.lsp4xml.services.extensions.diagnostics.IDiagnosticsParticipant;
 import org.eclipse.lsp4xml.utils.DOMUtils;
 
@@ -33,19 +35,23 @@ public class ContentModelDiagnosticsParticipant implements IDiagnosticsParticipa
 		this.contentModelPlugin = contentModelPlugin;
 	}
 
+	@Override
+	public boolean isApplicable(DOMDocument document) {
+		// Don't validate DTD / XML Schema with XML validator
+		return !(document.isDTD() || DOMUtils.isXSD(document));
+	}
+
 	@Override
 	public void doDiagnostics(DOMDocument xmlDocument, List<Diagnostic> diagnostics, CancelChecker monitor) {
-		if (xmlDocument.isDTD() || DOMUtils.isXSD(xmlDocument)) {
-			// Don't validate DTD / XML Schema with XML validator
-			return;
-		}
 		// Get entity resolver (XML catalog resolver, XML schema from the file
 		// associations settings., ...)
 		XMLEntityResolver entityResolver = xmlDocument.getResolverExtensionManager();
 		// Process validation
-		XMLValidator.doDiagnostics(xmlDocument, entityResolver, diagnostics,
-				contentModelPlugin.getContentModelSettings(),
-				contentModelPlugin.getContentModelManager().getGrammarPool(), monitor);
+		try (XMLEvent event = XMLEvents.validation(xmlDocument, "XML", diagnostics)) {
+			XMLValidator.doDiagnostics(xmlDocument, entityResolver, diagnostics,
+					contentModelPlugin.getContentModelSettings(),
+					contentModelPlugin.getContentModelManager().getGrammarPool(), monitor);
+		}
 	}
 
 }
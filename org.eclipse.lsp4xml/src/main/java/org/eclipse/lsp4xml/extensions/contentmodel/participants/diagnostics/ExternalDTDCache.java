@@ -0,0 +1,171 @@
+/**
+ *  Copyright (c) 2019 Red Hat Inc. and others.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v2.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v20.html
+ *
+ *  Contributors:
+ *  Red Hat Inc. - initial API and implementation
+ */
+package org.eclipse.lsp4xml.extensions.contentmodel.participants.diagnostics;
+
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.eclipse.lsp4xml.uriresolver.CacheResourcesManager;
+import org.eclipse.lsp4xml.utils.URIUtils;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Cache of the external DTD check results (see
+ * {@link XMLValidator#checkExternalDTD}) per resolved system id.
+ *
+ * <p>
+ * A result is valid while the last modified time of the local file which
+ * provides the DTD doesn't change:
+ * <ul>
+ * <li>for a file DTD, the DTD file itself (a missing file is tracked too).</li>
+ * <li>for a remote DTD, the file of the .lsp4xml cache, which means that the
+ * result is available only when the download is completed and is invalidated
+ * when the cache file is updated or deleted.</li>
+ * </ul>
+ * Results of other DTD (remote DTD without cache, jar, etc) are not cached.
+ * </p>
+ *
+ */
+class ExternalDTDCache {
+
+	private static final int MAX_SIZE = 100;
+
+	private static final long MISSING_FILE = -1;
+
+	/**
+	 * External DTD check result.
+	 */
+	static class Result {
+
+		private final long lastModified;
+
+		private final String notFoundSystemId;
+
+		Result(long lastModified, String notFoundSystemId) {
+			this.lastModified = lastModified;
+			this.notFoundSystemId = notFoundSystemId;
+		}
+
+		/**
+		 * Returns true if the DTD can be loaded and false otherwise.
+		 *
+		 * @return true if the DTD can be loaded and false otherwise.
+		 */
+		public boolean isFound() {
+			return notFoundSystemId == null;
+		}
+
+		/**
+		 * Returns the system id reported by Xerces when the DTD cannot be loaded and
+		 * null otherwise.
+		 *
+		 * @return the system id reported by Xerces when the DTD cannot be loaded and
+		 *         null otherwise.
+		 */
+		public String getNotFoundSystemId() {
+			return notFoundSystemId;
+		}
+	}
+
+	private final Cache<String, Result> results;
+
+	public ExternalDTDCache() {
+		results = CacheBuilder.newBuilder().maximumSize(MAX_SIZE).build();
+	}
+
+	/**
+	 * Returns the cached check result for the given resolved DTD system id and
+	 * null if there is no result or if the DTD file has changed.
+	 *
+	 * @param resolvedSystemId the resolved DTD system id.
+	 * @return the cached check result for the given resolved DTD system id and
+	 *         null otherwise.
+	 */
+	public Result get(String resolvedSystemId) {
+		if (resolvedSystemId == null) {
+			return null;
+		}
+		Result result = results.getIfPresent(resolvedSystemId);
+		if (result == null) {
+			return null;
+		}
+		Long lastModified = getLastModified(resolvedSystemId);
+		if (lastModified == null || lastModified != result.lastModified) {
+			// The DTD file was created, updated or deleted since the check.
+			results.invalidate(resolvedSystemId);
+			return null;
+		}
+		return result;
+	}
+
+	/**
+	 * Store the check result for the given resolved DTD system id if it can be
+	 * tracked.
+	 *
+	 * @param resolvedSystemId the resolved DTD system id.
+	 * @param notFoundSystemId the system id reported by Xerces when the DTD
+	 *                         cannot be loaded and null otherwise.
+	 */
+	public void put(String resolvedSystemId, String notFoundSystemId) {
+		if (resolvedSystemId == null) {
+			return;
+		}
+		Long lastModified = getLastModified(resolvedSystemId);
+		if (lastModified == null) {
+			return;
+		}
+		results.put(resolvedSystemId, new Result(lastModified, notFoundSystemId));
+	}
+
+	/**
+	 * Clear the cache.
+	 */
+	public void clear() {
+		results.invalidateAll();
+	}
+
+	/**
+	 * Returns the last modified time of the local file which provides the given
+	 * DTD, {@link #MISSING_FILE} if the DTD file doesn't exist and null if the DTD
+	 * cannot be tracked.
+	 *
+	 * @param resolvedSystemId the resolved DTD system id.
+	 * @return the last modified time of the local file which provides the given
+	 *         DTD and null if the DTD cannot be tracked.
+	 */
+	private static Long getLastModified(String resolvedSystemId) {
+		try {
+			if (URIUtils.isRemoteResource(resolvedSystemId)) {
+				Path cachedFile = CacheResourcesManager.getResourceCachePath(resolvedSystemId);
+				if (!Files.exists(cachedFile)) {
+					// the DTD is not downloaded (or the cache is not used)
+					return null;
+				}
+				return Files.getLastModifiedTime(cachedFile).toMillis();
+			}
+			URI uri = new URI(resolvedSystemId);
+			if (!"file".equals(uri.getScheme())) {
+				return null;
+			}
+			Path file = Paths.get(uri);
+			if (!Files.exists(file)) {
+				return MISSING_FILE;
+			}
+			return Files.getLastModifiedTime(file).toMillis();
+		} catch (Exception e) {
+			return null;
+		}
+	}
+}
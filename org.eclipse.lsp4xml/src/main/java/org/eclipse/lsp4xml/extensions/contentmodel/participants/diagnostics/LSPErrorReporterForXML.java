@@ -20,6 +20,7 @@ import org.eclipse.lsp4xml.extensions.contentmodel.participants.DTDErrorCode;
 import org.eclipse.lsp4xml.extensions.contentmodel.participants.XMLSchemaErrorCode;
 import org.eclipse.lsp4xml.extensions.contentmodel.participants.XMLSyntaxErrorCode;
 import org.eclipse.lsp4xml.services.extensions.diagnostics.AbstractLSPErrorReporter;
+import org.eclipse.lsp4xml.utils.XMLPositionUtility;
 
 /**
  * LSP error reporter for XML syntax and error grammar (XML Schema/DTD).
@@ -44,6 +45,10 @@ public class LSPErrorReporterForXML extends AbstractLSPErrorReporter {
 	 */
 	@Override
 	protected Range toLSPRange(XMLLocator location, String key, Object[] arguments, DOMDocument document) {
+		if (document.isValidationOnly()) {
+			// large file without DOM nodes, select the tag name which precedes the error
+			return XMLPositionUtility.selectTagNameBefore(location.getCharacterOffset() - 1, document);
+		}
 		// try adjust positions for XML syntax error
 		XMLSyntaxErrorCode syntaxCode = XMLSyntaxErrorCode.get(key);
 		if (syntaxCode != null) {
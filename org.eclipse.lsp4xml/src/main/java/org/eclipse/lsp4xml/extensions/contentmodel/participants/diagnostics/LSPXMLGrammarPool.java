@@ -24,6 +24,7 @@ import org.apache.xerces.xni.grammars.XMLGrammarPool;
 import org.eclipse.lsp4xml.extensions.contentmodel.model.FilesChangedTracker;
 import org.eclipse.lsp4xml.extensions.dtd.utils.DTDUtils;
 import org.eclipse.lsp4xml.extensions.xsd.utils.XSDUtils;
+import org.eclipse.lsp4xml.jfr.XMLEvents;
 
 import com.google.common.base.Objects;
 
@@ -78,7 +79,9 @@ public class LSPXMLGrammarPool implements XMLGrammarPool {
 
 	@Override
 	public Grammar retrieveGrammar(XMLGrammarDescription desc) {
-		return getGrammar(desc);
+		Grammar grammar = getGrammar(desc);
+		XMLEvents.grammarPoolLookup(desc.getExpandedSystemId(), desc.getGrammarType(), grammar != null);
+		return grammar;
 	}
 
 	private void putGrammar(Grammar grammar) {
@@ -151,6 +154,31 @@ public class LSPXMLGrammarPool implements XMLGrammarPool {
 		}
 	}
 
+	/**
+	 * Removes the grammars loaded from the given expanded system id (ex : when the
+	 * cached file of a downloaded XML Schema is refreshed).
+	 *
+	 * @param expandedSystemId the expanded system id of the grammars to remove.
+	 */
+	public void removeGrammars(String expandedSystemId) {
+		synchronized (fGrammars) {
+			for (int i = 0; i < fGrammars.length; i++) {
+				for (Entry entry = fGrammars[i], prev = null; entry != null; entry = entry.next) {
+					if (Objects.equal(entry.desc.getExpandedSystemId(), expandedSystemId)) {
+						if (prev != null) {
+							prev.next = entry.next;
+						} else {
+							fGrammars[i] = entry.next;
+						}
+						entry.grammar = null;
+					} else {
+						prev = entry;
+					}
+				}
+			}
+		}
+	}
+
 	@Override
 	public void lockPool() {
 		// Do nothing
@@ -12,6 +12,7 @@ package org.eclipse.lsp4xml.extensions.contentmodel.participants.diagnostics;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.StringReader;
 import java.nio.charset.StandardCharsets;
 import java.text.MessageFormat;
 import java.util.List;
@@ -22,6 +23,7 @@ import java.util.logging.Logger;
 
 import org.apache.xerces.impl.XMLEntityManager;
 import org.apache.xerces.parsers.SAXParser;
+import org.apache.xerces.util.URI.MalformedURIException;
 import org.apache.xerces.xni.XNIException;
 import org.apache.xerces.xni.grammars.XMLGrammarPool;
 import org.apache.xerces.xni.parser.XMLEntityResolver;
@@ -42,6 +44,7 @@ import org.eclipse.lsp4xml.extensions.contentmodel.settings.XMLValidationSetting
 import org.eclipse.lsp4xml.services.extensions.diagnostics.LSPContentHandler;
 import org.eclipse.lsp4xml.uriresolver.CacheResourceDownloadingException;
 import org.eclipse.lsp4xml.uriresolver.IExternalSchemaLocationProvider;
+import org.eclipse.lsp4xml.uriresolver.URIResolverExtensionManager;
 import org.eclipse.lsp4xml.utils.XMLPositionUtility;
 import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
@@ -56,8 +59,21 @@ public class XMLValidator {
 
 	private static final Logger LOGGER = Logger.getLogger(XMLValidator.class.getName());
 
+	private static final String ENTITY_MANAGER_PROPERTY = "http://apache.org/xml/properties/internal/entity-manager"; //$NON-NLS-1$
+
+	private static final ExternalDTDCache EXTERNAL_DTD_CACHE = new ExternalDTDCache();
+
 	private static final String DTD_NOT_FOUND = "Cannot find DTD ''{0}''.\nCreate the DTD file or configure an XML catalog for this DTD.";
 
+	/**
+	 * Clear the cached external DTD check results. The results depend on the
+	 * resolution settings (XML catalogs, file associations, cache, schema
+	 * bundles) and must be computed again when they change.
+	 */
+	public static void clearExternalDTDCache() {
+		EXTERNAL_DTD_CACHE.clear();
+	}
+
 	public static void doDiagnostics(DOMDocument document, XMLEntityResolver entityResolver,
 			List<Diagnostic> diagnostics, ContentModelSettings contentModelSettings, XMLGrammarPool grammarPool,
 			CancelChecker monitor) {
@@ -65,15 +81,18 @@ public class XMLValidator {
 			XMLValidationSettings validationSettings = contentModelSettings != null
 					? contentModelSettings.getValidation()
 					: null;
+			// When the DOM document was not built (large file), the validation is done
+			// only with the text content.
+			boolean validationOnly = document.isValidationOnly();
 			LSPXMLParserConfiguration configuration = new LSPXMLParserConfiguration(grammarPool,
-					isDisableOnlyDTDValidation(document), validationSettings);
+					!validationOnly && isDisableOnlyDTDValidation(document), validationSettings);
 
 			if (entityResolver != null) {
 				configuration.setProperty("http://apache.org/xml/properties/internal/entity-resolver", entityResolver); //$NON-NLS-1$
 			}
 
 			final LSPErrorReporterForXML reporter = new LSPErrorReporterForXML(document, diagnostics);
-			boolean externalDTDValid = checkExternalDTD(document, reporter, configuration);
+			boolean externalDTDValid = validationOnly || checkExternalDTD(document, reporter, configuration);
 			SAXParser parser = new SAXParser(configuration);
 			// Add LSP error reporter to fill LSP diagnostics from Xerces errors
 			parser.setProperty("http://apache.org/xml/properties/internal/error-reporter", reporter);
@@ -84,7 +103,9 @@ public class XMLValidator {
 			// Add LSP content handler to stop XML parsing if monitor is canceled.
 			parser.setContentHandler(new LSPContentHandler(monitor));
 
-			boolean hasGrammar = document.hasGrammar();
+			// Without DOM document, we cannot know if the document is bound to a grammar
+			// before parsing it, let Xerces validate the document only if it finds one.
+			boolean hasGrammar = validationOnly || document.hasGrammar();
 
 			// If diagnostics for Schema preference is enabled
 			if ((validationSettings == null) || validationSettings.isSchema()) {
@@ -93,8 +114,12 @@ public class XMLValidator {
 
 				parser.setFeature("http://apache.org/xml/features/validation/schema", hasGrammar); //$NON-NLS-1$
 
-				// warn if XML document is not bound to a grammar according the settings
-				warnNoGrammar(document, diagnostics, contentModelSettings);
+				if (validationOnly) {
+					parser.setFeature("http://apache.org/xml/features/validation/dynamic", true); //$NON-NLS-1$
+				} else {
+					// warn if XML document is not bound to a grammar according the settings
+					warnNoGrammar(document, diagnostics, contentModelSettings);
+				}
 			} else {
 				hasGrammar = false; // validation for Schema was disabled
 			}
@@ -106,7 +131,12 @@ public class XMLValidator {
 			String content = document.getText();
 			String uri = document.getDocumentURI();
 			InputSource inputSource = new InputSource();
-			inputSource.setByteStream(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+			if (validationOnly) {
+				// Read the text buffer directly to avoid a copy of the large content in bytes.
+				inputSource.setCharacterStream(new StringReader(content));
+			} else {
+				inputSource.setByteStream(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+			}
 			inputSource.setSystemId(uri);
 			parser.parse(inputSource);
 
@@ -164,6 +194,17 @@ public class XMLValidator {
 			return true;
 		}
 
+		// The check result is cached per resolved system id and is invalidated when
+		// the DTD file (or the downloaded DTD of the cache) changes.
+		String resolvedSystemId = getResolvedSystemId(document, docType);
+		ExternalDTDCache.Result cachedResult = EXTERNAL_DTD_CACHE.get(resolvedSystemId);
+		if (cachedResult != null) {
+			if (!cachedResult.isFound()) {
+				reportDTDNotFound(document, docType, reporter, cachedResult.getNotFoundSystemId());
+			}
+			return cachedResult.isFound();
+		}
+
 		// When XML is bound with a DTD path which doesn't exist, Xerces throws an
 		// IOException which breaks the validation of XML syntax instead of reporting it
 		// (like XML Schema). Here we parse only the
@@ -178,6 +219,11 @@ public class XMLValidator {
 		int end = document.getDoctype().getEnd();
 		String xml = document.getText().substring(0, end);
 		xml += "<root/>";
+		// the system id of the DTD which cannot be loaded
+		final String[] notFoundSystemId = new String[1];
+		// the configuration is shared with the validation parser, the entity manager
+		// must be restored after the DOCTYPE parse.
+		Object originalEntityManager = configuration.getProperty(ENTITY_MANAGER_PROPERTY);
 		try {
 
 			// Customize the entity manager to collect the error when DTD doesn't exist.
@@ -190,16 +236,7 @@ public class XMLValidator {
 					try {
 						return super.setupCurrentEntity(name, xmlInputSource, literal, isExternal);
 					} catch (IOException e) {
-						// Report the DTD invalid error
-						try {
-							Range range = new Range(document.positionAt(docType.getSystemIdNode().getStart()),
-									document.positionAt(docType.getSystemIdNode().getEnd()));
-							reporter.addDiagnostic(range,
-									MessageFormat.format(DTD_NOT_FOUND, xmlInputSource.getSystemId()),
-									DiagnosticSeverity.Error, DTDErrorCode.dtd_not_found.getCode());
-						} catch (BadLocationException e1) {
-							// Do nothing
-						}
+						notFoundSystemId[0] = xmlInputSource.getSystemId();
 						throw e;
 					}
 				}
@@ -207,21 +244,77 @@ public class XMLValidator {
 			entityManager.reset(configuration);
 
 			SAXParser parser = new SAXParser(configuration);
-			parser.setProperty("http://apache.org/xml/properties/internal/entity-manager", entityManager);
+			parser.setProperty(ENTITY_MANAGER_PROPERTY, entityManager);
 			parser.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", true);
 
 			InputSource inputSource = new InputSource();
 			inputSource.setByteStream(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
 			inputSource.setSystemId(document.getDocumentURI());
 			parser.parse(inputSource);
-		} catch (SAXException | CancellationException exception) {
+		} catch (SAXException exception) {
 			// ignore error
+		} catch (CancellationException exception) {
+			// ignore error
+			return true;
 		} catch (IOException e) {
+			if (notFoundSystemId[0] == null) {
+				// IOException which doesn't come from the DTD loading
+				return false;
+			}
+		} finally {
+			configuration.setProperty(ENTITY_MANAGER_PROPERTY, originalEntityManager);
+		}
+		EXTERNAL_DTD_CACHE.put(resolvedSystemId, notFoundSystemId[0]);
+		if (notFoundSystemId[0] != null) {
+			// Report the DTD invalid error
+			reportDTDNotFound(document, docType, reporter, notFoundSystemId[0]);
 			return false;
 		}
 		return true;
 	}
 
+	/**
+	 * Returns the resolved system id (with XML catalog, etc) of the DTD declared
+	 * in the given DOCTYPE and null otherwise.
+	 * 
+	 * @param document the DOM document
+	 * @param docType  the DOCTYPE
+	 * @return the resolved system id of the DTD declared in the given DOCTYPE and
+	 *         null otherwise.
+	 */
+	private static String getResolvedSystemId(DOMDocument document, DOMDocumentType docType) {
+		String systemId = docType.getSystemIdWithoutQuotes();
+		if (systemId == null) {
+			return null;
+		}
+		String baseURI = document.getDocumentURI();
+		URIResolverExtensionManager resolverExtensionManager = document.getResolverExtensionManager();
+		if (resolverExtensionManager != null) {
+			String resolvedSystemId = resolverExtensionManager.resolve(baseURI, docType.getPublicIdWithoutQuotes(),
+					systemId);
+			if (resolvedSystemId != null) {
+				return resolvedSystemId;
+			}
+		}
+		try {
+			return XMLEntityManager.expandSystemId(systemId, baseURI, false);
+		} catch (MalformedURIException e) {
+			return null;
+		}
+	}
+
+	private static void reportDTDNotFound(DOMDocument document, DOMDocumentType docType,
+			LSPErrorReporterForXML reporter, String systemId) {
+		try {
+			Range range = new Range(document.positionAt(docType.getSystemIdNode().getStart()),
+					document.positionAt(docType.getSystemIdNode().getEnd()));
+			reporter.addDiagnostic(range, MessageFormat.format(DTD_NOT_FOUND, systemId), DiagnosticSeverity.Error,
+					DTDErrorCode.dtd_not_found.getCode());
+		} catch (BadLocationException e) {
+			// Do nothing
+		}
+	}
+
 	/**
 	 * Warn if XML document is not bound to a grammar according the settings
 	 * 
@@ -20,6 +20,10 @@ public class ContentModelSettings {
 
 	private Boolean useCache;
 
+	private Long entityCacheMaxSize;
+
+	private String[] schemaBundles;
+
 	private String[] catalogs;
 
 	private XMLFileAssociation[] fileAssociations;
@@ -47,6 +51,35 @@ public class ContentModelSettings {
 		this.useCache = useCache;
 	}
 
+	/**
+	 * Returns the maximum size (in bytes) of the in-memory cache of the resolved
+	 * entities content (XML Schema, DTD, etc) and null if it is not set.
+	 * 
+	 * @return the maximum size (in bytes) of the in-memory cache of the resolved
+	 *         entities content and null if it is not set.
+	 */
+	public Long getEntityCacheMaxSize() {
+		return entityCacheMaxSize;
+	}
+
+	public void setEntityCacheMaxSize(Long entityCacheMaxSize) {
+		this.entityCacheMaxSize = entityCacheMaxSize;
+	}
+
+	/**
+	 * Returns the list of the schema bundles (zip/jar) file path which provide
+	 * remote XML Schema, DTD for offline usage.
+	 * 
+	 * @return the list of the schema bundles file path.
+	 */
+	public String[] getSchemaBundles() {
+		return schemaBundles;
+	}
+
+	public void setSchemaBundles(String[] schemaBundles) {
+		this.schemaBundles = schemaBundles;
+	}
+
 	/**
 	 * Register the list of the XML catalogs file path.
 	 * 
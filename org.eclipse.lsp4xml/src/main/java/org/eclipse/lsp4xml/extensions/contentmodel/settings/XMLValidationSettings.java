@@ -26,6 +26,8 @@ public class XMLValidationSettings {
 
 	private boolean resolveExternalEntities;
 
+	private int largeFileThreshold;
+
 	/**
 	 * This severity preference to mark the root element of XML document which is
 	 * not bound to a XML Schema/DTD.
@@ -117,6 +119,41 @@ public class XMLValidationSettings {
 		this.resolveExternalEntities = resolveExternalEntities;
 	}
 
+	/**
+	 * Returns the size (in characters) from which a document is validated without
+	 * building its DOM document and 0 (or negative value) if the validation-only
+	 * mode is disabled.
+	 * 
+	 * @return the size (in characters) from which a document is validated without
+	 *         building its DOM document.
+	 */
+	public int getLargeFileThreshold() {
+		return largeFileThreshold;
+	}
+
+	/**
+	 * Set the size (in characters) from which a document is validated without
+	 * building its DOM document. 0 (or negative value) disables the
+	 * validation-only mode.
+	 * 
+	 * @param largeFileThreshold the size (in characters) of large files.
+	 */
+	public void setLargeFileThreshold(int largeFileThreshold) {
+		this.largeFileThreshold = largeFileThreshold;
+	}
+
+	/**
+	 * Returns true if a document with the given size must be only validated
+	 * (without building its DOM document) and false otherwise.
+	 * 
+	 * @param size the size (in characters) of the document.
+	 * @return true if a document with the given size must be only validated
+	 *         (without building its DOM document) and false otherwise.
+	 */
+	public boolean isValidationOnly(int size) {
+		return largeFileThreshold > 0 && size > largeFileThreshold;
+	}
+
 	/**
 	 * Returns the <code>noGrammar</code> severity according the given settings and
 	 * {@link DiagnosticSeverity#Hint} otherwise.
@@ -151,6 +188,7 @@ public class XMLValidationSettings {
 			this.enabled = settings.enabled;
 			this.disallowDocTypeDecl = settings.disallowDocTypeDecl;
 			this.resolveExternalEntities = settings.resolveExternalEntities;
+			this.largeFileThreshold = settings.largeFileThreshold;
 		}
 		return this;
 	}
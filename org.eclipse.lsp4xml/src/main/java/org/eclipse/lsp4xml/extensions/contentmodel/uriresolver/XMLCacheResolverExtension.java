@@ -10,16 +10,28 @@
  */
 package org.eclipse.lsp4xml.extensions.contentmodel.uriresolver;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 import org.apache.xerces.xni.XMLResourceIdentifier;
 import org.apache.xerces.xni.XNIException;
 import org.apache.xerces.xni.parser.XMLInputSource;
 import org.eclipse.lsp4xml.uriresolver.CacheResourceDownloadedException;
 import org.eclipse.lsp4xml.uriresolver.CacheResourcesManager;
+import org.eclipse.lsp4xml.uriresolver.EntityContentCache;
+import org.eclipse.lsp4xml.uriresolver.SchemaBundle;
 import org.eclipse.lsp4xml.uriresolver.URIResolverExtension;
+import org.eclipse.lsp4xml.utils.FilesUtils;
 
 /**
  * URI resolver which, on the first access, downloads the XML Schema or DTD from
@@ -27,13 +39,50 @@ import org.eclipse.lsp4xml.uriresolver.URIResolverExtension;
  * cached file is used instead of being remotely accessed. This cache
  * drastically improves the resolution performance of some XML Schemas (ex:
  * xml.xsd)
+ * 
+ * <p>
+ * Registered schema bundles (see {@link SchemaBundle}) are looked up before
+ * the cache: a resource provided by a schema bundle is read from the
+ * memory-mapped archive, even if the cache is disabled, and is never
+ * downloaded.
+ * </p>
  */
 public class XMLCacheResolverExtension implements URIResolverExtension {
 
+	private static final Logger LOGGER = Logger.getLogger(XMLCacheResolverExtension.class.getName());
+
 	private final CacheResourcesManager cacheResourcesManager;
 
+	private final EntityContentCache entityContentCache;
+
+	private List<String> schemaBundlePaths;
+
+	private volatile List<SchemaBundle> schemaBundles;
+
+	private volatile boolean useCache;
+
 	public XMLCacheResolverExtension() {
-		this.cacheResourcesManager = new CacheResourcesManager();
+		this(null);
+	}
+
+	public XMLCacheResolverExtension(EntityContentCache entityContentCache) {
+		this(entityContentCache, new CacheResourcesManager());
+	}
+
+	/**
+	 * Creates a cache resolver which downloads the resources with the given cache
+	 * resources manager (which can be shared with other resolvers).
+	 * 
+	 * @param entityContentCache    the in-memory cache of the resolved entities
+	 *                              content.
+	 * @param cacheResourcesManager the cache resources manager.
+	 */
+	public XMLCacheResolverExtension(EntityContentCache entityContentCache,
+			CacheResourcesManager cacheResourcesManager) {
+		this.cacheResourcesManager = cacheResourcesManager;
+		this.entityContentCache = entityContentCache;
+		this.schemaBundlePaths = new ArrayList<>();
+		this.schemaBundles = new ArrayList<>();
 	}
 
 	@Override
@@ -45,6 +94,16 @@ public class XMLCacheResolverExtension implements URIResolverExtension {
 	@Override
 	public XMLInputSource resolveEntity(XMLResourceIdentifier resourceIdentifier) throws XNIException, IOException {
 		String url = resourceIdentifier.getExpandedSystemId();
+		// Try to get the resource from the schema bundles.
+		SchemaBundle bundle = getSchemaBundle(url);
+		if (bundle != null) {
+			InputStream in = bundle.getInputStream(url);
+			if (in != null) {
+				XMLInputSource source = new XMLInputSource(resourceIdentifier);
+				source.setByteStream(in);
+				return source;
+			}
+		}
 		// Try to get the downloaded resource. In the case where the resource is
 		// downloading but takes too long, a CacheResourceDownloadingException is
 		// thrown.
@@ -52,7 +111,8 @@ public class XMLCacheResolverExtension implements URIResolverExtension {
 		if (file != null) {
 			// The resource was downloaded locally, use it.
 			XMLInputSource source = new XMLInputSource(resourceIdentifier);
-			source.setByteStream(Files.newInputStream(file));
+			byte[] content = entityContentCache != null ? entityContentCache.getContent(file) : null;
+			source.setByteStream(content != null ? new ByteArrayInputStream(content) : Files.newInputStream(file));
 			return source;
 		}
 		return null;
@@ -68,7 +128,7 @@ public class XMLCacheResolverExtension implements URIResolverExtension {
 	 */
 	public Path getCachedResource(String url) throws IOException, CacheResourceDownloadedException {
 		// Cache is used only for resource coming from "http(s)" or "ftp".
-		if (cacheResourcesManager.canUseCache(url)) {
+		if (useCache && cacheResourcesManager.canUseCache(url)) {
 			// Try to get the downloaded resource. In the case where the resource is
 			// downloading but takes too long, a CacheResourceDownloadingException is
 			// thrown.
@@ -77,6 +137,74 @@ public class XMLCacheResolverExtension implements URIResolverExtension {
 		return null;
 	}
 
+	/**
+	 * Returns true if the given url is provided by a registered schema bundle and
+	 * false otherwise.
+	 * 
+	 * @param url the url
+	 * @return true if the given url is provided by a registered schema bundle and
+	 *         false otherwise.
+	 */
+	public boolean isInSchemaBundle(String url) {
+		return getSchemaBundle(url) != null;
+	}
+
+	private SchemaBundle getSchemaBundle(String url) {
+		if (url == null) {
+			return null;
+		}
+		// The first registered bundle wins, so a newer version of a bundle can be
+		// registered before the older one.
+		for (SchemaBundle bundle : schemaBundles) {
+			if (bundle.contains(url)) {
+				return bundle;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Register the schema bundles archives (zip/jar) file paths.
+	 * 
+	 * @param schemaBundlePaths the schema bundles file paths.
+	 * @return true if the schema bundles changed and false otherwise.
+	 */
+	public synchronized boolean setSchemaBundles(String[] schemaBundlePaths) {
+		List<String> paths = schemaBundlePaths != null ? Arrays.asList(schemaBundlePaths) : new ArrayList<>();
+		if (Objects.equals(paths, this.schemaBundlePaths)) {
+			return false;
+		}
+		List<SchemaBundle> bundles = new ArrayList<>();
+		for (String path : paths) {
+			try {
+				bundles.add(SchemaBundle.open(Paths.get(FilesUtils.normalizePath(path))));
+			} catch (Exception e) {
+				LOGGER.log(Level.SEVERE, "Error while opening schema bundle '" + path + "'", e);
+			}
+		}
+		this.schemaBundlePaths = paths;
+		this.schemaBundles = bundles;
+		return true;
+	}
+
+	/**
+	 * Returns the registered schema bundles file paths.
+	 * 
+	 * @return the registered schema bundles file paths.
+	 */
+	public synchronized List<String> getSchemaBundlePaths() {
+		return schemaBundlePaths;
+	}
+
+	/**
+	 * Returns the registered schema bundles.
+	 * 
+	 * @return the registered schema bundles.
+	 */
+	public List<SchemaBundle> getSchemaBundles() {
+		return schemaBundles;
+	}
+
 	/**
 	 * Set <code>true</code> if cache must be used, <code>false</code> otherwise.
 	 * 
@@ -84,7 +212,12 @@ public class XMLCacheResolverExtension implements URIResolverExtension {
 	 *                 otherwise.
 	 */
 	public void setUseCache(boolean useCache) {
-		cacheResourcesManager.setUseCache(useCache);
+		this.useCache = useCache;
+		if (useCache) {
+			// the cache resources manager can be shared with other resolvers which use
+			// the cache, so it is never disabled by this resolver
+			cacheResourcesManager.setUseCache(true);
+		}
 	}
 
 	/**
@@ -95,7 +228,7 @@ public class XMLCacheResolverExtension implements URIResolverExtension {
 	 *         otherwise.
 	 */
 	public boolean isUseCache() {
-		return cacheResourcesManager.isUseCache();
+		return useCache;
 	}
 
 }
@@ -150,6 +150,17 @@ public class XMLCatalogResolverExtension implements URIResolverExtension {
 		}
 	}
 
+	/**
+	 * Returns the expanded paths of the XML catalogs and null if there is no
+	 * catalog.
+	 * 
+	 * @return the expanded paths of the XML catalogs and null if there is no
+	 *         catalog.
+	 */
+	public String[] getCatalogs() {
+		return catalogResolver != null ? catalogResolver.getCatalogList() : null;
+	}
+
 	private void setCatalogResolver(XMLCatalogResolver catalogResolver) {
 		this.catalogResolver = catalogResolver;
 	}
@@ -42,6 +42,10 @@ public class XMLFileAssociationResolverExtension implements URIResolverExtension
 		return !Arrays.equals(oldFileAssociations, fileAssociations);
 	}
 
+	public XMLFileAssociation[] getFileAssociations() {
+		return fileAssociations;
+	}
+
 	@Override
 	public String resolve(String baseLocation, String publicId, String systemId) {
 		if (systemId != null) {
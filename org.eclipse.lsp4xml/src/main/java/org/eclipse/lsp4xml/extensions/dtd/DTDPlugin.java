@@ -10,7 +10,10 @@
  */
 package org.eclipse.lsp4xml.extensions.dtd;
 
+import java.util.function.Predicate;
+
 import org.eclipse.lsp4j.InitializeParams;
+import org.eclipse.lsp4xml.dom.DOMDocument;
 import org.eclipse.lsp4xml.extensions.contentmodel.model.ContentModelManager;
 import org.eclipse.lsp4xml.extensions.contentmodel.model.ContentModelProvider;
 import org.eclipse.lsp4xml.extensions.dtd.contentmodel.CMDTDContentModelProvider;
@@ -70,6 +73,12 @@ public class DTDPlugin implements IXMLExtension {
 		registry.registerCodeLensParticipant(codeLensParticipant);
 	}
 
+	@Override
+	public Predicate<DOMDocument> getActivationCondition() {
+		// DOCTYPE with internal/external DTD, DTD files
+		return document -> document.hasDTD() || document.isDTD();
+	}
+
 	@Override
 	public void stop(XMLExtensionsRegistry registry) {
 		// unregister diagnostic participant
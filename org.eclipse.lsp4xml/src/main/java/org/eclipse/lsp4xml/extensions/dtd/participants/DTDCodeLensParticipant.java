@@ -34,13 +34,15 @@ import org.eclipse.lsp4xml.utils.XMLPositionUtility;
  */
 public class DTDCodeLensParticipant implements ICodeLensParticipant {
 
+	@Override
+	public boolean isApplicable(DOMDocument document) {
+		// DTD CodeLens is applicable only for DTD or XML which defines a DOCTYPE
+		return DOMUtils.isDTD(document.getDocumentURI()) || document.hasDTD();
+	}
+
 	@Override
 	public void doCodeLens(ICodeLensRequest request, List<CodeLens> lenses, CancelChecker cancelChecker) {
 		DOMDocument xmlDocument = request.getDocument();
-		// DTD CodeLens is applicable only for DTD or XML which defines a DOCTYPE
-		if (!(DOMUtils.isDTD(xmlDocument.getDocumentURI()) || xmlDocument.hasDTD())) {
-			return;
-		}
 		boolean supportedByClient = request.isSupportedByClient(CodeLensKind.References);
 		// Add references CodeLens for <!ELEMENT
 		Map<DTDDeclNode, CodeLens> cache = new HashMap<>();
@@ -16,6 +16,8 @@ import org.apache.xerces.xni.parser.XMLEntityResolver;
 import org.eclipse.lsp4j.Diagnostic;
 import org.eclipse.lsp4j.jsonrpc.CancelChecker;
 import org.eclipse.lsp4xml.dom.DOMDocument;
+import org.eclipse.lsp4xml.jfr.XMLEvent;
+import org.eclipse.lsp4xml.jfr.XMLEvents;
 import org.eclipse.lsp4xml.services.extensions.diagnostics.IDiagnosticsParticipant;
 
 /**
@@ -24,17 +26,21 @@ import org.eclipse.lsp4xml.services.extensions.diagnostics.IDiagnosticsParticipa
  */
 public class DTDDiagnosticsParticipant implements IDiagnosticsParticipant {
 
+	@Override
+	public boolean isApplicable(DOMDocument document) {
+		// Don't use the DTD validator, if it's not a DTD
+		return document.isDTD();
+	}
+
 	@Override
 	public void doDiagnostics(DOMDocument xmlDocument, List<Diagnostic> diagnostics, CancelChecker monitor) {
-		if (!xmlDocument.isDTD()) {
-			// Don't use the DTD validator, if it's a DTD
-			return;
-		}
 		// Get entity resolver (XML catalog resolver, XML schema from the file
 		// associations settings., ...)
 		XMLEntityResolver entityResolver = xmlDocument.getResolverExtensionManager();
 		// Process validation
-		DTDValidator.doDiagnostics(xmlDocument, entityResolver, diagnostics, monitor);
+		try (XMLEvent event = XMLEvents.validation(xmlDocument, "DTD", diagnostics)) {
+			DTDValidator.doDiagnostics(xmlDocument, entityResolver, diagnostics, monitor);
+		}
 	}
 
 }
@@ -0,0 +1,239 @@
+/*******************************************************************************
+* Copyright (c) 2019 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lsp4xml.extensions.dtd.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.lsp4xml.dom.DOMDocumentType;
+import org.eclipse.lsp4xml.dom.DOMNode;
+import org.eclipse.lsp4xml.dom.DTDAttlistDecl;
+import org.eclipse.lsp4xml.dom.DTDDeclNode;
+import org.eclipse.lsp4xml.dom.DTDDeclParameter;
+import org.eclipse.lsp4xml.dom.DTDElementDecl;
+import org.eclipse.lsp4xml.dom.DTDEntityDecl;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+/**
+ * Index of the DTD declarations of a DOCTYPE (or of a DTD file):
+ *
+ * <ul>
+ * <li>the &lt;!ELEMENT declarations which define a name, by name.</li>
+ * <li>the references of an element name: the element name of an &lt;!ATTLIST
+ * and the children declared in the content model of an &lt;!ELEMENT.</li>
+ * <li>the &lt;!ENTITY declarations, by name (the name of a parameter entity is
+ * prefixed with '%').</li>
+ * </ul>
+ *
+ * <p>
+ * A DOCTYPE is never updated (a new DOM document is parsed for each version of
+ * the text document), the index is built once for a DOCTYPE and is stored on
+ * it (see {@link DOMDocumentType#getUserData(String)}) to be shared by the DTD
+ * participants (definition, references, codeLens, highlighting).
+ * </p>
+ *
+ */
+class DTDDeclarationIndex {
+
+	private static final String INDEX_KEY = DTDDeclarationIndex.class.getName();
+
+	/**
+	 * A DTD declaration which references element names.
+	 */
+	static class OriginDecl {
+
+		private final DTDDeclNode node;
+
+		private final List<DTDDeclParameter> references;
+
+		OriginDecl(DTDDeclNode node, List<DTDDeclParameter> references) {
+			this.node = node;
+			this.references = references;
+		}
+
+		public DTDDeclNode getNode() {
+			return node;
+		}
+
+		/**
+		 * Returns the element name references of the declaration in the document
+		 * order.
+		 *
+		 * @return the element name references of the declaration in the document
+		 *         order.
+		 */
+		public List<DTDDeclParameter> getReferences() {
+			return references;
+		}
+	}
+
+	private final List<DTDElementDecl> elementDecls;
+
+	private final Map<String, List<DTDElementDecl>> elementDeclsByName;
+
+	private final List<OriginDecl> originDecls;
+
+	private final Map<String, List<DTDDeclParameter>> referencesByName;
+
+	private final List<DTDEntityDecl> entityDecls;
+
+	private final Map<String, List<DTDEntityDecl>> entityDeclsByName;
+
+	private DTDDeclarationIndex(DOMDocumentType docType) {
+		this.elementDecls = new ArrayList<>();
+		this.elementDeclsByName = new HashMap<>();
+		this.originDecls = new ArrayList<>();
+		this.referencesByName = new HashMap<>();
+		this.entityDecls = new ArrayList<>();
+		this.entityDeclsByName = new HashMap<>();
+		if (!docType.hasChildNodes()) {
+			return;
+		}
+		NodeList children = docType.getChildNodes();
+		for (int i = 0; i < children.getLength(); i++) {
+			Node node = children.item(i);
+			switch (node.getNodeType()) {
+			case DOMNode.DTD_ELEMENT_DECL_NODE:
+				DTDElementDecl elementDecl = (DTDElementDecl) node;
+				DTDDeclParameter elementName = elementDecl.getNameParameter();
+				if (elementName == null) {
+					break;
+				}
+				// <!ELEMENT which defines a name
+				elementDecls.add(elementDecl);
+				add(elementDeclsByName, elementName.getParameter(), elementDecl);
+				// <!ELEMENT note (to, from) > --> 'to' and 'from' reference an element name
+				List<DTDDeclParameter> childNames = new ArrayList<>();
+				elementDecl.collectParameters(parameter -> {
+					childNames.add(parameter);
+					add(referencesByName, parameter.getParameter(), parameter);
+				});
+				if (!childNames.isEmpty()) {
+					originDecls.add(new OriginDecl(elementDecl, childNames));
+				}
+				break;
+			case DOMNode.DTD_ATT_LIST_NODE:
+				// <!ATTLIST note ... > --> 'note' references an element name
+				DTDAttlistDecl attlistDecl = (DTDAttlistDecl) node;
+				DTDDeclParameter attlistElementName = attlistDecl.getNameParameter();
+				if (attlistElementName != null) {
+					originDecls.add(new OriginDecl(attlistDecl, Collections.singletonList(attlistElementName)));
+					add(referencesByName, attlistDecl.getElementName(), attlistElementName);
+				}
+				break;
+			case Node.ENTITY_NODE:
+				// <!ENTITY copyright "Red Hat"> or <!ENTITY % common "id ID #IMPLIED">
+				DTDEntityDecl entityDecl = (DTDEntityDecl) node;
+				DTDDeclParameter entityName = entityDecl.getNameParameter();
+				if (entityName != null) {
+					entityDecls.add(entityDecl);
+					String name = entityDecl.getPercent() != null ? "%" + entityName.getParameter()
+							: entityName.getParameter();
+					add(entityDeclsByName, name, entityDecl);
+				}
+				break;
+			}
+		}
+	}
+
+	/**
+	 * Returns the index of the given DOCTYPE.
+	 *
+	 * @param docType the DOCTYPE.
+	 * @return the index of the given DOCTYPE.
+	 */
+	public static DTDDeclarationIndex getIndex(DOMDocumentType docType) {
+		DTDDeclarationIndex index = (DTDDeclarationIndex) docType.getUserData(INDEX_KEY);
+		if (index == null) {
+			// Two threads can build the index of the same DOCTYPE, the result is the same
+			index = new DTDDeclarationIndex(docType);
+			docType.setUserData(INDEX_KEY, index, null);
+		}
+		return index;
+	}
+
+	private static <T> void add(Map<String, List<T>> nodesByName, String name, T node) {
+		List<T> nodes = nodesByName.get(name);
+		if (nodes == null) {
+			nodes = new ArrayList<>(1);
+			nodesByName.put(name, nodes);
+		}
+		nodes.add(node);
+	}
+
+	/**
+	 * Returns the &lt;!ELEMENT declarations which define a name in the document
+	 * order.
+	 *
+	 * @return the &lt;!ELEMENT declarations which define a name in the document
+	 *         order.
+	 */
+	public List<DTDElementDecl> getElementDecls() {
+		return elementDecls;
+	}
+
+	/**
+	 * Returns the &lt;!ELEMENT declarations of the given element name.
+	 *
+	 * @param name the element name.
+	 * @return the &lt;!ELEMENT declarations of the given element name.
+	 */
+	public List<DTDElementDecl> getElementDecls(String name) {
+		List<DTDElementDecl> decls = elementDeclsByName.get(name);
+		return decls != null ? decls : Collections.emptyList();
+	}
+
+	/**
+	 * Returns the declarations which reference element names in the document
+	 * order.
+	 *
+	 * @return the declarations which reference element names in the document
+	 *         order.
+	 */
+	public List<OriginDecl> getOriginDecls() {
+		return originDecls;
+	}
+
+	/**
+	 * Returns the references (&lt;!ATTLIST element name and &lt;!ELEMENT children)
+	 * of the given element name in the document order.
+	 *
+	 * @param name the element name.
+	 * @return the references of the given element name in the document order.
+	 */
+	public List<DTDDeclParameter> getReferences(String name) {
+		List<DTDDeclParameter> references = referencesByName.get(name);
+		return references != null ? references : Collections.emptyList();
+	}
+
+	/**
+	 * Returns the &lt;!ENTITY declarations in the document order.
+	 *
+	 * @return the &lt;!ENTITY declarations in the document order.
+	 */
+	public List<DTDEntityDecl> getEntityDecls() {
+		return entityDecls;
+	}
+
+	/**
+	 * Returns the &lt;!ENTITY declarations of the given entity name.
+	 *
+	 * @param name the entity name, prefixed with '%' for a parameter entity.
+	 * @return the &lt;!ENTITY declarations of the given entity name.
+	 */
+	public List<DTDEntityDecl> getEntityDecls(String name) {
+		List<DTDEntityDecl> decls = entityDeclsByName.get(name);
+		return decls != null ? decls : Collections.emptyList();
+	}
+}
@@ -10,6 +10,7 @@
 package org.eclipse.lsp4xml.extensions.dtd.utils;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -20,14 +21,12 @@ import org.apache.xerces.impl.dtd.DTDGrammar;
 import org.eclipse.lsp4j.jsonrpc.CancelChecker;
 import org.eclipse.lsp4xml.dom.DOMDocumentType;
 import org.eclipse.lsp4xml.dom.DOMNode;
-import org.eclipse.lsp4xml.dom.DTDAttlistDecl;
 import org.eclipse.lsp4xml.dom.DTDDeclNode;
 import org.eclipse.lsp4xml.dom.DTDDeclParameter;
 import org.eclipse.lsp4xml.dom.DTDElementDecl;
 import org.eclipse.lsp4xml.extensions.contentmodel.model.FilesChangedTracker;
 import org.eclipse.lsp4xml.utils.URIUtils;
 import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
 
 /**
  * DTD utilities.
@@ -49,24 +48,13 @@ public class DTDUtils {
 	public static void searchDTDTargetElementDecl(DTDDeclParameter originNameNode, boolean matchName,
 			Consumer<DTDDeclParameter> collector) {
 		DOMDocumentType docType = originNameNode.getOwnerDocType();
-		if (docType.hasChildNodes()) {
-			// Loop for each <!ELEMENT.
-			NodeList children = docType.getChildNodes();
-			for (int i = 0; i < children.getLength(); i++) {
-				Node node = children.item(i);
-				if (node.getNodeType() == DOMNode.DTD_ELEMENT_DECL_NODE) {
-					DTDElementDecl targetElementDecl = (DTDElementDecl) node;
-					if (isValid(targetElementDecl)) {
-						// node is <!ELEMENT which defines a name, collect if if it matches the origin
-						// name node
-						DTDDeclParameter targetElementName = targetElementDecl.getNameParameter();
-						if ((!matchName || (matchName
-								&& originNameNode.getParameter().equals(targetElementName.getParameter())))) {
-							collector.accept(targetElementName);
-						}
-					}
-				}
-			}
+		DTDDeclarationIndex index = DTDDeclarationIndex.getIndex(docType);
+		// Loop for each <!ELEMENT which defines a name (which matches the origin name
+		// node)
+		List<DTDElementDecl> targetElementDecls = matchName ? index.getElementDecls(originNameNode.getParameter())
+				: index.getElementDecls();
+		for (DTDElementDecl targetElementDecl : targetElementDecls) {
+			collector.accept(targetElementDecl.getNameParameter());
 		}
 	}
 
@@ -80,110 +68,67 @@ public class DTDUtils {
 	 */
 	public static void searchDTDOriginElementDecls(DTDDeclNode targetNode,
 			BiConsumer<DTDDeclParameter, DTDDeclParameter> collector, CancelChecker cancelChecker) {
-		// Collect all potential target DTD nodes (all <!ELEMENT)
-		List<DTDDeclNode> targetNodes = getTargetNodes(targetNode);
-		if (targetNodes.isEmpty()) {
-			// None referenced nodes, stop the search of references
+		DOMDocumentType docType = targetNode.getOwnerDocType();
+		if (docType == null) {
 			return;
 		}
-
-		// Loop for each <!ELEMENT and check for each target DTD nodes if it reference
-		// it.
-		DOMDocumentType docType = targetNode.getOwnerDocType();
-		if (docType.hasChildNodes()) {
-			// Loop for <!ELEMENT.
-			NodeList children = docType.getChildNodes();
-			for (int i = 0; i < children.getLength(); i++) {
+		DTDDeclarationIndex index = DTDDeclarationIndex.getIndex(docType);
+		switch (targetNode.getNodeType()) {
+		case DOMNode.DTD_ELEMENT_DECL_NODE:
+			// Collect the references of the <!ELEMENT target
+			DTDElementDecl targetElement = (DTDElementDecl) targetNode;
+			DTDDeclParameter targetName = targetElement.getNameParameter();
+			if (targetName == null) {
+				return;
+			}
+			for (DTDDeclParameter origin : index.getReferences(targetName.getParameter())) {
 				if (cancelChecker != null) {
 					cancelChecker.checkCanceled();
 				}
-				Node origin = children.item(i);
-				for (DTDDeclNode target : targetNodes) {
-					if (target.isDTDElementDecl()) {
-						// target node is <!ELEMENT, check if it is references by the current origin
-						// node
-						DTDElementDecl targetElement = (DTDElementDecl) target;
-						switch (origin.getNodeType()) {
-						case DOMNode.DTD_ELEMENT_DECL_NODE:
-							// check if the current <!ELEMENT origin defines a child which references the
-							// target node <!ELEMENT
-							// <!ELEMENT from > --> here target node is 'from'
-							// <!ELEMENT note(from)> --> here origin node is 'note'
-							// --> here 'note' has a 'from' as child and it should be collected
-							DTDElementDecl originElement = (DTDElementDecl) origin;
-							originElement.collectParameters(targetElement.getNameParameter(), collector);
-							break;
-						case DOMNode.DTD_ATT_LIST_NODE:
-							String name = targetElement.getName();
-							// check if the current <!ATTLIST element-name reference the current <!ELEMENT
-							// element-name
-							// <!ELEMENT note --> here target node is 'note'
-							// <!ATTLIST note ... -> here origin node is 'note'
-							// --> here <!ATTLIST defines 'note' as element name, and it should be collected
-							DTDAttlistDecl originAttribute = (DTDAttlistDecl) origin;
-							if (name.equals(originAttribute.getElementName())) {
-								// <!ATTLIST origin has the same name than <!ELEMENT target
-								collector.accept(originAttribute.getNameParameter(), targetElement.getNameParameter());
-							}
-							break;
-						}
-					}
-				}
+				collector.accept(origin, targetName);
 			}
-		}
-	}
-
-	/**
-	 * Returns the referenced attributes list from the given referenced node.
-	 * 
-	 * @param referencedNode the referenced node.
-	 * @return the referenced attributes list from the given referenced node.
-	 */
-	private static List<DTDDeclNode> getTargetNodes(DTDDeclNode referencedNode) {
-		List<DTDDeclNode> referencedNodes = new ArrayList<>();
-		switch (referencedNode.getNodeType()) {
-		case DOMNode.DTD_ELEMENT_DECL_NODE:
-			addTargetNode(referencedNode, referencedNodes);
 			break;
 		case Node.DOCUMENT_TYPE_NODE:
-			DOMDocumentType docType = (DOMDocumentType) referencedNode;
-			if (docType.hasChildNodes()) {
-				// Loop for element <!ELEMENT.
-				NodeList children = docType.getChildNodes();
-				for (int i = 0; i < children.getLength(); i++) {
-					Node node = children.item(i);
-					if (node.getNodeType() == DOMNode.DTD_ELEMENT_DECL_NODE) {
-						addTargetNode((DTDElementDecl) node, referencedNodes);
-					}
+			// Collect the references of all <!ELEMENT : loop for each origin declaration
+			// (<!ELEMENT with children, <!ATTLIST) and check if it references an <!ELEMENT
+			List<DTDElementDecl> targetElements = index.getElementDecls();
+			if (targetElements.isEmpty()) {
+				return;
+			}
+			for (DTDDeclarationIndex.OriginDecl originDecl : index.getOriginDecls()) {
+				if (cancelChecker != null) {
+					cancelChecker.checkCanceled();
 				}
+				collectReferences(originDecl, index, collector);
 			}
 			break;
 		}
-		return referencedNodes;
 	}
 
-	private static void addTargetNode(DTDDeclNode referencedNode, List<DTDDeclNode> referencedNodes) {
-		if (referencedNode.isDTDElementDecl()) {
-			// Add only <!ELEMENT which defines a name.
-			DTDElementDecl elementDecl = (DTDElementDecl) referencedNode;
-			if (isValid(elementDecl)) {
-				referencedNodes.add(elementDecl);
+	private static void collectReferences(DTDDeclarationIndex.OriginDecl originDecl, DTDDeclarationIndex index,
+			BiConsumer<DTDDeclParameter, DTDDeclParameter> collector) {
+		List<DTDDeclParameter> references = originDecl.getReferences();
+		if (references.size() == 1) {
+			// - <!ATTLIST note ... -> here origin node is 'note'
+			// - <!ELEMENT note (from)> --> here origin node is 'from'
+			DTDDeclParameter origin = references.get(0);
+			for (DTDElementDecl targetElement : index.getElementDecls(origin.getParameter())) {
+				collector.accept(origin, targetElement.getNameParameter());
 			}
+			return;
 		}
-	}
-
-	/**
-	 * Returns true if the given <!ELEMENT defines a name and false otherwise.
-	 * 
-	 * @param elementDecl the <!ELEMENT
-	 * @return true if the given <!ELEMENT defines a name and false otherwise.
-	 */
-	private static boolean isValid(DTDElementDecl elementDecl) {
-		if (elementDecl == null) {
-			return false;
+		// <!ELEMENT note (to, from)> --> here origin nodes are 'to' and 'from'. The
+		// references are collected in the order of the <!ELEMENT targets.
+		List<DTDDeclParameter[]> originAndTargets = new ArrayList<>();
+		for (DTDDeclParameter origin : references) {
+			for (DTDElementDecl targetElement : index.getElementDecls(origin.getParameter())) {
+				originAndTargets.add(new DTDDeclParameter[] { origin, targetElement.getNameParameter() });
+			}
+		}
+		originAndTargets.sort(Comparator.comparingInt(originAndTarget -> originAndTarget[1].getStart()));
+		for (DTDDeclParameter[] originAndTarget : originAndTargets) {
+			collector.accept(originAndTarget[0], originAndTarget[1]);
 		}
-		// check <!ELEMENT defines a name
-		return elementDecl.getNameParameter() != null;
 	}
 
 	public static FilesChangedTracker createFilesChangedTracker(DTDGrammar grammar) {
@@ -11,7 +11,9 @@
 package org.eclipse.lsp4xml.extensions.references;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 
 import javax.xml.xpath.XPath;
@@ -20,31 +22,67 @@ import javax.xml.xpath.XPathExpression;
 import javax.xml.xpath.XPathExpressionException;
 import javax.xml.xpath.XPathFactory;
 
+import org.eclipse.lsp4xml.dom.DOMDocument;
 import org.eclipse.lsp4xml.dom.DOMNode;
+import org.eclipse.lsp4xml.xpath.matcher.DOMXPathExpression;
 import org.eclipse.lsp4xml.xpath.matcher.XPathMatcher;
 import org.w3c.dom.NodeList;
 
 /**
  * An XML reference declaration.
  *
+ * <p>
+ * The target XPath expressions supported by {@link DOMXPathExpression} are
+ * evaluated on the DOM nodes once per DOM document (a new DOM document is
+ * parsed for each version of the text document) and the selected target nodes
+ * are stored on the DOM document (see {@link DOMDocument#getUserData(String)}).
+ * The other target XPath expressions are evaluated with JAXP for
+ * each request, after the cached target nodes.
+ * </p>
+ *
  */
 public class XMLReference {
 
+	private static final XPathFactory XPATH_FACTORY = XPathFactory.newInstance();
+
+	private static final AtomicLong TARGETS_KEY_COUNTER = new AtomicLong();
+
 	private final String from;
 
+	private final List<DOMXPathExpression> domTos;
+
 	private final List<XPathExpression> tos;
 
+	private volatile String targetsKey;
+
 	private XPathMatcher matcher;
 
 	public XMLReference(String from) {
 		this.from = from;
 		this.matcher = new XPathMatcher(from);
+		this.domTos = new ArrayList<>();
 		this.tos = new ArrayList<>();
+		this.targetsKey = createTargetsKey();
+	}
+
+	/**
+	 * Returns a new key of the target nodes stored on the DOM documents, the
+	 * targets stored with the previous key are ignored.
+	 */
+	private static String createTargetsKey() {
+		return XMLReference.class.getName() + "#" + TARGETS_KEY_COUNTER.incrementAndGet();
 	}
 
 	public XMLReference to(String to) throws XPathExpressionException {
-		XPath xPath = XPathFactory.newInstance().newXPath();
-		this.tos.add(xPath.compile(to));
+		if (DOMXPathExpression.isSupported(to)) {
+			this.domTos.add(new DOMXPathExpression(to));
+		} else {
+			synchronized (XPATH_FACTORY) {
+				XPath xPath = XPATH_FACTORY.newXPath();
+				this.tos.add(xPath.compile(to));
+			}
+		}
+		targetsKey = createTargetsKey();
 		return this;
 	}
 
@@ -53,8 +91,14 @@ public class XMLReference {
 	}
 
 	void collect(DOMNode node, Consumer<DOMNode> collector) throws XPathExpressionException {
+		for (DOMNode target : getTargets(node.getOwnerDocument())) {
+			collector.accept(target);
+		}
 		for (XPathExpression expression : tos) {
-			NodeList result = (NodeList) expression.evaluate(node, XPathConstants.NODESET);
+			NodeList result;
+			synchronized (expression) {
+				result = (NodeList) expression.evaluate(node, XPathConstants.NODESET);
+			}
 			for (int i = 0; i < result.getLength(); i++) {
 				collector.accept((DOMNode) result.item(i));
 			}
@@ -62,4 +106,29 @@ public class XMLReference {
 
 	}
 
+	/**
+	 * Returns the target nodes of the given document selected by the
+	 * {@link DOMXPathExpression} target expressions.
+	 *
+	 * @param document the DOM document.
+	 * @return the target nodes of the given document selected by the
+	 *         {@link DOMXPathExpression} target expressions.
+	 */
+	List<DOMNode> getTargets(DOMDocument document) {
+		if (domTos.isEmpty() || document == null) {
+			return Collections.emptyList();
+		}
+		String key = targetsKey;
+		@SuppressWarnings("unchecked")
+		List<DOMNode> targets = (List<DOMNode>) document.getUserData(key);
+		if (targets == null) {
+			targets = new ArrayList<>();
+			for (DOMXPathExpression expression : domTos) {
+				expression.evaluate(document, targets::add);
+			}
+			document.setUserData(key, targets, null);
+		}
+		return targets;
+	}
+
 }
@@ -14,6 +14,8 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 import javax.xml.xpath.XPathExpressionException;
 
@@ -22,6 +24,8 @@ import org.eclipse.lsp4xml.dom.DOMNode;
 
 public class XMLReferencesManager {
 
+	private static final Logger LOGGER = Logger.getLogger(XMLReferencesManager.class.getName());
+
 	private static final XMLReferencesManager INSTANCE = new XMLReferencesManager();
 
 	public static XMLReferencesManager getInstance() {
@@ -40,6 +44,23 @@ public class XMLReferencesManager {
 		return references;
 	}
 
+	/**
+	 * Returns true if some XML references are defined for the given document and
+	 * false otherwise.
+	 * 
+	 * @param document the DOM document.
+	 * @return true if some XML references are defined for the given document and
+	 *         false otherwise.
+	 */
+	public boolean canApply(DOMDocument document) {
+		for (XMLReferences references : referencesCache) {
+			if (references.canApply(document)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
 	public void collect(DOMNode node, Consumer<DOMNode> collector) {
 		DOMDocument document = node.getOwnerDocument();
 		for (XMLReferences references : referencesCache) {
@@ -47,8 +68,7 @@ public class XMLReferencesManager {
 				try {
 					references.collectNodes(node, collector);
 				} catch (XPathExpressionException e) {
-					// TODO!!!
-					e.printStackTrace();
+					LOGGER.log(Level.SEVERE, "Error while collecting XML references", e);
 				}
 			}
 		}
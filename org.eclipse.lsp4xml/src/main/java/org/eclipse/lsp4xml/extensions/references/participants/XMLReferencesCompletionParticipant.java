@@ -26,6 +26,11 @@ import org.eclipse.lsp4xml.utils.XMLPositionUtility;
 
 public class XMLReferencesCompletionParticipant extends CompletionParticipantAdapter {
 
+	@Override
+	public boolean isApplicable(DOMDocument document) {
+		return XMLReferencesManager.getInstance().canApply(document);
+	}
+
 	@Override
 	public void onXMLContent(ICompletionRequest request, ICompletionResponse response) throws Exception {
 		int offset = request.getOffset();
@@ -25,7 +25,7 @@ public class XMLReferencesDefinitionParticipant extends AbstractDefinitionPartic
 
 	@Override
 	protected boolean match(DOMDocument document) {
-		return true;
+		return XMLReferencesManager.getInstance().canApply(document);
 	}
 
 	@Override
@@ -74,6 +74,12 @@ public class XSDURIResolverExtension implements URIResolverExtension {
 		return null;
 	}
 
+	@Override
+	public boolean isCacheable() {
+		// the XML Schema for XML Schema must be deployed again if it was deleted
+		return false;
+	}
+
 	@Override
 	public XMLInputSource resolveEntity(XMLResourceIdentifier resourceIdentifier) throws XNIException, IOException {
 		String publicId = resourceIdentifier.getNamespace();
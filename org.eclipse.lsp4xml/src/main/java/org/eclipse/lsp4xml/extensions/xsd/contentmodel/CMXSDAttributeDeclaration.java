@@ -12,6 +12,8 @@ package org.eclipse.lsp4xml.extensions.xsd.contentmodel;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.xerces.impl.dv.xs.XSSimpleTypeDecl;
 import org.apache.xerces.impl.xs.XSComplexTypeDecl;
@@ -32,9 +34,11 @@ public class CMXSDAttributeDeclaration implements CMAttributeDeclaration {
 
 	private final XSAttributeUse attributeUse;
 	private String documentation;
+	private final Map<String, String> valuesDocumentation;
 
 	public CMXSDAttributeDeclaration(XSAttributeUse attributeUse) {
 		this.attributeUse = attributeUse;
+		this.valuesDocumentation = new ConcurrentHashMap<>();
 	}
 
 	@Override
@@ -66,13 +70,12 @@ public class CMXSDAttributeDeclaration implements CMAttributeDeclaration {
 
 	@Override
 	public String getValueDocumentation(String value) {
-		if (documentation != null) {
-			return documentation;
+		if (value == null) {
+			return XSDAnnotationModel.getDocumentation(getValueAnnotations(), value);
 		}
-		// Try get xs:annotation from the element declaration or type
-		XSObjectList annotations = getValueAnnotations();
-		documentation = XSDAnnotationModel.getDocumentation(annotations, value);
-		return documentation;
+		// The documentation is computed once per enumeration value
+		return valuesDocumentation.computeIfAbsent(value,
+				v -> XSDAnnotationModel.getDocumentation(getValueAnnotations(), v));
 	}
 
 	/**
@@ -36,6 +36,18 @@ import org.xml.sax.helpers.DefaultHandler;
  */
 class XSDAnnotationModel {
 
+	/**
+	 * The SAX parser used to parse the xs:annotation, a SAX parser is not thread
+	 * safe, so each thread has its own parser.
+	 */
+	private static final ThreadLocal<SAXParser> SAX_PARSER = ThreadLocal.withInitial(() -> {
+		try {
+			return SAXParserFactory.newInstance().newSAXParser();
+		} catch (Exception e) {
+			return null;
+		}
+	});
+
 	String appInfo;
 
 	String documentation;
@@ -101,14 +113,18 @@ class XSDAnnotationModel {
 	}
 
 	public static XSDAnnotationModel load(XSAnnotation annotation) {
+		SAXParser saxParser = SAX_PARSER.get();
+		if (saxParser == null) {
+			return null;
+		}
 		try {
-			SAXParserFactory factory = SAXParserFactory.newInstance();
-			SAXParser saxParser = factory.newSAXParser();
 			XSAnnotationHandler handler = new XSAnnotationHandler();
 			saxParser.parse(new InputSource(new StringReader(annotation.getAnnotationString())), handler);
 			return handler.getModel();
 		} catch (Exception e) {
 			return null;
+		} finally {
+			saxParser.reset();
 		}
 	}
 
@@ -34,13 +34,15 @@ import org.eclipse.lsp4xml.utils.XMLPositionUtility;
  */
 public class XSDCodeLensParticipant implements ICodeLensParticipant {
 
+	@Override
+	public boolean isApplicable(DOMDocument document) {
+		// XSD types CodeLens is applicable only for XML Schema file
+		return DOMUtils.isXSD(document);
+	}
+
 	@Override
 	public void doCodeLens(ICodeLensRequest request, List<CodeLens> lenses, CancelChecker cancelChecker) {
 		DOMDocument xmlDocument = request.getDocument();
-		// XSD types CodeLens is applicable only for XML Schema file
-		if (!DOMUtils.isXSD(xmlDocument)) {
-			return;
-		}
 		boolean supportedByClient = request.isSupportedByClient(CodeLensKind.References);
 		// Add references CodeLens for each xs:simpleType, xs:complexType, xs:element,
 		// xs:group root element.
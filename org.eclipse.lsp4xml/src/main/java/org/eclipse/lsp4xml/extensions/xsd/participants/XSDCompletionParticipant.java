@@ -38,14 +38,16 @@ import org.eclipse.lsp4xml.utils.DOMUtils;
  */
 public class XSDCompletionParticipant extends CompletionParticipantAdapter {
 
+	@Override
+	public boolean isApplicable(DOMDocument document) {
+		return DOMUtils.isXSD(document);
+	}
+
 	@Override
 	public void onAttributeValue(String valuePrefix, ICompletionRequest request, ICompletionResponse response)
 			throws Exception {
 		DOMNode node = request.getNode();
 		DOMDocument document = node.getOwnerDocument();
-		if (!DOMUtils.isXSD(document)) {
-			return;
-		}
 		Range fullRange = request.getReplaceRange();
 		DOMAttr originAttr = node.findAttrAt(request.getOffset());
 		BindingType bindingType = XSDUtils.getBindingType(originAttr);
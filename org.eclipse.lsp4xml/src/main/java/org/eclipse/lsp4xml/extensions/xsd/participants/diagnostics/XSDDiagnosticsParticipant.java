@@ -16,6 +16,8 @@ import org.apache.xerces.xni.parser.XMLEntityResolver;
 import org.eclipse.lsp4j.Diagnostic;
 import org.eclipse.lsp4j.jsonrpc.CancelChecker;
 import org.eclipse.lsp4xml.dom.DOMDocument;
+import org.eclipse.lsp4xml.jfr.XMLEvent;
+import org.eclipse.lsp4xml.jfr.XMLEvents;
 import org.eclipse.lsp4xml.services.extensions.diagnostics.IDiagnosticsParticipant;
 import org.eclipse.lsp4xml.utils.DOMUtils;
 
@@ -25,17 +27,21 @@ import org.eclipse.lsp4xml.utils.DOMUtils;
  */
 public class XSDDiagnosticsParticipant implements IDiagnosticsParticipant {
 
+	@Override
+	public boolean isApplicable(DOMDocument document) {
+		// Don't use the XSD validator, if the XML document is not a XML Schema.
+		return DOMUtils.isXSD(document);
+	}
+
 	@Override
 	public void doDiagnostics(DOMDocument xmlDocument, List<Diagnostic> diagnostics, CancelChecker monitor) {
-		if (!DOMUtils.isXSD(xmlDocument)) {
-			// Don't use the XSD validator, if the XML document is not a XML Schema.
-			return;
-		}
 		// Get entity resolver (XML catalog resolver, XML schema from the file
 		// associations settings., ...)
 		XMLEntityResolver entityResolver = xmlDocument.getResolverExtensionManager();
 		// Process validation
-		XSDValidator.doDiagnostics(xmlDocument, entityResolver, diagnostics, monitor);
+		try (XMLEvent event = XMLEvents.validation(xmlDocument, "XSD", diagnostics)) {
+			XSDValidator.doDiagnostics(xmlDocument, entityResolver, diagnostics, monitor);
+		}
 	}
 
 }
@@ -0,0 +1,211 @@
+/*******************************************************************************
+* Copyright (c) 2019 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lsp4xml.extensions.xsd.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.lsp4xml.dom.DOMAttr;
+import org.eclipse.lsp4xml.dom.DOMDocument;
+import org.eclipse.lsp4xml.dom.DOMElement;
+import org.eclipse.lsp4xml.dom.DOMNode;
+import org.eclipse.lsp4xml.extensions.xsd.utils.XSDUtils.BindingType;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+/**
+ * Index of the XML Schema components of a DOM document:
+ *
+ * <ul>
+ * <li>the target attributes: the name attribute of the top level declarations
+ * (xs:complexType, xs:simpleType, xs:element, xs:group, xs:attributeGroup,
+ * etc) by name.</li>
+ * <li>the origin attributes: the attributes which reference a declaration
+ * (type, base, ref, itemType, memberTypes, substitutionGroup) by referenced
+ * name (without the target namespace prefix).</li>
+ * <li>the schemaLocation of the xs:include.</li>
+ * </ul>
+ *
+ * <p>
+ * A DOM document is never updated (a new DOM document is parsed for each
+ * version of the text document), the index is built once for a DOM document
+ * and is stored on it (see {@link DOMDocument#getUserData(String)}) to be
+ * shared by the XSD participants (definition, references, codeLens,
+ * highlighting, rename).
+ * </p>
+ *
+ */
+class XSDComponentIndex {
+
+	private static final String INDEX_KEY = XSDComponentIndex.class.getName();
+
+	private final String targetNamespacePrefix;
+
+	private final List<DOMAttr> targetAttrs;
+
+	private final Map<String, List<DOMAttr>> targetAttrsByName;
+
+	private final List<DOMAttr> originAttrs;
+
+	private final Map<String, List<DOMAttr>> originAttrsByName;
+
+	private final List<String> includedSchemaLocations;
+
+	private XSDComponentIndex(DOMDocument document) {
+		this.targetAttrs = new ArrayList<>();
+		this.targetAttrsByName = new HashMap<>();
+		this.originAttrs = new ArrayList<>();
+		this.originAttrsByName = new HashMap<>();
+		this.includedSchemaLocations = new ArrayList<>();
+		DOMElement documentElement = document.getDocumentElement();
+		if (documentElement == null) {
+			this.targetNamespacePrefix = null;
+			return;
+		}
+		// <xs:schema xmlns:xs="http://www.w3.org/2001/XMLSchema"
+		// xmlns:tns="http://camel.apache.org/schema/spring"
+		// targetNamespace="http://camel.apache.org/schema/spring" version="1.0">
+		String targetNamespace = documentElement.getAttribute("targetNamespace");
+		this.targetNamespacePrefix = documentElement.getPrefix(targetNamespace);
+		NodeList children = documentElement.getChildNodes();
+		for (int i = 0; i < children.getLength(); i++) {
+			Node node = children.item(i);
+			if (node.getNodeType() == Node.ELEMENT_NODE) {
+				DOMElement element = (DOMElement) node;
+				DOMAttr targetAttr = element.getAttributeNode("name");
+				if (targetAttr != null) {
+					targetAttrs.add(targetAttr);
+					add(targetAttrsByName, targetAttr.getValue(), targetAttr);
+				}
+				if (XSDUtils.isXSInclude(element)) {
+					String schemaLocation = element.getAttribute("schemaLocation");
+					if (schemaLocation != null) {
+						includedSchemaLocations.add(schemaLocation);
+					}
+				}
+			}
+		}
+		collectOriginAttrs(children);
+	}
+
+	/**
+	 * Returns the index of the given DOM document.
+	 *
+	 * @param document the DOM document.
+	 * @return the index of the given DOM document.
+	 */
+	public static XSDComponentIndex getIndex(DOMDocument document) {
+		XSDComponentIndex index = (XSDComponentIndex) document.getUserData(INDEX_KEY);
+		if (index == null) {
+			// Two threads can build the index of the same document, the result is the same
+			index = new XSDComponentIndex(document);
+			document.setUserData(INDEX_KEY, index, null);
+		}
+		return index;
+	}
+
+	private void collectOriginAttrs(NodeList nodes) {
+		for (int i = 0; i < nodes.getLength(); i++) {
+			Node node = nodes.item(i);
+			if (node.getNodeType() == Node.ELEMENT_NODE) {
+				List<DOMAttr> attributes = ((DOMNode) node).getAttributeNodes();
+				if (attributes != null) {
+					for (DOMAttr originAttr : attributes) {
+						if (originAttr.getValue() != null
+								&& XSDUtils.getBindingType(originAttr) != BindingType.NONE) {
+							originAttrs.add(originAttr);
+							String originName = XSDUtils.getOriginName(originAttr.getValue(), targetNamespacePrefix);
+							if (originName != null) {
+								add(originAttrsByName, originName, originAttr);
+							}
+						}
+					}
+				}
+			}
+			if (node.hasChildNodes()) {
+				collectOriginAttrs(node.getChildNodes());
+			}
+		}
+	}
+
+	private static void add(Map<String, List<DOMAttr>> attrsByName, String name, DOMAttr attr) {
+		List<DOMAttr> attrs = attrsByName.get(name);
+		if (attrs == null) {
+			attrs = new ArrayList<>(1);
+			attrsByName.put(name, attrs);
+		}
+		attrs.add(attr);
+	}
+
+	/**
+	 * Returns the prefix of the target namespace of the XML Schema and null
+	 * otherwise.
+	 *
+	 * @return the prefix of the target namespace of the XML Schema and null
+	 *         otherwise.
+	 */
+	public String getTargetNamespacePrefix() {
+		return targetNamespacePrefix;
+	}
+
+	/**
+	 * Returns the name attributes of the top level elements in the document order.
+	 *
+	 * @return the name attributes of the top level elements in the document order.
+	 */
+	public List<DOMAttr> getTargetAttrs() {
+		return targetAttrs;
+	}
+
+	/**
+	 * Returns the name attributes of the top level elements which declare the
+	 * given name.
+	 *
+	 * @param name the declared name.
+	 * @return the name attributes of the top level elements which declare the
+	 *         given name.
+	 */
+	public List<DOMAttr> getTargetAttrs(String name) {
+		List<DOMAttr> attrs = targetAttrsByName.get(name);
+		return attrs != null ? attrs : Collections.emptyList();
+	}
+
+	/**
+	 * Returns the attributes which reference a declaration in the document order.
+	 *
+	 * @return the attributes which reference a declaration in the document order.
+	 */
+	public List<DOMAttr> getOriginAttrs() {
+		return originAttrs;
+	}
+
+	/**
+	 * Returns the attributes which reference the given name.
+	 *
+	 * @param name the referenced name (without the target namespace prefix).
+	 * @return the attributes which reference the given name.
+	 */
+	public List<DOMAttr> getOriginAttrs(String name) {
+		List<DOMAttr> attrs = originAttrsByName.get(name);
+		return attrs != null ? attrs : Collections.emptyList();
+	}
+
+	/**
+	 * Returns the schemaLocation of the xs:include elements.
+	 *
+	 * @return the schemaLocation of the xs:include elements.
+	 */
+	public List<String> getIncludedSchemaLocations() {
+		return includedSchemaLocations;
+	}
+}
@@ -11,8 +11,10 @@ package org.eclipse.lsp4xml.extensions.xsd.utils;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.Vector;
 import java.util.function.BiConsumer;
@@ -31,7 +33,6 @@ import org.eclipse.lsp4xml.utils.StringUtils;
 import org.eclipse.lsp4xml.utils.URIUtils;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
-import org.w3c.dom.NamedNodeMap;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
 
@@ -160,45 +161,30 @@ public class XSDUtils {
 		}
 
 		// Loop for element complexType.
-		searchXSTargetAttributes(originAttr, bindingType, matchAttr, collector, documentElement, targetNamespacePrefix,
+		searchXSTargetAttributes(originAttr, bindingType, matchAttr, collector, document, targetNamespacePrefix,
 				originName, new HashSet<>(), searchInExternalSchema);
 	}
 
 	private static void searchXSTargetAttributes(DOMAttr originAttr, BindingType bindingType, boolean matchAttr,
-			BiConsumer<String, DOMAttr> collector, DOMElement documentElement, String targetNamespacePrefix,
+			BiConsumer<String, DOMAttr> collector, DOMDocument document, String targetNamespacePrefix,
 			String originName, Set<String> visitedURIs, boolean searchInExternalSchema) {
-		DOMDocument document = documentElement.getOwnerDocument();
 		String documentURI = document.getDocumentURI();
 		if (visitedURIs.contains(documentURI)) {
 			return;
 		}
 		visitedURIs.add(documentURI);
-		Set<String> externalURIS = null;
-		NodeList children = documentElement.getChildNodes();
-		for (int i = 0; i < children.getLength(); i++) {
-			Node node = children.item(i);
-			if (node.getNodeType() == Node.ELEMENT_NODE) {
-				Element targetElement = (Element) node;
-				if (isBounded(originAttr.getOwnerElement(), bindingType, targetElement)) {
-					// node is a xs:complexType, xs:simpleType element, xsl:element, xs:group which
-					// matches the binding type of the originAttr
-					DOMAttr targetAttr = (DOMAttr) targetElement.getAttributeNode("name");
-					if (targetAttr != null && (!matchAttr || Objects.equal(originName, targetAttr.getValue()))) {
-						collector.accept(targetNamespacePrefix, targetAttr);
-					}
-				} else if (isXSInclude(targetElement)) {
-					// collect xs:include XML Schema location
-					String schemaLocation = targetElement.getAttribute("schemaLocation");
-					if (schemaLocation != null) {
-						if (externalURIS == null) {
-							externalURIS = new HashSet<>();
-						}
-						externalURIS.add(schemaLocation);
-					}
-				}
+		XSDComponentIndex index = XSDComponentIndex.getIndex(document);
+		List<DOMAttr> targetAttrs = matchAttr ? index.getTargetAttrs(originName) : index.getTargetAttrs();
+		for (DOMAttr targetAttr : targetAttrs) {
+			if (isBounded(originAttr.getOwnerElement(), bindingType, targetAttr.getOwnerElement())) {
+				// node is a xs:complexType, xs:simpleType element, xsl:element, xs:group which
+				// matches the binding type of the originAttr
+				collector.accept(targetNamespacePrefix, targetAttr);
 			}
 		}
-		if (searchInExternalSchema && externalURIS != null) {
+		// collect xs:include XML Schema location
+		List<String> externalURIS = index.getIncludedSchemaLocations();
+		if (searchInExternalSchema && !externalURIS.isEmpty()) {
 			// Search in xs:include XML Schema location
 			URIResolverExtensionManager resolverExtensionManager = document.getResolverExtensionManager();
 			for (String externalURI : externalURIS) {
@@ -207,16 +193,15 @@ public class XSDUtils {
 					DOMDocument externalDocument = DOMUtils.loadDocument(resourceURI,
 							document.getResolverExtensionManager());
 					if (externalDocument != null) {
-						searchXSTargetAttributes(originAttr, bindingType, matchAttr, collector,
-								externalDocument.getDocumentElement(), targetNamespacePrefix, originName, visitedURIs,
-								searchInExternalSchema);
+						searchXSTargetAttributes(originAttr, bindingType, matchAttr, collector, externalDocument,
+								targetNamespacePrefix, originName, visitedURIs, searchInExternalSchema);
 					}
 				}
 			}
 		}
 	}
 
-	private static String getOriginName(String originAttrValue, String targetNamespacePrefix) {
+	static String getOriginName(String originAttrValue, String targetNamespacePrefix) {
 		int index = originAttrValue.indexOf(":");
 		if (index != -1) {
 			String prefix = originAttrValue.substring(0, index);
@@ -264,19 +249,41 @@ public class XSDUtils {
 		// xs:simpleType/@name, xs:element/@name, xs:group/@name
 
 		DOMDocument document = targetNode.getOwnerDocument();
-		DOMElement documentElement = document.getDocumentElement();
-
-		// <xs:schema xmlns:xs="http://www.w3.org/2001/XMLSchema"
-		// xmlns:tns="http://camel.apache.org/schema/spring"
-		// targetNamespace="http://camel.apache.org/schema/spring" version="1.0">
-		String targetNamespace = documentElement.getAttribute("targetNamespace"); // ->
-																					// http://camel.apache.org/schema/spring
-		String targetNamespacePrefix = documentElement.getPrefix(targetNamespace); // -> tns
+		XSDComponentIndex index = XSDComponentIndex.getIndex(document);
 
 		// Collect references for each references nodes
-
-		NodeList nodes = documentElement.getChildNodes();
-		searchXSOriginAttributes(nodes, targetAttrs, targetNamespacePrefix, collector, cancelChecker);
+		List<DOMAttr> originAttrs;
+		Map<String, List<DOMAttr>> targetAttrsByName = new HashMap<>();
+		if (targetAttrs.size() == 1) {
+			// Only origin attributes which reference the target name must be checked
+			DOMAttr targetAttr = targetAttrs.get(0);
+			originAttrs = index.getOriginAttrs(targetAttr.getValue());
+			targetAttrsByName.put(targetAttr.getValue(), targetAttrs);
+		} else {
+			// Loop for all origin attributes in the document order
+			originAttrs = index.getOriginAttrs();
+			for (DOMAttr targetAttr : targetAttrs) {
+				targetAttrsByName.computeIfAbsent(targetAttr.getValue(), name -> new ArrayList<>()).add(targetAttr);
+			}
+		}
+		String targetNamespacePrefix = index.getTargetNamespacePrefix();
+		for (DOMAttr originAttr : originAttrs) {
+			if (cancelChecker != null) {
+				cancelChecker.checkCanceled();
+			}
+			String originName = getOriginName(originAttr.getValue(), targetNamespacePrefix);
+			List<DOMAttr> boundedTargetAttrs = originName != null ? targetAttrsByName.get(originName) : null;
+			if (boundedTargetAttrs != null) {
+				BindingType originBinding = getBindingType(originAttr);
+				for (DOMAttr targetAttr : boundedTargetAttrs) {
+					if (isBounded(originAttr.getOwnerElement(), originBinding, targetAttr.getOwnerElement())) {
+						// node is a xs:complexType, xs:simpleType element, xsl:element, xs:group which
+						// matches the binding type of the originAttr
+						collector.accept(originAttr, targetAttr);
+					}
+				}
+			}
+		}
 	}
 
 	/**
@@ -336,44 +343,6 @@ public class XSDUtils {
 		}
 	}
 
-	private static void searchXSOriginAttributes(NodeList nodes, List<DOMAttr> targetAttrs,
-			String targetNamespacePrefix, BiConsumer<DOMAttr, DOMAttr> collector, CancelChecker cancelChecker) {
-		for (int i = 0; i < nodes.getLength(); i++) {
-			if (cancelChecker != null) {
-				cancelChecker.checkCanceled();
-			}
-			Node node = nodes.item(i);
-			if (node.getNodeType() == Node.ELEMENT_NODE) {
-				DOMElement originElement = (DOMElement) node;
-				NamedNodeMap originAttributes = originElement.getAttributes();
-				if (originAttributes != null) {
-					for (int j = 0; j < originAttributes.getLength(); j++) {
-						DOMAttr originAttr = (DOMAttr) originAttributes.item(j);
-						BindingType originBnding = XSDUtils.getBindingType(originAttr);
-						if (originBnding != BindingType.NONE) {
-							String originName = getOriginName(originAttr.getValue(), targetNamespacePrefix);
-							for (DOMAttr targetAttr : targetAttrs) {
-								Element targetElement = targetAttr.getOwnerElement();
-								if (isBounded(originAttr.getOwnerElement(), originBnding, targetElement)) {
-									// node is a xs:complexType, xs:simpleType element, xsl:element, xs:group which
-									// matches the binding type of the originAttr
-									if (targetAttr != null && (Objects.equal(originName, targetAttr.getValue()))) {
-										collector.accept(originAttr, targetAttr);
-									}
-								}
-							}
-						}
-					}
-				}
-			}
-			if (node.hasChildNodes()) {
-				searchXSOriginAttributes(node.getChildNodes(), targetAttrs, targetNamespacePrefix, collector,
-						cancelChecker);
-			}
-		}
-
-	}
-
 	public static boolean isXSComplexType(Element element) {
 		return "complexType".equals(element.getLocalName());
 	}
@@ -10,7 +10,12 @@
  */
 package org.eclipse.lsp4xml.extensions.xsl;
 
+import java.util.function.Predicate;
+
 import org.eclipse.lsp4j.InitializeParams;
+import org.eclipse.lsp4xml.dom.DOMAttr;
+import org.eclipse.lsp4xml.dom.DOMDocument;
+import org.eclipse.lsp4xml.dom.DOMElement;
 import org.eclipse.lsp4xml.services.extensions.IXMLExtension;
 import org.eclipse.lsp4xml.services.extensions.XMLExtensionsRegistry;
 import org.eclipse.lsp4xml.services.extensions.save.ISaveContext;
@@ -37,4 +42,30 @@ public class XSLPlugin implements IXMLExtension {
 	public void stop(XMLExtensionsRegistry registry) {
 		registry.getResolverExtensionManager().unregisterResolver(uiResolver);
 	}
+
+	@Override
+	public Predicate<DOMDocument> getActivationCondition() {
+		return XSLPlugin::isXSL;
+	}
+
+	/**
+	 * Returns true if the root element of the given document declares the XSL
+	 * namespace and false otherwise.
+	 * 
+	 * @param document the DOM document
+	 * @return true if the root element of the given document declares the XSL
+	 *         namespace and false otherwise.
+	 */
+	private static boolean isXSL(DOMDocument document) {
+		DOMElement documentElement = document.getDocumentElement();
+		if (documentElement == null || !documentElement.hasAttributes()) {
+			return false;
+		}
+		for (DOMAttr attr : documentElement.getAttributeNodes()) {
+			if (attr.isXmlns() && XSLURIResolverExtension.XSL_NAMESPACE_URI.equals(attr.getValue())) {
+				return true;
+			}
+		}
+		return false;
+	}
 }
@@ -34,7 +34,7 @@ public class XSLURIResolverExtension implements URIResolverExtension {
 	/**
 	 * The XSL namespace URI (= http://www.w3.org/1999/XSL/Transform)
 	 */
-	private static final String XSL_NAMESPACE_URI = "http://www.w3.org/1999/XSL/Transform"; //$NON-NLS-1$
+	static final String XSL_NAMESPACE_URI = "http://www.w3.org/1999/XSL/Transform"; //$NON-NLS-1$
 
 	private static final ResourceToDeploy XML_SCHEMA_10 = new ResourceToDeploy("https://www.w3.org/1999/11/xslt10.xsd",
 			"/schemas/xslt/xslt-1.0.xsd");
@@ -72,6 +72,12 @@ public class XSLURIResolverExtension implements URIResolverExtension {
 		return null;
 	}
 
+	@Override
+	public boolean isCacheable() {
+		// the result depends on the XSL version declared in the document
+		return false;
+	}
+
 	@Override
 	public XMLInputSource resolveEntity(XMLResourceIdentifier resourceIdentifier) throws XNIException, IOException {
 		String publicId = resourceIdentifier.getNamespace();
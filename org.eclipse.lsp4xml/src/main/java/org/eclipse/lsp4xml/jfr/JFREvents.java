@@ -0,0 +1,269 @@
+/**
+ *  Copyright (c) 2019 Red Hat Inc. and others.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v2.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v20.html
+ *
+ *  Contributors:
+ *  Red Hat Inc. - initial API and implementation
+ */
+package org.eclipse.lsp4xml.jfr;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.eclipse.lsp4j.Diagnostic;
+import org.eclipse.lsp4xml.commons.TextDocument;
+import org.eclipse.lsp4xml.dom.DOMDocument;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder events. This class uses the <code>jdk.jfr</code> API
+ * and must be used only when the API is available (see {@link XMLEvents}).
+ *
+ */
+class JFREvents {
+
+	private static final String CATEGORY = "XML Language Server";
+
+	@Name("org.eclipse.lsp4xml.Parse")
+	@Label("XML Parse")
+	@Category({ CATEGORY, "Parsing" })
+	@StackTrace(false)
+	static class ParseEvent extends Event implements XMLEvent {
+
+		@Label("URI")
+		String uri;
+
+		@Label("Version")
+		int version;
+
+		@Label("Length")
+		@Description("The number of characters of the text")
+		int length;
+
+		@Label("Parallel")
+		boolean parallel;
+
+		@Override
+		public void close() {
+			end();
+			if (shouldCommit()) {
+				commit();
+			}
+		}
+	}
+
+	@Name("org.eclipse.lsp4xml.Validation")
+	@Label("XML Validation")
+	@Category({ CATEGORY, "Validation" })
+	@StackTrace(false)
+	static class ValidationEvent extends Event implements XMLEvent {
+
+		@Label("URI")
+		String uri;
+
+		@Label("Version")
+		int version;
+
+		@Label("Length")
+		@Description("The number of characters of the text")
+		int length;
+
+		@Label("Validator")
+		String validator;
+
+		@Label("Diagnostics")
+		int diagnosticsCount;
+
+		private transient List<Diagnostic> diagnostics;
+
+		private transient int initialDiagnosticsCount;
+
+		@Override
+		public void close() {
+			end();
+			if (shouldCommit()) {
+				diagnosticsCount = diagnostics.size() - initialDiagnosticsCount;
+				commit();
+			}
+		}
+	}
+
+	@Name("org.eclipse.lsp4xml.CMDocumentLoad")
+	@Label("Content Model Load")
+	@Category({ CATEGORY, "Grammars" })
+	@StackTrace(false)
+	static class CMDocumentLoadEvent extends Event implements XMLEvent {
+
+		@Label("Grammar URI")
+		String grammarURI;
+
+		@Override
+		public void close() {
+			end();
+			if (shouldCommit()) {
+				commit();
+			}
+		}
+	}
+
+	@Name("org.eclipse.lsp4xml.GrammarPoolLookup")
+	@Label("Grammar Pool Lookup")
+	@Category({ CATEGORY, "Grammars" })
+	@StackTrace(false)
+	static class GrammarPoolLookupEvent extends Event {
+
+		@Label("System Id")
+		String systemId;
+
+		@Label("Grammar Type")
+		String grammarType;
+
+		@Label("Hit")
+		boolean hit;
+	}
+
+	@Name("org.eclipse.lsp4xml.Download")
+	@Label("Resource Download")
+	@Category({ CATEGORY, "Downloads" })
+	@StackTrace(false)
+	static class DownloadEvent extends Event implements XMLEvent {
+
+		@Label("URI")
+		String uri;
+
+		@Label("Cache File")
+		String cacheFile;
+
+		@Label("Size")
+		@DataAmount(DataAmount.BYTES)
+		long size;
+
+		private transient Path resourceCachePath;
+
+		@Override
+		public void close() {
+			end();
+			if (shouldCommit()) {
+				try {
+					size = Files.exists(resourceCachePath) ? Files.size(resourceCachePath) : -1;
+				} catch (IOException e) {
+					size = -1;
+				}
+				commit();
+			}
+		}
+	}
+
+	@Name("org.eclipse.lsp4xml.Request")
+	@Label("LSP Request")
+	@Category({ CATEGORY, "Requests" })
+	@StackTrace(false)
+	static class RequestEvent extends Event implements XMLEvent {
+
+		@Label("Method")
+		String method;
+
+		@Label("Id")
+		String id;
+
+		@Override
+		public void close() {
+			end();
+			if (shouldCommit()) {
+				commit();
+			}
+		}
+	}
+
+	private JFREvents() {
+	}
+
+	static boolean isAvailable() {
+		return FlightRecorder.isAvailable();
+	}
+
+	static XMLEvent parse(TextDocument document, boolean parallel) {
+		ParseEvent event = new ParseEvent();
+		if (!event.isEnabled()) {
+			return XMLEvents.NO_EVENT;
+		}
+		event.uri = document.getUri();
+		event.version = document.getVersion();
+		event.length = document.getText().length();
+		event.parallel = parallel;
+		event.begin();
+		return event;
+	}
+
+	static XMLEvent validation(DOMDocument document, String validator, List<Diagnostic> diagnostics) {
+		ValidationEvent event = new ValidationEvent();
+		if (!event.isEnabled()) {
+			return XMLEvents.NO_EVENT;
+		}
+		TextDocument textDocument = document.getTextDocument();
+		event.uri = textDocument.getUri();
+		event.version = textDocument.getVersion();
+		event.length = textDocument.getText().length();
+		event.validator = validator;
+		event.diagnostics = diagnostics;
+		event.initialDiagnosticsCount = diagnostics.size();
+		event.begin();
+		return event;
+	}
+
+	static XMLEvent cmDocumentLoad(String grammarURI) {
+		CMDocumentLoadEvent event = new CMDocumentLoadEvent();
+		if (!event.isEnabled()) {
+			return XMLEvents.NO_EVENT;
+		}
+		event.grammarURI = grammarURI;
+		event.begin();
+		return event;
+	}
+
+	static void grammarPoolLookup(String systemId, String grammarType, boolean hit) {
+		GrammarPoolLookupEvent event = new GrammarPoolLookupEvent();
+		if (event.isEnabled()) {
+			event.systemId = systemId;
+			event.grammarType = grammarType;
+			event.hit = hit;
+			event.commit();
+		}
+	}
+
+	static XMLEvent download(String resourceURI, Path resourceCachePath) {
+		DownloadEvent event = new DownloadEvent();
+		if (!event.isEnabled()) {
+			return XMLEvents.NO_EVENT;
+		}
+		event.uri = resourceURI;
+		event.cacheFile = resourceCachePath.toString();
+		event.resourceCachePath = resourceCachePath;
+		event.begin();
+		return event;
+	}
+
+	static XMLEvent request(String method, String id) {
+		RequestEvent event = new RequestEvent();
+		if (!event.isEnabled()) {
+			return XMLEvents.NO_EVENT;
+		}
+		event.method = method;
+		event.id = id;
+		event.begin();
+		return event;
+	}
+}
@@ -0,0 +1,56 @@
+/**
+ *  Copyright (c) 2019 Red Hat Inc. and others.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v2.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v20.html
+ *
+ *  Contributors:
+ *  Red Hat Inc. - initial API and implementation
+ */
+package org.eclipse.lsp4xml.jfr;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+
+/**
+ * Java Flight Recorder recording. This class uses the <code>jdk.jfr</code>
+ * API and must be used only when the API is available (see
+ * {@link XMLEvents}).
+ *
+ */
+class JFRRecording {
+
+	private static final String RECORDING_NAME = "lsp4xml";
+
+	private JFRRecording() {
+	}
+
+	static Object start() throws IOException {
+		Recording recording;
+		try {
+			recording = new Recording(Configuration.getConfiguration("default"));
+		} catch (ParseException e) {
+			throw new IOException(e);
+		}
+		recording.setName(RECORDING_NAME);
+		recording.setToDisk(true);
+		recording.start();
+		return recording;
+	}
+
+	static void dump(Object recording, Path file) throws IOException {
+		Files.createDirectories(file.getParent());
+		((Recording) recording).dump(file);
+	}
+
+	static void stop(Object recording) {
+		((Recording) recording).stop();
+		((Recording) recording).close();
+	}
+}
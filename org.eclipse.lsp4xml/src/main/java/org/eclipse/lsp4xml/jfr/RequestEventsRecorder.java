@@ -0,0 +1,73 @@
+/**
+ *  Copyright (c) 2019 Red Hat Inc. and others.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v2.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v20.html
+ *
+ *  Contributors:
+ *  Red Hat Inc. - initial API and implementation
+ */
+package org.eclipse.lsp4xml.jfr;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.eclipse.lsp4j.jsonrpc.MessageConsumer;
+import org.eclipse.lsp4j.jsonrpc.RemoteEndpoint;
+import org.eclipse.lsp4j.jsonrpc.messages.NotificationMessage;
+import org.eclipse.lsp4j.jsonrpc.messages.RequestMessage;
+import org.eclipse.lsp4j.jsonrpc.messages.ResponseMessage;
+
+/**
+ * Message wrapper which records an event (see
+ * {@link XMLEvents#request(String, String)}) for each LSP request and
+ * notification sent by the client.
+ *
+ * <p>
+ * The launcher wraps with this function both the incoming messages (consumed
+ * by the {@link RemoteEndpoint}) and the outgoing messages: the event of a
+ * request starts when the request is received and ends when its response is
+ * sent. The event of a notification ends when the notification is handled.
+ * </p>
+ *
+ */
+public class RequestEventsRecorder implements Function<MessageConsumer, MessageConsumer> {
+
+	private final Map<String, XMLEvent> pendingRequests;
+
+	public RequestEventsRecorder() {
+		this.pendingRequests = new ConcurrentHashMap<>();
+	}
+
+	@Override
+	public MessageConsumer apply(MessageConsumer consumer) {
+		if (consumer instanceof RemoteEndpoint) {
+			// incoming messages
+			return message -> {
+				if (message instanceof RequestMessage) {
+					RequestMessage request = (RequestMessage) message;
+					pendingRequests.put(request.getId(), XMLEvents.request(request.getMethod(), request.getId()));
+					consumer.consume(message);
+				} else if (message instanceof NotificationMessage) {
+					try (XMLEvent event = XMLEvents.request(((NotificationMessage) message).getMethod(), null)) {
+						consumer.consume(message);
+					}
+				} else {
+					consumer.consume(message);
+				}
+			};
+		}
+		// outgoing messages
+		return message -> {
+			consumer.consume(message);
+			if (message instanceof ResponseMessage) {
+				XMLEvent event = pendingRequests.remove(((ResponseMessage) message).getId());
+				if (event != null) {
+					event.close();
+				}
+			}
+		};
+	}
+}
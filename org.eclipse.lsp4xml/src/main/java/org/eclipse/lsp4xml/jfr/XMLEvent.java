@@ -0,0 +1,25 @@
+/**
+ *  Copyright (c) 2019 Red Hat Inc. and others.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v2.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v20.html
+ *
+ *  Contributors:
+ *  Red Hat Inc. - initial API and implementation
+ */
+package org.eclipse.lsp4xml.jfr;
+
+/**
+ * A timed Java Flight Recorder event created by {@link XMLEvents}. The event
+ * starts when it is created and is committed when it is closed.
+ *
+ */
+public interface XMLEvent extends AutoCloseable {
+
+	/**
+	 * Ends and commits the event.
+	 */
+	@Override
+	void close();
+}
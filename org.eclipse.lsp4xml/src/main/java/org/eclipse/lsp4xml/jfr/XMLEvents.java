@@ -0,0 +1,138 @@
+/**
+ *  Copyright (c) 2019 Red Hat Inc. and others.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v2.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v20.html
+ *
+ *  Contributors:
+ *  Red Hat Inc. - initial API and implementation
+ */
+package org.eclipse.lsp4xml.jfr;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.eclipse.lsp4j.Diagnostic;
+import org.eclipse.lsp4xml.commons.TextDocument;
+import org.eclipse.lsp4xml.dom.DOMDocument;
+
+/**
+ * Java Flight Recorder events of the XML language server (parse, validation,
+ * grammar loading, downloads and LSP requests).
+ *
+ * <p>
+ * The events are recorded only when the JVM provides the Java Flight Recorder
+ * API (<code>jdk.jfr</code>, available since Java 11 and OpenJDK 8u262),
+ * otherwise the methods of this class do nothing. The events are written in
+ * the recordings started with <code>-XX:StartFlightRecording</code>, with
+ * <code>jcmd</code> or with the <code>xml/flightRecording</code> request (see
+ * {@link XMLFlightRecording}).
+ * </p>
+ *
+ */
+public class XMLEvents {
+
+	private static final Logger LOGGER = Logger.getLogger(XMLEvents.class.getName());
+
+	static final XMLEvent NO_EVENT = () -> {
+	};
+
+	private static final boolean AVAILABLE = isJFRAvailable();
+
+	private XMLEvents() {
+	}
+
+	private static boolean isJFRAvailable() {
+		try {
+			Class.forName("jdk.jfr.Event");
+			return JFREvents.isAvailable();
+		} catch (ClassNotFoundException | LinkageError e) {
+			LOGGER.log(Level.FINE, "Java Flight Recorder is not available", e);
+			return false;
+		}
+	}
+
+	/**
+	 * Returns true if the Java Flight Recorder API is available and false
+	 * otherwise.
+	 *
+	 * @return true if the Java Flight Recorder API is available and false
+	 *         otherwise.
+	 */
+	public static boolean isAvailable() {
+		return AVAILABLE;
+	}
+
+	/**
+	 * Starts the event of the parse of the given document.
+	 *
+	 * @param document the parsed document.
+	 * @param parallel true if the document is parsed in parallel.
+	 * @return the started event.
+	 */
+	public static XMLEvent parse(TextDocument document, boolean parallel) {
+		return AVAILABLE ? JFREvents.parse(document, parallel) : NO_EVENT;
+	}
+
+	/**
+	 * Starts the event of a validation of the given document.
+	 *
+	 * @param document    the validated document.
+	 * @param validator   the validator name (ex: XML, XSD, DTD).
+	 * @param diagnostics the list where the validator adds the diagnostics.
+	 * @return the started event.
+	 */
+	public static XMLEvent validation(DOMDocument document, String validator, List<Diagnostic> diagnostics) {
+		return AVAILABLE ? JFREvents.validation(document, validator, diagnostics) : NO_EVENT;
+	}
+
+	/**
+	 * Starts the event of the creation of the content model document of the
+	 * given grammar.
+	 *
+	 * @param grammarURI the resolved URI of the grammar.
+	 * @return the started event.
+	 */
+	public static XMLEvent cmDocumentLoad(String grammarURI) {
+		return AVAILABLE ? JFREvents.cmDocumentLoad(grammarURI) : NO_EVENT;
+	}
+
+	/**
+	 * Records the lookup of a grammar in the grammar pool.
+	 *
+	 * @param systemId    the expanded system id of the grammar.
+	 * @param grammarType the grammar type.
+	 * @param hit         true if the grammar was found in the pool and false
+	 *                    otherwise.
+	 */
+	public static void grammarPoolLookup(String systemId, String grammarType, boolean hit) {
+		if (AVAILABLE) {
+			JFREvents.grammarPoolLookup(systemId, grammarType, hit);
+		}
+	}
+
+	/**
+	 * Starts the event of the download of the given resource.
+	 *
+	 * @param resourceURI       the downloaded resource URI.
+	 * @param resourceCachePath the cache file.
+	 * @return the started event.
+	 */
+	public static XMLEvent download(String resourceURI, Path resourceCachePath) {
+		return AVAILABLE ? JFREvents.download(resourceURI, resourceCachePath) : NO_EVENT;
+	}
+
+	/**
+	 * Starts the event of the given LSP request or notification.
+	 *
+	 * @param method the LSP method.
+	 * @param id     the request id and null for a notification.
+	 * @return the started event.
+	 */
+	public static XMLEvent request(String method, String id) {
+		return AVAILABLE ? JFREvents.request(method, id) : NO_EVENT;
+	}
+}
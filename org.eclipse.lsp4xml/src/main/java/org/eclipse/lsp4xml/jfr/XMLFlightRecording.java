@@ -0,0 +1,90 @@
+/**
+ *  Copyright (c) 2019 Red Hat Inc. and others.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v2.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v20.html
+ *
+ *  Contributors:
+ *  Red Hat Inc. - initial API and implementation
+ */
+package org.eclipse.lsp4xml.jfr;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+import org.eclipse.lsp4xml.utils.FilesUtils;
+
+/**
+ * Flight recording started and dumped on demand by the client (see the
+ * <code>xml/flightRecording</code> request).
+ *
+ * <p>
+ * The recording uses the default JFR configuration with the events of the XML
+ * language server (see {@link XMLEvents}) and is dumped in the
+ * <code>jfr</code> folder of the server work directory.
+ * </p>
+ *
+ */
+public class XMLFlightRecording {
+
+	public static final String START = "start";
+
+	public static final String STOP = "stop";
+
+	public static final String DUMP = "dump";
+
+	private static final Path JFR_FOLDER = Paths.get("jfr");
+
+	private Object recording;
+
+	/**
+	 * Executes the given action (start, stop or dump) on the recording and returns
+	 * the path of the dumped file (null for the start action).
+	 *
+	 * @param action the action to execute.
+	 * @return the path of the dumped file and null for the start action.
+	 * @throws IOException if the recording cannot be dumped.
+	 */
+	public synchronized String execute(String action) throws IOException {
+		if (!XMLEvents.isAvailable()) {
+			throw new UnsupportedOperationException("Java Flight Recorder is not available in this JVM");
+		}
+		if (START.equals(action)) {
+			if (recording == null) {
+				recording = JFRRecording.start();
+			}
+			return null;
+		}
+		if (STOP.equals(action) || DUMP.equals(action)) {
+			if (recording == null) {
+				throw new IllegalStateException("No flight recording is started");
+			}
+			Path file = FilesUtils.getDeployedPath(JFR_FOLDER.resolve(createFileName()));
+			JFRRecording.dump(recording, file);
+			if (STOP.equals(action)) {
+				JFRRecording.stop(recording);
+				recording = null;
+			}
+			return file.toString();
+		}
+		throw new IllegalArgumentException("Unknown flight recording action '" + action + "', expected '" + START
+				+ "', '" + STOP + "' or '" + DUMP + "'");
+	}
+
+	/**
+	 * Returns true if the recording is started and false otherwise.
+	 *
+	 * @return true if the recording is started and false otherwise.
+	 */
+	public synchronized boolean isStarted() {
+		return recording != null;
+	}
+
+	private static String createFileName() {
+		return "lsp4xml-" + new SimpleDateFormat("yyyyMMdd-HHmmss-SSS").format(new Date()) + ".jfr";
+	}
+}
@@ -10,6 +10,9 @@
  */
 package org.eclipse.lsp4xml.services;
 
+import java.util.List;
+
+import org.eclipse.lsp4j.CompletionItem;
 import org.eclipse.lsp4j.InsertTextFormat;
 import org.eclipse.lsp4j.Position;
 import org.eclipse.lsp4j.Range;
@@ -42,6 +45,8 @@ class CompletionRequest extends AbstractPositionRequest implements ICompletionRe
 
 	private boolean addQuotes;
 
+	private List<CompletionItem> sessionItems;
+
 	public CompletionRequest(DOMDocument xmlDocument, Position position, SharedSettings settings,
 			XMLExtensionsRegistry extensionsRegistry) throws BadLocationException {
 		super(xmlDocument, position, extensionsRegistry);
@@ -73,6 +78,21 @@ class CompletionRequest extends AbstractPositionRequest implements ICompletionRe
 		return replaceRange;
 	}
 
+	/**
+	 * Returns the items of the completion participants reused from the completion
+	 * session and null if the participants must compute the items.
+	 * 
+	 * @return the items of the completion participants reused from the completion
+	 *         session and null if the participants must compute the items.
+	 */
+	public List<CompletionItem> getSessionItems() {
+		return sessionItems;
+	}
+
+	public void setSessionItems(List<CompletionItem> sessionItems) {
+		this.sessionItems = sessionItems;
+	}
+
 	public XMLGenerator getXMLGenerator() throws BadLocationException {
 		if (generator == null) {
 			generator = new XMLGenerator(getFormattingSettings(), isAutoCloseTags(),
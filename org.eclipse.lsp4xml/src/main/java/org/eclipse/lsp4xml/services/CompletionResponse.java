@@ -25,6 +25,8 @@ class CompletionResponse extends CompletionList implements ICompletionResponse {
 
 	private transient List<String> seenAttributes;
 	private transient boolean hasSomeItemFromGrammar;
+	private transient boolean sessionSupported;
+	private transient List<CompletionItem> participantItems;
 
 	public CompletionResponse() {
 		super.setIsIncomplete(false);
@@ -47,6 +49,38 @@ class CompletionResponse extends CompletionList implements ICompletionResponse {
 		return hasSomeItemFromGrammar;
 	}
 
+	/**
+	 * Returns true if the completion items can be reused while name characters
+	 * are typed at the completion offset (start tag name, attribute name or
+	 * attribute value) and false otherwise.
+	 * 
+	 * @return true if the completion items can be reused while name characters
+	 *         are typed at the completion offset and false otherwise.
+	 */
+	public boolean isSessionSupported() {
+		return sessionSupported;
+	}
+
+	public void setSessionSupported(boolean sessionSupported) {
+		this.sessionSupported = sessionSupported;
+	}
+
+	/**
+	 * Returns the items added by the completion participants (which can be reused
+	 * while name characters are typed) and null if the participants were not
+	 * called.
+	 * 
+	 * @return the items added by the completion participants and null if the
+	 *         participants were not called.
+	 */
+	public List<CompletionItem> getParticipantItems() {
+		return participantItems;
+	}
+
+	public void setParticipantItems(List<CompletionItem> participantItems) {
+		this.participantItems = participantItems;
+	}
+
 	@Override
 	public boolean hasAttribute(String attribute) {
 		/*
@@ -0,0 +1,293 @@
+/**
+ *  Copyright (c) 2019 Red Hat Inc. and others.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v2.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v20.html
+ *
+ *  Contributors:
+ *  Red Hat Inc. - initial API and implementation
+ */
+package org.eclipse.lsp4xml.services;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.eclipse.lsp4j.CompletionItem;
+import org.eclipse.lsp4j.CompletionList;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4j.TextEdit;
+import org.eclipse.lsp4xml.commons.BadLocationException;
+import org.eclipse.lsp4xml.dom.DOMDocument;
+import org.eclipse.lsp4xml.dom.DOMNode;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Completion sessions by document URI.
+ *
+ * <p>
+ * When the completion is triggered for a start tag name, an attribute name or
+ * an attribute value, the computed completion items are stored in a session.
+ * Each character typed while the completion popup is opened triggers a new
+ * completion request: when the only change of the document is some name
+ * characters inserted at the completion offset, the items of the completion
+ * participants are taken from the session (with the text edit ranges extended
+ * by the typed characters) instead of calling again the completion
+ * participants. The other items (ex : the tags of the document, which depend
+ * on the typed text) are computed again.
+ * </p>
+ *
+ * <p>
+ * When the completion list has more items than
+ * {@link org.eclipse.lsp4xml.settings.XMLCompletionSettings#getMaxItems()},
+ * only the items which match the typed prefix are returned (at most maxItems)
+ * and the completion list is marked as incomplete, so that the client asks
+ * again the completion (answered by the session) when the prefix changes.
+ * </p>
+ *
+ * <p>
+ * The sessions are cleared when a file or the settings are saved, since the
+ * content model (XML Schema, DTD, catalogs) used to compute the items can
+ * change.
+ * </p>
+ *
+ */
+class CompletionSessions {
+
+	private static final Logger LOGGER = Logger.getLogger(CompletionSessions.class.getName());
+
+	private static final int MAX_SESSIONS = 16;
+
+	private static final Comparator<CompletionItem> SORT_TEXT_COMPARATOR = Comparator
+			.comparing(item -> item.getSortText() != null ? item.getSortText() : item.getLabel());
+
+	/**
+	 * Completion items computed for a document text and a completion offset.
+	 */
+	private static class CompletionSession {
+
+		private final String text;
+
+		private final int offset;
+
+		private final Position position;
+
+		private final String elementPath;
+
+		private final List<CompletionItem> items;
+
+		CompletionSession(String text, int offset, Position position, String elementPath,
+				List<CompletionItem> items) {
+			this.text = text;
+			this.offset = offset;
+			this.position = position;
+			this.elementPath = elementPath;
+			this.items = items;
+		}
+
+		/**
+		 * Returns the name characters inserted at the completion offset of the session
+		 * to obtain the given text and null if the given text was updated in an other
+		 * way.
+		 */
+		String getTypedText(String newText, int newOffset) {
+			int typedLength = newOffset - offset;
+			if (typedLength < 0 || newText.length() != text.length() + typedLength) {
+				return null;
+			}
+			for (int i = offset; i < newOffset; i++) {
+				if (!isNameChar(newText.charAt(i))) {
+					return null;
+				}
+			}
+			if (!newText.regionMatches(0, text, 0, offset)
+					|| !newText.regionMatches(newOffset, text, offset, text.length() - offset)) {
+				return null;
+			}
+			return newText.substring(offset, newOffset);
+		}
+	}
+
+	private final Cache<String, CompletionSession> sessions;
+
+	public CompletionSessions() {
+		this.sessions = CacheBuilder.newBuilder() //
+				.maximumSize(MAX_SESSIONS) //
+				.build();
+	}
+
+	/**
+	 * Returns the items of the completion participants computed from the session
+	 * of the document of the given request and null if there is no available
+	 * session.
+	 *
+	 * @param request the completion request.
+	 * @return the items of the completion participants computed from the session
+	 *         of the document of the given request and null if there is no
+	 *         available session.
+	 */
+	public List<CompletionItem> getItems(CompletionRequest request) {
+		DOMDocument document = request.getXMLDocument();
+		CompletionSession session = sessions.getIfPresent(document.getDocumentURI());
+		if (session == null) {
+			return null;
+		}
+		String typedText = session.getTypedText(document.getText(), request.getOffset());
+		if (typedText == null || !session.elementPath.equals(getElementPath(request.getNode()))) {
+			return null;
+		}
+		List<CompletionItem> items = session.items;
+		if (!typedText.isEmpty()) {
+			items = new ArrayList<>(session.items.size());
+			for (CompletionItem item : session.items) {
+				items.add(shift(item, session.position, typedText.length()));
+			}
+		}
+		return items;
+	}
+
+	/**
+	 * Store the items of the completion participants of the given completion
+	 * response in the session of the document (if the completion context allows
+	 * it) and returns the completion list to send to the client.
+	 *
+	 * @param request  the completion request.
+	 * @param response the computed completion response.
+	 * @return the completion list to send to the client.
+	 */
+	public CompletionList update(CompletionRequest request, CompletionResponse response) {
+		DOMDocument document = request.getXMLDocument();
+		if (response.isSessionSupported() && !response.isIncomplete() && response.getParticipantItems() != null) {
+			sessions.put(document.getDocumentURI(), new CompletionSession(document.getText(), request.getOffset(),
+					request.getPosition(), getElementPath(request.getNode()), response.getParticipantItems()));
+		} else {
+			sessions.invalidate(document.getDocumentURI());
+		}
+		return createCompletionList(response, request);
+	}
+
+	/**
+	 * Clear all completion sessions.
+	 */
+	public void clear() {
+		sessions.invalidateAll();
+	}
+
+	private static CompletionList createCompletionList(CompletionList list, CompletionRequest request) {
+		int maxItems = request.getCompletionSettings().getMaxItems();
+		List<CompletionItem> items = list.getItems();
+		if (maxItems <= 0 || items.size() <= maxItems) {
+			return list;
+		}
+		// Too many items, returns only the items which match the typed prefix
+		List<CompletionItem> matchingItems = new ArrayList<>();
+		for (CompletionItem item : items) {
+			if (matchPrefix(item, request)) {
+				matchingItems.add(item);
+			}
+		}
+		if (matchingItems.size() > maxItems) {
+			matchingItems.sort(SORT_TEXT_COMPARATOR);
+			matchingItems = new ArrayList<>(matchingItems.subList(0, maxItems));
+		}
+		return new CompletionList(true, matchingItems);
+	}
+
+	/**
+	 * Returns true if the filter text (or the label) of the given item starts with
+	 * the text typed between the start of the item text edit and the completion
+	 * offset (ignoring case) and false otherwise.
+	 */
+	private static boolean matchPrefix(CompletionItem item, CompletionRequest request) {
+		TextEdit textEdit = item.getTextEdit();
+		if (textEdit == null) {
+			return true;
+		}
+		try {
+			DOMDocument document = request.getXMLDocument();
+			int start = document.offsetAt(textEdit.getRange().getStart());
+			int offset = request.getOffset();
+			if (start >= offset) {
+				return true;
+			}
+			String filterText = item.getFilterText() != null ? item.getFilterText() : item.getLabel();
+			int prefixLength = offset - start;
+			return filterText != null && filterText.regionMatches(true, 0, document.getText(), start, prefixLength);
+		} catch (BadLocationException e) {
+			LOGGER.log(Level.SEVERE, "While filtering completion items", e);
+			return true;
+		}
+	}
+
+	/**
+	 * Returns a copy of the given item with the text edits ranges which end at or
+	 * after the completion position extended by the typed characters (a range
+	 * which starts at the completion position keeps its start, so that it
+	 * replaces the typed characters).
+	 */
+	private static CompletionItem shift(CompletionItem item, Position position, int typedLength) {
+		CompletionItem copy = new CompletionItem(item.getLabel());
+		copy.setKind(item.getKind());
+		copy.setDetail(item.getDetail());
+		copy.setDocumentation(item.getDocumentation());
+		copy.setDeprecated(item.getDeprecated());
+		copy.setPreselect(item.getPreselect());
+		copy.setSortText(item.getSortText());
+		copy.setFilterText(item.getFilterText());
+		copy.setInsertText(item.getInsertText());
+		copy.setInsertTextFormat(item.getInsertTextFormat());
+		copy.setCommitCharacters(item.getCommitCharacters());
+		copy.setCommand(item.getCommand());
+		copy.setData(item.getData());
+		if (item.getTextEdit() != null) {
+			copy.setTextEdit(shift(item.getTextEdit(), position, typedLength));
+		}
+		if (item.getAdditionalTextEdits() != null) {
+			List<TextEdit> edits = new ArrayList<>(item.getAdditionalTextEdits().size());
+			for (TextEdit edit : item.getAdditionalTextEdits()) {
+				edits.add(shift(edit, position, typedLength));
+			}
+			copy.setAdditionalTextEdits(edits);
+		}
+		return copy;
+	}
+
+	private static TextEdit shift(TextEdit edit, Position position, int typedLength) {
+		Range range = edit.getRange();
+		return new TextEdit(new Range(shift(range.getStart(), position, typedLength, false),
+				shift(range.getEnd(), position, typedLength, true)), edit.getNewText());
+	}
+
+	private static Position shift(Position p, Position position, int typedLength, boolean end) {
+		if (p.getLine() == position.getLine() && (p.getCharacter() > position.getCharacter()
+				|| (end && p.getCharacter() == position.getCharacter()))) {
+			// the typed characters don't contain line break
+			return new Position(p.getLine(), p.getCharacter() + typedLength);
+		}
+		return p;
+	}
+
+	/**
+	 * Returns the path of the parent elements of the given node (ex :
+	 * /project/dependencies).
+	 */
+	private static String getElementPath(DOMNode node) {
+		StringBuilder path = new StringBuilder();
+		DOMNode parent = node != null ? node.getParentNode() : null;
+		while (parent != null && parent.isElement()) {
+			path.insert(0, parent.getNodeName()).insert(0, '/');
+			parent = parent.getParentNode();
+		}
+		return path.toString();
+	}
+
+	private static boolean isNameChar(char c) {
+		return Character.isLetterOrDigit(c) || c == '_' || c == '-';
+	}
+}
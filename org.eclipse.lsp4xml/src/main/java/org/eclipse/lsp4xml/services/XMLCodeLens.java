@@ -36,7 +36,7 @@ class XMLCodeLens {
 	public List<? extends CodeLens> getCodelens(DOMDocument xmlDocument, XMLCodeLensSettings settings, CancelChecker cancelChecker) {
 		ICodeLensRequest request = new CodeLensRequest(xmlDocument, settings);
 		List<CodeLens> lenses = new ArrayList<>();
-		for (ICodeLensParticipant participant : extensionsRegistry.getCodeLensParticipants()) {
+		for (ICodeLensParticipant participant : extensionsRegistry.getCodeLensParticipants(xmlDocument)) {
 			participant.doCodeLens(request, lenses, cancelChecker);
 		}
 		return lenses;
@@ -12,6 +12,7 @@ package org.eclipse.lsp4xml.services;
 
 import static java.lang.Character.isWhitespace;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
@@ -27,6 +28,7 @@ import org.eclipse.lsp4j.CompletionList;
 import org.eclipse.lsp4j.InsertTextFormat;
 import org.eclipse.lsp4j.Position;
 import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4j.TextDocumentContentChangeEvent;
 import org.eclipse.lsp4j.TextEdit;
 import org.eclipse.lsp4j.jsonrpc.CancelChecker;
 import org.eclipse.lsp4xml.commons.BadLocationException;
@@ -57,23 +59,48 @@ public class XMLCompletions {
 	private static final Logger LOGGER = Logger.getLogger(XMLCompletions.class.getName());
 	private static final Pattern regionCompletionRegExpr = Pattern.compile("^(\\s*)(<(!(-(-\\s*(#\\w*)?)?)?)?)?$");
 
+	/**
+	 * Maximum number of characters scanned by the auto close of a start tag which
+	 * doesn't wait for the parse of the DOM document.
+	 */
+	private static final int MAX_START_TAG_LENGTH = 1000;
+
 	private final XMLExtensionsRegistry extensionsRegistry;
 
+	private final CompletionSessions sessions;
+
 	public XMLCompletions(XMLExtensionsRegistry extensionsRegistry) {
 		this.extensionsRegistry = extensionsRegistry;
+		this.sessions = new CompletionSessions();
 	}
 
 	public CompletionList doComplete(DOMDocument xmlDocument, Position position, SharedSettings settings,
 			CancelChecker cancelChecker) {
-		CompletionResponse completionResponse = new CompletionResponse();
 		CompletionRequest completionRequest = null;
 		try {
 			completionRequest = new CompletionRequest(xmlDocument, position, settings, extensionsRegistry);
 		} catch (BadLocationException e) {
 			LOGGER.log(Level.SEVERE, "Creation of CompletionRequest failed", e);
-			return completionResponse;
+			return new CompletionResponse();
 		}
+		// Completion triggered again while typing a name, reuse the items of the
+		// participants
+		completionRequest.setSessionItems(sessions.getItems(completionRequest));
+		CompletionResponse completionResponse = doComplete(completionRequest, settings, cancelChecker);
+		return sessions.update(completionRequest, completionResponse);
+	}
+
+	/**
+	 * Clear the completion items kept while a name is typed.
+	 */
+	public void clearCompletionSessions() {
+		sessions.clear();
+	}
 
+	private CompletionResponse doComplete(CompletionRequest completionRequest, SharedSettings settings,
+			CancelChecker cancelChecker) {
+		CompletionResponse completionResponse = new CompletionResponse();
+		DOMDocument xmlDocument = completionRequest.getXMLDocument();
 		int offset = completionRequest.getOffset();
 		DOMNode node = completionRequest.getNode();
 
@@ -109,6 +136,7 @@ public class XMLCompletions {
 				if (scanner.getTokenOffset() <= offset && offset <= scanner.getTokenEnd()) {
 					collectOpenTagSuggestions(scanner.getTokenOffset(), scanner.getTokenEnd(), completionRequest,
 							completionResponse);
+					completionResponse.setSessionSupported(true);
 					return completionResponse;
 				}
 				currentTag = scanner.getTokenText();
@@ -117,6 +145,7 @@ public class XMLCompletions {
 				if (scanner.getTokenOffset() <= offset && offset <= scanner.getTokenEnd()) {
 					collectAttributeNameSuggestions(scanner.getTokenOffset(), scanner.getTokenEnd(), completionRequest,
 							completionResponse);
+					completionResponse.setSessionSupported(true);
 					return completionResponse;
 				}
 				break;
@@ -130,6 +159,7 @@ public class XMLCompletions {
 				if (scanner.getTokenOffset() <= offset && offset <= scanner.getTokenEnd()) {
 					collectAttributeValueSuggestions(scanner.getTokenOffset(), scanner.getTokenEnd(), completionRequest,
 							completionResponse);
+					completionResponse.setSessionSupported(true);
 					return completionResponse;
 				}
 				break;
@@ -329,6 +359,149 @@ public class XMLCompletions {
 		return true;
 	}
 
+	/**
+	 * Returns the auto close tag response for a '>' just typed at the end of a
+	 * start tag, computed from the DOM document of the text without the typed
+	 * '>' or, when this DOM document is not loaded, from a bounded scan of the
+	 * text before the '>' (instead of waiting for the parse of the current text)
+	 * and null if the response cannot be computed without ambiguity.
+	 * 
+	 * @param document         the text document.
+	 * @param position         the position after the typed character.
+	 * @param previousDocument the DOM document of the text before the last change
+	 *                         and null if it is not loaded.
+	 * @param lastChange       the last change of the text document.
+	 * @return the auto close tag response and null if the response cannot be
+	 *         computed without ambiguity.
+	 */
+	public AutoCloseTagResponse doTagComplete(TextDocument document, Position position, DOMDocument previousDocument,
+			TextDocumentContentChangeEvent lastChange) {
+		if (lastChange == null || lastChange.getRange() == null
+				|| !">".equals(lastChange.getText())
+				|| (lastChange.getRangeLength() != null && lastChange.getRangeLength() != 0)) {
+			return null;
+		}
+		try {
+			// offset of the typed '>'
+			int offset = document.offsetAt(lastChange.getRange().getStart());
+			if (document.offsetAt(position) != offset + 1) {
+				return null;
+			}
+			String text = document.getText();
+			String tagName;
+			int start;
+			DOMElement parent = null;
+			if (previousDocument != null) {
+				// the text before the '>' is the same in the previous DOM document
+				DOMNode node = previousDocument.findNodeBefore(offset);
+				if (node == null || !node.isElement()) {
+					return null;
+				}
+				DOMElement element = (DOMElement) node;
+				tagName = element.getTagName();
+				start = element.getStart();
+				if (tagName == null || element.isStartTagClosed() || offset - start > MAX_START_TAG_LENGTH) {
+					return null;
+				}
+				parent = element.getParentElement();
+			} else {
+				// '<' is not allowed in an attribute value: the last '<' starts the tag
+				start = text.lastIndexOf('<', offset - 1);
+				if (start == -1 || offset - start > MAX_START_TAG_LENGTH || isInCommentOrCDATA(text, start)) {
+					return null;
+				}
+				tagName = getStartTagName(text, start, offset);
+				if (tagName == null) {
+					return null;
+				}
+			}
+			if (!isStartTagWithoutEnd(text, start, offset, tagName)) {
+				return null;
+			}
+			// the element must not have an end tag: check the text after the '>'
+			int end = Math.min(text.length(), offset + 1 + MAX_START_TAG_LENGTH);
+			int i = offset + 1;
+			while (i < end && isWhitespace(text.charAt(i))) {
+				i++;
+			}
+			if (i == text.length()) {
+				// Case: <a>| at the end of the document
+				return new AutoCloseTagResponse("$0</" + tagName + ">", null);
+			}
+			if (!text.startsWith("</", i)) {
+				return null;
+			}
+			int nameStart = i + 2;
+			i = nameStart;
+			while (i < end && text.charAt(i) != '>' && !isWhitespace(text.charAt(i))) {
+				i++;
+			}
+			String endTagName = text.substring(nameStart, i);
+			if (!endTagName.equals(tagName)
+					&& (previousDocument == null || (parent != null && endTagName.equals(parent.getTagName())))) {
+				// Case: <b><a>|</b>
+				return new AutoCloseTagResponse("$0</" + tagName + ">", null);
+			}
+			return null;
+		} catch (BadLocationException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Returns the name of the start tag which starts with the '<' at the given
+	 * start offset and null if the text at this offset is not a start tag (end
+	 * tag, comment, processing instruction...).
+	 */
+	private static String getStartTagName(String text, int start, int offset) {
+		int nameStart = start + 1;
+		if (nameStart >= offset || !Character.isLetter(text.charAt(nameStart)) && text.charAt(nameStart) != '_'
+				&& text.charAt(nameStart) != ':') {
+			return null;
+		}
+		int i = nameStart;
+		while (i < offset && text.charAt(i) != '/' && !isWhitespace(text.charAt(i))) {
+			i++;
+		}
+		return text.substring(nameStart, i);
+	}
+
+	/**
+	 * Returns true if the given offset is in a comment or a CDATA section which
+	 * starts at most {@link #MAX_START_TAG_LENGTH} characters before and false
+	 * otherwise.
+	 */
+	private static boolean isInCommentOrCDATA(String text, int offset) {
+		int from = Math.max(0, offset - MAX_START_TAG_LENGTH);
+		String before = text.substring(from, offset);
+		return before.lastIndexOf("<!--") > before.lastIndexOf("-->")
+				|| before.lastIndexOf("<![CDATA[") > before.lastIndexOf("]]>");
+	}
+
+	/**
+	 * Returns true if the given text between start and offset is a start tag with
+	 * the given name, without '<' or unclosed quote and not self closed.
+	 */
+	private static boolean isStartTagWithoutEnd(String text, int start, int offset, String tagName) {
+		if (text.charAt(start) != '<' || !text.startsWith(tagName, start + 1) || text.charAt(offset - 1) == '/') {
+			return false;
+		}
+		char quote = 0;
+		for (int i = start + 1; i < offset; i++) {
+			char c = text.charAt(i);
+			if (quote != 0) {
+				if (c == quote) {
+					quote = 0;
+				}
+			} else if (c == '"' || c == '\'') {
+				quote = c;
+			} else if (c == '<' || c == '>') {
+				return false;
+			}
+		}
+		return quote == 0;
+	}
+
 	public AutoCloseTagResponse doTagComplete(DOMDocument xmlDocument, Position position, CancelChecker cancelChecker) {
 		int offset;
 		try {
@@ -486,12 +659,16 @@ public class XMLCompletions {
 		}
 		completionRequest.setHasOpenBracket(hasOpenBracket);
 		completionRequest.setReplaceRange(replaceRange);
-		for (ICompletionParticipant participant : getCompletionParticipants()) {
-			try {
-				participant.onTagOpen(completionRequest, completionResponse);
-			} catch (Exception e) {
-				LOGGER.log(Level.SEVERE, "While performing ICompletionParticipant#onTagOpen", e);
+		if (!addSessionItems(completionRequest, completionResponse)) {
+			int start = completionResponse.getItems().size();
+			for (ICompletionParticipant participant : getCompletionParticipants(completionRequest)) {
+				try {
+					participant.onTagOpen(completionRequest, completionResponse);
+				} catch (Exception e) {
+					LOGGER.log(Level.SEVERE, "While performing ICompletionParticipant#onTagOpen", e);
+				}
 			}
+			setParticipantItems(completionResponse, start);
 		}
 		DOMElement parentNode = completionRequest.getParentElement();
 		if (parentNode != null && !parentNode.getOwnerDocument().hasGrammar()) {
@@ -533,6 +710,30 @@ public class XMLCompletions {
 		}
 	}
 
+	/**
+	 * Add the items of the completion participants reused from the completion
+	 * session to the given response and returns true, returns false if the
+	 * participants must compute the items.
+	 */
+	private static boolean addSessionItems(CompletionRequest request, CompletionResponse response) {
+		List<CompletionItem> items = request.getSessionItems();
+		if (items == null) {
+			return false;
+		}
+		items.forEach(response::addCompletionItem);
+		response.setParticipantItems(items);
+		return true;
+	}
+
+	/**
+	 * Store the items added by the completion participants since the given index
+	 * in the given response (for the completion session).
+	 */
+	private static void setParticipantItems(CompletionResponse response, int start) {
+		List<CompletionItem> items = response.getItems();
+		response.setParticipantItems(new ArrayList<>(items.subList(start, items.size())));
+	}
+
 	/**
 	 * Collect xml prolog completions.
 	 * 
@@ -618,7 +819,7 @@ public class XMLCompletions {
 			collectCloseTagSuggestions(tagNameRange, true, true, false, request, response);
 		}
 		// Participant completion on XML content
-		for (ICompletionParticipant participant : getCompletionParticipants()) {
+		for (ICompletionParticipant participant : getCompletionParticipants(request)) {
 			try {
 				participant.onXMLContent(request, response);
 			} catch (Exception e) {
@@ -783,8 +984,12 @@ public class XMLCompletions {
 			completionRequest.setReplaceRange(replaceRange);
 			boolean generateValue = !isFollowedBy(text, nameEnd, ScannerState.AfterAttributeName,
 					TokenType.DelimiterAssign);
-			for (ICompletionParticipant participant : getCompletionParticipants()) {
-				participant.onAttributeName(generateValue, completionRequest, completionResponse);
+			if (!addSessionItems(completionRequest, completionResponse)) {
+				int start = completionResponse.getItems().size();
+				for (ICompletionParticipant participant : getCompletionParticipants(completionRequest)) {
+					participant.onAttributeName(generateValue, completionRequest, completionResponse);
+				}
+				setParticipantItems(completionResponse, start);
 			}
 		} catch (BadLocationException e) {
 			LOGGER.log(Level.SEVERE, "While performing Completions, getReplaceRange() was given a bad Offset location",
@@ -821,14 +1026,18 @@ public class XMLCompletions {
 			addQuotes = true;
 		}
 
-		Collection<ICompletionParticipant> completionParticipants = getCompletionParticipants();
+		Collection<ICompletionParticipant> completionParticipants = getCompletionParticipants(completionRequest);
 		if (completionParticipants.size() > 0) {
 			try {
 				Range replaceRange = getReplaceRange(valueStart, valueEnd, completionRequest);
 				completionRequest.setReplaceRange(replaceRange);
 				completionRequest.setAddQuotes(addQuotes);
-				for (ICompletionParticipant participant : completionParticipants) {
-					participant.onAttributeValue(valuePrefix, completionRequest, completionResponse);
+				if (!addSessionItems(completionRequest, completionResponse)) {
+					int start = completionResponse.getItems().size();
+					for (ICompletionParticipant participant : completionParticipants) {
+						participant.onAttributeValue(valuePrefix, completionRequest, completionResponse);
+					}
+					setParticipantItems(completionResponse, start);
 				}
 			} catch (BadLocationException e) {
 				LOGGER.log(Level.SEVERE,
@@ -934,12 +1143,15 @@ public class XMLCompletions {
 	}
 
 	/**
-	 * Returns list of {@link ICompletionParticipant}.
+	 * Returns list of {@link ICompletionParticipant} applicable to the document of
+	 * the given request.
 	 * 
-	 * @return list of {@link ICompletionParticipant}.
+	 * @param request the completion request.
+	 * @return list of {@link ICompletionParticipant} applicable to the document of
+	 *         the given request.
 	 */
-	private Collection<ICompletionParticipant> getCompletionParticipants() {
-		return extensionsRegistry.getCompletionParticipants();
+	private Collection<ICompletionParticipant> getCompletionParticipants(CompletionRequest request) {
+		return extensionsRegistry.getCompletionParticipants(request.getXMLDocument());
 	}
 
 	private static boolean isFollowedBy(String s, int offset, ScannerState intialState, TokenType expectedToken) {
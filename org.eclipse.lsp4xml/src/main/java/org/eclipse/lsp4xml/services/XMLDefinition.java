@@ -54,7 +54,7 @@ class XMLDefinition {
 		}
 		// Custom definition
 		List<LocationLink> locations = new ArrayList<>();
-		for (IDefinitionParticipant participant : extensionsRegistry.getDefinitionParticipants()) {
+		for (IDefinitionParticipant participant : extensionsRegistry.getDefinitionParticipants(document)) {
 			participant.findDefinition(request, locations, cancelChecker);
 		}
 		// Start end tag definition
@@ -12,12 +12,9 @@ package org.eclipse.lsp4xml.services;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.logging.Level;
-import java.util.logging.Logger;
 
 import org.eclipse.lsp4j.Diagnostic;
 import org.eclipse.lsp4j.jsonrpc.CancelChecker;
-import org.eclipse.lsp4xml.commons.BadLocationException;
 import org.eclipse.lsp4xml.dom.DOMDocument;
 import org.eclipse.lsp4xml.extensions.contentmodel.settings.XMLValidationSettings;
 import org.eclipse.lsp4xml.services.extensions.XMLExtensionsRegistry;
@@ -28,46 +25,42 @@ import org.eclipse.lsp4xml.services.extensions.diagnostics.IDiagnosticsParticipa
  *
  */
 class XMLDiagnostics {
-	private static Logger LOGGER = Logger.getLogger(XMLDiagnostics.class.getName());
 
 	private final XMLExtensionsRegistry extensionsRegistry;
 
+	private final XMLSyntaxDiagnostics syntaxDiagnostics;
+
 	public XMLDiagnostics(XMLExtensionsRegistry extensionsRegistry) {
 		this.extensionsRegistry = extensionsRegistry;
+		this.syntaxDiagnostics = new XMLSyntaxDiagnostics();
 	}
 
 	public List<Diagnostic> doDiagnostics(DOMDocument xmlDocument, CancelChecker monitor, XMLValidationSettings validationSettings) {
 
 		List<Diagnostic> diagnostics = new ArrayList<Diagnostic>();
 		if(validationSettings == null || validationSettings.isEnabled()) {
-			try {
-				//Doesn't do anything ATM
-				doBasicDiagnostics(xmlDocument, diagnostics, monitor);
-				
-			} catch (BadLocationException e) {
-				LOGGER.log(Level.WARNING, "BadLocationException thrown doing doBasicDiagnostics() in XMLDiagnostics.", e);;
-			}
-			
 			doExtensionsDiagnostics(xmlDocument, diagnostics, monitor);
 		}
 		return diagnostics;
 	}
 
 	/**
-	 * Do basic validation to check the no XML valid.
+	 * Returns the syntax diagnostics computed from the DOM document without
+	 * Xerces. This first tier is fast and is published before the full validation
+	 * (see {@link #doDiagnostics(DOMDocument, CancelChecker, XMLValidationSettings)})
+	 * which replaces it.
 	 * 
-	 * @param xmlDocument
-	 * @param diagnostics
-	 * @param monitor
-	 * @throws BadLocationException
+	 * @param xmlDocument        the DOM document
+	 * @param monitor            the cancel checker
+	 * @param validationSettings the validation settings
+	 * @return the syntax diagnostics computed from the DOM document.
 	 */
-	private void doBasicDiagnostics(DOMDocument xmlDocument, List<Diagnostic> diagnostics, CancelChecker monitor)
-			throws BadLocationException {
-		/*
-		 * Scanner scanner = XMLScanner.createScanner(document.getText()); TokenType
-		 * token = scanner.scan(); while (token != TokenType.EOS) {
-		 * monitor.checkCanceled(); // TODO check tokens... token = scanner.scan(); }
-		 */
+	public List<Diagnostic> doSyntaxDiagnostics(DOMDocument xmlDocument, CancelChecker monitor,
+			XMLValidationSettings validationSettings) {
+		if (validationSettings == null || validationSettings.isEnabled()) {
+			return syntaxDiagnostics.doDiagnostics(xmlDocument, monitor);
+		}
+		return new ArrayList<Diagnostic>();
 	}
 
 	/**
@@ -78,7 +71,7 @@ class XMLDiagnostics {
 	 * @param monitor
 	 */
 	private void doExtensionsDiagnostics(DOMDocument xmlDocument, List<Diagnostic> diagnostics, CancelChecker monitor) {
-		for (IDiagnosticsParticipant diagnosticsParticipant : extensionsRegistry.getDiagnosticsParticipants()) {
+		for (IDiagnosticsParticipant diagnosticsParticipant : extensionsRegistry.getDiagnosticsParticipants(xmlDocument)) {
 			monitor.checkCanceled();
 			diagnosticsParticipant.doDiagnostics(xmlDocument, diagnostics, monitor);
 		}
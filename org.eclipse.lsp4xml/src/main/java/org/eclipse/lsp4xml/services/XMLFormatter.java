@@ -48,6 +48,12 @@ class XMLFormatter {
 	private static final Logger LOGGER = Logger.getLogger(XMLFormatter.class.getName());
 	private final XMLExtensionsRegistry extensionsRegistry;
 
+	/**
+	 * The key of the DOM document parsed without ignoring whitespace content in the
+	 * user data of the DOM document of an opened document.
+	 */
+	private static final String FORMATTING_DOCUMENT_KEY = XMLFormatter.class.getName() + ".formattingDocument";
+
 	private static class XMLFormatterDocument {
 		private final TextDocument textDocument;
 		private final Range range;
@@ -63,22 +69,21 @@ class XMLFormatter {
 		/**
 		 * XML formatter document.
 		 */
-		public XMLFormatterDocument(TextDocument textDocument, Range range, XMLFormattingOptions options) {
+		public XMLFormatterDocument(TextDocument textDocument, DOMDocument fullDomDocument, Range range,
+				XMLFormattingOptions options) {
 			this.textDocument = textDocument;
+			this.fullDomDocument = fullDomDocument;
 			this.range = range;
 			this.options = options;
 		}
 
 		/**
-		 * Returns a List containing a single TextEdit, containing the newly formatted changes
-		 * of this.textDocument
-		 * @return List containing a single TextEdit
+		 * Returns the list of TextEdit which update the whitespaces of this.textDocument
+		 * to obtain the formatted content.
+		 * @return the list of TextEdit
 		 * @throws BadLocationException
 		 */
 		public List<? extends TextEdit> format() throws BadLocationException {
-			this.fullDomDocument = DOMParser.getInstance().parse(textDocument.getText(), textDocument.getUri(), null,
-					false);
-
 			if (range != null) {
 				setupRangeFormatting(range);
 			} else {
@@ -114,7 +119,17 @@ class XMLFormatter {
 				this.rangeDomDocument = DOMParser.getInstance().parse(rangeText, this.textDocument.getUri(), null, false);
 			}	
 
-			this.xmlBuilder = new XMLBuilder(this.options, "", textDocument.lineDelimiter(startPosition.getLine()));
+			this.xmlBuilder = new XMLBuilder(this.options, "", textDocument.lineDelimiter(startPosition.getLine()),
+					getBuilderCapacity());
+		}
+
+		/**
+		 * Returns the initial capacity of the XML builder: the formatted content has
+		 * generally the size of the original content plus some indentation.
+		 */
+		private int getBuilderCapacity() {
+			int length = this.endOffset - this.startOffset;
+			return length + (length >> 3);
 		}
 
 		private boolean containsTextWithinStartTag() {
@@ -178,7 +193,8 @@ class XMLFormatter {
 			this.rangeDomDocument = this.fullDomDocument;
 
 			Position startPosition = textDocument.positionAt(startOffset);
-			this.xmlBuilder = new XMLBuilder(this.options, "", textDocument.lineDelimiter(startPosition.getLine()));
+			this.xmlBuilder = new XMLBuilder(this.options, "", textDocument.lineDelimiter(startPosition.getLine()),
+					getBuilderCapacity());
 		}
 
 		private void enlargePositionToGutters(Position start, Position end) throws BadLocationException {
@@ -585,12 +601,7 @@ class XMLFormatter {
 		}
 
 		private List<? extends TextEdit> getFormatTextEdit() throws BadLocationException {
-			Position startPosition = this.textDocument.positionAt(this.startOffset);
-			Position endPosition = this.textDocument.positionAt(this.endOffset);
-			Range r = new Range(startPosition, endPosition);
-			List<TextEdit> edits = new ArrayList<>();
-			edits.add(new TextEdit(r, this.xmlBuilder.toString()));
-			return edits;
+			return getTextEdits(this.textDocument, this.startOffset, this.endOffset, this.xmlBuilder.getContent());
 		}
 
 		private static boolean isFirstChildNode(DOMNode node) {
@@ -645,22 +656,169 @@ class XMLFormatter {
 	}
 
 	/**
-	 * Returns a List containing a single TextEdit, containing the newly formatted changes
-	 * of the document.
+	 * Returns the list of TextEdit, containing the whitespaces changes to format
+	 * the document.
 	 * @param textDocument document to perform formatting on
 	 * @param range specified range in which formatting will be done
-	 * @return List containing a TextEdit with formatting changes
+	 * @return List of TextEdit with formatting changes
 	 */
 	public List<? extends TextEdit> format(TextDocument textDocument, Range range,
 			XMLFormattingOptions formattingOptions) {
+		return format(textDocument, parseFormattingDocument(textDocument), range, formattingOptions);
+	}
+
+	/**
+	 * Returns the list of TextEdit, containing the whitespaces changes to format
+	 * the text of the given DOM document.
+	 * 
+	 * <p>
+	 * The DOM document parsed without ignoring whitespace content is kept in the
+	 * user data of the given DOM document, so it is reused while the text of the
+	 * document doesn't change (full and range formatting).
+	 * </p>
+	 * 
+	 * @param xmlDocument       the DOM document of the text to format.
+	 * @param range             specified range in which formatting will be done
+	 * @param formattingOptions the formatting options.
+	 * @return List of TextEdit with formatting changes
+	 */
+	public List<? extends TextEdit> format(DOMDocument xmlDocument, Range range,
+			XMLFormattingOptions formattingOptions) {
+		DOMDocument formattingDocument = (DOMDocument) xmlDocument.getUserData(FORMATTING_DOCUMENT_KEY);
+		if (formattingDocument == null) {
+			formattingDocument = parseFormattingDocument(xmlDocument.getTextDocument());
+			xmlDocument.setUserData(FORMATTING_DOCUMENT_KEY, formattingDocument, null);
+		}
+		return format(xmlDocument.getTextDocument(), formattingDocument, range, formattingOptions);
+	}
+
+	private List<? extends TextEdit> format(TextDocument textDocument, DOMDocument formattingDocument, Range range,
+			XMLFormattingOptions formattingOptions) {
 		try {
-			XMLFormatterDocument formatterDocument = new XMLFormatterDocument(textDocument, range, formattingOptions);
+			XMLFormatterDocument formatterDocument = new XMLFormatterDocument(textDocument, formattingDocument,
+					range, formattingOptions);
 			return formatterDocument.format();
 		} catch (BadLocationException e) {
 			LOGGER.log(Level.SEVERE, "Formatting failed due to BadLocation", e);
 		}
 		return null;
 	}
+
+	/**
+	 * Returns the text edits which transform the text of the range into the
+	 * formatted content.
+	 * 
+	 * <p>
+	 * The original text and the formatted content are aligned on their non
+	 * whitespace characters: each sequence of whitespaces which differs produces
+	 * a text edit. When the formatted content updates non whitespace characters
+	 * (ex : quotes of attributes), a single text edit replaces the text between
+	 * the first and the last updated characters.
+	 * </p>
+	 * 
+	 * @param textDocument the text document.
+	 * @param startOffset  the start offset of the formatted range.
+	 * @param endOffset    the end offset of the formatted range.
+	 * @param formatted    the formatted content of the range.
+	 * @return the text edits which transform the text of the range into the
+	 *         formatted content.
+	 * @throws BadLocationException
+	 */
+	static List<? extends TextEdit> getTextEdits(TextDocument textDocument, int startOffset, int endOffset,
+			CharSequence formatted) throws BadLocationException {
+		String text = textDocument.getText();
+		int formattedLength = formatted.length();
+		List<TextEdit> edits = new ArrayList<>();
+		int offset = startOffset;
+		int formattedOffset = 0;
+		while (true) {
+			// align the whitespaces
+			int whitespacesEnd = skipWhitespaces(text, offset, endOffset);
+			int formattedWhitespacesEnd = skipWhitespaces(formatted, formattedOffset, formattedLength);
+			if (!regionMatches(text, offset, whitespacesEnd, formatted, formattedOffset,
+					formattedWhitespacesEnd)) {
+				edits.add(getReplaceTextEdit(textDocument, offset, whitespacesEnd, formatted, formattedOffset,
+						formattedWhitespacesEnd));
+			}
+			offset = whitespacesEnd;
+			formattedOffset = formattedWhitespacesEnd;
+			if (offset == endOffset && formattedOffset == formattedLength) {
+				return edits;
+			}
+			// compare the non whitespace characters
+			while (offset < endOffset && formattedOffset < formattedLength
+					&& !Character.isWhitespace(text.charAt(offset))
+					&& text.charAt(offset) == formatted.charAt(formattedOffset)) {
+				offset++;
+				formattedOffset++;
+			}
+			boolean nonWhitespace = offset < endOffset && !Character.isWhitespace(text.charAt(offset));
+			boolean formattedNonWhitespace = formattedOffset < formattedLength
+					&& !Character.isWhitespace(formatted.charAt(formattedOffset));
+			if ((nonWhitespace && formattedNonWhitespace) || (nonWhitespace && formattedOffset == formattedLength)
+					|| (formattedNonWhitespace && offset == endOffset)) {
+				// the formatted content updates non whitespace characters
+				List<TextEdit> replaceEdit = new ArrayList<>(1);
+				replaceEdit.add(getReplaceTextEdit(textDocument, startOffset, endOffset, formatted, 0,
+						formatted.length()));
+				return replaceEdit;
+			}
+		}
+	}
+
+	/**
+	 * Returns the text edit which replaces the text between the first and the last
+	 * characters of the text region [start, end] updated by the formatted region
+	 * [formattedStart, formattedEnd].
+	 */
+	private static TextEdit getReplaceTextEdit(TextDocument textDocument, int start, int end,
+			CharSequence formatted, int formattedStart, int formattedEnd) throws BadLocationException {
+		String text = textDocument.getText();
+		int prefix = 0;
+		int maxLength = Math.min(end - start, formattedEnd - formattedStart);
+		while (prefix < maxLength && text.charAt(start + prefix) == formatted.charAt(formattedStart + prefix)) {
+			prefix++;
+		}
+		int suffix = 0;
+		while (suffix < maxLength - prefix
+				&& text.charAt(end - suffix - 1) == formatted.charAt(formattedEnd - suffix - 1)) {
+			suffix++;
+		}
+		Range r = new Range(textDocument.positionAt(start + prefix), textDocument.positionAt(end - suffix));
+		return new TextEdit(r, formatted.subSequence(formattedStart + prefix, formattedEnd - suffix).toString());
+	}
+
+	private static int skipWhitespaces(CharSequence text, int offset, int end) {
+		while (offset < end && Character.isWhitespace(text.charAt(offset))) {
+			offset++;
+		}
+		return offset;
+	}
+
+	private static boolean regionMatches(CharSequence text, int start, int end, CharSequence formatted,
+			int formattedStart, int formattedEnd) {
+		if (end - start != formattedEnd - formattedStart) {
+			return false;
+		}
+		for (int i = 0; i < end - start; i++) {
+			if (text.charAt(start + i) != formatted.charAt(formattedStart + i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the DOM document of the given text document parsed without ignoring
+	 * the whitespace content (the DOM document of an opened document ignores it).
+	 * 
+	 * @param textDocument the text document.
+	 * @return the DOM document of the given text document parsed without ignoring
+	 *         the whitespace content.
+	 */
+	private static DOMDocument parseFormattingDocument(TextDocument textDocument) {
+		return DOMParser.getInstance().parse(textDocument.getText(), textDocument.getUri(), null, false);
+	}
 }
 
 // Local Variables:
@@ -99,7 +99,7 @@ class XMLHover {
 		hoverRequest.setTagRange(tagRange);
 		hoverRequest.setOpen(open);
 		List<String> contentValues = new ArrayList<String>();
-		for (IHoverParticipant participant : extensionsRegistry.getHoverParticipants()) {
+		for (IHoverParticipant participant : extensionsRegistry.getHoverParticipants(hoverRequest.getXMLDocument())) {
 			try {
 				String contentValue = participant.onTag(hoverRequest);
 				if (contentValue != null) {
@@ -142,7 +142,7 @@ class XMLHover {
 		// hoverRequest.setTagRange(tagRange);
 		// hoverRequest.setOpen(open);
 		List<String> contentValues = new ArrayList<String>();
-		for (IHoverParticipant participant : extensionsRegistry.getHoverParticipants()) {
+		for (IHoverParticipant participant : extensionsRegistry.getHoverParticipants(hoverRequest.getXMLDocument())) {
 			try {
 				String contentValue = participant.onAttributeName(hoverRequest);
 				if (contentValue != null) {
@@ -166,7 +166,7 @@ class XMLHover {
 		// hoverRequest.setTagRange(tagRange);
 		// hoverRequest.setOpen(open);
 		List<String> contentValues = new ArrayList<String>();
-		for (IHoverParticipant participant : extensionsRegistry.getHoverParticipants()) {
+		for (IHoverParticipant participant : extensionsRegistry.getHoverParticipants(hoverRequest.getXMLDocument())) {
 			try {
 				String contentValue = participant.onAttributeValue(hoverRequest);
 				if (contentValue != null) {
@@ -34,6 +34,7 @@ import org.eclipse.lsp4j.PublishDiagnosticsParams;
 import org.eclipse.lsp4j.Range;
 import org.eclipse.lsp4j.ReferenceContext;
 import org.eclipse.lsp4j.SymbolInformation;
+import org.eclipse.lsp4j.TextDocumentContentChangeEvent;
 import org.eclipse.lsp4j.TextEdit;
 import org.eclipse.lsp4j.WorkspaceEdit;
 import org.eclipse.lsp4j.jsonrpc.CancelChecker;
@@ -43,7 +44,10 @@ import org.eclipse.lsp4xml.customservice.AutoCloseTagResponse;
 import org.eclipse.lsp4xml.dom.DOMDocument;
 import org.eclipse.lsp4xml.dom.DOMElement;
 import org.eclipse.lsp4xml.extensions.contentmodel.settings.XMLValidationSettings;
+import org.eclipse.lsp4xml.services.extensions.SharedComponents;
 import org.eclipse.lsp4xml.services.extensions.XMLExtensionsRegistry;
+import org.eclipse.lsp4xml.services.extensions.save.ISaveContext;
+import org.eclipse.lsp4xml.services.index.XMLWorkspaceIndex;
 import org.eclipse.lsp4xml.settings.SharedSettings;
 import org.eclipse.lsp4xml.settings.XMLCodeLensSettings;
 import org.eclipse.lsp4xml.settings.XMLFoldingSettings;
@@ -80,8 +84,21 @@ public class XMLLanguageService extends XMLExtensionsRegistry {
 	private final XMLCodeLens codelens;
 	private final XMLCodeActions codeActions;
 	private final XMLRename rename;
+	private final XMLWorkspaceIndex workspaceIndex;
 
 	public XMLLanguageService() {
+		this(null);
+	}
+
+	/**
+	 * Creates a XML language service which shares the given components with the
+	 * other servers of the JVM.
+	 *
+	 * @param sharedComponents the shared components and null if the components
+	 *                         are not shared.
+	 */
+	public XMLLanguageService(SharedComponents sharedComponents) {
+		super(sharedComponents);
 		this.formatter = new XMLFormatter(this);
 		this.highlighting = new XMLHighlighting(this);
 		this.symbolsProvider = new XMLSymbolsProvider(this);
@@ -96,18 +113,25 @@ public class XMLLanguageService extends XMLExtensionsRegistry {
 		this.codelens = new XMLCodeLens(this);
 		this.codeActions = new XMLCodeActions(this);
 		this.rename = new XMLRename(this);
+		this.workspaceIndex = new XMLWorkspaceIndex();
+		registerComponent(workspaceIndex);
 	}
 
 	public List<? extends TextEdit> format(TextDocument document, Range range, XMLFormattingOptions options) {
 		return formatter.format(document, range, options);
 	}
 
+	public List<? extends TextEdit> format(DOMDocument xmlDocument, Range range, XMLFormattingOptions options) {
+		return formatter.format(xmlDocument, range, options);
+	}
+
 	public List<DocumentHighlight> findDocumentHighlights(DOMDocument xmlDocument, Position position) {
 		return findDocumentHighlights(xmlDocument, position, NULL_CHECKER);
 	}
 
 	public List<DocumentHighlight> findDocumentHighlights(DOMDocument xmlDocument, Position position,
 			CancelChecker cancelChecker) {
+		activateExtensions(xmlDocument);
 		return highlighting.findDocumentHighlights(xmlDocument, position, cancelChecker);
 	}
 
@@ -119,6 +143,23 @@ public class XMLLanguageService extends XMLExtensionsRegistry {
 		return symbolsProvider.findSymbolInformations(xmlDocument, cancelChecker);
 	}
 
+	public List<SymbolInformation> findWorkspaceSymbols(String query, CancelChecker cancelChecker) {
+		// Extensions set the workspace root of the index when they are started
+		initializeIfNeeded();
+		return workspaceIndex.findSymbols(query, cancelChecker);
+	}
+
+	@Override
+	public void doSave(ISaveContext saveContext) {
+		super.doSave(saveContext);
+		// a saved XML Schema, DTD, catalog or settings can change the completion items
+		completions.clearCompletionSessions();
+	}
+
+	public XMLWorkspaceIndex getWorkspaceIndex() {
+		return workspaceIndex;
+	}
+
 	public List<DocumentSymbol> findDocumentSymbols(DOMDocument xmlDocument) {
 		return findDocumentSymbols(xmlDocument, NULL_CHECKER);
 	}
@@ -133,6 +174,7 @@ public class XMLLanguageService extends XMLExtensionsRegistry {
 
 	public CompletionList doComplete(DOMDocument xmlDocument, Position position, SharedSettings settings,
 			CancelChecker cancelChecker) {
+		activateExtensions(xmlDocument);
 		return completions.doComplete(xmlDocument, position, settings, cancelChecker);
 	}
 
@@ -142,14 +184,21 @@ public class XMLLanguageService extends XMLExtensionsRegistry {
 
 	public Hover doHover(DOMDocument xmlDocument, Position position, XMLHoverSettings settings,
 			CancelChecker cancelChecker) {
+		activateExtensions(xmlDocument);
 		return hover.doHover(xmlDocument, position, settings, cancelChecker);
 	}
 
 	public List<Diagnostic> doDiagnostics(DOMDocument xmlDocument, CancelChecker monitor,
 			XMLValidationSettings validationSettings) {
+		activateExtensions(xmlDocument);
 		return diagnostics.doDiagnostics(xmlDocument, monitor, validationSettings);
 	}
 
+	public List<Diagnostic> doSyntaxDiagnostics(DOMDocument xmlDocument, CancelChecker monitor,
+			XMLValidationSettings validationSettings) {
+		return diagnostics.doSyntaxDiagnostics(xmlDocument, monitor, validationSettings);
+	}
+
 	public CompletableFuture<Path> publishDiagnostics(DOMDocument xmlDocument,
 			Consumer<PublishDiagnosticsParams> publishDiagnostics, Consumer<TextDocument> triggerValidation,
 			XMLValidationSettings validationSettings, CancelChecker monitor) {
@@ -210,39 +259,51 @@ public class XMLLanguageService extends XMLExtensionsRegistry {
 
 	public List<FoldingRange> getFoldingRanges(DOMDocument xmlDocument, XMLFoldingSettings context,
 			CancelChecker cancelChecker) {
-		return foldings.getFoldingRanges(xmlDocument.getTextDocument(), context, cancelChecker);
+		return getFoldingRanges(xmlDocument.getTextDocument(), context, cancelChecker);
+	}
+
+	public List<FoldingRange> getFoldingRanges(TextDocument document, XMLFoldingSettings context,
+			CancelChecker cancelChecker) {
+		return foldings.getFoldingRanges(document, context, cancelChecker);
 	}
 
 	public WorkspaceEdit doRename(DOMDocument xmlDocument, Position position, String newText) {
+		activateExtensions(xmlDocument);
 		return rename.doRename(xmlDocument, position, newText);
 	}
 
 	public List<DocumentLink> findDocumentLinks(DOMDocument document) {
+		activateExtensions(document);
 		return documentLink.findDocumentLinks(document);
 	}
 
 	public List<? extends LocationLink> findDefinition(DOMDocument xmlDocument, Position position,
 			CancelChecker cancelChecker) {
+		activateExtensions(xmlDocument);
 		return definition.findDefinition(xmlDocument, position, cancelChecker);
 	}
 
 	public List<? extends LocationLink> findTypeDefinition(DOMDocument xmlDocument, Position position,
 			CancelChecker cancelChecker) {
+		activateExtensions(xmlDocument);
 		return typeDefinition.findTypeDefinition(xmlDocument, position, cancelChecker);
 	}
 
 	public List<? extends Location> findReferences(DOMDocument xmlDocument, Position position, ReferenceContext context,
 			CancelChecker cancelChecker) {
+		activateExtensions(xmlDocument);
 		return reference.findReferences(xmlDocument, position, context, cancelChecker);
 	}
 
 	public List<? extends CodeLens> getCodeLens(DOMDocument xmlDocument, XMLCodeLensSettings settings,
 			CancelChecker cancelChecker) {
+		activateExtensions(xmlDocument);
 		return codelens.getCodelens(xmlDocument, settings, cancelChecker);
 	}
 
 	public List<CodeAction> doCodeActions(CodeActionContext context, Range range, DOMDocument document,
 			XMLFormattingOptions formattingSettings) {
+		activateExtensions(document);
 		return codeActions.doCodeActions(context, range, document, formattingSettings);
 	}
 
@@ -254,6 +315,25 @@ public class XMLLanguageService extends XMLExtensionsRegistry {
 		return completions.doTagComplete(xmlDocument, position, cancelChecker);
 	}
 
+	/**
+	 * Returns the auto close tag response computed without the DOM document of the
+	 * current text (see
+	 * {@link XMLCompletions#doTagComplete(TextDocument, Position, DOMDocument, TextDocumentContentChangeEvent)})
+	 * and null if it cannot be computed without ambiguity.
+	 * 
+	 * @param document         the text document.
+	 * @param position         the position after the typed character.
+	 * @param previousDocument the DOM document of the text before the last change
+	 *                         and null if it is not loaded.
+	 * @param lastChange       the last change of the text document.
+	 * @return the auto close tag response and null if it cannot be computed without
+	 *         ambiguity.
+	 */
+	public AutoCloseTagResponse doAutoClose(TextDocument document, Position position, DOMDocument previousDocument,
+			TextDocumentContentChangeEvent lastChange) {
+		return completions.doTagComplete(document, position, previousDocument, lastChange);
+	}
+
 	public AutoCloseTagResponse doAutoClose(DOMDocument xmlDocument, Position position, CancelChecker cancelChecker) {
 		try {
 			int offset = xmlDocument.offsetAt(position);
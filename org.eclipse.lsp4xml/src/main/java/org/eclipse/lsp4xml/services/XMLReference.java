@@ -36,7 +36,7 @@ class XMLReference {
 	public List<? extends Location> findReferences(DOMDocument document, Position position, ReferenceContext context,
 			CancelChecker cancelChecker) {
 		List<Location> locations = new ArrayList<>();
-		for (IReferenceParticipant participant : extensionsRegistry.getReferenceParticipants()) {
+		for (IReferenceParticipant participant : extensionsRegistry.getReferenceParticipants(document)) {
 			participant.findReference(document, position, context, locations, cancelChecker);
 		}
 		return locations;
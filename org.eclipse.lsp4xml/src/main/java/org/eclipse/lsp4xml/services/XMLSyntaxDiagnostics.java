@@ -0,0 +1,330 @@
+/**
+ *  Copyright (c) 2019 Red Hat Inc. and others.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v2.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v20.html
+ *
+ *  Contributors:
+ *  Red Hat Inc. - initial API and implementation
+ */
+package org.eclipse.lsp4xml.services;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.xerces.impl.msg.XMLMessageFormatter;
+import org.eclipse.lsp4j.Diagnostic;
+import org.eclipse.lsp4j.DiagnosticSeverity;
+import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4j.jsonrpc.CancelChecker;
+import org.eclipse.lsp4xml.dom.DOMAttr;
+import org.eclipse.lsp4xml.dom.DOMDocument;
+import org.eclipse.lsp4xml.dom.DOMElement;
+import org.eclipse.lsp4xml.dom.DOMNode;
+import org.eclipse.lsp4xml.dom.DOMText;
+import org.eclipse.lsp4xml.extensions.contentmodel.participants.XMLSyntaxErrorCode;
+import org.eclipse.lsp4xml.utils.StringUtils;
+import org.eclipse.lsp4xml.utils.XMLPositionUtility;
+
+/**
+ * Fast XML syntax diagnostics computed from the tolerant DOM parser result
+ * (without Xerces).
+ *
+ * <p>
+ * Xerces stops the validation at the first fatal error, so this class reports
+ * at most one error: the first error of the document if it is a well-known
+ * syntax error (unclosed tag, mismatched end tag, duplicate attribute, bad
+ * quoting). The error code, message and range are the same as those reported
+ * by Xerces (see {@link XMLSyntaxErrorCode}) to keep the code actions working.
+ * When the first problem of the document is not supported, nothing is reported
+ * and the Xerces validation is the only one to report it.
+ * </p>
+ *
+ */
+class XMLSyntaxDiagnostics {
+
+	private static final String XML_DIAGNOSTIC_SOURCE = "xml";
+
+	/**
+	 * The first syntax error found in the document.
+	 */
+	private static class SyntaxError {
+
+		private final int offset;
+
+		private final int nodeStart;
+
+		private final XMLSyntaxErrorCode code;
+
+		private final Object[] arguments;
+
+		private final DOMNode target;
+
+		SyntaxError(int offset, int nodeStart, XMLSyntaxErrorCode code, Object[] arguments, DOMNode target) {
+			this.offset = offset;
+			this.nodeStart = nodeStart;
+			this.code = code;
+			this.arguments = arguments;
+			this.target = target;
+		}
+
+		/**
+		 * Returns true if this error occurs before the given error and false
+		 * otherwise. When errors are reported at the same offset, the innermost node
+		 * wins like the Xerces element stack does.
+		 */
+		boolean isBefore(SyntaxError error) {
+			return error == null || offset < error.offset || (offset == error.offset && nodeStart > error.nodeStart);
+		}
+
+		boolean isSupported() {
+			return code != null;
+		}
+	}
+
+	private static class SyntaxErrorCollector {
+
+		private SyntaxError firstError;
+
+		void add(int offset, int nodeStart, XMLSyntaxErrorCode code, Object[] arguments, DOMNode target) {
+			SyntaxError error = new SyntaxError(offset, nodeStart, code, arguments, target);
+			if (error.isBefore(firstError)) {
+				firstError = error;
+			}
+		}
+
+		/**
+		 * Mark the given offset as the location of a problem which is not supported
+		 * by the fast syntax validation.
+		 *
+		 * @param offset the offset of the problem.
+		 */
+		void unsupported(int offset) {
+			add(offset, offset, null, null, null);
+		}
+
+		SyntaxError getFirstError() {
+			return firstError;
+		}
+	}
+
+	public List<Diagnostic> doDiagnostics(DOMDocument xmlDocument, CancelChecker monitor) {
+		List<Diagnostic> diagnostics = new ArrayList<>();
+		if (xmlDocument.isDTD() || xmlDocument.isValidationOnly()) {
+			// DTD files are validated with the DTD validator and large files have no DOM
+			// nodes.
+			return diagnostics;
+		}
+		SyntaxErrorCollector collector = new SyntaxErrorCollector();
+		boolean hasDocumentElement = false;
+		for (DOMNode node : xmlDocument.getChildren()) {
+			if (monitor != null) {
+				monitor.checkCanceled();
+			}
+			if (node.isElement()) {
+				if (hasDocumentElement) {
+					// Only one root element is allowed
+					collector.unsupported(node.getStart());
+				} else {
+					hasDocumentElement = true;
+					checkElement((DOMElement) node, xmlDocument, collector, monitor);
+				}
+			} else if (node.isText()) {
+				if (!StringUtils.isWhitespace(((DOMText) node).getData())) {
+					collector.unsupported(node.getStart());
+				}
+			} else if (!node.isClosed()) {
+				// unclosed comment, CDATA, processing instruction, DOCTYPE
+				collector.unsupported(node.getStart());
+			}
+		}
+
+		SyntaxError error = collector.getFirstError();
+		if (error != null && error.isSupported()) {
+			Range range = toLSPRange(error, xmlDocument);
+			if (range != null) {
+				String message = new XMLMessageFormatter().formatMessage(null, error.code.getCode(),
+						error.arguments);
+				diagnostics.add(new Diagnostic(range, message, DiagnosticSeverity.Error, XML_DIAGNOSTIC_SOURCE,
+						error.code.getCode()));
+			}
+		}
+		return diagnostics;
+	}
+
+	private static void checkElement(DOMElement element, DOMDocument xmlDocument, SyntaxErrorCollector collector,
+			CancelChecker monitor) {
+		if (monitor != null) {
+			monitor.checkCanceled();
+		}
+		String tag = element.getTagName();
+		if (tag == null) {
+			// ex : '<' without tag name
+			collector.unsupported(element.getStart());
+			return;
+		}
+		if (!element.hasStartTag()) {
+			// orphan end tag (ex : <a></b></a>), the parent element must be closed first,
+			// Xerces highlights the name of the orphan end tag
+			DOMNode parent = element.getParentNode();
+			if (parent != null && parent.isElement() && ((DOMElement) parent).getTagName() != null) {
+				collector.add(element.getStart(), parent.getStart(), XMLSyntaxErrorCode.ETagRequired,
+						new Object[] { ((DOMElement) parent).getTagName() }, element);
+			} else {
+				collector.unsupported(element.getStart());
+			}
+			return;
+		}
+
+		// Check attributes
+		int startTagEnd = element.getStart() + 1 + tag.length();
+		if (element.hasAttributes()) {
+			Set<String> attrNames = new HashSet<>();
+			for (DOMAttr attr : element.getAttributeNodes()) {
+				String name = attr.getName();
+				Object[] arguments = new Object[] { tag, name };
+				if (!attrNames.add(name)) {
+					// Xerces highlights the first declared attribute
+					collector.add(attr.getStart(), attr.getStart(), XMLSyntaxErrorCode.AttributeNotUnique, arguments,
+							element.getAttributeNode(name).getNodeAttrName());
+				} else if (!attr.hasDelimiter()) {
+					collector.add(attr.getStart(), attr.getStart(), XMLSyntaxErrorCode.EqRequiredInAttribute,
+							arguments, attr.getNodeAttrName());
+				} else if (attr.getOriginalValue() == null) {
+					collector.add(attr.getStart(), attr.getStart(), XMLSyntaxErrorCode.OpenQuoteExpected, arguments,
+							attr.getNodeAttrName());
+				} else if (!DOMAttr.isQuoted(attr.getOriginalValue())) {
+					// unterminated attribute value
+					collector.unsupported(attr.getStart());
+				} else {
+					DOMNode value = attr.getNodeAttrValue();
+					checkCharacterData(value.getStart() + 1, value.getEnd() - 1, xmlDocument, collector);
+				}
+				startTagEnd = Math.max(startTagEnd, attr.getEnd());
+			}
+		}
+
+		if (!element.isStartTagClosed() && !element.isSelfClosed()) {
+			// ex : <a <b></b></a>
+			collector.add(startTagEnd, element.getStart(), XMLSyntaxErrorCode.ElementUnterminated,
+					new Object[] { tag }, element);
+		}
+
+		// Check children
+		for (DOMNode child : element.getChildren()) {
+			if (child.isElement()) {
+				checkElement((DOMElement) child, xmlDocument, collector, monitor);
+			} else if (child.isText()) {
+				checkCharacterData(child.getStart(), child.getEnd(), xmlDocument, collector);
+			} else if (!child.isClosed()) {
+				collector.unsupported(child.getStart());
+			}
+		}
+
+		// Check end tag
+		if (!element.isClosed() && !element.isSelfClosed()) {
+			DOMElement closingAncestor = getClosingAncestor(element);
+			if (closingAncestor != null) {
+				// ex : <a><b></a>
+				collector.add(closingAncestor.getEndTagOpenOffset(), element.getStart(),
+						XMLSyntaxErrorCode.ETagRequired, new Object[] { tag }, element);
+			} else {
+				// ex : <a><b></b>
+				collector.add(xmlDocument.getText().length(), element.getStart(), XMLSyntaxErrorCode.MarkupEntityMismatch,
+						null, xmlDocument.getDocumentElement());
+			}
+		}
+	}
+
+	/**
+	 * Check the references and the '<' of the given text content or attribute
+	 * value. Those errors are not supported by the fast syntax validation, but
+	 * they must stop it like Xerces does.
+	 *
+	 * @param start       the start offset of the text.
+	 * @param end         the end offset of the text.
+	 * @param xmlDocument the DOM document.
+	 * @param collector   the syntax error collector.
+	 */
+	private static void checkCharacterData(int start, int end, DOMDocument xmlDocument,
+			SyntaxErrorCollector collector) {
+		String text = xmlDocument.getText();
+		for (int i = start; i < end; i++) {
+			char c = text.charAt(i);
+			if (c == '<') {
+				collector.unsupported(i);
+				return;
+			}
+			if (c == '&') {
+				int semicolon = text.indexOf(';', i);
+				if (semicolon == -1 || semicolon >= end || !isValidReference(text.substring(i + 1, semicolon))) {
+					collector.unsupported(i);
+					return;
+				}
+				i = semicolon;
+			}
+		}
+	}
+
+	/**
+	 * Returns true if the given reference name (without '&' and ';') is a
+	 * character reference or a predefined entity and false otherwise.
+	 * 
+	 * @param name the reference name.
+	 * @return true if the given reference name (without '&' and ';') is a
+	 *         character reference or a predefined entity and false otherwise.
+	 */
+	private static boolean isValidReference(String name) {
+		if (name.startsWith("#")) {
+			return name.length() > 1;
+		}
+		switch (name) {
+		case "lt":
+		case "gt":
+		case "amp":
+		case "apos":
+		case "quot":
+			return true;
+		default:
+			// entity declared in a DTD or not declared
+			return false;
+		}
+	}
+
+	/**
+	 * Returns the first ancestor element which is closed with an end tag and null
+	 * otherwise.
+	 *
+	 * @param element the unclosed element
+	 * @return the first ancestor element which is closed with an end tag and null
+	 *         otherwise.
+	 */
+	private static DOMElement getClosingAncestor(DOMElement element) {
+		DOMNode parent = element.getParentNode();
+		while (parent != null && parent.isElement()) {
+			DOMElement parentElement = (DOMElement) parent;
+			if (parentElement.isClosed() && parentElement.hasEndTag()) {
+				return parentElement;
+			}
+			parent = parent.getParentNode();
+		}
+		return null;
+	}
+
+	private static Range toLSPRange(SyntaxError error, DOMDocument xmlDocument) {
+		DOMNode target = error.target;
+		if (target == null) {
+			return null;
+		}
+		if (target.isElement()) {
+			DOMElement element = (DOMElement) target;
+			// an element without start tag is an orphan end tag
+			return element.hasStartTag() ? XMLPositionUtility.selectStartTag(element)
+					: XMLPositionUtility.selectEndTag(element);
+		}
+		return XMLPositionUtility.createRange(target.getStart(), target.getEnd(), xmlDocument);
+	}
+}
@@ -23,13 +23,15 @@ import org.eclipse.lsp4xml.dom.DOMDocument;
  */
 public abstract class AbstractDefinitionParticipant implements IDefinitionParticipant {
 
+	@Override
+	public boolean isApplicable(DOMDocument document) {
+		return match(document);
+	}
+
 	@Override
 	public final void findDefinition(IDefinitionRequest request, List<LocationLink> locations,
 			CancelChecker cancelChecker) {
-		DOMDocument document = request.getXMLDocument();
-		if (!match(document)) {
-			return;
-		}
+		// the registry calls the participant only for the documents which match
 		doFindDefinition(request, locations, cancelChecker);
 	}
 
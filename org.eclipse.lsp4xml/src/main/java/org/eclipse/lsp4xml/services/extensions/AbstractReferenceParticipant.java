@@ -27,12 +27,15 @@ import org.eclipse.lsp4xml.dom.DOMNode;
  */
 public abstract class AbstractReferenceParticipant implements IReferenceParticipant {
 
+	@Override
+	public boolean isApplicable(DOMDocument document) {
+		return match(document);
+	}
+
 	@Override
 	public void findReference(DOMDocument document, Position position, ReferenceContext context,
 			List<Location> locations, CancelChecker cancelChecker) {
-		if (!match(document)) {
-			return;
-		}
+		// the registry calls the participant only for the documents which match
 		try {
 			int offset = document.offsetAt(position);
 			DOMNode node = document.findNodeAt(offset);
@@ -14,7 +14,7 @@ package org.eclipse.lsp4xml.services.extensions;
  * Completion participant API.
  *
  */
-public interface ICompletionParticipant {
+public interface ICompletionParticipant extends IDocumentParticipant {
 
 	void onTagOpen(ICompletionRequest completionRequest, ICompletionResponse completionResponse) throws Exception;
 
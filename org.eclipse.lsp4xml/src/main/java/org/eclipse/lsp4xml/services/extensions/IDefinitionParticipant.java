@@ -19,7 +19,7 @@ import org.eclipse.lsp4j.jsonrpc.CancelChecker;
  * Definition participant API.
  *
  */
-public interface IDefinitionParticipant {
+public interface IDefinitionParticipant extends IDocumentParticipant {
 
 	/**
 	 * Find definition.
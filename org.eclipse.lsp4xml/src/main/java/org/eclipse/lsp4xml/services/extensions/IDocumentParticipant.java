@@ -0,0 +1,38 @@
+/**
+ *  Copyright (c) 2019 Red Hat Inc. and others.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v2.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v20.html
+ *
+ *  Contributors:
+ *  Red Hat Inc. - initial API and implementation
+ */
+package org.eclipse.lsp4xml.services.extensions;
+
+import org.eclipse.lsp4xml.dom.DOMDocument;
+
+/**
+ * Participant which can be applicable only to some documents (XML Schema, DTD,
+ * catalog, etc).
+ * 
+ * <p>
+ * The {@link XMLExtensionsRegistry} computes the applicable participants once
+ * per DOM document and dispatches the requests only to them.
+ * </p>
+ *
+ */
+public interface IDocumentParticipant {
+
+	/**
+	 * Returns true if the participant is applicable for the given document and
+	 * false otherwise.
+	 * 
+	 * @param document the DOM document.
+	 * @return true if the participant is applicable for the given document and
+	 *         false otherwise.
+	 */
+	default boolean isApplicable(DOMDocument document) {
+		return true;
+	}
+}
@@ -14,7 +14,7 @@ package org.eclipse.lsp4xml.services.extensions;
  * Hover participant API.
  *
  */
-public interface IHoverParticipant {
+public interface IHoverParticipant extends IDocumentParticipant {
 
 	/**
 	 * onTag method
@@ -22,7 +22,7 @@ import org.eclipse.lsp4xml.dom.DOMDocument;
  * Reference participant API.
  *
  */
-public interface IReferenceParticipant {
+public interface IReferenceParticipant extends IDocumentParticipant {
 
 	void findReference(DOMDocument document, Position position, ReferenceContext context, List<Location> locations, CancelChecker cancelChecker);
 
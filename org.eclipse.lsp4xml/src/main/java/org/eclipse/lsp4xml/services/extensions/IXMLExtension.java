@@ -10,7 +10,10 @@
  */
 package org.eclipse.lsp4xml.services.extensions;
 
+import java.util.function.Predicate;
+
 import org.eclipse.lsp4j.InitializeParams;
+import org.eclipse.lsp4xml.dom.DOMDocument;
 import org.eclipse.lsp4xml.services.extensions.diagnostics.IDiagnosticsParticipant;
 import org.eclipse.lsp4xml.services.extensions.save.ISaveContext;
 
@@ -42,6 +45,24 @@ public interface IXMLExtension {
 
 	void doSave(ISaveContext context);
 
+	/**
+	 * Returns the condition (file extension, root namespace, DOCTYPE, etc) which
+	 * activates the extension and null if the extension must be started when the
+	 * registry is initialized.
+	 * 
+	 * <p>
+	 * An extension with an activation condition is started when the first document
+	 * which matches the condition is processed, or in background once the server
+	 * is initialized.
+	 * </p>
+	 * 
+	 * @return the condition which activates the extension and null if the
+	 *         extension must be started when the registry is initialized.
+	 */
+	default Predicate<DOMDocument> getActivationCondition() {
+		return null;
+	}
+
 	/**
 	 * Update settings.
 	 * 
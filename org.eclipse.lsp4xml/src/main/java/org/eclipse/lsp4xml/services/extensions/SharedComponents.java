@@ -0,0 +1,127 @@
+/**
+ *  Copyright (c) 2019 Red Hat Inc. and others.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v2.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v20.html
+ *
+ *  Contributors:
+ *  Red Hat Inc. - initial API and implementation
+ */
+package org.eclipse.lsp4xml.services.extensions;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Components shared by all the XML language servers of the JVM (compiled
+ * grammars, content model documents, resolved entities content, downloaded
+ * resources, etc).
+ *
+ * <p>
+ * The shared components are reference counted: each server (ex: each
+ * connection of the socket launcher) acquires them with {@link #acquire()}
+ * and releases them with {@link #release()} when it stops. The components
+ * are dropped when the last server releases them.
+ * </p>
+ *
+ * <p>
+ * A shared component must be thread safe and must not depend on the settings
+ * of a server.
+ * </p>
+ *
+ */
+public class SharedComponents {
+
+	private static SharedComponents instance;
+
+	private final Map<String, Object> components;
+
+	private int referenceCount;
+
+	private SharedComponents() {
+		this.components = new ConcurrentHashMap<>();
+	}
+
+	/**
+	 * Returns the shared components of the JVM and increments their reference
+	 * count.
+	 *
+	 * @return the shared components of the JVM.
+	 */
+	public static synchronized SharedComponents acquire() {
+		if (instance == null) {
+			instance = new SharedComponents();
+		}
+		instance.referenceCount++;
+		return instance;
+	}
+
+	/**
+	 * Decrements the reference count of the shared components and drops them
+	 * when they are not used anymore.
+	 */
+	public void release() {
+		synchronized (SharedComponents.class) {
+			if (referenceCount == 0) {
+				return;
+			}
+			referenceCount--;
+			if (referenceCount == 0) {
+				components.clear();
+				if (instance == this) {
+					instance = null;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of servers which use the shared components.
+	 *
+	 * @return the number of servers which use the shared components.
+	 */
+	public int getReferenceCount() {
+		synchronized (SharedComponents.class) {
+			return referenceCount;
+		}
+	}
+
+	/**
+	 * Returns the shared component of the given key and creates it with the given
+	 * factory if it doesn't exist.
+	 *
+	 * @param key     the component key.
+	 * @param factory the factory which creates the component.
+	 * @return the shared component of the given key.
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T getComponent(String key, Supplier<T> factory) {
+		return (T) components.computeIfAbsent(key, k -> factory.get());
+	}
+
+	/**
+	 * Returns the shared components which are instances of the given class.
+	 *
+	 * @param clazz the component class.
+	 * @return the shared components which are instances of the given class.
+	 */
+	public <T> List<T> getComponents(Class<T> clazz) {
+		return components.values().stream().filter(clazz::isInstance).map(clazz::cast).collect(Collectors.toList());
+	}
+
+	/**
+	 * Returns the shared component of the given class and creates it with the
+	 * given factory if it doesn't exist.
+	 *
+	 * @param clazz   the component class.
+	 * @param factory the factory which creates the component.
+	 * @return the shared component of the given class.
+	 */
+	public <T> T getComponent(Class<T> clazz, Supplier<T> factory) {
+		return getComponent(clazz.getName(), factory);
+	}
+}
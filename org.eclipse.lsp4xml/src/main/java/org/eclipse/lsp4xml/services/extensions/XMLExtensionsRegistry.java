@@ -13,22 +13,45 @@ package org.eclipse.lsp4xml.services.extensions;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.eclipse.lsp4j.InitializeParams;
+import org.eclipse.lsp4xml.dom.DOMDocument;
 import org.eclipse.lsp4xml.services.IXMLDocumentProvider;
 import org.eclipse.lsp4xml.services.extensions.codelens.ICodeLensParticipant;
 import org.eclipse.lsp4xml.services.extensions.diagnostics.IDiagnosticsParticipant;
 import org.eclipse.lsp4xml.services.extensions.save.ISaveContext;
+import org.eclipse.lsp4xml.services.extensions.save.ISaveContext.SaveContextType;
+import org.eclipse.lsp4xml.uriresolver.EntityContentCache;
 import org.eclipse.lsp4xml.uriresolver.URIResolverExtensionManager;
 
 /**
  * XML extensions registry.
  *
+ * <p>
+ * The extensions without activation condition are started when the registry
+ * is initialized. The other extensions are started with
+ * {@link #activateExtensions(DOMDocument)} when a document matches their
+ * activation condition or with {@link #activateAllExtensions()}.
+ * </p>
+ *
+ * <p>
+ * The participants which are applicable to a DOM document (see
+ * {@link IDocumentParticipant#isApplicable(DOMDocument)}) are computed once
+ * per DOM document and kept in a routing table (stored in the user data of the
+ * document) until the registered participants change.
+ * </p>
+ *
  */
 public class XMLExtensionsRegistry implements IComponentProvider {
 
@@ -36,6 +59,7 @@ public class XMLExtensionsRegistry implements IComponentProvider {
 
 	private final URIResolverExtensionManager resolverExtensionManager;
 	private final Collection<IXMLExtension> extensions;
+	private final List<IXMLExtension> pendingExtensions;
 	private final List<ICompletionParticipant> completionParticipants;
 	private final List<IHoverParticipant> hoverParticipants;
 	private final List<IDiagnosticsParticipant> diagnosticsParticipants;
@@ -58,22 +82,67 @@ public class XMLExtensionsRegistry implements IComponentProvider {
 
 	private final Map<Class, Object> components;
 
+	/**
+	 * The applicable participants of a DOM document computed with a given
+	 * generation of the registered participants.
+	 */
+	private static class RoutingTable {
+
+		private static final String ROUTING_TABLE_KEY = RoutingTable.class.getName();
+
+		private final XMLExtensionsRegistry registry;
+
+		private final int generation;
+
+		private final Map<Class<?>, List<?>> participants = new ConcurrentHashMap<>();
+
+		RoutingTable(XMLExtensionsRegistry registry, int generation) {
+			this.registry = registry;
+			this.generation = generation;
+		}
+	}
+
+	/**
+	 * The generation of the registered participants, incremented when they change.
+	 */
+	private final AtomicInteger participantsGeneration;
+
 	public XMLExtensionsRegistry() {
-		extensions = new ArrayList<>();
-		completionParticipants = new ArrayList<>();
-		hoverParticipants = new ArrayList<>();
-		diagnosticsParticipants = new ArrayList<>();
-		codeActionsParticipants = new ArrayList<>();
-		documentLinkParticipants = new ArrayList<>();
-		definitionParticipants = new ArrayList<>();
-		typeDefinitionParticipants = new ArrayList<>();
-		referenceParticipants = new ArrayList<>();
-		codeLensParticipants = new ArrayList<>();
-		highlightingParticipants = new ArrayList<>();
-		renameParticipants = new ArrayList<>();
-		resolverExtensionManager = new URIResolverExtensionManager();
+		this(null);
+	}
+
+	/**
+	 * Creates a registry whose extensions use the given components shared with
+	 * the other servers of the JVM.
+	 *
+	 * @param sharedComponents the shared components and null if the components
+	 *                         are not shared.
+	 */
+	public XMLExtensionsRegistry(SharedComponents sharedComponents) {
+		// extensions can be started while a request iterates the participants
+		extensions = new CopyOnWriteArrayList<>();
+		pendingExtensions = new ArrayList<>();
+		completionParticipants = new CopyOnWriteArrayList<>();
+		hoverParticipants = new CopyOnWriteArrayList<>();
+		diagnosticsParticipants = new CopyOnWriteArrayList<>();
+		codeActionsParticipants = new CopyOnWriteArrayList<>();
+		documentLinkParticipants = new CopyOnWriteArrayList<>();
+		definitionParticipants = new CopyOnWriteArrayList<>();
+		typeDefinitionParticipants = new CopyOnWriteArrayList<>();
+		referenceParticipants = new CopyOnWriteArrayList<>();
+		codeLensParticipants = new CopyOnWriteArrayList<>();
+		highlightingParticipants = new CopyOnWriteArrayList<>();
+		renameParticipants = new CopyOnWriteArrayList<>();
+		resolverExtensionManager = sharedComponents != null
+				? new URIResolverExtensionManager(
+						sharedComponents.getComponent(EntityContentCache.class, EntityContentCache::new))
+				: new URIResolverExtensionManager();
 		components = new HashMap<>();
+		participantsGeneration = new AtomicInteger();
 		registerComponent(resolverExtensionManager);
+		if (sharedComponents != null) {
+			registerComponent(sharedComponents);
+		}
 	}
 
 	public void registerComponent(Object component) {
@@ -86,16 +155,19 @@ public class XMLExtensionsRegistry implements IComponentProvider {
 	}
 
 	public void initializeParams(InitializeParams params) {
+		this.params = params;
 		if (initialized) {
 			extensions.stream().forEach(extension -> extension.start(params, this));
-		} else {
-			this.params = params;
 		}
 	}
 
 	public void doSave(ISaveContext saveContext) {
 		if (initialized) {
 			extensions.stream().forEach(extension -> extension.doSave(saveContext));
+			if (saveContext.getType() == SaveContextType.SETTINGS) {
+				// settings for the extensions which are not started
+				this.initialSaveContext = saveContext;
+			}
 		} else {
 			this.initialSaveContext = saveContext;
 		}
@@ -111,16 +183,28 @@ public class XMLExtensionsRegistry implements IComponentProvider {
 		return completionParticipants;
 	}
 
+	public Collection<ICompletionParticipant> getCompletionParticipants(DOMDocument document) {
+		return getApplicableParticipants(ICompletionParticipant.class, getCompletionParticipants(), document);
+	}
+
 	public Collection<IHoverParticipant> getHoverParticipants() {
 		initializeIfNeeded();
 		return hoverParticipants;
 	}
 
+	public Collection<IHoverParticipant> getHoverParticipants(DOMDocument document) {
+		return getApplicableParticipants(IHoverParticipant.class, getHoverParticipants(), document);
+	}
+
 	public Collection<IDiagnosticsParticipant> getDiagnosticsParticipants() {
 		initializeIfNeeded();
 		return diagnosticsParticipants;
 	}
 
+	public Collection<IDiagnosticsParticipant> getDiagnosticsParticipants(DOMDocument document) {
+		return getApplicableParticipants(IDiagnosticsParticipant.class, getDiagnosticsParticipants(), document);
+	}
+
 	public List<ICodeActionParticipant> getCodeActionsParticipants() {
 		initializeIfNeeded();
 		return codeActionsParticipants;
@@ -136,6 +220,10 @@ public class XMLExtensionsRegistry implements IComponentProvider {
 		return definitionParticipants;
 	}
 
+	public Collection<IDefinitionParticipant> getDefinitionParticipants(DOMDocument document) {
+		return getApplicableParticipants(IDefinitionParticipant.class, getDefinitionParticipants(), document);
+	}
+
 	public Collection<ITypeDefinitionParticipant> getTypeDefinitionParticipants() {
 		initializeIfNeeded();
 		return typeDefinitionParticipants;
@@ -146,11 +234,53 @@ public class XMLExtensionsRegistry implements IComponentProvider {
 		return referenceParticipants;
 	}
 
+	public Collection<IReferenceParticipant> getReferenceParticipants(DOMDocument document) {
+		return getApplicableParticipants(IReferenceParticipant.class, getReferenceParticipants(), document);
+	}
+
 	public Collection<ICodeLensParticipant> getCodeLensParticipants() {
 		initializeIfNeeded();
 		return codeLensParticipants;
 	}
 
+	public Collection<ICodeLensParticipant> getCodeLensParticipants(DOMDocument document) {
+		return getApplicableParticipants(ICodeLensParticipant.class, getCodeLensParticipants(), document);
+	}
+
+	/**
+	 * Returns the participants of the given type which are applicable to the given
+	 * document from the routing table of the document.
+	 * 
+	 * @param participantType the participant type.
+	 * @param participants    all the registered participants of the given type.
+	 * @param document        the DOM document.
+	 * @return the participants of the given type which are applicable to the given
+	 *         document.
+	 */
+	@SuppressWarnings("unchecked")
+	private <T extends IDocumentParticipant> Collection<T> getApplicableParticipants(Class<T> participantType,
+			Collection<T> participants, DOMDocument document) {
+		// the generation is read before the participants, a table computed while the
+		// participants change is rebuilt by the next request
+		int generation = participantsGeneration.get();
+		RoutingTable routingTable = (RoutingTable) document.getUserData(RoutingTable.ROUTING_TABLE_KEY);
+		if (routingTable == null || routingTable.registry != this || routingTable.generation != generation) {
+			routingTable = new RoutingTable(this, generation);
+			document.setUserData(RoutingTable.ROUTING_TABLE_KEY, routingTable, null);
+		}
+		return (Collection<T>) routingTable.participants.computeIfAbsent(participantType, type -> participants.stream() //
+				.filter(participant -> participant.isApplicable(document)) //
+				.collect(Collectors.toList()));
+	}
+
+	/**
+	 * Invalidate the routing tables of the documents when the registered
+	 * participants change.
+	 */
+	private void participantsChanged() {
+		participantsGeneration.incrementAndGet();
+	}
+
 	public Collection<IHighlightingParticipant> getHighlightingParticipants() {
 		initializeIfNeeded();
 		return highlightingParticipants;
@@ -176,11 +306,55 @@ public class XMLExtensionsRegistry implements IComponentProvider {
 
 		ServiceLoader<IXMLExtension> extensions = ServiceLoader.load(IXMLExtension.class);
 		extensions.forEach(extension -> {
-			registerExtension(extension);
+			if (extension.getActivationCondition() == null) {
+				registerExtension(extension);
+			} else {
+				pendingExtensions.add(extension);
+			}
 		});
 		initialized = true;
 	}
 
+	/**
+	 * Start the extensions which are not started and whose activation condition
+	 * matches the given document.
+	 * 
+	 * @param document the DOM document which will be processed.
+	 */
+	public void activateExtensions(DOMDocument document) {
+		initializeIfNeeded();
+		synchronized (this) {
+			if (pendingExtensions.isEmpty()) {
+				return;
+			}
+			for (Iterator<IXMLExtension> iterator = pendingExtensions.iterator(); iterator.hasNext();) {
+				IXMLExtension extension = iterator.next();
+				Predicate<DOMDocument> condition = extension.getActivationCondition();
+				if (condition.test(document)) {
+					iterator.remove();
+					registerExtension(extension);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Start all the extensions which are not started.
+	 */
+	public void activateAllExtensions() {
+		initializeIfNeeded();
+		while (true) {
+			// start the extensions one by one to avoid blocking the requests which
+			// activate extensions
+			synchronized (this) {
+				if (pendingExtensions.isEmpty()) {
+					return;
+				}
+				registerExtension(pendingExtensions.remove(0));
+			}
+		}
+	}
+
 	void registerExtension(IXMLExtension extension) {
 		try {
 			extensions.add(extension);
@@ -190,100 +364,127 @@ public class XMLExtensionsRegistry implements IComponentProvider {
 			}
 		} catch (Exception e) {
 			LOGGER.log(Level.SEVERE, "Error while initializing extension <" + extension.getClass().getName() + ">", e);
+		} finally {
+			// the extension can register participants outside the registry (ex : XML
+			// references)
+			participantsChanged();
 		}
 	}
 
 	void unregisterExtension(IXMLExtension extension) {
 		extensions.remove(extension);
 		extension.stop(this);
+		participantsChanged();
 	}
 
 	public void registerCompletionParticipant(ICompletionParticipant completionParticipant) {
 		completionParticipants.add(completionParticipant);
+		participantsChanged();
 	}
 
 	public void unregisterCompletionParticipant(ICompletionParticipant completionParticipant) {
-		completionParticipants.add(completionParticipant);
+		completionParticipants.remove(completionParticipant);
+		participantsChanged();
 	}
 
 	public void registerHoverParticipant(IHoverParticipant hoverParticipant) {
 		hoverParticipants.add(hoverParticipant);
+		participantsChanged();
 	}
 
 	public void unregisterHoverParticipant(IHoverParticipant hoverParticipant) {
-		hoverParticipants.add(hoverParticipant);
+		hoverParticipants.remove(hoverParticipant);
+		participantsChanged();
 	}
 
 	public void registerDiagnosticsParticipant(IDiagnosticsParticipant diagnosticsParticipant) {
 		diagnosticsParticipants.add(diagnosticsParticipant);
+		participantsChanged();
 	}
 
 	public void unregisterDiagnosticsParticipant(IDiagnosticsParticipant diagnosticsParticipant) {
-		diagnosticsParticipants.add(diagnosticsParticipant);
+		diagnosticsParticipants.remove(diagnosticsParticipant);
+		participantsChanged();
 	}
 
 	public void registerCodeActionParticipant(ICodeActionParticipant codeActionsParticipant) {
 		codeActionsParticipants.add(codeActionsParticipant);
+		participantsChanged();
 	}
 
 	public void unregisterCodeActionParticipant(ICodeActionParticipant codeActionsParticipant) {
-		codeActionsParticipants.add(codeActionsParticipant);
+		codeActionsParticipants.remove(codeActionsParticipant);
+		participantsChanged();
 	}
 
 	public void registerDocumentLinkParticipant(IDocumentLinkParticipant documentLinkParticipant) {
 		documentLinkParticipants.add(documentLinkParticipant);
+		participantsChanged();
 	}
 
 	public void unregisterDocumentLinkParticipant(IDocumentLinkParticipant documentLinkParticipant) {
-		documentLinkParticipants.add(documentLinkParticipant);
+		documentLinkParticipants.remove(documentLinkParticipant);
+		participantsChanged();
 	}
 
 	public void registerDefinitionParticipant(IDefinitionParticipant definitionParticipant) {
 		definitionParticipants.add(definitionParticipant);
+		participantsChanged();
 	}
 
 	public void unregisterDefinitionParticipant(IDefinitionParticipant definitionParticipant) {
-		definitionParticipants.add(definitionParticipant);
+		definitionParticipants.remove(definitionParticipant);
+		participantsChanged();
 	}
 
 	public void registerTypeDefinitionParticipant(ITypeDefinitionParticipant typeDefinitionParticipant) {
 		typeDefinitionParticipants.add(typeDefinitionParticipant);
+		participantsChanged();
 	}
 
 	public void unregisterTypeDefinitionParticipant(ITypeDefinitionParticipant typeDefinitionParticipant) {
-		typeDefinitionParticipants.add(typeDefinitionParticipant);
+		typeDefinitionParticipants.remove(typeDefinitionParticipant);
+		participantsChanged();
 	}
 
 	public void registerReferenceParticipant(IReferenceParticipant referenceParticipant) {
 		referenceParticipants.add(referenceParticipant);
+		participantsChanged();
 	}
 
 	public void unregisterReferenceParticipant(IReferenceParticipant referenceParticipant) {
-		referenceParticipants.add(referenceParticipant);
+		referenceParticipants.remove(referenceParticipant);
+		participantsChanged();
 	}
 
 	public void registerCodeLensParticipant(ICodeLensParticipant codeLensParticipant) {
 		codeLensParticipants.add(codeLensParticipant);
+		participantsChanged();
 	}
 
 	public void unregisterCodeLensParticipant(ICodeLensParticipant codeLensParticipant) {
-		codeLensParticipants.add(codeLensParticipant);
+		codeLensParticipants.remove(codeLensParticipant);
+		participantsChanged();
 	}
 
 	public void registerHighlightingParticipant(IHighlightingParticipant highlightingParticipant) {
 		highlightingParticipants.add(highlightingParticipant);
+		participantsChanged();
 	}
 
 	public void unregisterHighlightingParticipant(IHighlightingParticipant highlightingParticipant) {
-		highlightingParticipants.add(highlightingParticipant);
+		highlightingParticipants.remove(highlightingParticipant);
+		participantsChanged();
 	}
 
 	public void registerRenameParticipant(IRenameParticipant renameParticipant) {
 		renameParticipants.add(renameParticipant);
+		participantsChanged();
 	}
 
 	public void unregisterRenameParticipant(IRenameParticipant renameParticipant) {
-		renameParticipants.add(renameParticipant);
+		renameParticipants.remove(renameParticipant);
+		participantsChanged();
 	}
 
 	/**
@@ -302,6 +503,7 @@ public class XMLExtensionsRegistry implements IComponentProvider {
 	 */
 	public void setDocumentProvider(IXMLDocumentProvider documentProvider) {
 		this.documentProvider = documentProvider;
+		resolverExtensionManager.getDocumentCache().setDocumentProvider(documentProvider);
 	}
 
 	public URIResolverExtensionManager getResolverExtensionManager() {
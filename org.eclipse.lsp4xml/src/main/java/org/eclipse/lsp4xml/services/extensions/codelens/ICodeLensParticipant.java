@@ -13,12 +13,13 @@ import java.util.List;
 
 import org.eclipse.lsp4j.CodeLens;
 import org.eclipse.lsp4j.jsonrpc.CancelChecker;
+import org.eclipse.lsp4xml.services.extensions.IDocumentParticipant;
 
 /**
  * CodeLens participant API.
  *
  */
-public interface ICodeLensParticipant {
+public interface ICodeLensParticipant extends IDocumentParticipant {
 
 	void doCodeLens(ICodeLensRequest request, List<CodeLens> lenses, CancelChecker cancelChecker);
 
@@ -15,12 +15,13 @@ import java.util.List;
 import org.eclipse.lsp4j.Diagnostic;
 import org.eclipse.lsp4j.jsonrpc.CancelChecker;
 import org.eclipse.lsp4xml.dom.DOMDocument;
+import org.eclipse.lsp4xml.services.extensions.IDocumentParticipant;
 
 /**
  * Diagnostics participant API.
  *
  */
-public interface IDiagnosticsParticipant {
+public interface IDiagnosticsParticipant extends IDocumentParticipant {
 
 	/**
 	 * Validate the given XML document.
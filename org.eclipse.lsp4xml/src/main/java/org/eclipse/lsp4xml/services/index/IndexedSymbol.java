@@ -0,0 +1,102 @@
+/**
+ *  Copyright (c) 2019 Red Hat Inc. and others.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v2.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v20.html
+ *
+ *  Contributors:
+ *  Red Hat Inc. - initial API and implementation
+ */
+package org.eclipse.lsp4xml.services.index;
+
+import org.eclipse.lsp4j.Location;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4j.SymbolInformation;
+import org.eclipse.lsp4j.SymbolKind;
+
+/**
+ * Symbol stored in the workspace index: the name, the kind, the container name
+ * and the range of the symbol in the file, without reference to the file.
+ *
+ */
+class IndexedSymbol {
+
+	private final String name;
+
+	private final SymbolKind kind;
+
+	private final String containerName;
+
+	private final int startLine;
+
+	private final int startCharacter;
+
+	private final int endLine;
+
+	private final int endCharacter;
+
+	IndexedSymbol(String name, SymbolKind kind, String containerName, int startLine, int startCharacter, int endLine,
+			int endCharacter) {
+		this.name = name;
+		this.kind = kind;
+		this.containerName = containerName;
+		this.startLine = startLine;
+		this.startCharacter = startCharacter;
+		this.endLine = endLine;
+		this.endCharacter = endCharacter;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public SymbolKind getKind() {
+		return kind;
+	}
+
+	public String getContainerName() {
+		return containerName;
+	}
+
+	public int getStartLine() {
+		return startLine;
+	}
+
+	public int getStartCharacter() {
+		return startCharacter;
+	}
+
+	public int getEndLine() {
+		return endLine;
+	}
+
+	public int getEndCharacter() {
+		return endCharacter;
+	}
+
+	/**
+	 * Returns true if the name of the symbol contains the given query (ignoring
+	 * case) and false otherwise.
+	 *
+	 * @param query the query.
+	 * @return true if the name of the symbol contains the given query (ignoring
+	 *         case) and false otherwise.
+	 */
+	public boolean matches(String query) {
+		int length = query.length();
+		int max = name.length() - length;
+		for (int i = 0; i <= max; i++) {
+			if (name.regionMatches(true, i, query, 0, length)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	public SymbolInformation toSymbolInformation(String uri) {
+		Range range = new Range(new Position(startLine, startCharacter), new Position(endLine, endCharacter));
+		return new SymbolInformation(name, kind, new Location(uri, range), containerName);
+	}
+}
@@ -0,0 +1,268 @@
+/**
+ *  Copyright (c) 2019 Red Hat Inc. and others.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v2.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v20.html
+ *
+ *  Contributors:
+ *  Red Hat Inc. - initial API and implementation
+ */
+package org.eclipse.lsp4xml.services.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.lsp4j.SymbolKind;
+import org.eclipse.lsp4xml.dom.parser.Scanner;
+import org.eclipse.lsp4xml.dom.parser.TokenType;
+import org.eclipse.lsp4xml.dom.parser.XMLScanner;
+
+/**
+ * Collect the symbols of an XML, XML Schema or DTD file with the
+ * {@link XMLScanner} (without building a DOM document):
+ *
+ * <ul>
+ * <li>the id attribute values (id, xml:id) of the elements.</li>
+ * <li>the named components of an XML Schema (top level element, attribute,
+ * complexType, simpleType, group, attributeGroup).</li>
+ * <li>the DTD declarations (ELEMENT, ATTLIST attributes, ENTITY) of a DTD file
+ * or of a DOCTYPE internal subset.</li>
+ * <li>the reference targets of web.xml-style files (servlet-name,
+ * filter-name).</li>
+ * </ul>
+ *
+ */
+class XMLFileIndexer {
+
+	private static final String XSD_NAMESPACE_URI = "http://www.w3.org/2001/XMLSchema";
+
+	/**
+	 * Symbols with a longer name (ex : a large text content) are ignored.
+	 */
+	private static final int MAX_NAME_LENGTH = 1024;
+
+	/**
+	 * Reference targets: the element which declares the target name and its
+	 * parent element.
+	 */
+	private static final String[][] REFERENCE_TARGETS = { { "servlet-name", "servlet" },
+			{ "filter-name", "filter" } };
+
+	/**
+	 * Line offsets of a text used to convert an offset to a line/character.
+	 */
+	private static class LineOffsets {
+
+		private int[] offsets;
+
+		private int size;
+
+		LineOffsets(String text) {
+			offsets = new int[64];
+			offsets[size++] = 0;
+			for (int i = 0; i < text.length(); i++) {
+				char c = text.charAt(i);
+				if (c == '\r' && i + 1 < text.length() && text.charAt(i + 1) == '\n') {
+					i++;
+				}
+				if (c == '\r' || c == '\n') {
+					if (size == offsets.length) {
+						offsets = Arrays.copyOf(offsets, size * 2);
+					}
+					offsets[size++] = i + 1;
+				}
+			}
+		}
+
+		int getLine(int offset) {
+			int index = Arrays.binarySearch(offsets, 0, size, offset);
+			return index >= 0 ? index : -index - 2;
+		}
+
+		int getCharacter(int line, int offset) {
+			return offset - offsets[line];
+		}
+	}
+
+	private final List<IndexedSymbol> symbols;
+
+	private final LineOffsets lines;
+
+	private XMLFileIndexer(String text) {
+		this.symbols = new ArrayList<>();
+		this.lines = new LineOffsets(text);
+	}
+
+	/**
+	 * Returns the symbols of the given file content.
+	 *
+	 * @param text  the file content.
+	 * @param isDTD true if the file is a DTD file and false otherwise.
+	 * @return the symbols of the given file content.
+	 */
+	public static List<IndexedSymbol> index(String text, boolean isDTD) {
+		XMLFileIndexer indexer = new XMLFileIndexer(text);
+		indexer.scan(text, isDTD);
+		return indexer.symbols;
+	}
+
+	private void scan(String text, boolean isDTD) {
+		Scanner scanner = XMLScanner.createScanner(text, isDTD);
+		List<String> elements = new ArrayList<>();
+		String rootLocalName = null;
+		boolean xsdNamespace = false;
+		String currentTag = null;
+		String attributeName = null;
+		String attlistElementName = null;
+		TokenType token = scanner.scan();
+		while (token != TokenType.EOS) {
+			switch (token) {
+			case StartTag:
+				currentTag = scanner.getTokenText();
+				if (rootLocalName == null && elements.isEmpty()) {
+					rootLocalName = getLocalName(currentTag);
+				}
+				elements.add(currentTag);
+				break;
+			case StartTagSelfClose:
+				if (!elements.isEmpty()) {
+					elements.remove(elements.size() - 1);
+				}
+				break;
+			case EndTag:
+				// Close the element and the unclosed elements that it contains
+				int index = elements.lastIndexOf(scanner.getTokenText());
+				if (index != -1) {
+					elements.subList(index, elements.size()).clear();
+				}
+				break;
+			case AttributeName:
+				attributeName = scanner.getTokenText();
+				break;
+			case AttributeValue:
+				if (attributeName != null && currentTag != null) {
+					if (elements.size() == 1 && XSD_NAMESPACE_URI.equals(getValue(scanner.getTokenText()))) {
+						xsdNamespace = true;
+					}
+					boolean xsdComponent = xsdNamespace && elements.size() == 2 && "schema".equals(rootLocalName);
+					indexAttribute(currentTag, attributeName, xsdComponent, scanner);
+				}
+				attributeName = null;
+				break;
+			case Content:
+				indexContent(elements, scanner);
+				break;
+			case DTDElementDeclName:
+				addSymbol(scanner.getTokenText(), SymbolKind.Property, null, scanner.getTokenOffset(),
+						scanner.getTokenEnd());
+				break;
+			case DTDAttlistElementName:
+				attlistElementName = scanner.getTokenText();
+				break;
+			case DTDAttlistAttributeName:
+				addSymbol(scanner.getTokenText(), SymbolKind.Key, attlistElementName, scanner.getTokenOffset(),
+						scanner.getTokenEnd());
+				break;
+			case DTDEntityName:
+				addSymbol(scanner.getTokenText(), SymbolKind.Namespace, null, scanner.getTokenOffset(),
+						scanner.getTokenEnd());
+				break;
+			default:
+				break;
+			}
+			token = scanner.scan();
+		}
+	}
+
+	private void indexAttribute(String tag, String attributeName, boolean xsdComponent, Scanner scanner) {
+		SymbolKind kind = null;
+		if ("id".equals(attributeName) || "xml:id".equals(attributeName)) {
+			kind = SymbolKind.Constant;
+		} else if (xsdComponent && "name".equals(attributeName)) {
+			kind = getXSDComponentKind(getLocalName(tag));
+		}
+		if (kind == null) {
+			return;
+		}
+		String value = scanner.getTokenText();
+		int start = scanner.getTokenOffset();
+		int end = scanner.getTokenEnd();
+		if (isQuoted(value)) {
+			start++;
+			end--;
+		}
+		String name = getValue(value);
+		if (!name.isEmpty()) {
+			addSymbol(name, kind, tag, start, end);
+		}
+	}
+
+	private void indexContent(List<String> elements, Scanner scanner) {
+		int size = elements.size();
+		if (size < 2) {
+			return;
+		}
+		String tag = getLocalName(elements.get(size - 1));
+		String parentTag = getLocalName(elements.get(size - 2));
+		for (String[] target : REFERENCE_TARGETS) {
+			if (target[0].equals(tag) && target[1].equals(parentTag)) {
+				String content = scanner.getTokenText();
+				String name = content.trim();
+				if (!name.isEmpty()) {
+					int start = scanner.getTokenOffset() + content.indexOf(name);
+					addSymbol(name, SymbolKind.Object, parentTag, start, start + name.length());
+				}
+				return;
+			}
+		}
+	}
+
+	private void addSymbol(String name, SymbolKind kind, String containerName, int start, int end) {
+		if (name.length() > MAX_NAME_LENGTH) {
+			return;
+		}
+		int startLine = lines.getLine(start);
+		int endLine = lines.getLine(end);
+		symbols.add(new IndexedSymbol(name, kind, containerName, startLine, lines.getCharacter(startLine, start),
+				endLine, lines.getCharacter(endLine, end)));
+	}
+
+	private static SymbolKind getXSDComponentKind(String localName) {
+		switch (localName) {
+		case "element":
+			return SymbolKind.Field;
+		case "attribute":
+			return SymbolKind.Property;
+		case "complexType":
+		case "simpleType":
+			return SymbolKind.Class;
+		case "group":
+		case "attributeGroup":
+			return SymbolKind.Namespace;
+		default:
+			return null;
+		}
+	}
+
+	private static String getLocalName(String tag) {
+		int index = tag.indexOf(':');
+		return index != -1 ? tag.substring(index + 1) : tag;
+	}
+
+	private static String getValue(String attributeValue) {
+		if (isQuoted(attributeValue)) {
+			return attributeValue.substring(1, attributeValue.length() - 1).trim();
+		}
+		return attributeValue.trim();
+	}
+
+	private static boolean isQuoted(String value) {
+		if (value.length() < 2) {
+			return false;
+		}
+		char quote = value.charAt(0);
+		return (quote == '"' || quote == '\'') && value.charAt(value.length() - 1) == quote;
+	}
+}
@@ -0,0 +1,507 @@
+/**
+ *  Copyright (c) 2019 Red Hat Inc. and others.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v2.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v20.html
+ *
+ *  Contributors:
+ *  Red Hat Inc. - initial API and implementation
+ */
+package org.eclipse.lsp4xml.services.index;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.eclipse.lsp4j.SymbolInformation;
+import org.eclipse.lsp4j.SymbolKind;
+import org.eclipse.lsp4j.jsonrpc.CancelChecker;
+import org.eclipse.lsp4xml.utils.DOMUtils;
+import org.eclipse.lsp4xml.utils.FilesUtils;
+import org.eclipse.lsp4xml.utils.URIUtils;
+
+/**
+ * Workspace index of the XML, XML Schema and DTD symbols (see
+ * {@link XMLFileIndexer}) used to answer the workspace/symbol request.
+ *
+ * <p>
+ * When the workspace root is set, the files of the workspace are indexed in
+ * background with a single daemon thread. The index is persisted in the
+ * lsp4xml work directory and is restored on the next start: only the files
+ * whose last modified time changed are indexed again. The index is updated
+ * incrementally with the watched files events and with the content of the open
+ * documents.
+ * </p>
+ *
+ * <p>
+ * The files are indexed with their URI normalized with
+ * {@link URIUtils#normalizeFileURI(String)}, so that the URIs sent by the
+ * client and the URIs of the walked files match.
+ * </p>
+ *
+ */
+public class XMLWorkspaceIndex {
+
+	private static final Logger LOGGER = Logger.getLogger(XMLWorkspaceIndex.class.getName());
+
+	/**
+	 * Maximum number of symbols returned by a workspace/symbol request.
+	 */
+	public static final int MAX_RESULTS = 1000;
+
+	/**
+	 * Files bigger than this size (in bytes) are not indexed.
+	 */
+	private static final long MAX_FILE_SIZE = 10 * 1024 * 1024;
+
+	private static final int INDEX_VERSION = 2;
+
+	private static final String INDEX_PATH = "index";
+
+	private static final long SAVE_DELAY = 30;
+
+	private static final long OPEN_DOCUMENT = -1;
+
+	private static final Set<String> EXCLUDED_DIRECTORIES = new HashSet<>(
+			Arrays.asList("node_modules", "target", "bin", "build"));
+
+	/**
+	 * Symbols of an indexed file.
+	 */
+	private static class IndexedFile {
+
+		private final long lastModified;
+
+		private final List<IndexedSymbol> symbols;
+
+		IndexedFile(long lastModified, List<IndexedSymbol> symbols) {
+			this.lastModified = lastModified;
+			this.symbols = symbols;
+		}
+	}
+
+	private final Map<String, IndexedFile> files;
+
+	private final Set<String> openDocuments;
+
+	private final Map<String, String> pendingDocuments;
+
+	private final ScheduledThreadPoolExecutor executor;
+
+	private final AtomicBoolean saveScheduled;
+
+	private volatile boolean enabled;
+
+	private volatile Path rootPath;
+
+	private volatile CompletableFuture<Void> indexingFuture;
+
+	public XMLWorkspaceIndex() {
+		files = new ConcurrentHashMap<>();
+		openDocuments = ConcurrentHashMap.newKeySet();
+		pendingDocuments = new ConcurrentHashMap<>();
+		saveScheduled = new AtomicBoolean();
+		indexingFuture = CompletableFuture.completedFuture(null);
+		executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+			Thread thread = new Thread(runnable, "lsp4xml-indexer");
+			thread.setDaemon(true);
+			thread.setPriority(Thread.MIN_PRIORITY);
+			return thread;
+		});
+		executor.setKeepAliveTime(60, TimeUnit.SECONDS);
+		executor.allowCoreThreadTimeOut(true);
+	}
+
+	/**
+	 * Set true if the workspace must be indexed and false otherwise.
+	 *
+	 * @param enabled true if the workspace must be indexed and false otherwise.
+	 */
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	/**
+	 * Returns true if the workspace must be indexed and false otherwise.
+	 *
+	 * @return true if the workspace must be indexed and false otherwise.
+	 */
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Set the workspace root URI and index it in background.
+	 *
+	 * @param rootURI the workspace root URI.
+	 */
+	public synchronized void setRootURI(String rootURI) {
+		Path root = toPath(rootURI);
+		if (Objects.equals(root, rootPath)) {
+			return;
+		}
+		rootPath = root;
+		files.clear();
+		if (!enabled || root == null || !Files.isDirectory(root)) {
+			return;
+		}
+		indexingFuture = CompletableFuture.runAsync(() -> indexWorkspace(root), executor);
+	}
+
+	/**
+	 * Returns the future of the current workspace indexing.
+	 *
+	 * @return the future of the current workspace indexing.
+	 */
+	public CompletableFuture<Void> getIndexingFuture() {
+		return indexingFuture;
+	}
+
+	/**
+	 * Update the index with the content of the given open document.
+	 *
+	 * @param documentURI the document URI.
+	 * @param text        the document content.
+	 * @return the future of the index update.
+	 */
+	public CompletableFuture<Void> documentChanged(String documentURI, String text) {
+		String uri = URIUtils.normalizeFileURI(documentURI);
+		if (!enabled || !isIndexable(uri)) {
+			return CompletableFuture.completedFuture(null);
+		}
+		openDocuments.add(uri);
+		if (pendingDocuments.put(uri, text) != null) {
+			// An update of the document is already scheduled, it will index the last
+			// content.
+			return CompletableFuture.completedFuture(null);
+		}
+		return CompletableFuture.runAsync(() -> {
+			String content = pendingDocuments.remove(uri);
+			if (content != null && openDocuments.contains(uri)) {
+				files.put(uri, new IndexedFile(OPEN_DOCUMENT, XMLFileIndexer.index(content, DOMUtils.isDTD(uri))));
+				scheduleSave();
+			}
+		}, executor);
+	}
+
+	/**
+	 * Update the index with the content of the given file when the document is
+	 * closed (the document could be closed without being saved).
+	 *
+	 * @param documentURI the document URI.
+	 * @return the future of the index update.
+	 */
+	public CompletableFuture<Void> documentClosed(String documentURI) {
+		String uri = URIUtils.normalizeFileURI(documentURI);
+		openDocuments.remove(uri);
+		pendingDocuments.remove(uri);
+		return fileChanged(uri);
+	}
+
+	/**
+	 * Update the index with the content of the given created or changed file.
+	 *
+	 * @param fileURI the file URI.
+	 * @return the future of the index update.
+	 */
+	public CompletableFuture<Void> fileChanged(String fileURI) {
+		String uri = URIUtils.normalizeFileURI(fileURI);
+		if (!enabled || !isIndexable(uri)) {
+			return CompletableFuture.completedFuture(null);
+		}
+		return CompletableFuture.runAsync(() -> {
+			if (openDocuments.contains(uri)) {
+				// the open document content is indexed instead of the file content
+				return;
+			}
+			Path file = toPath(uri);
+			try {
+				if (file != null && Files.isRegularFile(file)) {
+					indexFile(uri, file, Files.getLastModifiedTime(file).toMillis());
+				} else {
+					files.remove(uri);
+				}
+			} catch (IOException e) {
+				files.remove(uri);
+			}
+			scheduleSave();
+		}, executor);
+	}
+
+	/**
+	 * Remove the given deleted file or folder from the index.
+	 *
+	 * @param fileURI the file or folder URI.
+	 * @return the future of the index update.
+	 */
+	public CompletableFuture<Void> fileDeleted(String fileURI) {
+		String uri = URIUtils.normalizeFileURI(fileURI);
+		if (!enabled || uri == null) {
+			return CompletableFuture.completedFuture(null);
+		}
+		return CompletableFuture.runAsync(() -> {
+			String folderURI = uri.endsWith("/") ? uri : uri + "/";
+			files.keySet().removeIf(indexedURI -> !openDocuments.contains(indexedURI)
+					&& (indexedURI.equals(uri) || indexedURI.startsWith(folderURI)));
+			scheduleSave();
+		}, executor);
+	}
+
+	/**
+	 * Returns the symbols of the workspace whose name contains the given query
+	 * (ignoring case).
+	 *
+	 * @param query         the query, an empty query returns all symbols.
+	 * @param cancelChecker the cancel checker.
+	 * @return the symbols of the workspace whose name contains the given query.
+	 */
+	public List<SymbolInformation> findSymbols(String query, CancelChecker cancelChecker) {
+		List<SymbolInformation> symbols = new ArrayList<>();
+		String q = query != null ? query.trim() : "";
+		for (Map.Entry<String, IndexedFile> entry : files.entrySet()) {
+			if (cancelChecker != null) {
+				cancelChecker.checkCanceled();
+			}
+			for (IndexedSymbol symbol : entry.getValue().symbols) {
+				if (symbol.matches(q)) {
+					symbols.add(symbol.toSymbolInformation(entry.getKey()));
+					if (symbols.size() >= MAX_RESULTS) {
+						return symbols;
+					}
+				}
+			}
+		}
+		return symbols;
+	}
+
+	/**
+	 * Returns the number of indexed files.
+	 *
+	 * @return the number of indexed files.
+	 */
+	public int getFileCount() {
+		return files.size();
+	}
+
+	private void indexWorkspace(Path root) {
+		long start = System.currentTimeMillis();
+		Path indexFile = getIndexFile(root);
+		if (indexFile != null) {
+			load(root, indexFile);
+		}
+		Set<String> foundURIs = new HashSet<>();
+		try {
+			Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+
+				@Override
+				public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+					if (!root.equals(rootPath)) {
+						// the workspace root changed, stop the indexing
+						return FileVisitResult.TERMINATE;
+					}
+					if (dir.equals(root)) {
+						return FileVisitResult.CONTINUE;
+					}
+					String name = dir.getFileName().toString();
+					if (name.startsWith(".") || EXCLUDED_DIRECTORIES.contains(name)) {
+						return FileVisitResult.SKIP_SUBTREE;
+					}
+					return FileVisitResult.CONTINUE;
+				}
+
+				@Override
+				public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+					String uri = URIUtils.normalizeFileURI(file.toUri().toString());
+					if (isIndexable(uri) && attrs.isRegularFile()) {
+						foundURIs.add(uri);
+						IndexedFile indexedFile = files.get(uri);
+						long lastModified = attrs.lastModifiedTime().toMillis();
+						if (!openDocuments.contains(uri)
+								&& (indexedFile == null || indexedFile.lastModified != lastModified)) {
+							indexFile(uri, file, lastModified);
+						}
+					}
+					return FileVisitResult.CONTINUE;
+				}
+
+				@Override
+				public FileVisitResult visitFileFailed(Path file, IOException exc) throws IOException {
+					return FileVisitResult.CONTINUE;
+				}
+			});
+		} catch (IOException e) {
+			LOGGER.log(Level.WARNING, "Error while indexing workspace '" + root + "'", e);
+		}
+		if (!root.equals(rootPath)) {
+			return;
+		}
+		// Remove the files deleted since the last indexing
+		files.keySet().removeIf(uri -> !foundURIs.contains(uri) && !openDocuments.contains(uri));
+		save();
+		long elapsed = System.currentTimeMillis() - start;
+		LOGGER.info("Indexed " + files.size() + " XML files of '" + root + "' in " + elapsed + "ms");
+	}
+
+	private void indexFile(String uri, Path file, long lastModified) {
+		try {
+			if (Files.size(file) > MAX_FILE_SIZE) {
+				files.put(uri, new IndexedFile(lastModified, Collections.emptyList()));
+				return;
+			}
+			String text = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+			files.put(uri, new IndexedFile(lastModified, XMLFileIndexer.index(text, DOMUtils.isDTD(uri))));
+		} catch (Exception e) {
+			LOGGER.log(Level.WARNING, "Error while indexing '" + uri + "'", e);
+			files.remove(uri);
+		}
+	}
+
+	private void scheduleSave() {
+		if (saveScheduled.compareAndSet(false, true)) {
+			executor.schedule(() -> {
+				saveScheduled.set(false);
+				save();
+			}, SAVE_DELAY, TimeUnit.SECONDS);
+		}
+	}
+
+	/**
+	 * Stop the indexing thread (a scheduled save of the index is still done).
+	 */
+	public void dispose() {
+		executor.shutdown();
+	}
+
+	/**
+	 * Save the index in the lsp4xml work directory.
+	 */
+	void save() {
+		Path root = rootPath;
+		Path indexFile = root != null ? getIndexFile(root) : null;
+		if (indexFile == null) {
+			return;
+		}
+		try {
+			Files.createDirectories(indexFile.getParent());
+			Path tempFile = Files.createTempFile(indexFile.getParent(), indexFile.getFileName().toString(), ".tmp");
+			try (DataOutputStream out = new DataOutputStream(
+					new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(tempFile))))) {
+				out.writeInt(INDEX_VERSION);
+				out.writeUTF(root.toString());
+				Map<String, IndexedFile> snapshot = new HashMap<>(files);
+				out.writeInt(snapshot.size());
+				for (Map.Entry<String, IndexedFile> entry : snapshot.entrySet()) {
+					IndexedFile indexedFile = entry.getValue();
+					out.writeUTF(entry.getKey());
+					out.writeLong(indexedFile.lastModified);
+					out.writeInt(indexedFile.symbols.size());
+					for (IndexedSymbol symbol : indexedFile.symbols) {
+						out.writeUTF(symbol.getName());
+						out.writeByte(symbol.getKind().getValue());
+						out.writeUTF(symbol.getContainerName() != null ? symbol.getContainerName() : "");
+						out.writeInt(symbol.getStartLine());
+						out.writeInt(symbol.getStartCharacter());
+						out.writeInt(symbol.getEndLine());
+						out.writeInt(symbol.getEndCharacter());
+					}
+				}
+			}
+			Files.move(tempFile, indexFile, StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException e) {
+			LOGGER.log(Level.WARNING, "Error while saving the workspace index '" + indexFile + "'", e);
+		}
+	}
+
+	private void load(Path root, Path indexFile) {
+		if (!Files.exists(indexFile)) {
+			return;
+		}
+		try (DataInputStream in = new DataInputStream(
+				new BufferedInputStream(new GZIPInputStream(Files.newInputStream(indexFile))))) {
+			if (in.readInt() != INDEX_VERSION || !root.toString().equals(in.readUTF())) {
+				return;
+			}
+			int fileCount = in.readInt();
+			for (int i = 0; i < fileCount; i++) {
+				String uri = in.readUTF();
+				long lastModified = in.readLong();
+				int symbolCount = in.readInt();
+				List<IndexedSymbol> symbols = new ArrayList<>(symbolCount);
+				for (int j = 0; j < symbolCount; j++) {
+					String name = in.readUTF();
+					SymbolKind kind = SymbolKind.forValue(in.readByte());
+					String containerName = in.readUTF();
+					symbols.add(new IndexedSymbol(name, kind, containerName.isEmpty() ? null : containerName,
+							in.readInt(), in.readInt(), in.readInt(), in.readInt()));
+				}
+				if (!openDocuments.contains(uri)) {
+					files.put(uri, new IndexedFile(lastModified, symbols));
+				}
+			}
+		} catch (Exception e) {
+			// Corrupted or incompatible index, the workspace is indexed again
+			LOGGER.log(Level.WARNING, "Error while loading the workspace index '" + indexFile + "'", e);
+			files.clear();
+		}
+	}
+
+	private static Path getIndexFile(Path root) {
+		try {
+			String name = Integer.toHexString(root.toString().hashCode()) + ".idx";
+			return FilesUtils.getDeployedPath(Paths.get(INDEX_PATH, name));
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	private static boolean isIndexable(String uri) {
+		if (uri == null || !uri.startsWith("file:")) {
+			return false;
+		}
+		return uri.endsWith(".xml") || DOMUtils.isXSD(uri) || DOMUtils.isDTD(uri);
+	}
+
+	private static Path toPath(String uri) {
+		if (uri == null || uri.isEmpty()) {
+			return null;
+		}
+		try {
+			if (uri.startsWith("file:")) {
+				return Paths.get(new URI(uri)).normalize();
+			}
+			return Paths.get(uri).toAbsolutePath().normalize();
+		} catch (Exception e) {
+			return null;
+		}
+	}
+}
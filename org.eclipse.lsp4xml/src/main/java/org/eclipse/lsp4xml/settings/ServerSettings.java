@@ -21,6 +21,8 @@ public class ServerSettings {
 
 	private String workDir;
 
+	private int parallelParsingThreshold;
+
 	/**
 	 * @return the workDir
 	 */
@@ -35,6 +37,28 @@ public class ServerSettings {
 		this.workDir = workDir;
 	}
 
+	/**
+	 * Returns the size (in characters) from which a document is parsed in
+	 * parallel and 0 if the parallel parsing is disabled.
+	 * 
+	 * @return the size (in characters) from which a document is parsed in
+	 *         parallel and 0 if the parallel parsing is disabled.
+	 */
+	public int getParallelParsingThreshold() {
+		return parallelParsingThreshold;
+	}
+
+	/**
+	 * Set the size (in characters) from which a document is parsed in parallel (0
+	 * to disable the parallel parsing).
+	 * 
+	 * @param parallelParsingThreshold the size (in characters) from which a
+	 *                                 document is parsed in parallel.
+	 */
+	public void setParallelParsingThreshold(int parallelParsingThreshold) {
+		this.parallelParsingThreshold = parallelParsingThreshold;
+	}
+
 	/**
 	 * Returns a normalized workDir that was defined in the client preferences.
 	 * 
@@ -20,10 +20,18 @@ public class XMLCompletionSettings {
 
 	private CompletionCapabilities completionCapabilities;
 
+	/**
+	 * Default maximum number of completion items sent to the client.
+	 */
+	public static final int DEFAULT_MAX_ITEMS = 1000;
+
 	private boolean autoCloseTags;
 
+	private int maxItems;
+
 	public XMLCompletionSettings(boolean autoCloseTags) {
 		this.autoCloseTags = autoCloseTags;
+		this.maxItems = DEFAULT_MAX_ITEMS;
 	}
 
 	public XMLCompletionSettings() {
@@ -56,6 +64,27 @@ public class XMLCompletionSettings {
 		return autoCloseTags;
 	}
 
+	/**
+	 * Set the maximum number of completion items sent to the client. When there
+	 * are more items, only the items which match the typed prefix are sent and
+	 * the completion list is marked as incomplete. A value lower or equal to 0
+	 * means no limit.
+	 * 
+	 * @param maxItems the maximum number of completion items.
+	 */
+	public void setMaxItems(int maxItems) {
+		this.maxItems = maxItems;
+	}
+
+	/**
+	 * Returns the maximum number of completion items sent to the client.
+	 * 
+	 * @return the maximum number of completion items sent to the client.
+	 */
+	public int getMaxItems() {
+		return maxItems;
+	}
+
 	/**
 	 * Returns <code>true</code> if the client support snippet and
 	 * <code>false</code> otherwise.
@@ -77,5 +106,6 @@ public class XMLCompletionSettings {
 	 */
 	public void merge(XMLCompletionSettings newCompletion) {
 		this.setAutoCloseTags(newCompletion.isAutoCloseTags());
+		this.setMaxItems(newCompletion.getMaxItems());
 	}
 }
@@ -15,22 +15,43 @@ import static org.eclipse.lsp4xml.utils.ExceptionUtils.getRootCause;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.HttpURLConnection;
 import java.net.URI;
 import java.net.URL;
 import java.net.URLConnection;
 import java.nio.channels.Channels;
 import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import org.eclipse.lsp4xml.dom.DOMDocument;
+import org.eclipse.lsp4xml.dom.DOMElement;
+import org.eclipse.lsp4xml.dom.DOMNode;
+import org.eclipse.lsp4xml.dom.DOMParser;
+import org.eclipse.lsp4xml.jfr.XMLEvent;
+import org.eclipse.lsp4xml.jfr.XMLEvents;
 import org.eclipse.lsp4xml.utils.FilesUtils;
 import org.eclipse.lsp4xml.utils.URIUtils;
 
@@ -40,6 +61,18 @@ import com.google.common.cache.CacheBuilder;
 /**
  * Cache resources manager.
  *
+ * <p>
+ * Remote resources are downloaded in the lsp4xml cache folder with a bounded
+ * pool of daemon threads (see {@link #MAX_DOWNLOAD_THREADS}). The HTTP
+ * validators (ETag, Last-Modified) of a downloaded resource are stored beside
+ * the cached file and are used to revalidate the cached file with a
+ * conditional GET when it is older than the revalidation interval (see
+ * {@link #setRevalidationInterval(long)}). The revalidation is done in
+ * background, the cached file is returned immediately. When an XML Schema is
+ * downloaded, the XML Schemas that it imports, includes, redefines or
+ * overrides are downloaded too.
+ * </p>
+ *
  */
 public class CacheResourcesManager {
 	protected final Cache<String, Boolean> unavailableURICache;
@@ -47,8 +80,35 @@ public class CacheResourcesManager {
 	private static final String CACHE_PATH = "cache";
 	private static final Logger LOGGER = Logger.getLogger(CacheResourcesManager.class.getName());
 
+	/**
+	 * Maximum number of resources which are downloaded at the same time.
+	 */
+	public static final int MAX_DOWNLOAD_THREADS = 4;
+
+	/**
+	 * Default interval (in milliseconds) after which a downloaded resource is
+	 * revalidated with the server: 1 day.
+	 */
+	public static final long DEFAULT_REVALIDATION_INTERVAL = TimeUnit.DAYS.toMillis(1);
+
+	private static final int MAX_REDIRECTS = 5;
+	private static final int CONNECT_TIMEOUT = (int) TimeUnit.SECONDS.toMillis(30);
+	private static final int READ_TIMEOUT = (int) TimeUnit.SECONDS.toMillis(60);
+
+	private static final String METADATA_EXTENSION = ".lsp4xml-metadata";
+	private static final String ETAG_PROPERTY = "ETag";
+	private static final String LAST_MODIFIED_PROPERTY = "Last-Modified";
+
+	private static final String XSD_NAMESPACE_URI = "http://www.w3.org/2001/XMLSchema";
+
+	private static final Executor DOWNLOAD_EXECUTOR = createDownloadExecutor();
+
 	private final Map<String, CompletableFuture<Path>> resourcesLoading;
+	private final Set<String> resourcesRevalidating;
+	private final Executor downloadExecutor;
+	private final List<Consumer<String>> refreshListeners;
 	private boolean useCache;
+	private long revalidationInterval;
 
 	class ResourceInfo {
 
@@ -88,13 +148,22 @@ public class CacheResourcesManager {
 	}
 
 	public CacheResourcesManager(Cache<String, Boolean> cache) {
+		this(cache, DOWNLOAD_EXECUTOR);
+	}
+
+	public CacheResourcesManager(Cache<String, Boolean> cache, Executor downloadExecutor) {
 		resourcesLoading = new HashMap<>();
+		resourcesRevalidating = ConcurrentHashMap.newKeySet();
 		unavailableURICache = cache;
+		this.downloadExecutor = downloadExecutor;
+		this.revalidationInterval = DEFAULT_REVALIDATION_INTERVAL;
+		this.refreshListeners = new CopyOnWriteArrayList<>();
 	}
 
 	public Path getResource(final String resourceURI) throws IOException {
 		Path resourceCachePath = getResourceCachePath(resourceURI);
 		if (Files.exists(resourceCachePath)) {
+			revalidateIfNeeded(resourceURI, resourceCachePath);
 			return resourceCachePath;
 		}
 		if (!FilesUtils.isIncludedInDeployedPath(resourceCachePath)) {
@@ -123,36 +192,11 @@ public class CacheResourcesManager {
 	}
 
 	private CompletableFuture<Path> downloadResource(final String resourceURI, Path resourceCachePath) {
-		return CompletableFuture.supplyAsync(() -> {
+		CompletableFuture<Path> download = CompletableFuture.supplyAsync(() -> {
 			LOGGER.info("Downloading " + resourceURI + " to " + resourceCachePath + "...");
 			long start = System.currentTimeMillis();
-			URLConnection conn = null;
 			try {
-				String actualURI = resourceURI;
-				URL url = new URL(actualURI);
-				conn = url.openConnection();
-				/* XXX: This should really be implemented using HttpClient or similar */
-				int allowedRedirects = 5;
-				while (conn.getHeaderField("Location") != null && allowedRedirects > 0) //$NON-NLS-1$
-				{
-					allowedRedirects--;
-					url = new URL(actualURI = conn.getHeaderField("Location")); //$NON-NLS-1$
-					conn = url.openConnection();
-				}
-
-				// Download resource in a temporary file
-				Path path = Files.createTempFile(resourceCachePath.getFileName().toString(), ".lsp4xml");
-				try (ReadableByteChannel rbc = Channels.newChannel(conn.getInputStream());
-						FileOutputStream fos = new FileOutputStream(path.toFile())) {
-					fos.getChannel().transferFrom(rbc, 0, Long.MAX_VALUE);
-				}
-
-				// Move the temporary file in the lsp4xml cache folder.
-				Path dir = resourceCachePath.getParent();
-				if (!Files.exists(dir)) {
-					Files.createDirectories(dir);
-				}
-				Files.move(path, resourceCachePath);
+				download(resourceURI, resourceCachePath, null);
 				long elapsed = System.currentTimeMillis() - start;
 				LOGGER.info("Downloaded " + resourceURI + " to " + resourceCachePath + " in " + elapsed + "ms");
 			} catch (Exception e) {
@@ -168,12 +212,263 @@ public class CacheResourcesManager {
 				synchronized (resourcesLoading) {
 					resourcesLoading.remove(resourceURI);
 				}
-				if (conn != null && conn instanceof HttpURLConnection) {
-					((HttpURLConnection) conn).disconnect();
-				}
 			}
 			return resourceCachePath;
-		});
+		}, downloadExecutor);
+		// Download the referenced XML Schemas once the resource is available for the
+		// callers which wait for it
+		download.thenAcceptAsync(path -> prefetchReferencedResources(resourceURI, path), downloadExecutor);
+		return download;
+	}
+
+	/**
+	 * Download the given resource URI in the given cache file.
+	 *
+	 * @param resourceURI       the resource URI to download.
+	 * @param resourceCachePath the cache file.
+	 * @param metadata          the HTTP validators of the cached file to send a
+	 *                          conditional GET and null otherwise.
+	 * @return <code>true</code> if the cache file was updated and
+	 *         <code>false</code> if the server answered that the cached file is
+	 *         not modified.
+	 * @throws IOException
+	 */
+	private static boolean download(String resourceURI, Path resourceCachePath, Properties metadata)
+			throws IOException {
+		XMLEvent event = XMLEvents.download(resourceURI, resourceCachePath);
+		URLConnection conn = null;
+		try {
+			String actualURI = resourceURI;
+			conn = openConnection(actualURI, metadata);
+			/* XXX: This should really be implemented using HttpClient or similar */
+			int allowedRedirects = MAX_REDIRECTS;
+			while (conn.getHeaderField("Location") != null && allowedRedirects > 0) //$NON-NLS-1$
+			{
+				allowedRedirects--;
+				// The location can be relative to the requested URI
+				actualURI = new URL(new URL(actualURI), conn.getHeaderField("Location")).toString(); //$NON-NLS-1$
+				disconnect(conn);
+				conn = openConnection(actualURI, metadata);
+			}
+
+			if (conn instanceof HttpURLConnection
+					&& ((HttpURLConnection) conn).getResponseCode() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+				return false;
+			}
+
+			// Download resource in a temporary file of the lsp4xml cache folder.
+			Path dir = resourceCachePath.getParent();
+			if (!Files.exists(dir)) {
+				Files.createDirectories(dir);
+			}
+			Path path = Files.createTempFile(dir, resourceCachePath.getFileName().toString(), ".lsp4xml");
+			try {
+				try (ReadableByteChannel rbc = Channels.newChannel(conn.getInputStream());
+						FileOutputStream fos = new FileOutputStream(path.toFile())) {
+					fos.getChannel().transferFrom(rbc, 0, Long.MAX_VALUE);
+				}
+				// Replace the cached file with the complete downloaded file.
+				Files.move(path, resourceCachePath, StandardCopyOption.REPLACE_EXISTING);
+			} finally {
+				Files.deleteIfExists(path);
+			}
+			saveMetadata(resourceCachePath, conn);
+			return true;
+		} finally {
+			disconnect(conn);
+			event.close();
+		}
+	}
+
+	private static URLConnection openConnection(String resourceURI, Properties metadata) throws IOException {
+		URLConnection conn = new URL(resourceURI).openConnection();
+		conn.setConnectTimeout(CONNECT_TIMEOUT);
+		conn.setReadTimeout(READ_TIMEOUT);
+		if (metadata != null) {
+			String etag = metadata.getProperty(ETAG_PROPERTY);
+			if (etag != null) {
+				conn.setRequestProperty("If-None-Match", etag); //$NON-NLS-1$
+			}
+			String lastModified = metadata.getProperty(LAST_MODIFIED_PROPERTY);
+			if (lastModified != null) {
+				conn.setRequestProperty("If-Modified-Since", lastModified); //$NON-NLS-1$
+			}
+		}
+		return conn;
+	}
+
+	private static void disconnect(URLConnection conn) {
+		if (conn != null && conn instanceof HttpURLConnection) {
+			((HttpURLConnection) conn).disconnect();
+		}
+	}
+
+	/**
+	 * Revalidate in background the given cached resource with a conditional GET
+	 * if it was downloaded and if it was checked for the last time before the
+	 * revalidation interval.
+	 *
+	 * @param resourceURI       the resource URI.
+	 * @param resourceCachePath the cached file.
+	 */
+	private void revalidateIfNeeded(String resourceURI, Path resourceCachePath) {
+		Path metadataPath = getMetadataPath(resourceCachePath);
+		try {
+			if (!Files.exists(metadataPath)) {
+				// The cached file was not downloaded (ex : deployed from the classpath)
+				return;
+			}
+			long lastCheck = Files.getLastModifiedTime(metadataPath).toMillis();
+			if (System.currentTimeMillis() - lastCheck < revalidationInterval) {
+				return;
+			}
+		} catch (IOException e) {
+			return;
+		}
+		if (!resourcesRevalidating.add(resourceURI)) {
+			// The revalidation is already scheduled
+			return;
+		}
+		CompletableFuture.runAsync(() -> {
+			try {
+				Properties metadata = loadMetadata(metadataPath);
+				if (download(resourceURI, resourceCachePath, metadata)) {
+					LOGGER.info("Refreshed " + resourceURI + " in " + resourceCachePath);
+					for (Consumer<String> listener : refreshListeners) {
+						listener.accept(resourceURI);
+					}
+					prefetchReferencedResources(resourceURI, resourceCachePath);
+				} else {
+					touch(metadataPath);
+				}
+			} catch (Exception e) {
+				// Keep the cached file and retry after the revalidation interval
+				LOGGER.log(Level.WARNING, "Error while revalidating " + resourceURI + " : " + e.getMessage());
+				touch(metadataPath);
+			} finally {
+				resourcesRevalidating.remove(resourceURI);
+			}
+		}, downloadExecutor);
+	}
+
+	/**
+	 * Download in background the XML Schemas imported, included, redefined or
+	 * overridden by the given downloaded resource if it is an XML Schema.
+	 *
+	 * @param resourceURI       the downloaded resource URI.
+	 * @param resourceCachePath the cached file.
+	 */
+	private void prefetchReferencedResources(String resourceURI, Path resourceCachePath) {
+		try {
+			for (String location : getReferencedSchemaLocations(resourceURI, resourceCachePath)) {
+				prefetchResource(location);
+			}
+		} catch (Exception e) {
+			LOGGER.log(Level.WARNING,
+					"Error while prefetching resources referenced by " + resourceURI + " : " + e.getMessage());
+		}
+	}
+
+	private void prefetchResource(String resourceURI) throws IOException {
+		if (!canUseCache(resourceURI)) {
+			return;
+		}
+		Path resourceCachePath = getResourceCachePath(resourceURI);
+		if (Files.exists(resourceCachePath) || !FilesUtils.isIncludedInDeployedPath(resourceCachePath)
+				|| unavailableURICache.getIfPresent(resourceURI) != null) {
+			return;
+		}
+		synchronized (resourcesLoading) {
+			if (!resourcesLoading.containsKey(resourceURI)) {
+				resourcesLoading.put(resourceURI, downloadResource(resourceURI, resourceCachePath));
+			}
+		}
+	}
+
+	/**
+	 * Returns the absolute locations of the XML Schemas imported, included,
+	 * redefined or overridden by the given XML Schema file and an empty list if
+	 * the file is not an XML Schema.
+	 *
+	 * @param resourceURI the XML Schema URI used to resolve relative locations.
+	 * @param file        the XML Schema file.
+	 * @return the absolute locations of the referenced XML Schemas.
+	 * @throws IOException
+	 */
+	static List<String> getReferencedSchemaLocations(String resourceURI, Path file) throws IOException {
+		List<String> locations = new ArrayList<>();
+		String content = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+		DOMDocument document = DOMParser.getInstance().parse(content, resourceURI, null);
+		DOMElement root = document.getDocumentElement();
+		if (root == null || !XSD_NAMESPACE_URI.equals(root.getNamespaceURI())) {
+			return locations;
+		}
+		URI baseURI = URI.create(resourceURI);
+		for (DOMNode child : root.getChildren()) {
+			if (!child.isElement()) {
+				continue;
+			}
+			String localName = child.getLocalName();
+			if ("import".equals(localName) || "include".equals(localName) || "redefine".equals(localName)
+					|| "override".equals(localName)) {
+				String schemaLocation = child.getAttribute("schemaLocation");
+				if (schemaLocation != null && !schemaLocation.trim().isEmpty()) {
+					try {
+						locations.add(baseURI.resolve(schemaLocation.trim()).toString());
+					} catch (IllegalArgumentException e) {
+						// Invalid schema location, ignore it
+					}
+				}
+			}
+		}
+		return locations;
+	}
+
+	private static Path getMetadataPath(Path resourceCachePath) {
+		return resourceCachePath.resolveSibling(resourceCachePath.getFileName().toString() + METADATA_EXTENSION);
+	}
+
+	private static Properties loadMetadata(Path metadataPath) throws IOException {
+		Properties metadata = new Properties();
+		try (InputStream in = Files.newInputStream(metadataPath)) {
+			metadata.load(in);
+		}
+		return metadata;
+	}
+
+	private static void saveMetadata(Path resourceCachePath, URLConnection conn) throws IOException {
+		Properties metadata = new Properties();
+		String etag = conn.getHeaderField(ETAG_PROPERTY);
+		if (etag != null) {
+			metadata.setProperty(ETAG_PROPERTY, etag);
+		}
+		String lastModified = conn.getHeaderField(LAST_MODIFIED_PROPERTY);
+		if (lastModified != null) {
+			metadata.setProperty(LAST_MODIFIED_PROPERTY, lastModified);
+		}
+		try (OutputStream out = Files.newOutputStream(getMetadataPath(resourceCachePath))) {
+			metadata.store(out, null);
+		}
+	}
+
+	private static void touch(Path file) {
+		try {
+			Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+		} catch (IOException e) {
+			// Do nothing
+		}
+	}
+
+	private static Executor createDownloadExecutor() {
+		AtomicInteger count = new AtomicInteger();
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(MAX_DOWNLOAD_THREADS, MAX_DOWNLOAD_THREADS, 60L,
+				TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+					Thread thread = new Thread(runnable, "lsp4xml-download-" + count.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				});
+		executor.allowCoreThreadTimeOut(true);
+		return executor;
 	}
 
 	public static Path getResourceCachePath(String resourceURI) throws IOException {
@@ -240,4 +535,44 @@ public class CacheResourcesManager {
 	public boolean isUseCache() {
 		return useCache;
 	}
+
+	/**
+	 * Set the interval (in milliseconds) after which a downloaded resource is
+	 * revalidated with the server.
+	 *
+	 * @param revalidationInterval the revalidation interval in milliseconds.
+	 */
+	public void setRevalidationInterval(long revalidationInterval) {
+		this.revalidationInterval = revalidationInterval;
+	}
+
+	/**
+	 * Returns the interval (in milliseconds) after which a downloaded resource is
+	 * revalidated with the server.
+	 *
+	 * @return the interval (in milliseconds) after which a downloaded resource is
+	 *         revalidated with the server.
+	 */
+	public long getRevalidationInterval() {
+		return revalidationInterval;
+	}
+
+	/**
+	 * Add a listener which is called with the resource URI when the cached file of
+	 * a resource is replaced by a new version after a revalidation.
+	 *
+	 * @param listener the listener to add.
+	 */
+	public void addRefreshListener(Consumer<String> listener) {
+		refreshListeners.add(listener);
+	}
+
+	/**
+	 * Remove the given refresh listener.
+	 *
+	 * @param listener the listener to remove.
+	 */
+	public void removeRefreshListener(Consumer<String> listener) {
+		refreshListeners.remove(listener);
+	}
 }
@@ -0,0 +1,209 @@
+/**
+ *  Copyright (c) 2019 Red Hat Inc. and others.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v2.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v20.html
+ *
+ *  Contributors:
+ *  Red Hat Inc. - initial API and implementation
+ */
+package org.eclipse.lsp4xml.uriresolver;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.xerces.xni.parser.XMLInputSource;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * In-memory LRU cache of the content of the resolved external entities (XML
+ * Schema, DTD, DTD modules, .ent files, etc) stored in the file system.
+ *
+ * <p>
+ * The content is cached per file and is reloaded when the last modified time
+ * of the file changes. The cache is bounded with a maximum size in bytes (see
+ * {@link #setMaxSize(long)}), the least recently used contents are evicted
+ * first and a file which is bigger than the maximum size is never cached.
+ * </p>
+ *
+ */
+public class EntityContentCache {
+
+	/**
+	 * Default maximum size (in bytes) of the cache: 16 MB.
+	 */
+	public static final long DEFAULT_MAX_SIZE = 16 * 1024 * 1024;
+
+	private static class EntityContent {
+
+		private final long lastModified;
+
+		private final byte[] content;
+
+		EntityContent(long lastModified, byte[] content) {
+			this.lastModified = lastModified;
+			this.content = content;
+		}
+	}
+
+	private final AtomicLong hitCount;
+
+	private final AtomicLong missCount;
+
+	private volatile long maxSize;
+
+	private volatile Cache<Path, EntityContent> contents;
+
+	public EntityContentCache() {
+		this(DEFAULT_MAX_SIZE);
+	}
+
+	public EntityContentCache(long maxSize) {
+		this.hitCount = new AtomicLong();
+		this.missCount = new AtomicLong();
+		setMaxSize(maxSize);
+	}
+
+	/**
+	 * Set the maximum size (in bytes) of the cache. A size lower or equal to 0
+	 * disables the cache.
+	 *
+	 * @param maxSize the maximum size (in bytes) of the cache.
+	 */
+	public synchronized void setMaxSize(long maxSize) {
+		if (contents != null && this.maxSize == maxSize) {
+			return;
+		}
+		this.maxSize = maxSize;
+		this.contents = maxSize > 0 ? CacheBuilder.newBuilder() //
+				.maximumWeight(maxSize) //
+				.weigher((Path file, EntityContent content) -> content.content.length) //
+				.build() : null;
+	}
+
+	/**
+	 * Returns the maximum size (in bytes) of the cache.
+	 *
+	 * @return the maximum size (in bytes) of the cache.
+	 */
+	public long getMaxSize() {
+		return maxSize;
+	}
+
+	/**
+	 * Update the given input source to read the entity content from the memory
+	 * if the input source references a file and returns the input source.
+	 *
+	 * @param source the resolved input source.
+	 * @return the given input source.
+	 */
+	public XMLInputSource toCachedInputSource(XMLInputSource source) {
+		if (source == null || source.getByteStream() != null || source.getCharacterStream() != null) {
+			// the content is already provided by the resolver
+			return source;
+		}
+		Path file = toFile(source.getSystemId());
+		if (file != null) {
+			try {
+				byte[] content = getContent(file);
+				if (content != null) {
+					source.setByteStream(new ByteArrayInputStream(content));
+				}
+			} catch (IOException e) {
+				// the file cannot be read, let Xerces report the error
+			}
+		}
+		return source;
+	}
+
+	/**
+	 * Returns the content of the given file from the memory if the file has not
+	 * changed since it was cached and from the file system otherwise and null if
+	 * the file doesn't exist or cannot be cached.
+	 *
+	 * @param file the file.
+	 * @return the content of the given file and null if the file doesn't exist or
+	 *         cannot be cached.
+	 * @throws IOException
+	 */
+	public byte[] getContent(Path file) throws IOException {
+		Cache<Path, EntityContent> contents = this.contents;
+		if (contents == null || !Files.isRegularFile(file)) {
+			return null;
+		}
+		long lastModified = Files.getLastModifiedTime(file).toMillis();
+		EntityContent entityContent = contents.getIfPresent(file);
+		if (entityContent != null && entityContent.lastModified == lastModified) {
+			hitCount.incrementAndGet();
+			return entityContent.content;
+		}
+		missCount.incrementAndGet();
+		if (Files.size(file) > maxSize) {
+			contents.invalidate(file);
+			return null;
+		}
+		byte[] content = Files.readAllBytes(file);
+		contents.put(file, new EntityContent(lastModified, content));
+		return content;
+	}
+
+	/**
+	 * Returns the number of times the content was served from the memory.
+	 *
+	 * @return the number of times the content was served from the memory.
+	 */
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	/**
+	 * Returns the number of times the content was read from the file system.
+	 *
+	 * @return the number of times the content was read from the file system.
+	 */
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+	/**
+	 * Returns the total size (in bytes) of the cached contents.
+	 *
+	 * @return the total size (in bytes) of the cached contents.
+	 */
+	public long getSize() {
+		Cache<Path, EntityContent> contents = this.contents;
+		if (contents == null) {
+			return 0;
+		}
+		return contents.asMap().values().stream().mapToLong(content -> content.content.length).sum();
+	}
+
+	/**
+	 * Clear the cache.
+	 */
+	public void clear() {
+		Cache<Path, EntityContent> contents = this.contents;
+		if (contents != null) {
+			contents.invalidateAll();
+		}
+	}
+
+	private static Path toFile(String systemId) {
+		if (systemId == null || !systemId.startsWith("file:")) {
+			return null;
+		}
+		try {
+			return Paths.get(new URI(systemId));
+		} catch (Exception e) {
+			return null;
+		}
+	}
+}
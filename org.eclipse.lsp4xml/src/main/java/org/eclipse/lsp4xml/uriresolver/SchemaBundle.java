@@ -0,0 +1,319 @@
+/**
+ *  Copyright (c) 2019 Red Hat Inc. and others.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v2.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v20.html
+ *
+ *  Contributors:
+ *  Red Hat Inc. - initial API and implementation
+ */
+package org.eclipse.lsp4xml.uriresolver;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Schema bundle: a zip/jar archive which provides the content of remote XML
+ * Schemas, DTDs, etc for offline usage.
+ *
+ * <p>
+ * The entries of the archive follow the layout of the lsp4xml cache folder
+ * (scheme/host/path), for instance the entry
+ * <code>http/www.w3.org/2001/xml.xsd</code> provides the content of
+ * <code>http://www.w3.org/2001/xml.xsd</code>. An optional <code>cache/</code>
+ * root folder is ignored to support archives of an existing cache folder.
+ * </p>
+ *
+ * <p>
+ * The archive is opened once and memory-mapped: the URL to entry index is
+ * built from the zip central directory and the entry content is read from the
+ * mapped buffer (stored or deflated), without extracting it to the disk.
+ * </p>
+ *
+ * <p>
+ * The ZIP64 format is not supported: the archives larger than 2 GB or with
+ * 65535 entries or more are rejected.
+ * </p>
+ *
+ */
+public class SchemaBundle {
+
+	private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+	private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+	private static final int END_HEADER_SIGNATURE = 0x06054b50;
+	private static final int ZIP64_END_LOCATOR_SIGNATURE = 0x07064b50;
+
+	private static final int LOCAL_HEADER_SIZE = 30;
+	private static final int CENTRAL_HEADER_SIZE = 46;
+	private static final int END_HEADER_SIZE = 22;
+	private static final int ZIP64_END_LOCATOR_SIZE = 20;
+	private static final int MAX_COMMENT_SIZE = 0xFFFF;
+
+	/**
+	 * Value of the 16 bits and 32 bits fields which are stored in the ZIP64 extra
+	 * field.
+	 */
+	private static final int ZIP64_COUNT = 0xFFFF;
+	private static final int ZIP64_MAGIC = 0xFFFFFFFF;
+
+	private static final int STORED = 0;
+	private static final int DEFLATED = 8;
+
+	private static final String CACHE_FOLDER = "cache/";
+
+	/**
+	 * Location of an entry in the mapped archive.
+	 */
+	private static class Entry {
+
+		private final int method;
+
+		private final int compressedSize;
+
+		private final int localHeaderOffset;
+
+		Entry(int method, int compressedSize, int localHeaderOffset) {
+			this.method = method;
+			this.compressedSize = compressedSize;
+			this.localHeaderOffset = localHeaderOffset;
+		}
+	}
+
+	/**
+	 * Input stream which reads a mapped buffer.
+	 */
+	private static class ByteBufferInputStream extends InputStream {
+
+		private final ByteBuffer buffer;
+
+		ByteBufferInputStream(ByteBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		@Override
+		public int read() throws IOException {
+			return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (len == 0) {
+				return 0;
+			}
+			if (!buffer.hasRemaining()) {
+				return -1;
+			}
+			int n = Math.min(len, buffer.remaining());
+			buffer.get(b, off, n);
+			return n;
+		}
+
+		@Override
+		public int available() throws IOException {
+			return buffer.remaining();
+		}
+	}
+
+	private final Path file;
+
+	private final MappedByteBuffer buffer;
+
+	private final Map<String, Entry> entries;
+
+	private SchemaBundle(Path file, MappedByteBuffer buffer, Map<String, Entry> entries) {
+		this.file = file;
+		this.buffer = buffer;
+		this.entries = entries;
+	}
+
+	/**
+	 * Open and index the given schema bundle archive.
+	 *
+	 * @param file the zip/jar archive.
+	 * @return the opened schema bundle.
+	 * @throws IOException if the archive cannot be read or is not a valid zip
+	 *                     archive.
+	 */
+	public static SchemaBundle open(Path file) throws IOException {
+		MappedByteBuffer buffer;
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			if (channel.size() > Integer.MAX_VALUE) {
+				throw new IOException("Schema bundle '" + file + "' is too large.");
+			}
+			// The mapping stays valid after the channel is closed.
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+		buffer.order(ByteOrder.LITTLE_ENDIAN);
+		return new SchemaBundle(file, buffer, readEntries(file, buffer));
+	}
+
+	private static Map<String, Entry> readEntries(Path file, ByteBuffer buffer) throws IOException {
+		int end = findEndHeader(buffer);
+		if (end == -1) {
+			throw new IOException("Schema bundle '" + file + "' is not a zip archive.");
+		}
+		int count = buffer.getShort(end + 10) & 0xFFFF;
+		int offset = buffer.getInt(end + 16);
+		if (count == ZIP64_COUNT || offset == ZIP64_MAGIC || (end >= ZIP64_END_LOCATOR_SIZE
+				&& buffer.getInt(end - ZIP64_END_LOCATOR_SIZE) == ZIP64_END_LOCATOR_SIGNATURE)) {
+			throw createZip64Exception(file);
+		}
+		Map<String, Entry> entries = new HashMap<>(count * 2);
+		for (int i = 0; i < count; i++) {
+			if (offset < 0 || offset + CENTRAL_HEADER_SIZE > buffer.limit()
+					|| buffer.getInt(offset) != CENTRAL_HEADER_SIGNATURE) {
+				throw new IOException("Invalid central directory in schema bundle '" + file + "'.");
+			}
+			int method = buffer.getShort(offset + 10) & 0xFFFF;
+			int compressedSize = buffer.getInt(offset + 20);
+			int nameLength = buffer.getShort(offset + 28) & 0xFFFF;
+			int extraLength = buffer.getShort(offset + 30) & 0xFFFF;
+			int commentLength = buffer.getShort(offset + 32) & 0xFFFF;
+			int localHeaderOffset = buffer.getInt(offset + 42);
+			if (compressedSize == ZIP64_MAGIC || localHeaderOffset == ZIP64_MAGIC) {
+				throw createZip64Exception(file);
+			}
+			String name = readString(buffer, offset + CENTRAL_HEADER_SIZE, nameLength);
+			if (!name.endsWith("/") && (method == STORED || method == DEFLATED)) {
+				if (name.startsWith(CACHE_FOLDER)) {
+					name = name.substring(CACHE_FOLDER.length());
+				}
+				entries.putIfAbsent(name, new Entry(method, compressedSize, localHeaderOffset));
+			}
+			offset += CENTRAL_HEADER_SIZE + nameLength + extraLength + commentLength;
+		}
+		return entries;
+	}
+
+	private static IOException createZip64Exception(Path file) {
+		return new IOException("Schema bundle '" + file
+				+ "' uses the ZIP64 format (more than 65535 entries or larger than 4 GB) which is not supported.");
+	}
+
+	private static int findEndHeader(ByteBuffer buffer) {
+		int min = Math.max(0, buffer.limit() - END_HEADER_SIZE - MAX_COMMENT_SIZE);
+		for (int i = buffer.limit() - END_HEADER_SIZE; i >= min; i--) {
+			if (buffer.getInt(i) == END_HEADER_SIGNATURE) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private static String readString(ByteBuffer buffer, int offset, int length) {
+		byte[] bytes = new byte[length];
+		ByteBuffer slice = buffer.duplicate();
+		slice.position(offset);
+		slice.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Returns the archive entry name of the given URI and null if the URI cannot
+	 * be provided by a schema bundle.
+	 *
+	 * @param uri the URI.
+	 * @return the archive entry name of the given URI and null otherwise.
+	 */
+	static String getEntryName(String uri) {
+		try {
+			URI u = URI.create(uri);
+			if (u.getScheme() == null || u.getHost() == null || u.getPath() == null) {
+				return null;
+			}
+			return u.getScheme() + "/" + u.getHost() + u.getPath();
+		} catch (IllegalArgumentException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Returns true if the bundle provides the content of the given URI and false
+	 * otherwise.
+	 *
+	 * @param uri the URI (ex : http://www.w3.org/2001/xml.xsd)
+	 * @return true if the bundle provides the content of the given URI and false
+	 *         otherwise.
+	 */
+	public boolean contains(String uri) {
+		String name = getEntryName(uri);
+		return name != null && entries.containsKey(name);
+	}
+
+	/**
+	 * Returns the content of the given URI read from the mapped archive and null
+	 * if the bundle doesn't provide it.
+	 *
+	 * @param uri the URI (ex : http://www.w3.org/2001/xml.xsd)
+	 * @return the content of the given URI and null if the bundle doesn't provide
+	 *         it.
+	 * @throws IOException
+	 */
+	public InputStream getInputStream(String uri) throws IOException {
+		String name = getEntryName(uri);
+		Entry entry = name != null ? entries.get(name) : null;
+		if (entry == null) {
+			return null;
+		}
+		ByteBuffer data = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+		int offset = entry.localHeaderOffset;
+		if (data.getInt(offset) != LOCAL_HEADER_SIGNATURE) {
+			throw new IOException("Invalid entry '" + name + "' in schema bundle '" + file + "'.");
+		}
+		int nameLength = data.getShort(offset + 26) & 0xFFFF;
+		int extraLength = data.getShort(offset + 28) & 0xFFFF;
+		int start = offset + LOCAL_HEADER_SIZE + nameLength + extraLength;
+		data.position(start);
+		data.limit(start + entry.compressedSize);
+		InputStream in = new ByteBufferInputStream(data.slice());
+		if (entry.method == DEFLATED) {
+			Inflater inflater = new Inflater(true);
+			return new InflaterInputStream(in, inflater) {
+
+				@Override
+				public void close() throws IOException {
+					try {
+						super.close();
+					} finally {
+						// the inflater given to the stream is not ended by the stream
+						inflater.end();
+					}
+				}
+			};
+		}
+		return in;
+	}
+
+	/**
+	 * Returns the archive entry names of the bundle.
+	 *
+	 * @return the archive entry names of the bundle.
+	 */
+	public Set<String> getEntryNames() {
+		return Collections.unmodifiableSet(entries.keySet());
+	}
+
+	/**
+	 * Returns the archive file of the bundle.
+	 *
+	 * @return the archive file of the bundle.
+	 */
+	public Path getFile() {
+		return file;
+	}
+}
@@ -32,6 +32,20 @@ public interface URIResolverExtension extends XMLEntityResolver {
 	 */
 	public String resolve(String baseLocation, String publicId, String systemId);
 
+	/**
+	 * Returns true if the result of
+	 * {@link #resolve(String, String, String)} depends only on the given
+	 * parameters and on the resolver settings and false if it depends on other
+	 * state (ex : the content of the document). A cacheable result is memoized by
+	 * the {@link URIResolverExtensionManager} until the resolver settings change.
+	 * 
+	 * @return true if the result of {@link #resolve(String, String, String)} can
+	 *         be cached and false otherwise.
+	 */
+	default boolean isCacheable() {
+		return true;
+	}
+
 	@Override
 	default XMLInputSource resolveEntity(XMLResourceIdentifier resourceIdentifier) throws XNIException, IOException {
 		return null;
@@ -12,15 +12,18 @@ package org.eclipse.lsp4xml.uriresolver;
 
 import java.io.IOException;
 import java.net.URI;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.apache.xerces.impl.XMLEntityManager;
 import org.apache.xerces.util.URI.MalformedURIException;
 import org.apache.xerces.xni.XMLResourceIdentifier;
 import org.apache.xerces.xni.XNIException;
 import org.apache.xerces.xni.parser.XMLInputSource;
+import org.eclipse.lsp4xml.dom.DOMDocumentCache;
 
 /**
  * URI resolver manager.
@@ -28,13 +31,87 @@ import org.apache.xerces.xni.parser.XMLInputSource;
  */
 public class URIResolverExtensionManager implements URIResolverExtension, IExternalSchemaLocationProvider {
 
+	private static final int MAX_RESOLVED_URIS = 1000;
+
+	/**
+	 * Key of the resolved URIs cache.
+	 */
+	private static class ResolveKey {
+
+		private final String baseLocation;
+
+		private final String publicId;
+
+		private final String systemId;
+
+		ResolveKey(String baseLocation, String publicId, String systemId) {
+			this.baseLocation = baseLocation;
+			this.publicId = publicId;
+			this.systemId = systemId;
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(baseLocation, publicId, systemId);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof ResolveKey)) {
+				return false;
+			}
+			ResolveKey other = (ResolveKey) obj;
+			return Objects.equals(baseLocation, other.baseLocation) && Objects.equals(publicId, other.publicId)
+					&& Objects.equals(systemId, other.systemId);
+		}
+	}
+
+	/**
+	 * Resolved URI (which can be null) with the index of the resolver which has
+	 * resolved it.
+	 */
+	private static class ResolvedURI {
+
+		private final String uri;
+
+		private final int resolverIndex;
+
+		ResolvedURI(String uri, int resolverIndex) {
+			this.uri = uri;
+			this.resolverIndex = resolverIndex;
+		}
+	}
+
 	private final List<URIResolverExtension> resolvers;
 
+	private final Map<ResolveKey, ResolvedURI> resolvedURIs;
+
 	private final URIResolverExtension defaultURIResolverExtension;
 
+	private final EntityContentCache entityContentCache;
+
+	private final DOMDocumentCache documentCache;
+
 	public URIResolverExtensionManager() {
-		resolvers = new ArrayList<>();
+		this(new EntityContentCache());
+	}
+
+	/**
+	 * Creates an URI resolver manager which caches the resolved entities content
+	 * in the given cache (which can be shared with other managers).
+	 *
+	 * @param entityContentCache the in-memory cache of the resolved entities
+	 *                           content.
+	 */
+	public URIResolverExtensionManager(EntityContentCache entityContentCache) {
+		resolvers = new CopyOnWriteArrayList<>();
+		resolvedURIs = new ConcurrentHashMap<>();
 		this.defaultURIResolverExtension = new DefaultURIResolverExtension();
+		this.entityContentCache = entityContentCache;
+		this.documentCache = new DOMDocumentCache(this);
 	}
 
 	class DefaultURIResolverExtension implements URIResolverExtension {
@@ -74,6 +151,7 @@ public class URIResolverExtensionManager implements URIResolverExtension, IExter
 	 */
 	public void registerResolver(URIResolverExtension resolver) {
 		resolvers.add(resolver);
+		clearResolvedURIs();
 	}
 
 	/**
@@ -82,18 +160,59 @@ public class URIResolverExtensionManager implements URIResolverExtension, IExter
 	 * @param resolver the URI resolver to unregister.
 	 */
 	public void unregisterResolver(URIResolverExtension resolver) {
-		resolvers.add(resolver);
+		resolvers.remove(resolver);
+		clearResolvedURIs();
 	}
 
 	@Override
 	public String resolve(String baseLocation, String publicId, String systemId) {
-		for (URIResolverExtension resolver : resolvers) {
+		ResolveKey key = new ResolveKey(baseLocation, publicId, systemId);
+		ResolvedURI cached = resolvedURIs.get(key);
+		if (cached != null) {
+			// Resolvers which cannot be cached must be called again when they have
+			// priority over the resolver which gives the cached result.
+			List<URIResolverExtension> resolvers = this.resolvers;
+			for (int i = 0; i < cached.resolverIndex && i < resolvers.size(); i++) {
+				URIResolverExtension resolver = resolvers.get(i);
+				if (!resolver.isCacheable()) {
+					String resolved = resolver.resolve(baseLocation, publicId, systemId);
+					if (resolved != null && !resolved.isEmpty()) {
+						return resolved;
+					}
+				}
+			}
+			return cached.uri;
+		}
+		List<URIResolverExtension> resolvers = this.resolvers;
+		for (int i = 0; i < resolvers.size(); i++) {
+			URIResolverExtension resolver = resolvers.get(i);
 			String resolved = resolver.resolve(baseLocation, publicId, systemId);
 			if (resolved != null && !resolved.isEmpty()) {
+				if (resolver.isCacheable()) {
+					cacheResolvedURI(key, new ResolvedURI(resolved, i));
+				}
 				return resolved;
 			}
 		}
-		return defaultURIResolverExtension.resolve(baseLocation, publicId, systemId);
+		String resolved = defaultURIResolverExtension.resolve(baseLocation, publicId, systemId);
+		cacheResolvedURI(key, new ResolvedURI(resolved, resolvers.size()));
+		return resolved;
+	}
+
+	private void cacheResolvedURI(ResolveKey key, ResolvedURI resolvedURI) {
+		if (resolvedURIs.size() >= MAX_RESOLVED_URIS) {
+			resolvedURIs.clear();
+		}
+		resolvedURIs.put(key, resolvedURI);
+	}
+
+	/**
+	 * Clear the cache of the resolved URIs. This method must be called when the
+	 * settings of a resolver change (XML catalogs, file associations, root URI,
+	 * etc).
+	 */
+	public void clearResolvedURIs() {
+		resolvedURIs.clear();
 	}
 
 	@Override
@@ -102,10 +221,28 @@ public class URIResolverExtensionManager implements URIResolverExtension, IExter
 		for (URIResolverExtension resolver : resolvers) {
 			is = resolver.resolveEntity(resourceIdentifier);
 			if (is != null) {
-				return is;
+				return entityContentCache.toCachedInputSource(is);
 			}
 		}
-		return defaultURIResolverExtension.resolveEntity(resourceIdentifier);
+		return entityContentCache.toCachedInputSource(defaultURIResolverExtension.resolveEntity(resourceIdentifier));
+	}
+
+	/**
+	 * Returns the in-memory cache of the resolved entities content.
+	 * 
+	 * @return the in-memory cache of the resolved entities content.
+	 */
+	public EntityContentCache getEntityContentCache() {
+		return entityContentCache;
+	}
+
+	/**
+	 * Returns the cache of the parsed DOM documents of the referenced files.
+	 * 
+	 * @return the cache of the parsed DOM documents of the referenced files.
+	 */
+	public DOMDocumentCache getDocumentCache() {
+		return documentCache;
 	}
 
 	@Override
@@ -108,7 +108,10 @@ public class DOMUtils {
 	}
 
 	/**
-	 * Returns the DOM document from the given XML Schema uri.
+	 * Returns the DOM document from the given XML Schema uri. The document opened
+	 * in the editor or the parsed document of the file stored in the
+	 * {@link URIResolverExtensionManager#getDocumentCache()} is returned if
+	 * available.
 	 * 
 	 * @param documentURI              the schema URI
 	 * @param resolverExtensionManager
@@ -116,8 +119,11 @@ public class DOMUtils {
 	 */
 	public static DOMDocument loadDocument(String documentURI, URIResolverExtensionManager resolverExtensionManager) {
 		try {
-			return DOMParser.getInstance().parse(IOUtils.convertStreamToString(new URL(documentURI).openStream()),
-					documentURI, resolverExtensionManager);
+			if (resolverExtensionManager == null) {
+				return DOMParser.getInstance().parse(IOUtils.convertStreamToString(new URL(documentURI).openStream()),
+						documentURI, null);
+			}
+			return resolverExtensionManager.getDocumentCache().getDocument(documentURI);
 		} catch (Exception e) {
 			LOGGER.log(Level.SEVERE, "Error while loading XML Schema '" + documentURI + "'.", e);
 			return null;
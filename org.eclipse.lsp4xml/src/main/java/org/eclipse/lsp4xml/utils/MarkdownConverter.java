@@ -17,6 +17,8 @@ import java.lang.reflect.Field;
 import java.util.logging.Logger;
 import java.util.regex.Pattern;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.overzealous.remark.Options;
 import com.overzealous.remark.Options.FencedCodeBlocks;
 import com.overzealous.remark.Options.Tables;
@@ -28,13 +30,25 @@ import org.jsoup.safety.Whitelist;
 /**
  * Converts HTML content into Markdown equivalent.
  *
+ * <p>
+ * {@link Remark} is not thread safe: each thread uses its own instance. The
+ * converted documentation (which comes from the same XSD annotations for each
+ * hover/completion) is cached.
+ * </p>
+ *
  * @author Fred Bricon
  */
 public class MarkdownConverter {
 
 	private static final Logger LOGGER = Logger.getLogger(MarkdownConverter.class.getName());
 
-	private static Remark remark;
+	private static final int MAX_CACHE_SIZE = 1000;
+
+	private static final ThreadLocal<Remark> REMARK = ThreadLocal.withInitial(MarkdownConverter::createRemark);
+
+	private static final Cache<String, String> CONVERTED = CacheBuilder.newBuilder() //
+			.maximumSize(MAX_CACHE_SIZE) //
+			.build();
 
 	//Pattern looking for any form of tag eg: <head>
 	private static final Pattern markdownPattern = Pattern.compile("`[^`]*<[a-z][\\s\\S]*>[^`]*`");
@@ -43,7 +57,7 @@ public class MarkdownConverter {
 		//no public instanciation
 	}
 
-	static {
+	private static Remark createRemark() {
 		Options options = new Options();
 		options.tables = Tables.CONVERT_TO_CODE_BLOCK;
 		options.hardwraps = true;
@@ -51,7 +65,7 @@ public class MarkdownConverter {
 		options.autoLinks = true;
 		options.reverseHtmlSmartPunctuation = true;
 		options.fencedCodeBlocks = FencedCodeBlocks.ENABLED_BACKTICK;
-		remark = new Remark(options);
+		Remark remark = new Remark(options);
 		//Stop remark from stripping file protocol in an href
 		try {
 			Field cleanerField = Remark.class.getDeclaredField("cleaner");
@@ -68,13 +82,19 @@ public class MarkdownConverter {
 		} catch (NoSuchFieldException | SecurityException | IllegalArgumentException | IllegalAccessException e) {
 			LOGGER.severe("Unable to modify jsoup to include file protocols "+ e.getMessage());
 		}
+		return remark;
 	}
 
 	public static String convert(String html) {
 		if(!StringUtils.isTagOutsideOfBackticks(html)) {
 			return unescapeXml(html); // is not html so it can be returned as is (aside from unescaping)
 		}
-		return unescapeJava(remark.convert(html));
+		String markdown = CONVERTED.getIfPresent(html);
+		if (markdown == null) {
+			markdown = unescapeJava(REMARK.get().convert(html));
+			CONVERTED.put(html, markdown);
+		}
+		return markdown;
 	}
 
 }
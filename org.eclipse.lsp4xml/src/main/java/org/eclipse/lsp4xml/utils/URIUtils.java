@@ -10,6 +10,9 @@
 
 package org.eclipse.lsp4xml.utils;
 
+import java.net.URI;
+import java.net.URISyntaxException;
+
 /**
  * URIUtils
  */
@@ -60,4 +63,42 @@ public class URIUtils {
 		}
 		return uri;
 	}
+
+	/**
+	 * Returns the normalized form of the given file URI to compare the URIs sent
+	 * by the client with the URIs built from a {@link java.nio.file.Path}:
+	 * 
+	 * <ul>
+	 * <li>the URI starts with 'file:///' (and not 'file:/').</li>
+	 * <li>the path is decoded and encoded again, only the characters which are
+	 * not legal in a URI are percent-encoded (ex : 'c%3A' becomes 'c:', ' '
+	 * becomes '%20').</li>
+	 * <li>the Windows drive letter is lower case.</li>
+	 * </ul>
+	 * 
+	 * @param uri the URI
+	 * @return the normalized file URI and the given URI if it is not a valid file
+	 *         URI.
+	 */
+	public static String normalizeFileURI(String uri) {
+		if (!isFileResource(uri)) {
+			return uri;
+		}
+		try {
+			URI fileURI = new URI(uri);
+			String path = fileURI.getPath();
+			if (path == null) {
+				// opaque URI like 'file:c:/foo.xml'
+				return uri;
+			}
+			if (path.length() > 2 && path.charAt(0) == '/' && Character.isLetter(path.charAt(1))
+					&& path.charAt(2) == ':') {
+				path = "/" + Character.toLowerCase(path.charAt(1)) + path.substring(2);
+			}
+			String authority = fileURI.getAuthority();
+			return new URI("file", authority != null ? authority : "", path, null, null).toASCIIString();
+		} catch (URISyntaxException e) {
+			return uri;
+		}
+	}
 }
\ No newline at end of file
@@ -31,10 +31,24 @@ public class XMLBuilder {
 	private final int splitAttributesIndent = 2;
 
 	public XMLBuilder(XMLFormattingOptions formattingOptions, String whitespacesIndent, String lineDelimiter) {
+		this(formattingOptions, whitespacesIndent, lineDelimiter, 16);
+	}
+
+	/**
+	 * XML builder with an initial capacity (ex : the length of the content to
+	 * format).
+	 * 
+	 * @param formattingOptions the formatting options.
+	 * @param whitespacesIndent the whitespaces indent.
+	 * @param lineDelimiter     the line delimiter.
+	 * @param capacity          the initial capacity of the built content.
+	 */
+	public XMLBuilder(XMLFormattingOptions formattingOptions, String whitespacesIndent, String lineDelimiter,
+			int capacity) {
 		this.whitespacesIndent = whitespacesIndent;
 		this.formattingOptions = formattingOptions != null ? formattingOptions : new XMLFormattingOptions(true);
 		this.lineDelimiter = lineDelimiter;
-		this.xml = new StringBuilder();
+		this.xml = new StringBuilder(capacity);
 	}
 
 	public XMLBuilder appendSpace() {
@@ -300,6 +314,15 @@ public class XMLBuilder {
 		return xml.toString();
 	}
 
+	/**
+	 * Returns the built content without copying it like {@link #toString()}.
+	 * 
+	 * @return the built content.
+	 */
+	public CharSequence getContent() {
+		return xml;
+	}
+
 	public XMLBuilder startCDATA() {
 		xml.append("<![CDATA[");
 		return this;
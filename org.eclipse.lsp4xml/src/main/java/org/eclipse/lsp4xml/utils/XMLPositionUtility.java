@@ -45,6 +45,8 @@ public class XMLPositionUtility {
 
 	private static final Logger LOGGER = Logger.getLogger(XMLPositionUtility.class.getName());
 
+	private static final int MAX_TAG_RESCAN_LENGTH = 1024;
+
 	private XMLPositionUtility() {
 	}
 
@@ -279,6 +281,57 @@ public class XMLPositionUtility {
 		return createRange(startOffset, endOffset, document);
 	}
 
+	/**
+	 * Returns the range of the tag name (start or end tag) which precedes the
+	 * given <code>offset</code> by scanning the text content backward and null
+	 * otherwise.
+	 * 
+	 * <p>
+	 * This method doesn't use the DOM nodes, it is used to report errors for
+	 * large files which are validated without DOM (see
+	 * {@link DOMDocument#isValidationOnly()}). The rescan is bounded to keep the
+	 * cost of an error constant.
+	 * </p>
+	 * 
+	 * @param offset   the offset where the error occurs.
+	 * @param document the DOM document.
+	 * @return the range of the tag name which precedes the given
+	 *         <code>offset</code> and null otherwise.
+	 */
+	public static Range selectTagNameBefore(int offset, DOMDocument document) {
+		String text = document.getText();
+		int end = Math.min(offset, text.length());
+		int limit = Math.max(0, end - MAX_TAG_RESCAN_LENGTH);
+		int tagOffset = -1;
+		for (int i = end - 1; i >= limit; i--) {
+			if (text.charAt(i) == '<') {
+				tagOffset = i;
+				break;
+			}
+		}
+		if (tagOffset == -1) {
+			return null;
+		}
+		int startOffset = tagOffset + 1;
+		if (startOffset < text.length() && text.charAt(startOffset) == '/') {
+			startOffset++;
+		}
+		int endOffset = startOffset;
+		while (endOffset < text.length() && isTagNameChar(text.charAt(endOffset))) {
+			endOffset++;
+		}
+		if (endOffset == startOffset) {
+			// '<!', '<?', '< '
+			return null;
+		}
+		return createRange(startOffset, endOffset, document);
+	}
+
+	private static boolean isTagNameChar(char c) {
+		return !Character.isWhitespace(c) && c != '>' && c != '/' && c != '<' && c != '!' && c != '?'
+				&& c != '=';
+	}
+
 	private static int getStartTagLength(DOMNode node) {
 		if (node.isElement()) {
 			DOMElement element = (DOMElement) node;
@@ -0,0 +1,212 @@
+/**
+ *  Copyright (c) 2019 Red Hat Inc. and others.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v2.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v20.html
+ *
+ *  Contributors:
+ *  Red Hat Inc. - initial API and implementation
+ */
+package org.eclipse.lsp4xml.xpath.matcher;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.eclipse.lsp4xml.dom.DOMAttr;
+import org.eclipse.lsp4xml.dom.DOMDocument;
+import org.eclipse.lsp4xml.dom.DOMNode;
+import org.w3c.dom.Node;
+
+/**
+ * XPath expression evaluated directly on the DOM nodes of a
+ * {@link DOMDocument}, without JAXP. It supports the subset of XPath of the
+ * {@link XPathMatcher}:
+ *
+ * <ul>
+ * <li>absolute location paths like /a/b, //a/b or //a//b</li>
+ * <li>element names like name, prefix:name, *:name, * or
+ * *[local-name()='name']</li>
+ * <li>attribute conditions like [@type='pipeline']</li>
+ * <li>a last step text() or @attr which selects the text nodes or the
+ * attribute of the matched elements</li>
+ * </ul>
+ *
+ * Use {@link #isSupported(String)} to know if an XPath expression can be
+ * evaluated by this class.
+ *
+ */
+public class DOMXPathExpression extends XPathMatcher {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final Pattern LOCAL_NAME_CONDITION = Pattern
+			.compile("\\*\\[\\s*local-name\\(\\s*\\)\\s*=\\s*'([^']*)'\\s*\\]");
+
+	private static final String NAME = "\\w[\\w.\\-]*";
+
+	private static final String STEP = "(?:(?:\\*|" + NAME + "):)?(?:\\*|" + NAME + ")(?:\\[@" + NAME
+			+ "='[^']*'\\])*";
+
+	private static final Pattern ABSOLUTE_PATH = Pattern.compile("/" + STEP + "(?:/" + STEP + ")*");
+
+	private static final Pattern DESCENDANT_PATH = Pattern.compile("(?://?" + STEP + ")+");
+
+	private static final Pattern ATTRIBUTE_STEP = Pattern.compile("/@(" + NAME + ")$");
+
+	private static final String TEXT_STEP = "/text()";
+
+	private final String expression;
+
+	private final boolean selectText;
+
+	private final String selectedAttrName;
+
+	private final boolean absolute;
+
+	/**
+	 * Create a DOM XPath expression.
+	 *
+	 * @param expression the XPath expression.
+	 * @throws IllegalArgumentException if the XPath expression is not supported.
+	 */
+	public DOMXPathExpression(String expression) {
+		super(getElementsPath(expression));
+		this.expression = expression;
+		String path = normalize(expression);
+		this.selectText = path.endsWith(TEXT_STEP);
+		Matcher attributeStep = ATTRIBUTE_STEP.matcher(path);
+		this.selectedAttrName = attributeStep.find() ? attributeStep.group(1) : null;
+		this.absolute = !path.startsWith("//");
+	}
+
+	/**
+	 * Returns true if the given XPath expression can be evaluated with
+	 * {@link DOMXPathExpression} and false otherwise.
+	 *
+	 * @param expression the XPath expression.
+	 * @return true if the given XPath expression can be evaluated with
+	 *         {@link DOMXPathExpression} and false otherwise.
+	 */
+	public static boolean isSupported(String expression) {
+		return expression != null && toElementsPath(normalize(expression)) != null;
+	}
+
+	private static String getElementsPath(String expression) {
+		String elementsPath = expression != null ? toElementsPath(normalize(expression)) : null;
+		if (elementsPath == null) {
+			throw new IllegalArgumentException("Unsupported XPath expression '" + expression + "'.");
+		}
+		return elementsPath;
+	}
+
+	/**
+	 * Returns the given expression trimmed and with
+	 * *[local-name()='name'] replaced by name.
+	 */
+	private static String normalize(String expression) {
+		return LOCAL_NAME_CONDITION.matcher(expression.trim()).replaceAll("$1");
+	}
+
+	/**
+	 * Returns the path of the elements of the given expression (without the last
+	 * text() or @attr step) and null if the expression is not supported.
+	 */
+	private static String toElementsPath(String path) {
+		if (path.endsWith(TEXT_STEP)) {
+			path = path.substring(0, path.length() - TEXT_STEP.length());
+		} else {
+			Matcher attributeStep = ATTRIBUTE_STEP.matcher(path);
+			if (attributeStep.find()) {
+				path = path.substring(0, attributeStep.start());
+			}
+		}
+		if (path.startsWith("//")) {
+			return DESCENDANT_PATH.matcher(path).matches() ? path : null;
+		}
+		// an absolute path must not contain '//' since the root element is checked
+		// with the number of steps
+		return ABSOLUTE_PATH.matcher(path).matches() ? path : null;
+	}
+
+	/**
+	 * Returns the XPath expression.
+	 *
+	 * @return the XPath expression.
+	 */
+	public String getExpression() {
+		return expression;
+	}
+
+	/**
+	 * Returns the nodes of the given document selected by the XPath expression in
+	 * the document order.
+	 *
+	 * @param document the DOM document.
+	 * @return the nodes of the given document selected by the XPath expression.
+	 */
+	public List<DOMNode> evaluate(DOMDocument document) {
+		List<DOMNode> nodes = new ArrayList<>();
+		evaluate(document, nodes::add);
+		return nodes;
+	}
+
+	/**
+	 * Collect the nodes of the given document selected by the XPath expression in
+	 * the document order.
+	 *
+	 * @param document  the DOM document.
+	 * @param collector the collector of the selected nodes.
+	 */
+	public void evaluate(DOMDocument document, Consumer<DOMNode> collector) {
+		collect(document, false, collector);
+	}
+
+	private void collect(DOMNode parent, boolean parentMatched, Consumer<DOMNode> collector) {
+		for (DOMNode node : parent.getChildren()) {
+			if (node.isElement()) {
+				boolean matched = matchElement(node);
+				if (matched) {
+					if (selectedAttrName != null) {
+						DOMAttr attr = node.getAttributeNode(selectedAttrName);
+						if (attr != null) {
+							collector.accept(attr);
+						}
+					} else if (!selectText) {
+						collector.accept(node);
+					}
+				}
+				if (node.hasChildNodes()) {
+					collect(node, matched, collector);
+				}
+			} else if (selectText && parentMatched && (node.getNodeType() == Node.TEXT_NODE
+					|| node.getNodeType() == Node.CDATA_SECTION_NODE)) {
+				collector.accept(node);
+			}
+		}
+	}
+
+	private boolean matchElement(DOMNode element) {
+		if (!match(element)) {
+			return false;
+		}
+		if (!absolute) {
+			return true;
+		}
+		// The first step of an absolute path must match the root element
+		Node root = element;
+		for (int i = 1; i < size(); i++) {
+			root = root.getParentNode();
+		}
+		Node parent = root.getParentNode();
+		return parent != null && parent.getNodeType() == Node.DOCUMENT_NODE;
+	}
+
+	@Override
+	public String toString() {
+		return expression;
+	}
+}
@@ -0,0 +1,149 @@
+/*******************************************************************************
+* Copyright (c) 2019 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lsp4xml;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.eclipse.lsp4j.DidChangeTextDocumentParams;
+import org.eclipse.lsp4j.DidOpenTextDocumentParams;
+import org.eclipse.lsp4j.DocumentHighlight;
+import org.eclipse.lsp4j.Hover;
+import org.eclipse.lsp4j.MessageActionItem;
+import org.eclipse.lsp4j.MessageParams;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.PublishDiagnosticsParams;
+import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4j.ShowMessageRequestParams;
+import org.eclipse.lsp4j.TextDocumentContentChangeEvent;
+import org.eclipse.lsp4j.TextDocumentIdentifier;
+import org.eclipse.lsp4j.TextDocumentItem;
+import org.eclipse.lsp4j.TextDocumentPositionParams;
+import org.eclipse.lsp4j.VersionedTextDocumentIdentifier;
+import org.eclipse.lsp4j.services.LanguageClient;
+import org.eclipse.lsp4xml.dom.DOMDocument;
+import org.eclipse.lsp4xml.services.extensions.HoverParticipantAdapter;
+import org.eclipse.lsp4xml.services.extensions.IHoverRequest;
+import org.junit.Test;
+
+/**
+ * Tests for {@link XMLTextDocumentService} with the DOM document loaded before
+ * the last changes (stale DOM document).
+ *
+ */
+public class XMLTextDocumentServiceTest {
+
+	private static final String URI = "test.xml";
+
+	@Test
+	public void hoverWithStaleDOM() throws Exception {
+		XMLLanguageServer languageServer = createServer();
+		XMLTextDocumentService textDocumentService = (XMLTextDocumentService) languageServer.getTextDocumentService();
+		DOMDocument staleDocument = openAndChange(textDocumentService);
+		assertNull(staleDocument.getCancelChecker());
+		// the stale DOM document keeps the text snapshot of the version 1
+		assertEquals(1, staleDocument.getTextDocument().getVersion());
+		assertEquals(2, textDocumentService.getDocument(URI).getVersion());
+
+		// <a> in the DOM document of the version 1
+		Hover hover = languageServer.getXMLLanguageService().doHover(staleDocument, new Position(1, 3),
+				textDocumentService.getSharedSettings().getHoverSettings(), () -> {
+				});
+		assertEquals("<a>", hover.getContents().getRight().getValue());
+		assertEquals(new Range(new Position(1, 3), new Position(1, 4)), hover.getRange());
+
+		// <a> in the current text, the hover is computed with the stale DOM document
+		// when the DOM document of the version 2 is not loaded
+		hover = textDocumentService.hover(new TextDocumentPositionParams(new TextDocumentIdentifier(URI),
+				new Position(1, 7))).get();
+		assertEquals("<a>", hover.getContents().getRight().getValue());
+		assertEquals(new Range(new Position(1, 7), new Position(1, 8)), hover.getRange());
+	}
+
+	@Test
+	public void highlightWithStaleDOM() throws Exception {
+		XMLLanguageServer languageServer = createServer();
+		XMLTextDocumentService textDocumentService = (XMLTextDocumentService) languageServer.getTextDocumentService();
+		DOMDocument staleDocument = openAndChange(textDocumentService);
+
+		List<DocumentHighlight> highlights = languageServer.getXMLLanguageService()
+				.findDocumentHighlights(staleDocument, new Position(1, 3), () -> {
+				});
+		assertEquals(2, highlights.size());
+		assertEquals(new Range(new Position(1, 3), new Position(1, 4)), highlights.get(0).getRange());
+		assertEquals(new Range(new Position(1, 7), new Position(1, 8)), highlights.get(1).getRange());
+
+		List<? extends DocumentHighlight> currentHighlights = textDocumentService.documentHighlight(
+				new TextDocumentPositionParams(new TextDocumentIdentifier(URI), new Position(1, 7))).get();
+		assertEquals(2, currentHighlights.size());
+		assertEquals(new Range(new Position(1, 7), new Position(1, 8)), currentHighlights.get(0).getRange());
+		assertEquals(new Range(new Position(1, 11), new Position(1, 12)), currentHighlights.get(1).getRange());
+	}
+
+	/**
+	 * Opens the document, waits for its DOM document, inserts <code>&lt;b/&gt;</code>
+	 * before <code>&lt;a&gt;</code> and returns the DOM document of the version 1.
+	 */
+	private static DOMDocument openAndChange(XMLTextDocumentService textDocumentService) throws Exception {
+		textDocumentService.didOpen(
+				new DidOpenTextDocumentParams(new TextDocumentItem(URI, "xml", 1, "<root>\n  <a></a>\n</root>")));
+		DOMDocument staleDocument = textDocumentService.getDocument(URI).getModel().get();
+
+		Position insert = new Position(1, 2);
+		TextDocumentContentChangeEvent change = new TextDocumentContentChangeEvent(new Range(insert, insert), 0,
+				"<b/>");
+		textDocumentService.didChange(new DidChangeTextDocumentParams(new VersionedTextDocumentIdentifier(URI, 2),
+				Collections.singletonList(change)));
+		return staleDocument;
+	}
+
+	private static XMLLanguageServer createServer() {
+		XMLLanguageServer languageServer = new XMLLanguageServer();
+		languageServer.getXMLLanguageService().registerHoverParticipant(new HoverParticipantAdapter() {
+
+			@Override
+			public String onTag(IHoverRequest request) {
+				return "<" + request.getCurrentTag() + ">";
+			}
+		});
+		languageServer.setClient(new LanguageClient() {
+
+			@Override
+			public CompletableFuture<MessageActionItem> showMessageRequest(ShowMessageRequestParams requestParams) {
+				return null;
+			}
+
+			@Override
+			public void showMessage(MessageParams messageParams) {
+
+			}
+
+			@Override
+			public void publishDiagnostics(PublishDiagnosticsParams diagnostics) {
+
+			}
+
+			@Override
+			public void logMessage(MessageParams message) {
+
+			}
+
+			@Override
+			public void telemetryEvent(Object object) {
+
+			}
+		});
+		return languageServer;
+	}
+}
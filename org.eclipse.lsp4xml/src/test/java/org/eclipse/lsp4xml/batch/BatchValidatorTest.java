@@ -0,0 +1,171 @@
+/*******************************************************************************
+* Copyright (c) 2019 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lsp4xml.batch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.lsp4j.Diagnostic;
+import org.eclipse.lsp4j.DiagnosticSeverity;
+import org.eclipse.lsp4xml.XMLValidatorLauncher;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.gson.JsonObject;
+
+/**
+ * Tests for the batch validation.
+ *
+ */
+public class BatchValidatorTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private Path root;
+
+	@Before
+	public void createFiles() throws IOException {
+		root = folder.getRoot().toPath();
+		write("valid.xml", "<root><a /></root>");
+		write("sub/malformed.xml", "<root><a></root>");
+		write("sub/invalid.xml", "<!DOCTYPE root [\r\n" + //
+				"  <!ELEMENT root (a)>\r\n" + //
+				"  <!ELEMENT a EMPTY>\r\n" + //
+				"]>\r\n" + //
+				"<root>\r\n" + //
+				"  <b />\r\n" + //
+				"</root>");
+		write("ignored.txt", "<root>");
+	}
+
+	@Test
+	public void validate() throws IOException {
+		BatchValidator validator = new BatchValidator(2);
+		BatchValidationResult result = validator.validate(Collections.singletonList(root));
+		List<FileDiagnostics> files = result.getFiles();
+		assertEquals(3, files.size());
+		assertEquals(root.resolve("sub/invalid.xml").toUri().toString(), files.get(0).getUri());
+		assertEquals(root.resolve("sub/malformed.xml").toUri().toString(), files.get(1).getUri());
+		assertEquals(root.resolve("valid.xml").toUri().toString(), files.get(2).getUri());
+
+		assertTrue(files.get(0).getDiagnostics().stream().anyMatch(d -> "MSG_ELEMENT_NOT_DECLARED".equals(d.getCode())));
+		assertTrue(files.get(1).getDiagnostics().stream().anyMatch(d -> d.getSeverity() == DiagnosticSeverity.Error));
+		assertTrue(files.get(2).getDiagnostics().stream().noneMatch(d -> d.getSeverity() == DiagnosticSeverity.Error));
+		assertEquals(Files.size(root.resolve("valid.xml")), files.get(2).getSize());
+	}
+
+	@Test
+	public void validationError() throws IOException {
+		BatchValidator validator = new BatchValidator(2);
+		validator.getXMLLanguageService().registerDiagnosticsParticipant((xmlDocument, diagnostics, monitor) -> {
+			if (xmlDocument.getDocumentURI().endsWith("malformed.xml")) {
+				throw new IllegalStateException("Validation error");
+			}
+		});
+		List<FileDiagnostics> files = validator.validate(Collections.singletonList(root)).getFiles();
+		assertEquals(3, files.size());
+		// the error is reported on its file, the other files are validated
+		List<Diagnostic> diagnostics = files.get(1).getDiagnostics();
+		assertEquals(1, diagnostics.size());
+		assertEquals("Cannot validate the file: Validation error", diagnostics.get(0).getMessage());
+		assertEquals(DiagnosticSeverity.Error, diagnostics.get(0).getSeverity());
+		assertEquals(Files.size(root.resolve("sub/malformed.xml")), files.get(1).getSize());
+		assertTrue(files.get(0).getDiagnostics().stream().anyMatch(d -> "MSG_ELEMENT_NOT_DECLARED".equals(d.getCode())));
+	}
+
+	@Test
+	public void extensions() throws IOException {
+		BatchValidator validator = new BatchValidator(1);
+		validator.setExtensions(Arrays.asList("TXT"));
+		BatchValidationResult result = validator.validate(Collections.singletonList(root));
+		assertEquals(1, result.getFiles().size());
+		assertEquals(root.resolve("ignored.txt").toUri().toString(), result.getFiles().get(0).getUri());
+	}
+
+	@Test
+	public void settings() throws IOException {
+		Path settings = write("settings.json", "{\"xml\": {\"validation\": {\"enabled\": false}}}");
+		BatchValidator validator = new BatchValidator(1);
+		validator.updateSettings(settings);
+		BatchValidationResult result = validator.validate(Collections.singletonList(root.resolve("sub")));
+		assertEquals(2, result.getFiles().size());
+		assertEquals(0, result.getDiagnosticsCount(DiagnosticSeverity.Error));
+	}
+
+	@Test
+	public void readWithBOM() throws IOException {
+		Path file = root.resolve("bom.xml");
+		Files.write(file, "\uFEFF<root />".getBytes(StandardCharsets.UTF_8));
+		assertEquals("<root />", BatchValidator.read(file));
+	}
+
+	@Test
+	public void sarifReport() throws IOException {
+		BatchValidator validator = new BatchValidator(1);
+		BatchValidationResult result = validator
+				.validate(Collections.singletonList(root.resolve("sub/invalid.xml")));
+		JsonObject report = BatchValidationReport.toSARIF(result);
+		assertEquals("2.1.0", report.get("version").getAsString());
+		JsonObject run = report.getAsJsonArray("runs").get(0).getAsJsonObject();
+		assertEquals("lsp4xml", run.getAsJsonObject("tool").getAsJsonObject("driver").get("name").getAsString());
+		Diagnostic diagnostic = result.getFiles().get(0).getDiagnostics().get(0);
+		JsonObject sarifResult = run.getAsJsonArray("results").get(0).getAsJsonObject();
+		assertEquals(diagnostic.getCode(), sarifResult.get("ruleId").getAsString());
+		assertEquals("error", sarifResult.get("level").getAsString());
+		JsonObject location = sarifResult.getAsJsonArray("locations").get(0).getAsJsonObject()
+				.getAsJsonObject("physicalLocation");
+		assertEquals(root.resolve("sub/invalid.xml").toUri().toString(),
+				location.getAsJsonObject("artifactLocation").get("uri").getAsString());
+		assertEquals(diagnostic.getRange().getStart().getLine() + 1,
+				location.getAsJsonObject("region").get("startLine").getAsInt());
+		assertEquals(1, run.getAsJsonObject("properties").getAsJsonObject("statistics").get("files").getAsInt());
+	}
+
+	@Test
+	public void launcher() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ByteArrayOutputStream err = new ByteArrayOutputStream();
+		Path output = root.resolve("report.json");
+		int exitCode = XMLValidatorLauncher.launch(
+				new String[] { "--output", output.toString(), root.resolve("valid.xml").toString() },
+				new PrintStream(out), new PrintStream(err));
+		assertEquals(0, exitCode);
+		assertTrue(new String(Files.readAllBytes(output), StandardCharsets.UTF_8).contains("\"statistics\""));
+		assertTrue(new String(err.toByteArray(), StandardCharsets.UTF_8).contains("1 files"));
+
+		exitCode = XMLValidatorLauncher.launch(new String[] { root.toString() }, new PrintStream(out),
+				new PrintStream(err));
+		assertEquals(1, exitCode);
+
+		exitCode = XMLValidatorLauncher.launch(new String[] { "--format", "xml", root.toString() },
+				new PrintStream(out), new PrintStream(err));
+		assertEquals(2, exitCode);
+	}
+
+	private Path write(String fileName, String content) throws IOException {
+		Path file = root.resolve(fileName);
+		Files.createDirectories(file.getParent());
+		Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+		return file;
+	}
+}
@@ -0,0 +1,125 @@
+/*******************************************************************************
+* Copyright (c) 2019 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lsp4xml.commons;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+
+import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4j.TextDocumentContentChangeEvent;
+import org.junit.Test;
+
+/**
+ * Tests for the stale model of a {@link ModelTextDocument}.
+ *
+ */
+public class StaleModelTest {
+
+	@Test
+	public void noStaleModel() throws Exception {
+		ModelTextDocument<String> document = createDocument("<root><a/></root>");
+		// no loaded model
+		replace(document, 6, 6, "<b/>");
+		assertNull(document.getStaleModel(10));
+
+		// the model is loaded for the current version
+		document.getModel().get();
+		assertNull(document.getStaleModel(10));
+
+		// too many changes
+		replace(document, 6, 6, "<c/>");
+		replace(document, 6, 6, "<d/>");
+		assertNotNull(document.getStaleModel(2));
+		assertNull(document.getStaleModel(1));
+
+		// the whole text is replaced
+		document.setVersion(document.getVersion() + 1);
+		document.update(Collections.singletonList(new TextDocumentContentChangeEvent("<root/>")));
+		assertNull(document.getStaleModel(10));
+	}
+
+	@Test
+	public void translateOffsets() throws Exception {
+		String text = "<root><a/><b/></root>";
+		ModelTextDocument<String> document = createDocument(text);
+		String model = document.getModel().get();
+
+		// <root><a/><b/></root> -> <root><a/><cc/></root>
+		replace(document, 11, 12, "cc");
+		// <root><a/><cc/></root> -> <root><x/><a/><cc/></root>
+		replace(document, 6, 6, "<x/>");
+		String current = document.getText();
+		assertEquals("<root><x/><a/><cc/></root>", current);
+
+		StaleModel<String> staleModel = document.getStaleModel(10);
+		assertSame(model, staleModel.getModel());
+		assertEquals(2, staleModel.getChangesCount());
+		assertEquals(current, staleModel.getDocument().getText());
+
+		// '<a/>'
+		assertEquals(7, staleModel.toModelOffset(current.indexOf("a/>")));
+		assertEquals(current.indexOf("a/>"), staleModel.toCurrentOffset(7));
+		// '</root>'
+		assertEquals(text.indexOf("</root>"), staleModel.toModelOffset(current.indexOf("</root>")));
+		assertEquals(current.indexOf("</root>"), staleModel.toCurrentOffset(text.indexOf("</root>")));
+		// start of the text
+		assertEquals(0, staleModel.toModelOffset(0));
+		assertEquals(0, staleModel.toCurrentOffset(0));
+
+		// offsets which touch a change
+		assertEquals(-1, staleModel.toModelOffset(current.indexOf("<x/>")));
+		assertEquals(-1, staleModel.toModelOffset(current.indexOf("cc") + 1));
+		assertEquals(-1, staleModel.toCurrentOffset(text.indexOf("b/>")));
+		assertEquals(-1, staleModel.toCurrentOffset(6));
+
+		// ranges
+		assertFalse(staleModel.isModified(7, 8));
+		assertTrue(staleModel.isModified(10, 15));
+		assertTrue(staleModel.isModified(0, text.length()));
+		assertFalse(staleModel.isModified(15, text.length()));
+	}
+
+	@Test
+	public void loadClearsChanges() throws Exception {
+		ModelTextDocument<String> document = createDocument("<root></root>");
+		document.getModel().get();
+		replace(document, 6, 6, "<a/>");
+		assertEquals(1, document.getStaleModel(10).getChangesCount());
+
+		String model = document.getModel().get();
+		assertEquals("<root><a/></root>", model);
+		assertNull(document.getStaleModel(10));
+		replace(document, 10, 10, "<b/>");
+		StaleModel<String> staleModel = document.getStaleModel(10);
+		assertSame(model, staleModel.getModel());
+		assertEquals(1, staleModel.getChangesCount());
+	}
+
+	private static ModelTextDocument<String> createDocument(String text) {
+		ModelTextDocument<String> document = new ModelTextDocument<>(text, "test.xml",
+				(textDocument, cancelChecker) -> textDocument.getText());
+		document.setIncremental(true);
+		document.setVersion(1);
+		return document;
+	}
+
+	private static void replace(ModelTextDocument<String> document, int start, int end, String text)
+			throws BadLocationException {
+		Range range = new Range(document.positionAt(start), document.positionAt(end));
+		document.setVersion(document.getVersion() + 1);
+		document.update(Collections.singletonList(new TextDocumentContentChangeEvent(range, end - start, text)));
+	}
+}
@@ -0,0 +1,112 @@
+/*******************************************************************************
+* Copyright (c) 2019 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+
+package org.eclipse.lsp4xml.dom;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import org.eclipse.lsp4xml.uriresolver.URIResolverExtensionManager;
+import org.eclipse.lsp4xml.utils.DOMUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for the cache of the parsed DOM documents of the referenced files.
+ *
+ */
+public class DOMDocumentCacheTest {
+
+	private Path file;
+
+	private String uri;
+
+	private URIResolverExtensionManager resolverExtensionManager;
+
+	@Before
+	public void createFile() throws IOException {
+		file = Files.createTempFile("included", ".xsd");
+		uri = file.toUri().toString();
+		write("<xs:schema xmlns:xs=\"http://www.w3.org/2001/XMLSchema\">\r\n" + //
+				"	<xs:element name=\"note\" />\r\n" + //
+				"</xs:schema>", 1000);
+		resolverExtensionManager = new URIResolverExtensionManager();
+	}
+
+	@After
+	public void deleteFile() throws IOException {
+		Files.deleteIfExists(file);
+	}
+
+	@Test
+	public void cachedDocument() throws IOException {
+		DOMDocumentCache cache = resolverExtensionManager.getDocumentCache();
+		DOMDocument document = DOMUtils.loadDocument(uri, resolverExtensionManager);
+		assertEquals("xs:schema", document.getDocumentElement().getNodeName());
+		assertSame(resolverExtensionManager, document.getResolverExtensionManager());
+		assertSame(document, DOMUtils.loadDocument(uri, resolverExtensionManager));
+		assertEquals(1, cache.getMissCount());
+		assertEquals(1, cache.getHitCount());
+
+		// the file is updated, it is parsed again
+		write("<xs:schema xmlns:xs=\"http://www.w3.org/2001/XMLSchema\" />", 2000);
+		DOMDocument updatedDocument = DOMUtils.loadDocument(uri, resolverExtensionManager);
+		assertNotSame(document, updatedDocument);
+		assertEquals(0, updatedDocument.getDocumentElement().getChildNodes().getLength());
+		assertEquals(2, cache.getMissCount());
+	}
+
+	@Test
+	public void openedDocument() throws IOException {
+		DOMDocument openedDocument = DOMParser.getInstance().parse("<xs:schema />", uri, resolverExtensionManager);
+		resolverExtensionManager.getDocumentCache()
+				.setDocumentProvider(documentURI -> uri.equals(documentURI) ? openedDocument : null);
+		assertSame(openedDocument, DOMUtils.loadDocument(uri, resolverExtensionManager));
+		assertEquals(0, resolverExtensionManager.getDocumentCache().getMissCount());
+	}
+
+	@Test
+	public void disabledCache() throws IOException {
+		DOMDocumentCache cache = resolverExtensionManager.getDocumentCache();
+		cache.setMaxSize(0);
+		DOMDocument document = DOMUtils.loadDocument(uri, resolverExtensionManager);
+		assertNotSame(document, DOMUtils.loadDocument(uri, resolverExtensionManager));
+		assertEquals(0, cache.getHitCount());
+	}
+
+	@Test
+	public void documentBiggerThanCache() throws IOException {
+		DOMDocumentCache cache = resolverExtensionManager.getDocumentCache();
+		cache.setMaxSize(10);
+		DOMDocument document = DOMUtils.loadDocument(uri, resolverExtensionManager);
+		assertNotSame(document, DOMUtils.loadDocument(uri, resolverExtensionManager));
+		assertEquals(2, cache.getMissCount());
+	}
+
+	@Test
+	public void missingFile() throws IOException {
+		Files.delete(file);
+		assertNull(DOMUtils.loadDocument(uri, resolverExtensionManager));
+	}
+
+	private void write(String content, long lastModified) throws IOException {
+		Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+		Files.setLastModifiedTime(file, FileTime.fromMillis(lastModified));
+	}
+}
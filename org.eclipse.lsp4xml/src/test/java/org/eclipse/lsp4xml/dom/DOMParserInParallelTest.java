@@ -0,0 +1,245 @@
+/*******************************************************************************
+* Copyright (c) 2019 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lsp4xml.dom;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import org.eclipse.lsp4xml.commons.TextDocument;
+import org.junit.Test;
+
+/**
+ * Differential tests which compare the DOM document of
+ * {@link DOMParser#parseInParallel(TextDocument, org.eclipse.lsp4xml.uriresolver.URIResolverExtensionManager, boolean, org.eclipse.lsp4j.jsonrpc.CancelChecker)}
+ * with the DOM document of the sequential parse.
+ *
+ */
+public class DOMParserInParallelTest {
+
+	@Test
+	public void splitOffsets() {
+		String xml = "<?xml version=\"1.0\"?>\r\n" + //
+				"<!DOCTYPE root SYSTEM \"root.dtd\">\r\n" + //
+				"<root>\r\n" + //
+				"  <a b=\"<c>\"/>\r\n" + //
+				"  <!-- <d> -->\r\n" + //
+				"  <![CDATA[<e>]]>\r\n" + //
+				"  <f><g/></f>\r\n" + //
+				"</root>";
+		assertEquals(Arrays.asList(xml.indexOf("<a"), xml.indexOf("<f")), DOMParser.findSplitOffsets(xml, 1));
+		assertEquals(Arrays.asList(xml.indexOf("<f")), DOMParser.findSplitOffsets(xml, xml.indexOf("<a") + 1));
+		// internal subset
+		assertEquals(0, DOMParser.findSplitOffsets("<!DOCTYPE root [<!ELEMENT root ANY>]><root><a/></root>", 1).size());
+		// DTD declaration in the content
+		assertEquals(Arrays.asList(6),
+				DOMParser.findSplitOffsets("<root><a/><!ELEMENT root ANY><b/><c/></root>", 1).subList(0, 1));
+		assertEquals(1, DOMParser.findSplitOffsets("<root><a/><!ELEMENT root ANY><b/><c/></root>", 1).size());
+	}
+
+	@Test
+	public void wellFormed() {
+		Logger logger = Logger.getLogger(DOMParser.class.getName());
+		Level level = logger.getLevel();
+		List<String> messages = new ArrayList<>();
+		Handler handler = new Handler() {
+
+			@Override
+			public void publish(LogRecord record) {
+				messages.add(record.getMessage());
+			}
+
+			@Override
+			public void flush() {
+			}
+
+			@Override
+			public void close() {
+			}
+		};
+		logger.setLevel(Level.FINE);
+		logger.addHandler(handler);
+		try {
+			assertWellFormedDocuments();
+		} finally {
+			logger.removeHandler(handler);
+			logger.setLevel(level);
+		}
+		// the documents are parsed in parallel (without fallback to the sequential
+		// parse)
+		assertEquals(Collections.emptyList(), messages);
+	}
+
+	private static void assertWellFormedDocuments() {
+		assertSameDocument("<root><a/><b></b><c>text</c></root>");
+		assertSameDocument("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\r\n" + //
+				"<!DOCTYPE root SYSTEM \"root.dtd\">\r\n" + //
+				"<root xmlns=\"http://root\">\r\n" + //
+				"  <a b=\"<c>\" d='>'/>\r\n" + //
+				"  <!-- <d> -->\r\n" + //
+				"  <f><g/><!-- same line --></f> <!-- comment -->\r\n" + //
+				"  <![CDATA[<e>]]>\r\n" + //
+				"  <?pi content?>\r\n" + //
+				"  <h>text &amp; more text</h>\r\n" + //
+				"  <!-- comment --> <i/>\r\n" + //
+				"</root>\r\n" + //
+				"<!-- after -->");
+		StringBuilder xml = new StringBuilder("<records>");
+		for (int i = 0; i < 100; i++) {
+			xml.append("\n  <record id=\"").append(i).append("\"><name>Name ").append(i)
+					.append("</name><!-- record --></record>");
+		}
+		xml.append("\n</records>");
+		assertSameDocument(xml.toString());
+	}
+
+	@Test
+	public void malformed() {
+		// unclosed element
+		assertSameDocument("<root><a><b/><c/></root>");
+		// end tag without start tag
+		assertSameDocument("<root><a/></b><c/></root>");
+		assertSameDocument("<root><a/></root><c/><d/>");
+		// attribute without value before an assign in the next chunk
+		assertSameDocument("<root><a b/><c =\"d\"/><e/></root>");
+		// no end tag for the document element
+		assertSameDocument("<root><a/><b/>");
+		// unclosed comment, CDATA, attribute value
+		assertSameDocument("<root><a/><!-- <b/><c/></root>");
+		assertSameDocument("<root><a/><![CDATA[ <b/><c/></root>");
+		assertSameDocument("<root><a/><b c=\"<d/><e/></root>");
+		// DTD in the content
+		assertSameDocument("<root><a/><!DOCTYPE a [<!ELEMENT a ANY>]><b/><c/></root>");
+		// no document element
+		assertSameDocument("<a/><b/><c/>");
+		assertSameDocument("text");
+	}
+
+	@Test
+	public void randomDocuments() {
+		Random random = new Random(0);
+		for (int i = 0; i < 300; i++) {
+			StringBuilder xml = new StringBuilder("<root>");
+			int children = 1 + random.nextInt(10);
+			for (int j = 0; j < children; j++) {
+				appendNode(xml, random, 3);
+			}
+			xml.append("</root>");
+			String text = xml.toString();
+			assertSameDocument(text);
+			// remove some characters
+			StringBuilder malformed = new StringBuilder(text);
+			for (int j = 0; j < 3; j++) {
+				malformed.deleteCharAt(random.nextInt(malformed.length()));
+			}
+			assertSameDocument(malformed.toString());
+		}
+	}
+
+	private static void appendNode(StringBuilder xml, Random random, int depth) {
+		switch (random.nextInt(depth > 0 ? 6 : 4)) {
+		case 0:
+			xml.append(random.nextBoolean() ? " text " : "\r\n  ");
+			break;
+		case 1:
+			xml.append("<!-- <a> -->");
+			break;
+		case 2:
+			xml.append("<![CDATA[<b>]]>");
+			break;
+		case 3:
+			xml.append("<c d=\"<e>\"/>");
+			break;
+		default:
+			String name = "e" + random.nextInt(3);
+			xml.append('<').append(name).append(random.nextBoolean() ? " f='g'" : "").append('>');
+			int children = random.nextInt(4);
+			for (int i = 0; i < children; i++) {
+				appendNode(xml, random, depth - 1);
+			}
+			xml.append("</").append(name).append('>');
+		}
+	}
+
+	private static void assertSameDocument(String xml) {
+		DOMParser parser = DOMParser.getInstance();
+		for (boolean ignoreWhitespaceContent : new boolean[] { true, false }) {
+			DOMDocument expected = parser.parse(new TextDocument(xml, "test.xml"), null, ignoreWhitespaceContent,
+					null);
+			// chunk size of 1: each child of the document element is parsed in its own
+			// chunk
+			DOMDocument actual = parser.parseInParallel(new TextDocument(xml, "test.xml"), null,
+					ignoreWhitespaceContent, null, 1);
+			assertEquals(xml, dump(expected), dump(actual));
+		}
+	}
+
+	/**
+	 * Returns the values of all fields of the given node and its children.
+	 */
+	private static String dump(DOMNode node) {
+		StringBuilder dump = new StringBuilder();
+		dump(node, dump, "");
+		assertTrue(dump.length() > 0);
+		return dump.toString();
+	}
+
+	private static void dump(Object node, StringBuilder dump, String indent) {
+		dump.append(indent).append(node.getClass().getSimpleName()).append(" {");
+		for (Class<?> c = node.getClass(); c != Object.class; c = c.getSuperclass()) {
+			for (Field field : c.getDeclaredFields()) {
+				if (Modifier.isStatic(field.getModifiers()) || field.getName().equals("parent")
+						|| field.getName().equals("ownerElement") || field.getName().equals("ownerDocument")) {
+					continue;
+				}
+				field.setAccessible(true);
+				Object value;
+				try {
+					value = field.get(node);
+				} catch (IllegalAccessException e) {
+					throw new RuntimeException(e);
+				}
+				if (value != null && !(value instanceof Number || value instanceof Boolean
+						|| value instanceof String || value instanceof Enum<?>)) {
+					// nodes and the document objects
+					continue;
+				}
+				dump.append(' ').append(field.getName()).append('=').append(value);
+			}
+		}
+		dump.append(" }\n");
+		if (node instanceof DOMNode) {
+			DOMNode domNode = (DOMNode) node;
+			if (domNode.getAttributeNodes() != null) {
+				for (DOMAttr attr : domNode.getAttributeNodes()) {
+					dump(attr, dump, indent + "  @");
+					dump(attr.getNodeAttrName(), dump, indent + "  @");
+					if (attr.getNodeAttrValue() != null) {
+						dump(attr.getNodeAttrValue(), dump, indent + "  @=");
+					}
+				}
+			}
+			for (DOMNode child : domNode.getChildren()) {
+				dump(child, dump, indent + "  ");
+			}
+		}
+	}
+}
@@ -0,0 +1,101 @@
+/**
+ *  Copyright (c) 2019 Red Hat Inc. and others.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v2.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v20.html
+ *
+ *  Contributors:
+ *  Red Hat Inc. - initial API and implementation
+ */
+package org.eclipse.lsp4xml.extensions.contentmodel;
+
+import static org.eclipse.lsp4xml.XMLAssert.d;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.eclipse.lsp4j.Diagnostic;
+import org.eclipse.lsp4xml.XMLAssert;
+import org.eclipse.lsp4xml.XMLAssert.SettingsSaveContext;
+import org.eclipse.lsp4xml.commons.TextDocument;
+import org.eclipse.lsp4xml.dom.DOMDocument;
+import org.eclipse.lsp4xml.dom.DOMParser;
+import org.eclipse.lsp4xml.extensions.contentmodel.participants.XMLSchemaErrorCode;
+import org.eclipse.lsp4xml.extensions.contentmodel.participants.XMLSyntaxErrorCode;
+import org.eclipse.lsp4xml.extensions.contentmodel.settings.ContentModelSettings;
+import org.eclipse.lsp4xml.extensions.contentmodel.settings.XMLValidationSettings;
+import org.eclipse.lsp4xml.services.XMLLanguageService;
+import org.junit.Test;
+
+/**
+ * Tests for the validation of large files without DOM document.
+ *
+ */
+public class XMLValidationOnlyTest {
+
+	@Test
+	public void largeFileThreshold() {
+		XMLValidationSettings settings = new XMLValidationSettings();
+		assertFalse(settings.isValidationOnly(Integer.MAX_VALUE));
+		settings.setLargeFileThreshold(10);
+		assertFalse(settings.isValidationOnly(10));
+		assertTrue(settings.isValidationOnly(11));
+	}
+
+	@Test
+	public void syntaxError() {
+		String xml = "<a>\r\n" + //
+				"  <b>\r\n" + //
+				"</a>";
+		testValidationOnlyFor(xml, d(2, 2, 2, 3, XMLSyntaxErrorCode.ETagRequired));
+	}
+
+	@Test
+	public void schemaError() {
+		String xml = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\r\n" + //
+				"<invoice xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\"\r\n" + //
+				" xsi:noNamespaceSchemaLocation=\"src/test/resources/xsd/invoice.xsd\">\r\n" + //
+				"  <date>2017-11-30_INVALID</date>\r\n" + // <- error
+				"  <number>0</number>\r\n" + //
+				"  <products>\r\n" + //
+				"  	<product price=\"1\" description=\"\"/>\r\n" + //
+				"  </products>\r\n" + //
+				"  <payments>\r\n" + //
+				"  	<payment amount=\"1\" method=\"credit\"/>\r\n" + //
+				"  </payments>\r\n" + //
+				"</invoice>";
+		testValidationOnlyFor(xml, d(3, 28, 3, 32, XMLSchemaErrorCode.cvc_datatype_valid_1_2_1),
+				d(3, 28, 3, 32, XMLSchemaErrorCode.cvc_type_3_1_3));
+	}
+
+	@Test
+	public void noGrammar() {
+		String xml = "<a>\r\n" + //
+				"  <b />\r\n" + //
+				"</a>";
+		testValidationOnlyFor(xml);
+	}
+
+	private static void testValidationOnlyFor(String xml, Diagnostic... expected) {
+		XMLLanguageService xmlLanguageService = new XMLLanguageService();
+		ContentModelSettings settings = new ContentModelSettings();
+		settings.setUseCache(false);
+		XMLValidationSettings validationSettings = new XMLValidationSettings();
+		validationSettings.setNoGrammar("ignore");
+		validationSettings.setLargeFileThreshold(1);
+		settings.setValidation(validationSettings);
+		xmlLanguageService.doSave(new SettingsSaveContext(settings));
+
+		DOMDocument xmlDocument = DOMParser.getInstance().createValidationOnlyDocument(
+				new TextDocument(xml, "test.xml"), xmlLanguageService.getResolverExtensionManager(), null);
+		assertTrue(xmlDocument.isValidationOnly());
+		assertFalse(xmlDocument.hasChildNodes());
+		xmlLanguageService.setDocumentProvider((uri) -> xmlDocument);
+
+		List<Diagnostic> actual = xmlLanguageService.doDiagnostics(xmlDocument, () -> {
+		}, validationSettings);
+		XMLAssert.assertDiagnostics(actual, expected);
+	}
+}
@@ -240,9 +240,42 @@ public class XMLValidationPoolCacheTest extends BaseFileTempTest {
 		testDiagnosticsFor(xmlLanguageService, xml, d);
 	}
 
+	@Test
+	public void dtdNotFound() throws IOException {
+		XMLLanguageService xmlLanguageService = new XMLLanguageService();
+
+		String dtdPath = tempDirUri.getPath() + "/missing.dtd";
+		String xmlPath = tempDirUri.toString() + "/missing.xml";
+		String xml = "<?xml version=\"1.0\" encoding=\"UTF-8\" ?>\r\n" + //
+				"<!DOCTYPE note SYSTEM \"missing.dtd\">\r\n" + //
+				"<note>\r\n" + //
+				"</note>";
+
+		// DTD doesn't exist
+		Diagnostic d = d(1, 22, 1, 35, DTDErrorCode.dtd_not_found);
+		testDiagnosticsFor(xmlLanguageService, xml, xmlPath, d);
+		// validate a second time (to use cached DTD check)
+		testDiagnosticsFor(xmlLanguageService, xml, xmlPath, d);
+
+		// Create the DTD -> DTD check must be done again
+		String dtd = "<!ELEMENT note (to)>\r\n" + //
+				"<!ELEMENT to (#PCDATA)>\r\n" + //
+				"";
+		createFile(dtdPath, dtd);
+		d = d(2, 1, 5, DTDErrorCode.MSG_CONTENT_INCOMPLETE);
+		testDiagnosticsFor(xmlLanguageService, xml, xmlPath, d);
+		// validate a second time (to use cached DTD check)
+		testDiagnosticsFor(xmlLanguageService, xml, xmlPath, d);
+	}
+
 	private static void testDiagnosticsFor(XMLLanguageService xmlLanguageService, String xml, Diagnostic... expected) {
+		testDiagnosticsFor(xmlLanguageService, xml, null, expected);
+	}
+
+	private static void testDiagnosticsFor(XMLLanguageService xmlLanguageService, String xml, String fileURI,
+			Diagnostic... expected) {
 		String catalogPath = "src/test/resources/catalogs/catalog.xml";
 		ContentModelSettings settings = new ContentModelSettings();
-		XMLAssert.testDiagnosticsFor(xmlLanguageService, xml, catalogPath, null, null, true, settings, expected);
+		XMLAssert.testDiagnosticsFor(xmlLanguageService, xml, catalogPath, null, fileURI, true, settings, expected);
 	}
 }
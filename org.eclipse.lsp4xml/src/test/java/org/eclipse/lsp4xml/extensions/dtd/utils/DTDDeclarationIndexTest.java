@@ -0,0 +1,90 @@
+/*******************************************************************************
+* Copyright (c) 2019 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lsp4xml.extensions.dtd.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.eclipse.lsp4xml.dom.DOMDocument;
+import org.eclipse.lsp4xml.dom.DOMDocumentType;
+import org.eclipse.lsp4xml.dom.DOMParser;
+import org.eclipse.lsp4xml.dom.DTDDeclParameter;
+import org.junit.Test;
+
+/**
+ * Tests for the DTD declarations index.
+ *
+ */
+public class DTDDeclarationIndexTest {
+
+	private static final String DTD = "<!ELEMENT note (to,from,heading)>\r\n" + //
+			"<!ATTLIST note version CDATA #REQUIRED>\r\n" + //
+			"<!ELEMENT heading (#PCDATA)>\r\n" + //
+			"<!ELEMENT from (#PCDATA)>\r\n" + //
+			"<!ELEMENT to (#PCDATA)>\r\n" + //
+			"<!ENTITY copyright \"Red Hat\">";
+
+	@Test
+	public void index() {
+		DOMDocumentType docType = parse(DTD);
+		DTDDeclarationIndex index = DTDDeclarationIndex.getIndex(docType);
+		assertSame(index, DTDDeclarationIndex.getIndex(docType));
+
+		assertEquals("note,heading,from,to",
+				index.getElementDecls().stream().map(decl -> decl.getName()).collect(Collectors.joining(",")));
+		assertEquals(1, index.getElementDecls("from").size());
+		assertEquals(0, index.getElementDecls("copyright").size());
+
+		assertEquals("to,from,heading,PCDATA,PCDATA,PCDATA", index.getOriginDecls().stream()
+				.flatMap(origin -> origin.getReferences().stream()) //
+				.filter(reference -> reference.getOwnerNode().isDTDElementDecl()) //
+				.map(DTDDeclParameter::getParameter).collect(Collectors.joining(",")));
+		assertEquals(2, index.getReferences("note").size() + index.getReferences("from").size());
+	}
+
+	@Test
+	public void indexEntities() {
+		DOMDocumentType docType = parse(DTD + "\r\n" + //
+				"<!ENTITY % common \"id ID #IMPLIED\">\r\n" + //
+				"<!ENTITY copyright SYSTEM \"copyright.xml\">");
+		DTDDeclarationIndex index = DTDDeclarationIndex.getIndex(docType);
+
+		assertEquals("copyright,common,copyright",
+				index.getEntityDecls().stream().map(decl -> decl.getName()).collect(Collectors.joining(",")));
+		assertEquals(2, index.getEntityDecls("copyright").size());
+		assertEquals(0, index.getEntityDecls("common").size());
+		assertEquals(1, index.getEntityDecls("%common").size());
+		assertEquals(0, index.getEntityDecls("note").size());
+	}
+
+	@Test
+	public void searchAllReferences() {
+		DOMDocumentType docType = parse(DTD);
+		List<String> references = new ArrayList<>();
+		DTDUtils.searchDTDOriginElementDecls(docType,
+				(origin, target) -> references.add(origin.getParameter() + "@" + origin.getStart() + "->"
+						+ target.getParameter() + "@" + target.getStart()),
+				null);
+		// The references of an <!ELEMENT are collected in the order of the targets
+		assertEquals("heading@24->heading@86," + //
+				"from@19->from@116," + //
+				"to@16->to@143," + //
+				"note@45->note@10", String.join(",", references));
+	}
+
+	private static DOMDocumentType parse(String dtd) {
+		DOMDocument document = DOMParser.getInstance().parse(dtd, "test.dtd", null);
+		return document.getDoctype();
+	}
+}
@@ -0,0 +1,85 @@
+/*******************************************************************************
+* Copyright (c) 2019 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lsp4xml.extensions.references;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.xpath.XPathExpressionException;
+
+import org.eclipse.lsp4xml.dom.DOMDocument;
+import org.eclipse.lsp4xml.dom.DOMNode;
+import org.eclipse.lsp4xml.dom.DOMParser;
+import org.junit.Test;
+
+/**
+ * Tests for the XML references.
+ *
+ */
+public class XMLReferencesTest {
+
+	private static final String XML = "<web-app>\r\n" + //
+			"	<servlet>\r\n" + //
+			"		<servlet-name>ServletA</servlet-name>\r\n" + //
+			"	</servlet>\r\n" + //
+			"	<servlet>\r\n" + //
+			"		<servlet-name>ServletB</servlet-name>\r\n" + //
+			"	</servlet>\r\n" + //
+			"	<servlet-mapping>\r\n" + //
+			"		<servlet-name>ServletA</servlet-name>\r\n" + //
+			"	</servlet-mapping>\r\n" + //
+			"</web-app>";
+
+	@Test
+	public void collectTargets() throws XPathExpressionException {
+		XMLReferencesManager manager = new XMLReferencesManager();
+		XMLReference reference = manager.referencesFor(document -> document.getDocumentURI().endsWith("web.xml")) //
+				.from("//servlet-mapping/servlet-name") //
+				.to("//*[local-name()='servlet']/*[local-name() ='servlet-name']/text()");
+
+		DOMDocument document = DOMParser.getInstance().parse(XML, "web.xml", null);
+		DOMNode origin = document.findNodeAt(XML.indexOf("ServletA</servlet-name>\r\n	</servlet-mapping>"));
+		assertEquals("ServletA,ServletB", collect(manager, origin));
+
+		// The target nodes are computed once per DOM document
+		assertSame(reference.getTargets(document), reference.getTargets(document));
+		DOMDocument newDocument = DOMParser.getInstance().parse(XML, "web.xml", null);
+		assertNotSame(reference.getTargets(document), reference.getTargets(newDocument));
+
+		// not an origin node
+		assertEquals("", collect(manager, document.findNodeAt(XML.indexOf("ServletB"))));
+		// not applicable document
+		DOMDocument otherDocument = DOMParser.getInstance().parse(XML, "other.xml", null);
+		assertEquals("", collect(manager,
+				otherDocument.findNodeAt(XML.indexOf("ServletA</servlet-name>\r\n	</servlet-mapping>"))));
+	}
+
+	@Test
+	public void collectTargetsWithJAXP() throws XPathExpressionException {
+		XMLReferencesManager manager = new XMLReferencesManager();
+		manager.referencesFor(document -> true) //
+				.from("//servlet-mapping/servlet-name") //
+				.to("//servlet[servlet-name/text()='ServletB']/servlet-name/text()");
+
+		DOMDocument document = DOMParser.getInstance().parse(XML, "web.xml", null);
+		DOMNode origin = document.findNodeAt(XML.indexOf("ServletA</servlet-name>\r\n	</servlet-mapping>"));
+		assertEquals("ServletB", collect(manager, origin));
+	}
+
+	private static String collect(XMLReferencesManager manager, DOMNode origin) {
+		List<String> targets = new ArrayList<>();
+		manager.collect(origin, target -> targets.add(target.getNodeValue()));
+		return String.join(",", targets);
+	}
+}
@@ -0,0 +1,83 @@
+/*******************************************************************************
+* Copyright (c) 2019 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lsp4xml.extensions.xsd.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.eclipse.lsp4xml.dom.DOMAttr;
+import org.eclipse.lsp4xml.dom.DOMDocument;
+import org.eclipse.lsp4xml.dom.DOMParser;
+import org.junit.Test;
+
+/**
+ * Tests for the XML Schema components index.
+ *
+ */
+public class XSDComponentIndexTest {
+
+	private static final String XSD = "<xs:schema xmlns:xs=\"http://www.w3.org/2001/XMLSchema\"\r\n" + //
+			"	xmlns:tns=\"http://example.org\" targetNamespace=\"http://example.org\">\r\n" + //
+			"	<xs:include schemaLocation=\"included.xsd\" />\r\n" + //
+			"	<xs:element name=\"note\" type=\"tns:NoteType\" />\r\n" + //
+			"	<xs:complexType name=\"NoteType\">\r\n" + //
+			"		<xs:sequence>\r\n" + //
+			"			<xs:element name=\"to\" type=\"tns:PersonType\" />\r\n" + //
+			"			<xs:element name=\"from\" type=\"PersonType\" />\r\n" + //
+			"			<xs:element name=\"other\" type=\"other:PersonType\" />\r\n" + //
+			"		</xs:sequence>\r\n" + //
+			"	</xs:complexType>\r\n" + //
+			"	<xs:simpleType name=\"PersonType\">\r\n" + //
+			"		<xs:restriction base=\"xs:string\" />\r\n" + //
+			"	</xs:simpleType>\r\n" + //
+			"</xs:schema>";
+
+	@Test
+	public void index() {
+		DOMDocument document = DOMParser.getInstance().parse(XSD, "test.xsd", null);
+		XSDComponentIndex index = XSDComponentIndex.getIndex(document);
+		assertEquals("tns", index.getTargetNamespacePrefix());
+		assertEquals("included.xsd", String.join(",", index.getIncludedSchemaLocations()));
+
+		// Top level declarations
+		assertEquals("note,NoteType,PersonType", values(index.getTargetAttrs()));
+		assertEquals("element", index.getTargetAttrs("note").get(0).getOwnerElement().getLocalName());
+		assertEquals("", values(index.getTargetAttrs("to")));
+
+		// References
+		assertEquals("tns:NoteType,tns:PersonType,PersonType,other:PersonType,xs:string",
+				values(index.getOriginAttrs()));
+		assertEquals("tns:PersonType,PersonType", values(index.getOriginAttrs("PersonType")));
+		assertEquals("", values(index.getOriginAttrs("string")));
+	}
+
+	@Test
+	public void indexPerDocument() {
+		DOMDocument document = DOMParser.getInstance().parse(XSD, "test.xsd", null);
+		XSDComponentIndex index = XSDComponentIndex.getIndex(document);
+		assertSame(index, XSDComponentIndex.getIndex(document));
+
+		// A new version of the document has its own index
+		DOMDocument newDocument = DOMParser.getInstance().parse("<xs:schema />", "test.xsd", null);
+		XSDComponentIndex newIndex = XSDComponentIndex.getIndex(newDocument);
+		assertNotSame(index, newIndex);
+		assertNull(newIndex.getTargetNamespacePrefix());
+		assertEquals("", values(newIndex.getTargetAttrs()));
+	}
+
+	private static String values(List<DOMAttr> attrs) {
+		return attrs.stream().map(DOMAttr::getValue).collect(Collectors.joining(","));
+	}
+}
@@ -0,0 +1,124 @@
+/*******************************************************************************
+* Copyright (c) 2019 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lsp4xml.jfr;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+import org.eclipse.lsp4j.jsonrpc.Endpoint;
+import org.eclipse.lsp4j.jsonrpc.MessageConsumer;
+import org.eclipse.lsp4j.jsonrpc.RemoteEndpoint;
+import org.eclipse.lsp4j.jsonrpc.messages.Message;
+import org.eclipse.lsp4j.jsonrpc.messages.NotificationMessage;
+import org.eclipse.lsp4j.jsonrpc.messages.RequestMessage;
+import org.eclipse.lsp4j.jsonrpc.messages.ResponseMessage;
+import org.eclipse.lsp4xml.AbstractCacheBasedTest;
+import org.eclipse.lsp4xml.commons.TextDocument;
+import org.eclipse.lsp4xml.dom.DOMParser;
+import org.junit.Test;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Tests for the Java Flight Recorder events.
+ *
+ */
+public class XMLEventsTest extends AbstractCacheBasedTest {
+
+	@Test
+	public void flightRecording() throws Exception {
+		assumeTrue(XMLEvents.isAvailable());
+		XMLFlightRecording recording = new XMLFlightRecording();
+		assertNull(recording.execute(XMLFlightRecording.START));
+		assertTrue(recording.isStarted());
+
+		TextDocument document = new TextDocument("<root><a/></root>", "test.xml");
+		document.setVersion(3);
+		DOMParser.getInstance().parse(document, null);
+
+		List<Message> messages = new ArrayList<>();
+		RequestEventsRecorder recorder = new RequestEventsRecorder();
+		MessageConsumer outgoing = recorder.apply(messages::add);
+		MessageConsumer incoming = recorder.apply(new RemoteEndpoint(outgoing, new Endpoint() {
+
+			@Override
+			public CompletableFuture<?> request(String method, Object parameter) {
+				return CompletableFuture.completedFuture("result");
+			}
+
+			@Override
+			public void notify(String method, Object parameter) {
+			}
+		}));
+		RequestMessage request = new RequestMessage();
+		request.setId("1");
+		request.setMethod("test/request");
+		incoming.consume(request);
+		NotificationMessage notification = new NotificationMessage();
+		notification.setMethod("test/notification");
+		incoming.consume(notification);
+		assertEquals(1, messages.size());
+		assertTrue(messages.get(0) instanceof ResponseMessage);
+
+		Path file = Paths.get(recording.execute(XMLFlightRecording.STOP));
+		assertFalse(recording.isStarted());
+		assertTrue(Files.exists(file));
+		assertTrue(file.startsWith(TEST_WORK_DIRECTORY.toAbsolutePath()));
+
+		List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+				.filter(e -> e.getEventType().getName().startsWith("org.eclipse.lsp4xml."))
+				.collect(Collectors.toList());
+		RecordedEvent parse = events.stream()
+				.filter(e -> e.getEventType().getName().equals("org.eclipse.lsp4xml.Parse")
+						&& "test.xml".equals(e.getString("uri")))
+				.findFirst().get();
+		assertEquals(3, parse.getInt("version"));
+		assertEquals(17, parse.getInt("length"));
+		assertFalse(parse.getBoolean("parallel"));
+		List<String> methods = events.stream()
+				.filter(e -> e.getEventType().getName().equals("org.eclipse.lsp4xml.Request"))
+				.map(e -> e.getString("method")).collect(Collectors.toList());
+		assertTrue(methods.contains("test/request"));
+		assertTrue(methods.contains("test/notification"));
+	}
+
+	@Test
+	public void disabledEvents() {
+		assumeTrue(XMLEvents.isAvailable());
+		// the events are not created without recording
+		assertSame(XMLEvents.NO_EVENT, XMLEvents.parse(new TextDocument("<root />", "test.xml"), false));
+		assertSame(XMLEvents.NO_EVENT, XMLEvents.request("test/request", "1"));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void dumpWithoutRecording() throws Exception {
+		assumeTrue(XMLEvents.isAvailable());
+		new XMLFlightRecording().execute(XMLFlightRecording.DUMP);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void unknownAction() throws Exception {
+		assumeTrue(XMLEvents.isAvailable());
+		new XMLFlightRecording().execute("restart");
+	}
+}
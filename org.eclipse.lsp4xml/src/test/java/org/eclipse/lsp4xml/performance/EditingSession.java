@@ -0,0 +1,211 @@
+/*******************************************************************************
+* Copyright (c) 2019 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lsp4xml.performance;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.lsp4j.CompletionParams;
+import org.eclipse.lsp4j.DidChangeTextDocumentParams;
+import org.eclipse.lsp4j.DidCloseTextDocumentParams;
+import org.eclipse.lsp4j.DidOpenTextDocumentParams;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4j.TextDocumentContentChangeEvent;
+import org.eclipse.lsp4j.TextDocumentIdentifier;
+import org.eclipse.lsp4j.TextDocumentItem;
+import org.eclipse.lsp4j.TextDocumentPositionParams;
+import org.eclipse.lsp4j.VersionedTextDocumentIdentifier;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+/**
+ * An editing session (opened documents, typed text and requests of the client)
+ * replayed by {@link EditingSessionReplayer}.
+ *
+ * <p>
+ * A session is recorded in a JSON lines file where each line is a step:
+ * <code>{"delay": 50, "method": "textDocument/didChange", "params": {...}}</code>
+ * where <code>delay</code> is the time in milliseconds between the previous
+ * step and this step. A synthetic session of a user typing an XML fragment is
+ * created with {@link #typing(String, String, Position, String, long)}.
+ * </p>
+ *
+ */
+public class EditingSession {
+
+	public static final String DID_OPEN = "textDocument/didOpen";
+
+	public static final String DID_CHANGE = "textDocument/didChange";
+
+	public static final String DID_CLOSE = "textDocument/didClose";
+
+	public static final String COMPLETION = "textDocument/completion";
+
+	public static final String HOVER = "textDocument/hover";
+
+	public static final String CLOSE_TAG = "xml/closeTag";
+
+	/**
+	 * Step of an editing session.
+	 *
+	 */
+	public static class Step {
+
+		private final long delay;
+
+		private final String method;
+
+		private final Object params;
+
+		public Step(long delay, String method, Object params) {
+			this.delay = delay;
+			this.method = method;
+			this.params = params;
+		}
+
+		/**
+		 * Returns the time in milliseconds between the previous step and this step.
+		 *
+		 * @return the time in milliseconds between the previous step and this step.
+		 */
+		public long getDelay() {
+			return delay;
+		}
+
+		public String getMethod() {
+			return method;
+		}
+
+		public Object getParams() {
+			return params;
+		}
+	}
+
+	private final List<Step> steps;
+
+	public EditingSession() {
+		this.steps = new ArrayList<>();
+	}
+
+	public List<Step> getSteps() {
+		return Collections.unmodifiableList(steps);
+	}
+
+	public EditingSession add(long delay, String method, Object params) {
+		steps.add(new Step(delay, method, params));
+		return this;
+	}
+
+	/**
+	 * Returns the session recorded in the given JSON lines.
+	 *
+	 * @param reader the reader of the JSON lines.
+	 * @return the session recorded in the given JSON lines.
+	 * @throws IOException if the session cannot be read.
+	 */
+	public static EditingSession load(Reader reader) throws IOException {
+		Gson gson = new Gson();
+		JsonParser parser = new JsonParser();
+		EditingSession session = new EditingSession();
+		BufferedReader lines = new BufferedReader(reader);
+		String line;
+		while ((line = lines.readLine()) != null) {
+			if (line.trim().isEmpty()) {
+				continue;
+			}
+			JsonObject step = parser.parse(line).getAsJsonObject();
+			long delay = step.has("delay") ? step.get("delay").getAsLong() : 0;
+			String method = step.get("method").getAsString();
+			session.add(delay, method, gson.fromJson(step.get("params"), getParamsClass(method)));
+		}
+		return session;
+	}
+
+	private static Class<?> getParamsClass(String method) throws IOException {
+		switch (method) {
+		case DID_OPEN:
+			return DidOpenTextDocumentParams.class;
+		case DID_CHANGE:
+			return DidChangeTextDocumentParams.class;
+		case DID_CLOSE:
+			return DidCloseTextDocumentParams.class;
+		case COMPLETION:
+			return CompletionParams.class;
+		case HOVER:
+		case CLOSE_TAG:
+			return TextDocumentPositionParams.class;
+		default:
+			throw new IOException("Unsupported method '" + method + "'");
+		}
+	}
+
+	/**
+	 * Returns a synthetic session which opens the given document and types the
+	 * given fragment at the given position, character by character, like a user:
+	 *
+	 * <ul>
+	 * <li>a completion is requested after each character of a tag name,</li>
+	 * <li>the close tag is requested after each '>' of a start tag,</li>
+	 * <li>a hover is requested on the tag name when a start tag is closed.</li>
+	 * </ul>
+	 *
+	 * @param uri      the document URI.
+	 * @param text     the document text.
+	 * @param position the position where the fragment is typed, the fragment
+	 *                 must not contain line breaks.
+	 * @param fragment the typed fragment.
+	 * @param interval the time in milliseconds between two keystrokes.
+	 * @return the synthetic session.
+	 */
+	public static EditingSession typing(String uri, String text, Position position, String fragment,
+			long interval) {
+		EditingSession session = new EditingSession();
+		session.add(0, DID_OPEN, new DidOpenTextDocumentParams(new TextDocumentItem(uri, "xml", 1, text)));
+		TextDocumentIdentifier identifier = new TextDocumentIdentifier(uri);
+		int line = position.getLine();
+		int character = position.getCharacter();
+		int version = 1;
+		int tagNameStart = -1;
+		boolean inStartTag = false;
+		for (char c : fragment.toCharArray()) {
+			Position insert = new Position(line, character);
+			TextDocumentContentChangeEvent change = new TextDocumentContentChangeEvent(new Range(insert, insert), 0,
+					String.valueOf(c));
+			session.add(interval, DID_CHANGE, new DidChangeTextDocumentParams(
+					new VersionedTextDocumentIdentifier(uri, ++version), Collections.singletonList(change)));
+			character++;
+			Position after = new Position(line, character);
+			if (c == '<') {
+				inStartTag = true;
+				tagNameStart = character;
+			} else if (c == '/' && tagNameStart == character - 1) {
+				// end tag
+				inStartTag = false;
+			} else if (c == '>') {
+				if (inStartTag) {
+					session.add(0, CLOSE_TAG, new TextDocumentPositionParams(identifier, after));
+					session.add(0, HOVER,
+							new TextDocumentPositionParams(identifier, new Position(line, tagNameStart)));
+				}
+				inStartTag = false;
+			} else if (inStartTag && !Character.isWhitespace(c)) {
+				session.add(0, COMPLETION, new CompletionParams(identifier, after));
+			}
+		}
+		return session;
+	}
+}
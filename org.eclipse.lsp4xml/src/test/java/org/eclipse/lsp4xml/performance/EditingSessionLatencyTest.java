@@ -0,0 +1,55 @@
+/*******************************************************************************
+* Copyright (c) 2019 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lsp4xml.performance;
+
+import static org.junit.Assert.assertTrue;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * End-to-end latency regression test which replays an editing session on the
+ * large file <code>largeFile.xml</code>.
+ *
+ * <p>
+ * The wall-clock latencies depend on the machine, so this test is not run by
+ * the default build but with the <code>performance</code> profile (
+ * <code>mvn test -Pperformance</code>). The build fails when the p95 latency
+ * of a method exceeds its threshold. The thresholds can be changed with the
+ * system properties <code>replay.threshold.&lt;method&gt;</code> (ex:
+ * <code>-Dreplay.threshold.textDocument/completion=100</code>).
+ * </p>
+ *
+ */
+public class EditingSessionLatencyTest {
+
+	@Test
+	public void typingInLargeFile() throws Exception {
+		EditingSessionReport report = EditingSessionReplayTest.replayTypingInLargeFile();
+
+		Map<String, Long> thresholds = new LinkedHashMap<>();
+		thresholds.put(EditingSession.DID_OPEN, getThreshold(EditingSession.DID_OPEN, 500));
+		thresholds.put(EditingSession.DID_CHANGE, getThreshold(EditingSession.DID_CHANGE, 100));
+		thresholds.put(EditingSession.COMPLETION, getThreshold(EditingSession.COMPLETION, 1_000));
+		thresholds.put(EditingSession.HOVER, getThreshold(EditingSession.HOVER, 1_000));
+		thresholds.put(EditingSession.CLOSE_TAG, getThreshold(EditingSession.CLOSE_TAG, 1_000));
+		thresholds.put(EditingSessionReplayer.PUBLISH_DIAGNOSTICS,
+				getThreshold(EditingSessionReplayer.PUBLISH_DIAGNOSTICS, 3_000));
+		List<String> violations = report.checkThresholds(thresholds);
+		assertTrue(report + "\n" + violations, violations.isEmpty());
+	}
+
+	private static long getThreshold(String method, long defaultValue) {
+		return Long.getLong("replay.threshold." + method, defaultValue);
+	}
+}
@@ -0,0 +1,94 @@
+/*******************************************************************************
+* Copyright (c) 2019 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lsp4xml.performance;
+
+import static org.eclipse.lsp4xml.utils.IOUtils.convertStreamToString;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.StringReader;
+
+import org.eclipse.lsp4j.DidChangeTextDocumentParams;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.TextDocumentPositionParams;
+import org.junit.Test;
+
+/**
+ * End-to-end test which replays an editing session on the large file
+ * <code>largeFile.xml</code> (the latencies are checked by
+ * {@link EditingSessionLatencyTest}).
+ *
+ */
+public class EditingSessionReplayTest {
+
+	private static final String FRAGMENT = "<scm><tag>v1</tag></scm>";
+
+	@Test
+	public void typingInLargeFile() throws Exception {
+		replayTypingInLargeFile();
+	}
+
+	/**
+	 * Replays the typing of a fragment in the large file and checks that the
+	 * requests are answered and the diagnostics are published.
+	 * 
+	 * @return the report of the replayed session.
+	 * @throws Exception if the session cannot be replayed.
+	 */
+	static EditingSessionReport replayTypingInLargeFile() throws Exception {
+		String uri = EditingSessionReplayTest.class.getResource("/xml/largeFile.xml").toURI().toString();
+		String text = convertStreamToString(EditingSessionReplayTest.class.getResourceAsStream("/xml/largeFile.xml"));
+		// type the fragment in the empty line after the <modelVersion> element, with
+		// 100 ms between two keystrokes
+		EditingSession session = EditingSession.typing(uri, text, new Position(3, 1), FRAGMENT, 100);
+
+		EditingSessionReport report = new EditingSessionReplayer(1, 30_000).replay(session);
+
+		// the assertion messages contain the report
+		String message = report.toString();
+		assertTrue(message + "\n" + report.getFailures(), report.getFailures().isEmpty());
+		assertEquals(message, FRAGMENT.length(), report.getCount(EditingSession.DID_CHANGE));
+		// a request is answered or cancelled by a next change
+		assertEquals(message, 2, getAnsweredOrCancelled(report, EditingSession.CLOSE_TAG));
+		assertEquals(message, 2, getAnsweredOrCancelled(report, EditingSession.HOVER));
+		assertEquals(message, 6, getAnsweredOrCancelled(report, EditingSession.COMPLETION));
+		assertTrue(message, report.getCount(EditingSessionReplayer.PUBLISH_DIAGNOSTICS) > 0);
+		return report;
+	}
+
+	@Test
+	public void loadRecordedSession() throws Exception {
+		String recorded = "{\"method\": \"textDocument/didOpen\", \"params\": {\"textDocument\": "
+				+ "{\"uri\": \"test.xml\", \"languageId\": \"xml\", \"version\": 1, \"text\": \"<a></a>\"}}}\n"
+				+ "\n"
+				+ "{\"delay\": 120, \"method\": \"textDocument/didChange\", \"params\": {\"textDocument\": "
+				+ "{\"uri\": \"test.xml\", \"version\": 2}, \"contentChanges\": [{\"range\": {\"start\": "
+				+ "{\"line\": 0, \"character\": 3}, \"end\": {\"line\": 0, \"character\": 3}}, \"rangeLength\": 0, "
+				+ "\"text\": \"<\"}]}}\n"
+				+ "{\"delay\": 20, \"method\": \"xml/closeTag\", \"params\": {\"textDocument\": "
+				+ "{\"uri\": \"test.xml\"}, \"position\": {\"line\": 0, \"character\": 4}}}";
+		EditingSession session = EditingSession.load(new StringReader(recorded));
+		assertEquals(3, session.getSteps().size());
+
+		EditingSession.Step change = session.getSteps().get(1);
+		assertEquals(120, change.getDelay());
+		assertEquals("<", ((DidChangeTextDocumentParams) change.getParams()).getContentChanges().get(0).getText());
+		assertEquals(4, ((TextDocumentPositionParams) session.getSteps().get(2).getParams()).getPosition()
+				.getCharacter());
+
+		EditingSessionReport report = new EditingSessionReplayer(0, 10_000).replay(session);
+		assertTrue(report.getFailures().toString(), report.getFailures().isEmpty());
+		assertEquals(1, report.getCount(EditingSession.CLOSE_TAG));
+	}
+
+	private static int getAnsweredOrCancelled(EditingSessionReport report, String method) {
+		return report.getCount(method) + report.getCancelledCount(method);
+	}
+}
@@ -0,0 +1,328 @@
+/*******************************************************************************
+* Copyright (c) 2019 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lsp4xml.performance;
+
+import java.io.Reader;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+import org.eclipse.lsp4j.ClientCapabilities;
+import org.eclipse.lsp4j.CompletionParams;
+import org.eclipse.lsp4j.DidChangeTextDocumentParams;
+import org.eclipse.lsp4j.DidCloseTextDocumentParams;
+import org.eclipse.lsp4j.DidOpenTextDocumentParams;
+import org.eclipse.lsp4j.InitializeParams;
+import org.eclipse.lsp4j.InitializedParams;
+import org.eclipse.lsp4j.MessageActionItem;
+import org.eclipse.lsp4j.MessageParams;
+import org.eclipse.lsp4j.PublishDiagnosticsParams;
+import org.eclipse.lsp4j.RegistrationParams;
+import org.eclipse.lsp4j.ShowMessageRequestParams;
+import org.eclipse.lsp4j.TextDocumentItem;
+import org.eclipse.lsp4j.TextDocumentPositionParams;
+import org.eclipse.lsp4j.UnregistrationParams;
+import org.eclipse.lsp4j.VersionedTextDocumentIdentifier;
+import org.eclipse.lsp4j.services.LanguageClient;
+import org.eclipse.lsp4j.services.TextDocumentService;
+import org.eclipse.lsp4xml.XMLLanguageServer;
+import org.eclipse.lsp4xml.XMLTextDocumentService;
+import org.eclipse.lsp4xml.commons.ModelTextDocument;
+import org.eclipse.lsp4xml.performance.EditingSession.Step;
+
+/**
+ * Replays an {@link EditingSession} on an in-process
+ * {@link XMLLanguageServer} connected to a fake language client and measures
+ * the latency of each notification and request (the latency of
+ * <code>textDocument/publishDiagnostics</code> is the time between the last
+ * change of a document and its next published diagnostics), the CPU time and
+ * the allocated memory.
+ *
+ * <p>
+ * Notifications are sent sequentially like the JSON-RPC listener thread does,
+ * requests are sent without waiting for the response of the previous one.
+ * </p>
+ *
+ */
+public class EditingSessionReplayer {
+
+	public static final String PUBLISH_DIAGNOSTICS = "textDocument/publishDiagnostics";
+
+	private final double timeScale;
+
+	private final long timeout;
+
+	/**
+	 * Creates a replayer.
+	 *
+	 * @param timeScale the factor applied to the delays of the steps (1 replays
+	 *                  the session with its timing, 0 without delay).
+	 * @param timeout   the time in milliseconds to wait for the responses and the
+	 *                  diagnostics at the end of the session.
+	 */
+	public EditingSessionReplayer(double timeScale, long timeout) {
+		this.timeScale = timeScale;
+		this.timeout = timeout;
+	}
+
+	/**
+	 * Replays the given session and returns its report.
+	 *
+	 * @param session the session to replay.
+	 * @return the report of the replayed session.
+	 * @throws Exception if the session cannot be replayed.
+	 */
+	public EditingSessionReport replay(EditingSession session) throws Exception {
+		EditingSessionReport report = new EditingSessionReport();
+		Map<String, PendingChange> pendingDiagnostics = new ConcurrentHashMap<>();
+		XMLLanguageServer languageServer = new XMLLanguageServer();
+		languageServer.setClient(new ReplayLanguageClient(report, pendingDiagnostics, uri -> {
+			ModelTextDocument<?> document = ((XMLTextDocumentService) languageServer.getTextDocumentService())
+					.getDocument(uri);
+			return document != null ? document.getVersion() : null;
+		}));
+		InitializeParams initializeParams = new InitializeParams();
+		initializeParams.setCapabilities(new ClientCapabilities());
+		languageServer.initialize(initializeParams).get();
+		languageServer.initialized(new InitializedParams());
+		TextDocumentService textDocumentService = languageServer.getTextDocumentService();
+
+		List<CompletableFuture<?>> responses = new ArrayList<>();
+		long cpuStart = getProcessCpuTime();
+		Map<Long, Long> allocatedStart = getThreadAllocatedBytes();
+		long start = System.nanoTime();
+		for (Step step : session.getSteps()) {
+			long delay = (long) (step.getDelay() * timeScale);
+			if (delay > 0) {
+				Thread.sleep(delay);
+			}
+			String method = step.getMethod();
+			Object params = step.getParams();
+			long stepStart = System.nanoTime();
+			switch (method) {
+			case EditingSession.DID_OPEN:
+				TextDocumentItem openedDocument = ((DidOpenTextDocumentParams) params).getTextDocument();
+				pendingDiagnostics.put(openedDocument.getUri(),
+						new PendingChange(openedDocument.getVersion(), stepStart));
+				textDocumentService.didOpen((DidOpenTextDocumentParams) params);
+				report.addLatency(method, System.nanoTime() - stepStart);
+				break;
+			case EditingSession.DID_CHANGE:
+				VersionedTextDocumentIdentifier changedDocument = ((DidChangeTextDocumentParams) params)
+						.getTextDocument();
+				pendingDiagnostics.put(changedDocument.getUri(), new PendingChange(
+						changedDocument.getVersion() != null ? changedDocument.getVersion() : 0, stepStart));
+				textDocumentService.didChange((DidChangeTextDocumentParams) params);
+				report.addLatency(method, System.nanoTime() - stepStart);
+				break;
+			case EditingSession.DID_CLOSE:
+				pendingDiagnostics.remove(((DidCloseTextDocumentParams) params).getTextDocument().getUri());
+				textDocumentService.didClose((DidCloseTextDocumentParams) params);
+				report.addLatency(method, System.nanoTime() - stepStart);
+				break;
+			case EditingSession.COMPLETION:
+				responses.add(measure(report, method, stepStart,
+						textDocumentService.completion((CompletionParams) params)));
+				break;
+			case EditingSession.HOVER:
+				responses.add(measure(report, method, stepStart,
+						textDocumentService.hover((TextDocumentPositionParams) params)));
+				break;
+			case EditingSession.CLOSE_TAG:
+				responses.add(measure(report, method, stepStart,
+						languageServer.closeTag((TextDocumentPositionParams) params)));
+				break;
+			default:
+				throw new UnsupportedOperationException("Unsupported method '" + method + "'");
+			}
+		}
+		waitForResponses(responses, pendingDiagnostics);
+		report.setElapsedNanos(System.nanoTime() - start);
+		long cpuEnd = getProcessCpuTime();
+		report.setCpuNanos(cpuStart < 0 || cpuEnd < 0 ? -1 : cpuEnd - cpuStart);
+		report.setAllocatedBytes(getAllocatedBytes(allocatedStart, getThreadAllocatedBytes()));
+		languageServer.shutdown().get();
+		return report;
+	}
+
+	private static CompletableFuture<?> measure(EditingSessionReport report, String method, long start,
+			CompletableFuture<?> response) {
+		return response.whenComplete((result, e) -> {
+			if (e == null) {
+				report.addLatency(method, System.nanoTime() - start);
+			} else if (e instanceof CancellationException || e.getCause() instanceof CancellationException) {
+				report.addCancellation(method);
+			} else {
+				report.addFailure(method, e);
+			}
+		});
+	}
+
+	private void waitForResponses(List<CompletableFuture<?>> responses, Map<String, PendingChange> pendingDiagnostics)
+			throws Exception {
+		long end = System.currentTimeMillis() + timeout;
+		try {
+			CompletableFuture.allOf(responses.toArray(new CompletableFuture[responses.size()]))
+					.get(timeout, TimeUnit.MILLISECONDS);
+		} catch (ExecutionException e) {
+			// the errors are collected in the report
+		}
+		while (!pendingDiagnostics.isEmpty()) {
+			if (System.currentTimeMillis() > end) {
+				throw new TimeoutException("No diagnostics published for " + pendingDiagnostics.keySet());
+			}
+			Thread.sleep(10);
+		}
+	}
+
+	private static long getProcessCpuTime() {
+		java.lang.management.OperatingSystemMXBean bean = ManagementFactory.getOperatingSystemMXBean();
+		if (bean instanceof com.sun.management.OperatingSystemMXBean) {
+			return ((com.sun.management.OperatingSystemMXBean) bean).getProcessCpuTime();
+		}
+		return -1;
+	}
+
+	private static Map<Long, Long> getThreadAllocatedBytes() {
+		java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+			return null;
+		}
+		long[] ids = bean.getAllThreadIds();
+		long[] allocated = ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(ids);
+		Map<Long, Long> allocatedBytes = new HashMap<>();
+		for (int i = 0; i < ids.length; i++) {
+			if (allocated[i] >= 0) {
+				allocatedBytes.put(ids[i], allocated[i]);
+			}
+		}
+		return allocatedBytes;
+	}
+
+	private static long getAllocatedBytes(Map<Long, Long> start, Map<Long, Long> end) {
+		if (start == null || end == null) {
+			return -1;
+		}
+		return end.entrySet().stream().mapToLong(e -> e.getValue() - start.getOrDefault(e.getKey(), 0L)).sum();
+	}
+
+	/**
+	 * The last change of a document which waits for its diagnostics.
+	 *
+	 */
+	private static class PendingChange {
+
+		private final int version;
+
+		private final long time;
+
+		public PendingChange(int version, long time) {
+			this.version = version;
+			this.time = time;
+		}
+	}
+
+	/**
+	 * Fake language client which measures the latency of the published
+	 * diagnostics.
+	 *
+	 * <p>
+	 * The published diagnostics don't give the version of the validated document
+	 * (LSP 3.15), the server publishes them only when the opened document was not
+	 * changed since it was parsed, so the version of the opened document is used.
+	 * </p>
+	 *
+	 */
+	private static class ReplayLanguageClient implements LanguageClient {
+
+		private final EditingSessionReport report;
+
+		private final Map<String, PendingChange> pendingDiagnostics;
+
+		private final Function<String, Integer> documentVersion;
+
+		public ReplayLanguageClient(EditingSessionReport report, Map<String, PendingChange> pendingDiagnostics,
+				Function<String, Integer> documentVersion) {
+			this.report = report;
+			this.pendingDiagnostics = pendingDiagnostics;
+			this.documentVersion = documentVersion;
+		}
+
+		@Override
+		public void publishDiagnostics(PublishDiagnosticsParams diagnostics) {
+			String uri = diagnostics.getUri();
+			PendingChange change = pendingDiagnostics.get(uri);
+			if (change == null) {
+				return;
+			}
+			// diagnostics of a version before the pending change don't close it
+			Integer version = documentVersion.apply(uri);
+			if (version != null && version >= change.version && pendingDiagnostics.remove(uri, change)) {
+				report.addLatency(PUBLISH_DIAGNOSTICS, System.nanoTime() - change.time);
+			}
+		}
+
+		@Override
+		public CompletableFuture<Void> registerCapability(RegistrationParams params) {
+			return CompletableFuture.completedFuture(null);
+		}
+
+		@Override
+		public CompletableFuture<Void> unregisterCapability(UnregistrationParams params) {
+			return CompletableFuture.completedFuture(null);
+		}
+
+		@Override
+		public CompletableFuture<MessageActionItem> showMessageRequest(ShowMessageRequestParams requestParams) {
+			return CompletableFuture.completedFuture(null);
+		}
+
+		@Override
+		public void showMessage(MessageParams messageParams) {
+
+		}
+
+		@Override
+		public void logMessage(MessageParams message) {
+
+		}
+
+		@Override
+		public void telemetryEvent(Object object) {
+
+		}
+	}
+
+	/**
+	 * Replays the session recorded in the JSON lines file of the first argument
+	 * with the time scale of the second argument (1 by default).
+	 */
+	public static void main(String[] args) throws Exception {
+		double timeScale = args.length > 1 ? Double.parseDouble(args[1]) : 1;
+		try (Reader reader = Files.newBufferedReader(Paths.get(args[0]), StandardCharsets.UTF_8)) {
+			EditingSession session = EditingSession.load(reader);
+			EditingSessionReport report = new EditingSessionReplayer(timeScale, 60_000).replay(session);
+			System.err.println(report);
+		}
+		System.exit(0);
+	}
+}
@@ -0,0 +1,189 @@
+/*******************************************************************************
+* Copyright (c) 2019 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lsp4xml.performance;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Latencies (by LSP method), CPU time and allocated memory of a replayed
+ * {@link EditingSession}.
+ *
+ */
+public class EditingSessionReport {
+
+	private final Map<String, List<Long>> latencies;
+
+	private final Map<String, Integer> cancellations;
+
+	private final List<String> failures;
+
+	private long elapsedNanos;
+
+	private long cpuNanos;
+
+	private long allocatedBytes;
+
+	public EditingSessionReport() {
+		this.latencies = new TreeMap<>();
+		this.cancellations = new TreeMap<>();
+		this.failures = new ArrayList<>();
+	}
+
+	synchronized void addLatency(String method, long nanos) {
+		latencies.computeIfAbsent(method, m -> new ArrayList<>()).add(nanos);
+	}
+
+	synchronized void addCancellation(String method) {
+		cancellations.merge(method, 1, Integer::sum);
+	}
+
+	synchronized void addFailure(String method, Throwable e) {
+		failures.add(method + ": " + e);
+	}
+
+	void setElapsedNanos(long elapsedNanos) {
+		this.elapsedNanos = elapsedNanos;
+	}
+
+	void setCpuNanos(long cpuNanos) {
+		this.cpuNanos = cpuNanos;
+	}
+
+	void setAllocatedBytes(long allocatedBytes) {
+		this.allocatedBytes = allocatedBytes;
+	}
+
+	/**
+	 * Returns the methods which have latencies.
+	 *
+	 * @return the methods which have latencies.
+	 */
+	public synchronized List<String> getMethods() {
+		Set<String> methods = new TreeSet<>(latencies.keySet());
+		methods.addAll(cancellations.keySet());
+		return new ArrayList<>(methods);
+	}
+
+	/**
+	 * Returns the number of latencies of the given method.
+	 *
+	 * @param method the LSP method.
+	 * @return the number of latencies of the given method.
+	 */
+	public synchronized int getCount(String method) {
+		List<Long> values = latencies.get(method);
+		return values != null ? values.size() : 0;
+	}
+
+	/**
+	 * Returns the number of cancelled requests of the given method (the server
+	 * cancels a request when the document changes before its response).
+	 *
+	 * @param method the LSP method.
+	 * @return the number of cancelled requests of the given method.
+	 */
+	public synchronized int getCancelledCount(String method) {
+		return cancellations.getOrDefault(method, 0);
+	}
+
+	/**
+	 * Returns the given percentile (nearest rank) of the latencies in
+	 * milliseconds of the given method and -1 if the method has no latency.
+	 *
+	 * @param method     the LSP method.
+	 * @param percentile the percentile (ex : 95).
+	 * @return the given percentile of the latencies in milliseconds of the given
+	 *         method.
+	 */
+	public synchronized double getPercentile(String method, int percentile) {
+		List<Long> values = latencies.get(method);
+		if (values == null || values.isEmpty()) {
+			return -1;
+		}
+		List<Long> sorted = new ArrayList<>(values);
+		Collections.sort(sorted);
+		int rank = (int) Math.ceil(percentile / 100.0 * sorted.size());
+		return sorted.get(Math.max(0, rank - 1)) / 1_000_000.0;
+	}
+
+	/**
+	 * Returns the errors of the requests.
+	 *
+	 * @return the errors of the requests.
+	 */
+	public synchronized List<String> getFailures() {
+		return new ArrayList<>(failures);
+	}
+
+	public long getElapsedMillis() {
+		return elapsedNanos / 1_000_000;
+	}
+
+	/**
+	 * Returns the CPU time in milliseconds of the JVM during the replay and -1 if
+	 * the JVM doesn't measure it.
+	 *
+	 * @return the CPU time in milliseconds of the JVM during the replay.
+	 */
+	public long getCpuMillis() {
+		return cpuNanos < 0 ? -1 : cpuNanos / 1_000_000;
+	}
+
+	/**
+	 * Returns the bytes allocated by the live threads during the replay and -1 if
+	 * the JVM doesn't measure it. The allocations of the threads which have
+	 * terminated during the replay are not counted.
+	 *
+	 * @return the bytes allocated by the live threads during the replay.
+	 */
+	public long getAllocatedBytes() {
+		return allocatedBytes;
+	}
+
+	/**
+	 * Returns the violations of the given p95 thresholds in milliseconds by
+	 * method.
+	 *
+	 * @param p95Thresholds the p95 thresholds in milliseconds by method.
+	 * @return the violations of the given p95 thresholds.
+	 */
+	public List<String> checkThresholds(Map<String, Long> p95Thresholds) {
+		List<String> violations = new ArrayList<>();
+		for (Entry<String, Long> threshold : p95Thresholds.entrySet()) {
+			double p95 = getPercentile(threshold.getKey(), 95);
+			if (p95 > threshold.getValue()) {
+				violations.add(String.format("%s p95 %.1f ms > %d ms", threshold.getKey(), p95, threshold.getValue()));
+			}
+		}
+		return violations;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder report = new StringBuilder();
+		report.append(String.format("%-34s %6s %10s %10s %10s %10s%n", "method", "count", "cancelled", "p50 (ms)",
+				"p95 (ms)", "p99 (ms)"));
+		for (String method : getMethods()) {
+			report.append(String.format("%-34s %6d %10d %10.1f %10.1f %10.1f%n", method, getCount(method),
+					getCancelledCount(method), getPercentile(method, 50), getPercentile(method, 95),
+					getPercentile(method, 99)));
+		}
+		report.append(String.format("elapsed: %d ms, CPU: %d ms, allocated: %.1f MB", getElapsedMillis(),
+				getCpuMillis(), allocatedBytes / 1048576.0));
+		return report.toString();
+	}
+}
@@ -0,0 +1,202 @@
+/*******************************************************************************
+* Copyright (c) 2019 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lsp4xml.services;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.stream.Collectors;
+
+import org.eclipse.lsp4j.CompletionItem;
+import org.eclipse.lsp4j.CompletionList;
+import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4j.TextEdit;
+import org.eclipse.lsp4xml.XMLAssert.SettingsSaveContext;
+import org.eclipse.lsp4xml.commons.BadLocationException;
+import org.eclipse.lsp4xml.dom.DOMDocument;
+import org.eclipse.lsp4xml.dom.DOMParser;
+import org.eclipse.lsp4xml.extensions.contentmodel.settings.ContentModelSettings;
+import org.eclipse.lsp4xml.services.extensions.CompletionParticipantAdapter;
+import org.eclipse.lsp4xml.services.extensions.ICompletionParticipant;
+import org.eclipse.lsp4xml.services.extensions.ICompletionRequest;
+import org.eclipse.lsp4xml.services.extensions.ICompletionResponse;
+import org.eclipse.lsp4xml.settings.SharedSettings;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for the completion sessions.
+ *
+ */
+public class CompletionSessionsTest {
+
+	private static final String XML = "<root>\r\n" + //
+			"	<bean />\r\n" + //
+			"	<bar />\r\n" + //
+			"	<beans />\r\n" + //
+			"	<b";
+
+	private XMLLanguageService languageService;
+
+	private ICompletionParticipant participant;
+
+	private SharedSettings settings;
+
+	private int tagOpenCount;
+
+	private int attributeValueCount;
+
+	@Before
+	public void setup() {
+		participant = new CompletionParticipantAdapter() {
+			@Override
+			public void onTagOpen(ICompletionRequest completionRequest, ICompletionResponse completionResponse)
+					throws Exception {
+				tagOpenCount++;
+			}
+
+			@Override
+			public void onAttributeValue(String valuePrefix, ICompletionRequest completionRequest,
+					ICompletionResponse completionResponse) throws Exception {
+				attributeValueCount++;
+				CompletionItem item = new CompletionItem("value");
+				item.setTextEdit(new TextEdit(completionRequest.getReplaceRange(), "value"));
+				completionResponse.addCompletionItem(item);
+			}
+		};
+		languageService = new XMLLanguageService();
+		languageService.registerCompletionParticipant(participant);
+		settings = new SharedSettings();
+		tagOpenCount = 0;
+		attributeValueCount = 0;
+	}
+
+	@Test
+	public void reuseItemsWhileTyping() throws BadLocationException {
+		CompletionList list = complete(XML);
+		assertEquals(1, tagOpenCount);
+		assertEquals("b,bar,bean,beans", labels(list));
+
+		// 'e' typed: the participants are not called, the tags of the document are
+		// computed again ('be' instead of 'b')
+		CompletionList newList = complete(XML + "e");
+		assertEquals(1, tagOpenCount);
+		assertFalse(newList.isIncomplete());
+		assertEquals("bar,be,bean,beans", labels(newList));
+		assertEquals(newCompletion(XML + "e", XML.length() + 1).getItems(), newList.getItems());
+	}
+
+	@Test
+	public void rangeStartingAtCompletionOffset() throws BadLocationException {
+		String xml = "<root>\r\n" + //
+				"	<foo bar=\"\" />\r\n" + //
+				"</root>";
+		// <foo bar="|" : the replace range starts at the completion offset
+		int offset = xml.indexOf("\"\"") + 1;
+		CompletionList list = complete(xml, offset);
+		assertEquals(1, attributeValueCount);
+		Range range = find(list, "value").getTextEdit().getRange();
+		assertEquals(range.getStart(), parse(xml).positionAt(offset));
+
+		// <foo bar="v|" : the range keeps its start and replaces the typed 'v'
+		String newXml = xml.substring(0, offset) + "v" + xml.substring(offset);
+		CompletionList newList = complete(newXml, offset + 1);
+		assertEquals(1, attributeValueCount);
+		assertEquals(range.getStart(), find(newList, "value").getTextEdit().getRange().getStart());
+		assertEquals(newCompletion(newXml, offset + 1).getItems(), newList.getItems());
+	}
+
+	@Test
+	public void recomputeItems() throws BadLocationException {
+		complete(XML);
+		assertEquals(1, tagOpenCount);
+
+		// ':' starts a local name after a prefix, the items are computed again
+		complete(XML + ":");
+		assertEquals(2, tagOpenCount);
+
+		// text updated before the completion offset
+		complete(XML.replace("<bar />", "<ba />") + "e");
+		assertEquals(3, tagOpenCount);
+
+		// save clears the sessions
+		complete(XML);
+		assertEquals(4, tagOpenCount);
+		languageService.doSave(new SettingsSaveContext(new ContentModelSettings()));
+		complete(XML + "e");
+		assertEquals(5, tagOpenCount);
+	}
+
+	@Test
+	public void maxItems() throws BadLocationException {
+		settings.getCompletionSettings().setMaxItems(2);
+		// b, bar, bean, beans: only the 2 first items which start with '<b'
+		CompletionList list = complete(XML);
+		assertTrue(list.isIncomplete());
+		assertEquals("b,bar", labels(list));
+
+		// bea (the typed tag), bean, beans start with '<bea'
+		list = complete(XML + "ea");
+		assertEquals(1, tagOpenCount);
+		assertTrue(list.isIncomplete());
+		assertEquals("bea,bean", labels(list));
+
+		list = complete(XML + "eans");
+		assertEquals(1, tagOpenCount);
+		assertEquals("beans", labels(list));
+
+		// no limit (the typed tag is 'beans')
+		settings.getCompletionSettings().setMaxItems(0);
+		list = complete(XML + "eans");
+		assertFalse(list.isIncomplete());
+		assertEquals("bar,bean,beans", labels(list));
+	}
+
+	private CompletionList complete(String text) throws BadLocationException {
+		return complete(text, text.length());
+	}
+
+	private CompletionList complete(String text, int offset) throws BadLocationException {
+		return complete(languageService, text, offset);
+	}
+
+	/**
+	 * Returns the completion list computed without session.
+	 */
+	private CompletionList newCompletion(String text, int offset) throws BadLocationException {
+		int tagOpen = tagOpenCount;
+		int attributeValue = attributeValueCount;
+		XMLLanguageService newLanguageService = new XMLLanguageService();
+		newLanguageService.registerCompletionParticipant(participant);
+		CompletionList list = complete(newLanguageService, text, offset);
+		tagOpenCount = tagOpen;
+		attributeValueCount = attributeValue;
+		return list;
+	}
+
+	private CompletionList complete(XMLLanguageService languageService, String text, int offset)
+			throws BadLocationException {
+		DOMDocument document = parse(text);
+		return languageService.doComplete(document, document.positionAt(offset), settings);
+	}
+
+	private static DOMDocument parse(String text) {
+		return DOMParser.getInstance().parse(text, "test.xml", null);
+	}
+
+	private static CompletionItem find(CompletionList list, String label) {
+		return list.getItems().stream().filter(item -> label.equals(item.getLabel())).findFirst().get();
+	}
+
+	private static String labels(CompletionList list) {
+		return list.getItems().stream().map(CompletionItem::getLabel).sorted().collect(Collectors.joining(","));
+	}
+}
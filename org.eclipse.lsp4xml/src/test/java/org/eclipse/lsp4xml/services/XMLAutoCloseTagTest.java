@@ -0,0 +1,172 @@
+/*******************************************************************************
+* Copyright (c) 2019 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lsp4xml.services;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.util.Collections;
+import java.util.concurrent.ExecutionException;
+
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4j.TextDocumentContentChangeEvent;
+import org.eclipse.lsp4xml.commons.BadLocationException;
+import org.eclipse.lsp4xml.commons.ModelTextDocument;
+import org.eclipse.lsp4xml.customservice.AutoCloseTagResponse;
+import org.eclipse.lsp4xml.dom.DOMDocument;
+import org.eclipse.lsp4xml.dom.DOMParser;
+import org.junit.Test;
+
+/**
+ * Tests for the auto close of a start tag computed from the DOM document of the
+ * text before the typed '>', compared with the auto close computed from the DOM
+ * document of the current text.
+ *
+ */
+public class XMLAutoCloseTagTest {
+
+	@Test
+	public void closeWithPreviousDocument() throws Exception {
+		assertFastAutoClose("<a|", "$0</a>");
+		assertFastAutoClose("<root>\r\n  <a|\r\n</root>", "$0</a>");
+		assertFastAutoClose("<root>\r\n  <a b=\"c\" d='e'|</root>", "$0</a>");
+		assertFastAutoClose("<root><x:a xmlns:x=\"x\"|</root>", "$0</x:a>");
+	}
+
+	@Test
+	public void ambiguousCases() throws Exception {
+		// self closed
+		assertFastAutoClose("<root><a/|</root>", null);
+		// '>' in attribute value
+		assertFastAutoClose("<root><a b=\"c|</root>", null);
+		// end tag with the same name
+		assertFastAutoClose("<root><a|</a></root>", null);
+		// content after the start tag
+		assertFastAutoClose("<root><a|<b/></root>", null);
+		// comment
+		assertFastAutoClose("<root><!-- <a|--></root>", null);
+	}
+
+	@Test
+	public void closeWithoutPreviousDocument() throws Exception {
+		assertTextAutoClose("<a|", "$0</a>");
+		assertTextAutoClose("<root>\r\n  <a|\r\n</root>", "$0</a>");
+		assertTextAutoClose("<root>\r\n  <a b=\"c\" d='e'|</root>", "$0</a>");
+		assertTextAutoClose("<root><x:a xmlns:x=\"x\"|</root>", "$0</x:a>");
+		assertTextAutoClose("<root><a b=\"c>d\"|</root>", "$0</a>");
+	}
+
+	@Test
+	public void ambiguousCasesWithoutPreviousDocument() throws Exception {
+		// self closed
+		assertTextAutoClose("<root><a/|</root>", null);
+		// '>' in attribute value
+		assertTextAutoClose("<root><a b=\"c|</root>", null);
+		// end tag with the same name
+		assertTextAutoClose("<root><a|</a></root>", null);
+		// content after the start tag
+		assertTextAutoClose("<root><a|<b/></root>", null);
+		// comment and CDATA
+		assertTextAutoClose("<root><!-- <a|</root>", null);
+		assertTextAutoClose("<root><![CDATA[ <a|</root>", null);
+		// end tag, processing instruction
+		assertTextAutoClose("<root></a|", null);
+		assertTextAutoClose("<root><?a|</root>", null);
+	}
+
+	@Test
+	public void closeInLargeDocumentWithoutPreviousDocument() throws Exception {
+		StringBuilder text = new StringBuilder("<root>\r\n");
+		for (int i = 0; i < 100000; i++) {
+			text.append("  <item id=\"").append(i).append("\">value</item>\r\n");
+		}
+		int offset = text.length() + 4;
+		text.append("  <a\r\n</root>");
+		ModelTextDocument<DOMDocument> document = createDocument(text.toString());
+		// the DOM document of the text before the '>' is not loaded
+		Position position = insert(document, ">", offset);
+		assertNull(document.getPreviousModel());
+
+		AutoCloseTagResponse response = new XMLLanguageService().doAutoClose(document, position,
+				document.getPreviousModel(), document.getLastChange());
+		assertNotNull(response);
+		assertEquals("$0</a>", response.snippet);
+	}
+
+	/**
+	 * Type '>' at the '|' position and check the fast auto close response is the
+	 * expected response (null when the response is ambiguous) and the same
+	 * response than the DOM auto close.
+	 */
+	private static void assertFastAutoClose(String value, String expected)
+			throws InterruptedException, ExecutionException, BadLocationException {
+		assertFastAutoClose(value, expected, true);
+	}
+
+	/**
+	 * Same as {@link #assertFastAutoClose(String, String)} without the DOM
+	 * document of the text before the '>' (the start tag is found by a scan of the
+	 * text).
+	 */
+	private static void assertTextAutoClose(String value, String expected)
+			throws InterruptedException, ExecutionException, BadLocationException {
+		assertFastAutoClose(value, expected, false);
+	}
+
+	private static void assertFastAutoClose(String value, String expected, boolean loadPreviousDocument)
+			throws InterruptedException, ExecutionException, BadLocationException {
+		int offset = value.indexOf('|');
+		String text = value.substring(0, offset) + value.substring(offset + 1);
+		XMLLanguageService ls = new XMLLanguageService();
+		ModelTextDocument<DOMDocument> document = createDocument(text);
+		if (loadPreviousDocument) {
+			// load the DOM document of the text before the '>'
+			document.getModel().get();
+		}
+		Position position = insert(document, ">", offset);
+		assertEquals(value, loadPreviousDocument, document.getPreviousModel() != null);
+
+		AutoCloseTagResponse fastResponse = ls.doAutoClose(document, position, document.getPreviousModel(),
+				document.getLastChange());
+		if (expected == null) {
+			assertNull(value, fastResponse);
+			return;
+		}
+		assertNotNull(value, fastResponse);
+		assertEquals(value, expected, fastResponse.snippet);
+
+		// same response than the auto close with the DOM document of the current text
+		DOMDocument xmlDocument = DOMParser.getInstance().parse(document.getText(), document.getUri(), null);
+		AutoCloseTagResponse response = ls.doAutoClose(xmlDocument, position, () -> {
+		});
+		assertNotNull(value, response);
+		assertEquals(value, response.snippet, fastResponse.snippet);
+		assertEquals(value, response.range, fastResponse.range);
+	}
+
+	private static ModelTextDocument<DOMDocument> createDocument(String text) {
+		ModelTextDocument<DOMDocument> document = new ModelTextDocument<>(text, "test.xml",
+				(textDocument, cancelChecker) -> DOMParser.getInstance().parse(textDocument, null));
+		document.setIncremental(true);
+		document.setVersion(1);
+		return document;
+	}
+
+	private static Position insert(ModelTextDocument<DOMDocument> document, String text, int offset)
+			throws BadLocationException {
+		Position start = document.positionAt(offset);
+		TextDocumentContentChangeEvent change = new TextDocumentContentChangeEvent(new Range(start, start), 0, text);
+		document.setVersion(document.getVersion() + 1);
+		document.update(Collections.singletonList(change));
+		return document.positionAt(offset + text.length());
+	}
+}
@@ -2226,6 +2226,83 @@ public class XMLFormatterTest {
 	
 	
 
+	@Test
+	public void whitespacesTextEdits() throws BadLocationException {
+		String content = "<a>\n" + //
+				"<b>  <c/>\n" + //
+				"</b>\n" + //
+				"</a>";
+		String formatted = "<a>\n" + //
+				"  <b>\n" + //
+				"    <c/>\n" + //
+				"  </b>\n" + //
+				"</a>";
+		TextDocument document = new TextDocument(content, "test.xml");
+		List<? extends TextEdit> edits = XMLFormatter.getTextEdits(document, 0, content.length(), formatted);
+		// only the whitespaces before <b>, <c/> and </b> are updated
+		Assert.assertEquals(3, edits.size());
+		Assert.assertEquals(new TextEdit(new Range(new Position(1, 0), new Position(1, 0)), "  "), edits.get(0));
+		Assert.assertEquals(new TextEdit(new Range(new Position(1, 3), new Position(1, 3)), "\n  "),
+				edits.get(1));
+		Assert.assertEquals(new TextEdit(new Range(new Position(2, 0), new Position(2, 0)), "  "), edits.get(2));
+		Assert.assertEquals(formatted, applyEdits(document, edits));
+
+		// already formatted
+		document = new TextDocument(formatted, "test.xml");
+		Assert.assertEquals(0, XMLFormatter.getTextEdits(document, 0, formatted.length(), formatted).size());
+	}
+
+	@Test
+	public void nonWhitespacesTextEdit() throws BadLocationException {
+		String content = "<a>\n" + //
+				"<b name=\"value\"></b>\n" + //
+				"</a>";
+		String formatted = "<a>\n" + //
+				"  <b name='value'></b>\n" + //
+				"</a>";
+		TextDocument document = new TextDocument(content, "test.xml");
+		List<? extends TextEdit> edits = XMLFormatter.getTextEdits(document, 0, content.length(), formatted);
+		// the quotes are updated: one text edit from the indentation of <b> to the
+		// last quote
+		Assert.assertEquals(1, edits.size());
+		Assert.assertEquals(new TextEdit(new Range(new Position(1, 0), new Position(1, 15)), "  <b name='value'"),
+				edits.get(0));
+		Assert.assertEquals(formatted, applyEdits(document, edits));
+	}
+
+	@Test
+	public void rangeTextEdits() throws BadLocationException {
+		String content = "<a>\n" + //
+				"<b>\n" + //
+				"<c/>\n" + //
+				"</b>\n" + //
+				"</a>";
+		int start = content.indexOf("<c/>");
+		int end = start + "<c/>".length();
+		TextDocument document = new TextDocument(content, "test.xml");
+		List<? extends TextEdit> edits = XMLFormatter.getTextEdits(document, start, end, "  <c/>");
+		Assert.assertEquals(1, edits.size());
+		Assert.assertEquals(new TextEdit(new Range(new Position(2, 0), new Position(2, 0)), "  "), edits.get(0));
+	}
+
+	@Test
+	public void formatDOMDocument() throws BadLocationException {
+		String content = "<a>\n" + //
+				"<b>  <c/>\n" + //
+				"</b>\n" + //
+				"</a>";
+		XMLLanguageService languageService = new XMLLanguageService();
+		DOMDocument xmlDocument = DOMParser.getInstance().parse(content, "test.xml", null);
+		TextDocument document = xmlDocument.getTextDocument();
+		// the DOM document parsed without ignoring whitespace content is kept with the
+		// DOM document and reused by the full and range formatting
+		Assert.assertEquals(languageService.format(document, null, createDefaultFormattingOptions()),
+				languageService.format(xmlDocument, null, createDefaultFormattingOptions()));
+		Range range = new Range(new Position(1, 5), new Position(1, 9));
+		Assert.assertEquals(languageService.format(document, range, createDefaultFormattingOptions()),
+				languageService.format(xmlDocument, range, createDefaultFormattingOptions()));
+	}
+
 	//-------------------------Tools-----------------------------------------
 
 	private static void format(String unformatted, String actual) throws BadLocationException {
@@ -2261,19 +2338,37 @@ public class XMLFormatterTest {
 		TextDocument document = new TextDocument(unformatted, uri);
 		XMLLanguageService languageService = new XMLLanguageService();
 		List<? extends TextEdit> edits = languageService.format(document, range, formattingOptions);
-		
-		String formatted = edits.stream().map(edit -> edit.getNewText()).collect(Collectors.joining(""));
 
-		Range textEditRange = edits.get(0).getRange();
-		int textEditStartOffset = document.offsetAt(textEditRange.getStart());
-		int textEditEndOffset = document.offsetAt(textEditRange.getEnd()) + 1;
+		String formatted = applyEdits(document, edits);
+		Assert.assertEquals(expected, formatted);
+	}
+
+	/**
+	 * Returns the text of the given document updated with the given (not
+	 * overlapping) text edits.
+	 */
+	private static String applyEdits(TextDocument document, List<? extends TextEdit> edits)
+			throws BadLocationException {
+		StringBuilder text = new StringBuilder(document.getText());
+		List<? extends TextEdit> sortedEdits = edits.stream()
+				.sorted((e1, e2) -> -compare(e1.getRange().getStart(), e2.getRange().getStart()))
+				.collect(Collectors.toList());
+		int previousStart = text.length();
+		for (TextEdit edit : sortedEdits) {
+			int start = document.offsetAt(edit.getRange().getStart());
+			int end = document.offsetAt(edit.getRange().getEnd());
+			Assert.assertTrue("Overlapping text edits", end <= previousStart);
+			text.replace(start, end, edit.getNewText());
+			previousStart = start;
+		}
+		return text.toString();
+	}
 
-		if (textEditStartOffset != -1 && textEditEndOffset != -1) {
-			formatted = unformatted.substring(0, textEditStartOffset) + formatted
-					+ unformatted.substring(textEditEndOffset - 1, unformatted.length());
+	private static int compare(Position p1, Position p2) {
+		if (p1.getLine() != p2.getLine()) {
+			return Integer.compare(p1.getLine(), p2.getLine());
 		}
-		
-		Assert.assertEquals(expected, formatted);
+		return Integer.compare(p1.getCharacter(), p2.getCharacter());
 	}
 
 
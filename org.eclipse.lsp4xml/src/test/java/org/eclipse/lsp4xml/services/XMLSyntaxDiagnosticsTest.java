@@ -0,0 +1,150 @@
+/**
+ *  Copyright (c) 2019 Red Hat Inc. and others.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v2.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v20.html
+ *
+ *  Contributors:
+ *  Red Hat Inc. - initial API and implementation
+ */
+package org.eclipse.lsp4xml.services;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.eclipse.lsp4j.Diagnostic;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4xml.dom.DOMDocument;
+import org.eclipse.lsp4xml.dom.DOMParser;
+import org.eclipse.lsp4xml.extensions.contentmodel.settings.XMLValidationSettings;
+import org.junit.Test;
+
+/**
+ * Tests for the fast syntax diagnostics which must report the same diagnostic
+ * than the Xerces validation.
+ *
+ */
+public class XMLSyntaxDiagnosticsTest {
+
+	@Test
+	public void attributeNotUnique() {
+		assertSameAsXerces("<InstdAmt Ccy=\"JPY\" Ccy=\"JPY\" >10000000</InstdAmt>");
+		assertSameAsXerces("<a attr=\"\" attr=\"\" attr2=\"\" />");
+	}
+
+	@Test
+	public void eqRequiredInAttribute() {
+		assertSameAsXerces("<a Ccy>123.456</a>");
+	}
+
+	@Test
+	public void openQuoteExpected() {
+		assertSameAsXerces("<foo>\r\n" + //
+				"  <bar one= two=\"\">\r\n" + //
+				"  </bar>\r\n" + //
+				"</foo>");
+		assertSameAsXerces("<foo>\r\n" + //
+				"  <bar one=/>\r\n" + //
+				"</foo>");
+	}
+
+	@Test
+	public void elementUnterminated() {
+		assertSameAsXerces("<Id>\r\n" + //
+				"          <OrgId\r\n" + //
+				"            <Othr>\r\n" + //
+				"              <Id> 222010012</Id>\r\n" + //
+				"            </Othr>\r\n" + //
+				"          </OrgId>\r\n" + //
+				"        </Id>");
+	}
+
+	@Test
+	public void eTagRequired() {
+		assertSameAsXerces("<UltmtDbtr>\r\n" + //
+				"  		<Nm>Name\r\n" + //
+				"		</UltmtDbtr> \r\n" + //
+				"			</Nm>  ");
+		assertSameAsXerces("<UltmtDbtr>\r\n" + //
+				"    <Nm>Name</Nm>\r\n" + //
+				"    <Ad>\r\n" + //
+				"    <Ph>\r\n" + //
+				"</UltmtDbtr>");
+	}
+
+	@Test
+	public void orphanEndTag() {
+		// the range selects the name of the orphan end tag
+		assertSameAsXerces("<a></b></a>", new Range(new Position(0, 5), new Position(0, 6)));
+		assertSameAsXerces("<a><b></c></b></a>", new Range(new Position(0, 8), new Position(0, 9)));
+	}
+
+	@Test
+	public void markupEntityMismatch() {
+		assertSameAsXerces("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\r\n" + //
+				"<Document>\r\n" + //
+				"<CstmrCdtTrfInitn>\r\n" + //
+				"</CstmrCdtTrfInitn>");
+	}
+
+	@Test
+	public void firstErrorOnly() {
+		assertSameAsXerces("<a b=\"\" b=\"\">\r\n" + //
+				"  <c d>\r\n" + //
+				"</a>");
+	}
+
+	@Test
+	public void noSyntaxError() {
+		assertNoSyntaxDiagnostics("<a b=\"\"><c /><d></d></a>");
+	}
+
+	@Test
+	public void unsupportedSyntaxError() {
+		// The first error (NameRequiredInReference) is not supported, the unclosed
+		// element must not be reported.
+		assertNoSyntaxDiagnostics("<Nm>Virgay & Co<a></Nm>");
+	}
+
+	@Test
+	public void validationDisabled() {
+		XMLValidationSettings settings = new XMLValidationSettings();
+		settings.setEnabled(false);
+		XMLLanguageService languageService = new XMLLanguageService();
+		DOMDocument xmlDocument = DOMParser.getInstance().parse("<a b=\"\" b=\"\" />", "test.xml", null);
+		assertTrue(languageService.doSyntaxDiagnostics(xmlDocument, () -> {
+		}, settings).isEmpty());
+	}
+
+	private static void assertSameAsXerces(String xml, Range expectedRange) {
+		List<Diagnostic> actual = assertSameAsXerces(xml);
+		assertEquals(1, actual.size());
+		assertEquals(expectedRange, actual.get(0).getRange());
+	}
+
+	private static List<Diagnostic> assertSameAsXerces(String xml) {
+		XMLLanguageService languageService = new XMLLanguageService();
+		DOMDocument xmlDocument = DOMParser.getInstance().parse(xml, "test.xml",
+				languageService.getResolverExtensionManager());
+		// Ignore the 'No grammar constraints' hint
+		List<Diagnostic> expected = languageService.doDiagnostics(xmlDocument, () -> {
+		}, null).stream().filter(d -> "xml".equals(d.getSource())).collect(Collectors.toList());
+		List<Diagnostic> actual = languageService.doSyntaxDiagnostics(xmlDocument, () -> {
+		}, null);
+		assertEquals(expected, actual);
+		return actual;
+	}
+
+	private static void assertNoSyntaxDiagnostics(String xml) {
+		XMLLanguageService languageService = new XMLLanguageService();
+		DOMDocument xmlDocument = DOMParser.getInstance().parse(xml, "test.xml",
+				languageService.getResolverExtensionManager());
+		assertTrue(languageService.doSyntaxDiagnostics(xmlDocument, () -> {
+		}, null).isEmpty());
+	}
+}
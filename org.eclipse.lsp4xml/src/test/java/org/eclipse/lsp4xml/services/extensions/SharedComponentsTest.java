@@ -0,0 +1,112 @@
+/*******************************************************************************
+* Copyright (c) 2019 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lsp4xml.services.extensions;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.apache.xerces.xni.grammars.XMLGrammarPool;
+import org.eclipse.lsp4xml.extensions.contentmodel.model.ContentModelManager;
+import org.eclipse.lsp4xml.services.XMLLanguageService;
+import org.junit.Test;
+
+/**
+ * Tests for the components shared by the XML language servers of the JVM.
+ *
+ */
+public class SharedComponentsTest {
+
+	@Test
+	public void referenceCount() {
+		SharedComponents shared = SharedComponents.acquire();
+		try {
+			assertSame(shared, SharedComponents.acquire());
+			assertEquals(2, shared.getReferenceCount());
+			Object component = shared.getComponent("key", Object::new);
+			assertSame(component, shared.getComponent("key", Object::new));
+
+			shared.release();
+			assertEquals(1, shared.getReferenceCount());
+			assertSame(component, shared.getComponent("key", Object::new));
+		} finally {
+			shared.release();
+		}
+		assertEquals(0, shared.getReferenceCount());
+		// the components are dropped when they are not used anymore
+		SharedComponents newShared = SharedComponents.acquire();
+		try {
+			assertNotSame(shared, newShared);
+		} finally {
+			newShared.release();
+		}
+	}
+
+	@Test
+	public void sharedCaches() {
+		SharedComponents shared = SharedComponents.acquire();
+		try {
+			XMLLanguageService languageService1 = new XMLLanguageService(shared);
+			XMLLanguageService languageService2 = new XMLLanguageService(shared);
+			XMLLanguageService languageService3 = new XMLLanguageService();
+			languageService1.activateAllExtensions();
+			languageService2.activateAllExtensions();
+			languageService3.activateAllExtensions();
+
+			assertSame(languageService1.getResolverExtensionManager().getEntityContentCache(),
+					languageService2.getResolverExtensionManager().getEntityContentCache());
+			assertNotSame(languageService1.getResolverExtensionManager().getEntityContentCache(),
+					languageService3.getResolverExtensionManager().getEntityContentCache());
+
+			ContentModelManager contentModelManager1 = languageService1.getComponent(ContentModelManager.class);
+			ContentModelManager contentModelManager2 = languageService2.getComponent(ContentModelManager.class);
+			ContentModelManager contentModelManager3 = languageService3.getComponent(ContentModelManager.class);
+			assertNotSame(contentModelManager1, contentModelManager2);
+			assertNotNull(contentModelManager1.getGrammarPool());
+			assertSame(contentModelManager1.getGrammarPool(), contentModelManager2.getGrammarPool());
+			assertNotSame(contentModelManager1.getGrammarPool(), contentModelManager3.getGrammarPool());
+
+			// the cache settings are not shared
+			XMLGrammarPool sharedPool = contentModelManager1.getGrammarPool();
+			contentModelManager2.setUseCache(false);
+			assertNull(contentModelManager2.getGrammarPool());
+			assertSame(sharedPool, contentModelManager1.getGrammarPool());
+			// the shared caches are used again with the cache
+			contentModelManager2.setUseCache(true);
+			assertSame(sharedPool, contentModelManager2.getGrammarPool());
+		} finally {
+			shared.release();
+		}
+	}
+
+	@Test
+	public void sharedCachesWithDifferentCatalogs() {
+		SharedComponents shared = SharedComponents.acquire();
+		try {
+			XMLLanguageService languageService1 = new XMLLanguageService(shared);
+			XMLLanguageService languageService2 = new XMLLanguageService(shared);
+			languageService1.activateAllExtensions();
+			languageService2.activateAllExtensions();
+			ContentModelManager contentModelManager1 = languageService1.getComponent(ContentModelManager.class);
+			ContentModelManager contentModelManager2 = languageService2.getComponent(ContentModelManager.class);
+
+			// the imports of the grammars are resolved with other catalogs
+			contentModelManager2.setCatalogs(new String[] { "src/test/resources/catalogs/catalog.xml" });
+			assertNotSame(contentModelManager1.getGrammarPool(), contentModelManager2.getGrammarPool());
+
+			contentModelManager1.setCatalogs(new String[] { "src/test/resources/catalogs/catalog.xml" });
+			assertSame(contentModelManager1.getGrammarPool(), contentModelManager2.getGrammarPool());
+		} finally {
+			shared.release();
+		}
+	}
+}
@@ -0,0 +1,115 @@
+/*******************************************************************************
+* Copyright (c) 2019 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lsp4xml.services.extensions;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collection;
+
+import org.eclipse.lsp4xml.dom.DOMDocument;
+import org.eclipse.lsp4xml.dom.DOMParser;
+import org.eclipse.lsp4xml.extensions.contentmodel.ContentModelPlugin;
+import org.eclipse.lsp4xml.extensions.dtd.DTDPlugin;
+import org.eclipse.lsp4xml.extensions.xsd.participants.XSDCompletionParticipant;
+import org.eclipse.lsp4xml.extensions.xsl.XSLPlugin;
+import org.junit.Test;
+
+/**
+ * Tests for the activation of the XML extensions and the participants routing
+ * tables.
+ *
+ */
+public class XMLExtensionsRegistryTest {
+
+	@Test
+	public void activateExtensionsByDocument() {
+		XMLExtensionsRegistry registry = new XMLExtensionsRegistry();
+		// extensions without activation condition are started with the registry
+		assertTrue(isStarted(ContentModelPlugin.class, registry));
+		assertFalse(isStarted(DTDPlugin.class, registry));
+		assertFalse(isStarted(XSLPlugin.class, registry));
+
+		registry.activateExtensions(parse("<foo />", "foo.xml"));
+		assertFalse(isStarted(DTDPlugin.class, registry));
+		assertFalse(isStarted(XSLPlugin.class, registry));
+
+		registry.activateExtensions(parse("<!DOCTYPE foo [<!ELEMENT foo EMPTY>]><foo />", "foo.xml"));
+		assertTrue(isStarted(DTDPlugin.class, registry));
+		assertFalse(isStarted(XSLPlugin.class, registry));
+
+		registry.activateExtensions(
+				parse("<xsl:stylesheet xmlns:xsl=\"http://www.w3.org/1999/XSL/Transform\" />", "foo.xsl"));
+		assertTrue(isStarted(XSLPlugin.class, registry));
+	}
+
+	@Test
+	public void activateDTDExtensionWithDTDFile() {
+		XMLExtensionsRegistry registry = new XMLExtensionsRegistry();
+		registry.activateExtensions(parse("<!ELEMENT foo EMPTY>", "foo.dtd"));
+		assertTrue(isStarted(DTDPlugin.class, registry));
+	}
+
+	@Test
+	public void activateAllExtensions() {
+		XMLExtensionsRegistry registry = new XMLExtensionsRegistry();
+		registry.activateAllExtensions();
+		assertTrue(isStarted(DTDPlugin.class, registry));
+		assertTrue(isStarted(XSLPlugin.class, registry));
+	}
+
+	@Test
+	public void routingTable() {
+		XMLExtensionsRegistry registry = new XMLExtensionsRegistry();
+		int[] applicableCount = { 0 };
+		ICompletionParticipant participant = new CompletionParticipantAdapter() {
+			@Override
+			public boolean isApplicable(DOMDocument document) {
+				applicableCount[0]++;
+				return document.getDocumentURI().endsWith(".foo");
+			}
+		};
+		registry.registerCompletionParticipant(participant);
+
+		DOMDocument xml = parse("<foo />", "test.xml");
+		Collection<ICompletionParticipant> participants = registry.getCompletionParticipants(xml);
+		assertFalse(participants.contains(participant));
+		assertFalse(hasParticipant(XSDCompletionParticipant.class, participants));
+		assertEquals(1, applicableCount[0]);
+		// the routing table is computed once per document
+		assertSame(participants, registry.getCompletionParticipants(xml));
+		assertEquals(1, applicableCount[0]);
+
+		DOMDocument foo = parse("<foo />", "test.foo");
+		assertTrue(registry.getCompletionParticipants(foo).contains(participant));
+		assertEquals(2, applicableCount[0]);
+
+		DOMDocument xsd = parse("<xs:schema xmlns:xs=\"http://www.w3.org/2001/XMLSchema\" />", "test.xsd");
+		assertTrue(hasParticipant(XSDCompletionParticipant.class, registry.getCompletionParticipants(xsd)));
+
+		// the routing tables are computed again when the participants change
+		registry.unregisterCompletionParticipant(participant);
+		assertFalse(registry.getCompletionParticipants(foo).contains(participant));
+	}
+
+	private static boolean hasParticipant(Class<?> participantClass, Collection<?> participants) {
+		return participants.stream().anyMatch(participant -> participant.getClass().equals(participantClass));
+	}
+
+	private static boolean isStarted(Class<? extends IXMLExtension> extensionClass, XMLExtensionsRegistry registry) {
+		return registry.getExtensions().stream().anyMatch(extension -> extension.getClass().equals(extensionClass));
+	}
+
+	private static DOMDocument parse(String text, String uri) {
+		return DOMParser.getInstance().parse(text, uri, null);
+	}
+}
@@ -0,0 +1,232 @@
+/*******************************************************************************
+* Copyright (c) 2019 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+
+package org.eclipse.lsp4xml.services.index;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.eclipse.lsp4j.SymbolInformation;
+import org.eclipse.lsp4j.SymbolKind;
+import org.eclipse.lsp4xml.AbstractCacheBasedTest;
+import org.eclipse.lsp4xml.utils.ProjectUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.io.MoreFiles;
+import com.google.common.io.RecursiveDeleteOption;
+
+/**
+ * Tests for the workspace symbols index.
+ *
+ */
+public class XMLWorkspaceIndexTest extends AbstractCacheBasedTest {
+
+	private Path workspace;
+
+	@Before
+	public void createWorkspace() throws IOException {
+		workspace = ProjectUtils.getProjectDirectory().resolve("target/index-workspace");
+		if (Files.exists(workspace)) {
+			MoreFiles.deleteRecursively(workspace, RecursiveDeleteOption.ALLOW_INSECURE);
+		}
+		Files.createDirectories(workspace.resolve("schemas"));
+		Files.createDirectories(workspace.resolve("node_modules"));
+		write("schemas/note.xsd", "<xs:schema xmlns:xs=\"http://www.w3.org/2001/XMLSchema\">\r\n" + //
+				"	<xs:element name=\"note\" type=\"NoteType\" />\r\n" + //
+				"	<xs:complexType name=\"NoteType\">\r\n" + //
+				"		<xs:sequence>\r\n" + //
+				"			<xs:element name=\"to\" type=\"xs:string\" />\r\n" + //
+				"		</xs:sequence>\r\n" + //
+				"	</xs:complexType>\r\n" + //
+				"</xs:schema>");
+		write("note.dtd", "<!ELEMENT note (to)>\r\n" + //
+				"<!ATTLIST note version CDATA #IMPLIED>\r\n" + //
+				"<!ENTITY copyright \"Red Hat\">");
+		write("web.xml", "<web-app>\r\n" + //
+				"	<servlet>\r\n" + //
+				"		<servlet-name> NoteServlet </servlet-name>\r\n" + //
+				"	</servlet>\r\n" + //
+				"	<div id=\"noteDiv\" />\r\n" + //
+				"</web-app>");
+		write("node_modules/ignored.xml", "<a id=\"noteIgnored\" />");
+		write("ignored.txt", "<a id=\"noteText\" />");
+	}
+
+	@After
+	public void deleteWorkspace() throws IOException {
+		MoreFiles.deleteRecursively(workspace, RecursiveDeleteOption.ALLOW_INSECURE);
+	}
+
+	@Test
+	public void indexXSD() {
+		List<IndexedSymbol> symbols = XMLFileIndexer.index("<xs:schema xmlns:xs=\"http://www.w3.org/2001/XMLSchema\">\r\n" + //
+				"	<xs:element name=\"note\" />\r\n" + //
+				"	<xs:complexType name='NoteType'>\r\n" + //
+				"		<xs:sequence>\r\n" + //
+				"			<xs:element name=\"local\" />\r\n" + //
+				"		</xs:sequence>\r\n" + //
+				"	</xs:complexType>\r\n" + //
+				"	<xs:attributeGroup name=\"attrs\" />\r\n" + //
+				"</xs:schema>", false);
+		assertSymbols(symbols, "note:Field:xs:element:1:19:1:23", //
+				"NoteType:Class:xs:complexType:2:23:2:31", //
+				"attrs:Namespace:xs:attributeGroup:7:26:7:31");
+	}
+
+	@Test
+	public void indexNotXSD() {
+		// name attribute of an XML file is not an XML Schema component
+		List<IndexedSymbol> symbols = XMLFileIndexer.index("<schema>\r\n" + //
+				"	<element name=\"note\" id=\"n1\" />\r\n" + //
+				"</schema>", false);
+		assertSymbols(symbols, "n1:Constant:element:1:26:1:28");
+	}
+
+	@Test
+	public void indexDTD() {
+		List<IndexedSymbol> symbols = XMLFileIndexer.index("<!ELEMENT note (to)>\r\n" + //
+				"<!ATTLIST note version CDATA #IMPLIED>\r\n" + //
+				"<!ENTITY copyright \"Red Hat\">", true);
+		assertSymbols(symbols, "note:Property:null:0:10:0:14", //
+				"version:Key:note:1:15:1:22", //
+				"copyright:Namespace:null:2:9:2:18");
+	}
+
+	@Test
+	public void indexReferenceTargets() {
+		List<IndexedSymbol> symbols = XMLFileIndexer.index("<web-app>\r\n" + //
+				"	<servlet>\r\n" + //
+				"		<servlet-name> NoteServlet </servlet-name>\r\n" + //
+				"	</servlet>\r\n" + //
+				"	<servlet-mapping>\r\n" + //
+				"		<servlet-name>NoteServlet</servlet-name>\r\n" + //
+				"	</servlet-mapping>\r\n" + //
+				"</web-app>", false);
+		assertSymbols(symbols, "NoteServlet:Object:servlet:2:17:2:28");
+	}
+
+	@Test
+	public void findWorkspaceSymbols() throws Exception {
+		XMLWorkspaceIndex index = createIndex();
+		assertEquals(3, index.getFileCount());
+
+		List<SymbolInformation> symbols = index.findSymbols("NOTE", null);
+		assertNames(symbols, "NoteServlet", "NoteType", "note", "note", "noteDiv");
+		SymbolInformation noteType = symbols.stream().filter(s -> s.getName().equals("NoteType")).findFirst().get();
+		assertEquals(workspace.resolve("schemas/note.xsd").toUri().toString(), noteType.getLocation().getUri());
+		assertEquals(2, noteType.getLocation().getRange().getStart().getLine());
+
+		assertNames(index.findSymbols("copy", null), "copyright");
+		assertEquals(7, index.findSymbols("", null).size());
+	}
+
+	@Test
+	public void incrementalUpdates() throws Exception {
+		XMLWorkspaceIndex index = createIndex();
+		String webURI = workspace.resolve("web.xml").toUri().toString();
+
+		// Open document content is indexed
+		index.documentChanged(webURI, "<web-app><div id=\"memo\" /></web-app>").get(5, TimeUnit.SECONDS);
+		assertNames(index.findSymbols("memo", null), "memo");
+		assertNames(index.findSymbols("noteDiv", null));
+
+		// Closed document is indexed from the file
+		index.documentClosed(webURI).get(5, TimeUnit.SECONDS);
+		assertNames(index.findSymbols("memo", null));
+		assertNames(index.findSymbols("noteDiv", null), "noteDiv");
+
+		// Created file
+		write("schemas/memo.xml", "<memo id=\"memo1\" />");
+		index.fileChanged(workspace.resolve("schemas/memo.xml").toUri().toString()).get(5, TimeUnit.SECONDS);
+		assertNames(index.findSymbols("memo", null), "memo1");
+
+		// Deleted folder
+		index.fileDeleted(workspace.resolve("schemas").toUri().toString()).get(5, TimeUnit.SECONDS);
+		assertNames(index.findSymbols("memo", null));
+		assertNames(index.findSymbols("NoteType", null));
+		assertEquals(2, index.getFileCount());
+	}
+
+	@Test
+	public void clientURIs() throws Exception {
+		XMLWorkspaceIndex index = createIndex();
+		// URI sent by the client with 'file:/' and an encoded character for the
+		// indexed 'file:///.../web.xml'
+		String clientURI = "file:" + workspace.toUri().getRawPath() + "w%65b.xml";
+
+		index.documentChanged(clientURI, "<web-app><div id=\"memo\" /></web-app>").get(5, TimeUnit.SECONDS);
+		assertEquals(3, index.getFileCount());
+		assertNames(index.findSymbols("memo", null), "memo");
+		assertNames(index.findSymbols("noteDiv", null));
+
+		index.documentClosed(clientURI).get(5, TimeUnit.SECONDS);
+		assertEquals(3, index.getFileCount());
+		assertNames(index.findSymbols("memo", null));
+		assertNames(index.findSymbols("noteDiv", null), "noteDiv");
+		assertEquals(workspace.resolve("web.xml").toUri().toString(),
+				index.findSymbols("noteDiv", null).get(0).getLocation().getUri());
+	}
+
+	@Test
+	public void persistedIndex() throws Exception {
+		XMLWorkspaceIndex index = createIndex();
+		index.save();
+
+		// The index is restored and the deleted file is removed
+		Files.delete(workspace.resolve("note.dtd"));
+		XMLWorkspaceIndex restoredIndex = createIndex();
+		assertEquals(2, restoredIndex.getFileCount());
+		assertNames(restoredIndex.findSymbols("note", null), "NoteServlet", "NoteType", "note", "noteDiv");
+	}
+
+	@Test
+	public void disabledIndex() throws Exception {
+		XMLWorkspaceIndex index = new XMLWorkspaceIndex();
+		index.setRootURI(workspace.toUri().toString());
+		index.getIndexingFuture().get(5, TimeUnit.SECONDS);
+		assertEquals(0, index.getFileCount());
+	}
+
+	private XMLWorkspaceIndex createIndex() throws Exception {
+		XMLWorkspaceIndex index = new XMLWorkspaceIndex();
+		index.setEnabled(true);
+		index.setRootURI(workspace.toUri().toString());
+		index.getIndexingFuture().get(5, TimeUnit.SECONDS);
+		return index;
+	}
+
+	private void write(String path, String content) throws IOException {
+		Files.write(workspace.resolve(path), content.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static void assertSymbols(List<IndexedSymbol> symbols, String... expected) {
+		List<String> actual = symbols.stream()
+				.map(s -> s.getName() + ":" + s.getKind() + ":" + s.getContainerName() + ":" + s.getStartLine() + ":"
+						+ s.getStartCharacter() + ":" + s.getEndLine() + ":" + s.getEndCharacter())
+				.collect(Collectors.toList());
+		assertEquals(String.join("\n", expected), String.join("\n", actual));
+	}
+
+	private static void assertNames(List<SymbolInformation> symbols, String... expected) {
+		List<String> actual = symbols.stream().map(SymbolInformation::getName).sorted().collect(Collectors.toList());
+		assertEquals(String.join(",", expected), String.join(",", actual));
+		assertTrue(symbols.stream().allMatch(s -> s.getKind() != null && s.getKind() != SymbolKind.File));
+	}
+}
@@ -14,12 +14,21 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
 
 import org.eclipse.lsp4xml.AbstractCacheBasedTest;
+import org.eclipse.lsp4xml.utils.ProjectUtils;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
@@ -30,6 +39,8 @@ import com.google.common.cache.CacheBuilder;
 
 public class CacheResourcesManagerTest extends AbstractCacheBasedTest {
 
+	private static final String SERVER_DIRECTORY = "target/download-server";
+
 	private CacheResourcesManager cacheResourcesManager;
 
 	private FileServer server;
@@ -119,6 +130,123 @@ public class CacheResourcesManagerTest extends AbstractCacheBasedTest {
 				actual.getMessage());
 	}
 
+	@Test
+	public void testPrefetchReferencedSchemas() throws Exception {
+		Path serverDir = createServerDirectory();
+		writeFile(serverDir.resolve("main.xsd"), "<xs:schema xmlns:xs=\"http://www.w3.org/2001/XMLSchema\">\r\n" + //
+				"	<xs:import namespace=\"urn:imported\" schemaLocation=\"imported.xsd\" />\r\n" + //
+				"</xs:schema>");
+		writeFile(serverDir.resolve("imported.xsd"), "<xs:schema xmlns:xs=\"http://www.w3.org/2001/XMLSchema\">\r\n" + //
+				"	<xs:include schemaLocation=\"sub/included.xsd\" />\r\n" + //
+				"</xs:schema>");
+		Files.createDirectories(serverDir.resolve("sub"));
+		writeFile(serverDir.resolve("sub/included.xsd"),
+				"<xs:schema xmlns:xs=\"http://www.w3.org/2001/XMLSchema\" />");
+
+		server = new FileServer(SERVER_DIRECTORY);
+		server.start();
+		String uri = server.getUri("/prefetch/main.xsd");
+		downloadResource(uri);
+
+		// Imported and included XML Schemas are downloaded without being requested
+		Path imported = CacheResourcesManager.getResourceCachePath(server.getUri("/prefetch/imported.xsd"));
+		Path included = CacheResourcesManager.getResourceCachePath(server.getUri("/prefetch/sub/included.xsd"));
+		waitFor(() -> Files.exists(imported) && Files.exists(included));
+		assertEquals(included, cacheResourcesManager.getResource(server.getUri("/prefetch/sub/included.xsd")));
+	}
+
+	@Test
+	public void testRevalidateModifiedResource() throws Exception {
+		Path serverDir = createServerDirectory();
+		Path file = serverDir.resolve("modified.dtd");
+		writeFile(file, "<!ELEMENT note (#PCDATA)>");
+
+		server = new FileServer(SERVER_DIRECTORY);
+		server.start();
+		String uri = server.getUri("/prefetch/modified.dtd");
+		Path cachedFile = downloadResource(uri);
+		assertEquals("<!ELEMENT note (#PCDATA)>", readFile(cachedFile));
+		List<String> refreshed = new CopyOnWriteArrayList<>();
+		cacheResourcesManager.addRefreshListener(refreshed::add);
+
+		writeFile(file, "<!ELEMENT note (to)>");
+		Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 5000));
+		cacheResourcesManager.setRevalidationInterval(0);
+
+		// The cached file is returned immediately and is refreshed in background
+		assertEquals(cachedFile, cacheResourcesManager.getResource(uri));
+		waitFor(() -> "<!ELEMENT note (to)>".equals(readFile(cachedFile)));
+		waitFor(() -> refreshed.contains(uri));
+	}
+
+	@Test
+	public void testRevalidateNotModifiedResource() throws Exception {
+		Path serverDir = createServerDirectory();
+		writeFile(serverDir.resolve("not-modified.dtd"), "<!ELEMENT note (#PCDATA)>");
+
+		server = new FileServer(SERVER_DIRECTORY);
+		server.start();
+		String uri = server.getUri("/prefetch/not-modified.dtd");
+		Path cachedFile = downloadResource(uri);
+		Path metadata = cachedFile.resolveSibling(cachedFile.getFileName() + ".lsp4xml-metadata");
+		assertTrue(Files.exists(metadata));
+		Files.setLastModifiedTime(metadata, FileTime.fromMillis(0));
+		long lastModified = Files.getLastModifiedTime(cachedFile).toMillis();
+
+		// The server answers 304 Not Modified: the cached file is kept and the last
+		// check time is updated
+		assertEquals(cachedFile, cacheResourcesManager.getResource(uri));
+		waitFor(() -> getLastModified(metadata) > 0);
+		assertEquals(lastModified, Files.getLastModifiedTime(cachedFile).toMillis());
+		assertEquals("<!ELEMENT note (#PCDATA)>", readFile(cachedFile));
+	}
+
+	private static Path createServerDirectory() throws IOException {
+		Path dir = ProjectUtils.getProjectDirectory().resolve(SERVER_DIRECTORY).resolve("prefetch");
+		Files.createDirectories(dir);
+		return dir;
+	}
+
+	private Path downloadResource(String uri) throws Exception {
+		try {
+			cacheResourcesManager.getResource(uri);
+			fail("cacheResourcesManager should be busy downloading the url");
+		} catch (CacheResourceDownloadingException e) {
+			return e.getFuture().get(5, TimeUnit.SECONDS);
+		}
+		return null;
+	}
+
+	private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+		long end = System.currentTimeMillis() + 5000;
+		while (!condition.getAsBoolean()) {
+			if (System.currentTimeMillis() > end) {
+				fail("Timeout while waiting for the condition");
+			}
+			TimeUnit.MILLISECONDS.sleep(50);
+		}
+	}
+
+	private static void writeFile(Path file, String content) throws IOException {
+		Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static String readFile(Path file) {
+		try {
+			return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	private static long getLastModified(Path file) {
+		try {
+			return Files.getLastModifiedTime(file).toMillis();
+		} catch (IOException e) {
+			return -1;
+		}
+	}
+
 	private Cache<String, Boolean> testingCache() {
 		return CacheBuilder.newBuilder().expireAfterWrite(1, TimeUnit.SECONDS).maximumSize(1).build();
 	}
@@ -0,0 +1,106 @@
+/*******************************************************************************
+* Copyright (c) 2019 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+
+package org.eclipse.lsp4xml.uriresolver;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import org.apache.xerces.xni.parser.XMLInputSource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class EntityContentCacheTest {
+
+	private Path file;
+
+	@Before
+	public void createFile() throws IOException {
+		file = Files.createTempFile("entity", ".dtd");
+		Files.write(file, "<!ELEMENT note (#PCDATA)>".getBytes(StandardCharsets.UTF_8));
+	}
+
+	@After
+	public void deleteFile() throws IOException {
+		Files.deleteIfExists(file);
+	}
+
+	@Test
+	public void hitAndMiss() throws IOException {
+		EntityContentCache cache = new EntityContentCache();
+		byte[] content = cache.getContent(file);
+		assertArrayEquals("<!ELEMENT note (#PCDATA)>".getBytes(StandardCharsets.UTF_8), content);
+		assertEquals(0, cache.getHitCount());
+		assertEquals(1, cache.getMissCount());
+
+		assertSame(content, cache.getContent(file));
+		assertEquals(1, cache.getHitCount());
+		assertEquals(1, cache.getMissCount());
+		assertEquals(content.length, cache.getSize());
+	}
+
+	@Test
+	public void fileChanged() throws IOException {
+		EntityContentCache cache = new EntityContentCache();
+		cache.getContent(file);
+
+		Files.write(file, "<!ELEMENT note (to)>".getBytes(StandardCharsets.UTF_8));
+		Files.setLastModifiedTime(file,
+				FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 2000));
+		assertArrayEquals("<!ELEMENT note (to)>".getBytes(StandardCharsets.UTF_8), cache.getContent(file));
+		assertEquals(0, cache.getHitCount());
+		assertEquals(2, cache.getMissCount());
+	}
+
+	@Test
+	public void maxSize() throws IOException {
+		EntityContentCache cache = new EntityContentCache(10);
+		assertNull(cache.getContent(file));
+		assertEquals(0, cache.getSize());
+
+		cache.setMaxSize(0);
+		assertNull(cache.getContent(file));
+		assertEquals(0, cache.getSize());
+	}
+
+	@Test
+	public void missingFile() throws IOException {
+		EntityContentCache cache = new EntityContentCache();
+		Files.delete(file);
+		assertNull(cache.getContent(file));
+	}
+
+	@Test
+	public void toCachedInputSource() throws IOException {
+		EntityContentCache cache = new EntityContentCache();
+		String systemId = file.toUri().toString();
+		XMLInputSource source = cache.toCachedInputSource(new XMLInputSource(null, systemId, systemId));
+		assertEquals(systemId, source.getSystemId());
+		InputStream in = source.getByteStream();
+		assertNotNull(in);
+		assertEquals(1, cache.getMissCount());
+
+		// remote resource is not cached
+		source = cache.toCachedInputSource(new XMLInputSource(null, "http://foo/bar.dtd", null));
+		assertNull(source.getByteStream());
+	}
+
+}
@@ -0,0 +1,155 @@
+/*******************************************************************************
+* Copyright (c) 2019 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+
+package org.eclipse.lsp4xml.uriresolver;
+
+import static org.eclipse.lsp4xml.XMLAssert.d;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.eclipse.lsp4xml.XMLAssert;
+import org.eclipse.lsp4xml.extensions.contentmodel.model.ContentModelManager;
+import org.eclipse.lsp4xml.extensions.contentmodel.participants.XMLSchemaErrorCode;
+import org.eclipse.lsp4xml.extensions.contentmodel.settings.ContentModelSettings;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SchemaBundleTest {
+
+	private static final String NOTE_XSD = "<xs:schema xmlns:xs=\"http://www.w3.org/2001/XMLSchema\">\r\n" + //
+			"	<xs:element name=\"note\">\r\n" + //
+			"		<xs:complexType>\r\n" + //
+			"			<xs:sequence>\r\n" + //
+			"				<xs:element name=\"to\" type=\"xs:string\" />\r\n" + //
+			"			</xs:sequence>\r\n" + //
+			"		</xs:complexType>\r\n" + //
+			"	</xs:element>\r\n" + //
+			"</xs:schema>";
+
+	private Path bundle;
+
+	@Before
+	public void createBundle() throws IOException {
+		bundle = Files.createTempFile("schemas", ".zip");
+		try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(bundle))) {
+			out.putNextEntry(new ZipEntry("http/example.org/schemas/"));
+			addEntry(out, "http/example.org/schemas/note.xsd", NOTE_XSD, ZipEntry.DEFLATED);
+			addEntry(out, "http/example.org/schemas/stored.dtd", "<!ELEMENT note (#PCDATA)>", ZipEntry.STORED);
+			addEntry(out, "cache/https/example.org/cached.xsd", "<xs:schema />", ZipEntry.DEFLATED);
+		}
+	}
+
+	@After
+	public void deleteBundle() throws IOException {
+		Files.deleteIfExists(bundle);
+	}
+
+	@Test
+	public void readEntries() throws IOException {
+		SchemaBundle schemaBundle = SchemaBundle.open(bundle);
+		assertEquals(3, schemaBundle.getEntryNames().size());
+
+		assertTrue(schemaBundle.contains("http://example.org/schemas/note.xsd"));
+		assertEquals(NOTE_XSD, read(schemaBundle.getInputStream("http://example.org/schemas/note.xsd")));
+
+		assertEquals("<!ELEMENT note (#PCDATA)>",
+				read(schemaBundle.getInputStream("http://example.org/schemas/stored.dtd")));
+
+		// cache/ root folder is ignored
+		assertEquals("<xs:schema />", read(schemaBundle.getInputStream("https://example.org/cached.xsd")));
+
+		// not provided by the bundle
+		assertFalse(schemaBundle.contains("http://example.org/schemas/"));
+		assertFalse(schemaBundle.contains("https://example.org/schemas/note.xsd"));
+		assertNull(schemaBundle.getInputStream("http://example.org/other.xsd"));
+	}
+
+	@Test(expected = IOException.class)
+	public void notAZipArchive() throws IOException {
+		Files.write(bundle, "not a zip".getBytes(StandardCharsets.UTF_8));
+		SchemaBundle.open(bundle);
+	}
+
+	@Test
+	public void zip64NotSupported() throws IOException {
+		byte[] bytes = Files.readAllBytes(bundle);
+		// 0xFFFF entries in the end of central directory record: the count is in the
+		// ZIP64 record
+		int end = bytes.length - 22;
+		bytes[end + 10] = (byte) 0xFF;
+		bytes[end + 11] = (byte) 0xFF;
+		Files.write(bundle, bytes);
+		try {
+			SchemaBundle.open(bundle);
+			fail("ZIP64 archive must be rejected");
+		} catch (IOException e) {
+			assertTrue(e.getMessage(), e.getMessage().contains("ZIP64"));
+		}
+	}
+
+	@Test
+	public void validateWithSchemaBundle() throws IOException {
+		String xml = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\r\n" + //
+				"<note xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\"\r\n" + //
+				"	xsi:noNamespaceSchemaLocation=\"http://example.org/schemas/note.xsd\">\r\n" + //
+				"	<from />\r\n" + //
+				"</note>";
+		// The cache is disabled, the XML Schema is loaded from the bundle without
+		// network access
+		ContentModelSettings settings = new ContentModelSettings();
+		settings.setUseCache(false);
+		XMLAssert.testDiagnosticsFor(xml, null, ls -> {
+			ContentModelManager contentModelManager = ls.getComponent(ContentModelManager.class);
+			contentModelManager.setSchemaBundles(new String[] { bundle.toString() });
+		}, "test.xml", true, settings, d(3, 2, 3, 6, XMLSchemaErrorCode.cvc_complex_type_2_4_a));
+	}
+
+	private static void addEntry(ZipOutputStream out, String name, String content, int method) throws IOException {
+		byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+		ZipEntry entry = new ZipEntry(name);
+		entry.setMethod(method);
+		if (method == ZipEntry.STORED) {
+			CRC32 crc = new CRC32();
+			crc.update(bytes);
+			entry.setSize(bytes.length);
+			entry.setCompressedSize(bytes.length);
+			entry.setCrc(crc.getValue());
+		}
+		out.putNextEntry(entry);
+		out.write(bytes);
+		out.closeEntry();
+	}
+
+	private static String read(InputStream in) throws IOException {
+		try (InputStream input = in; OutputStream out = new ByteArrayOutputStream()) {
+			byte[] buffer = new byte[8];
+			int n;
+			while ((n = input.read(buffer)) != -1) {
+				out.write(buffer, 0, n);
+			}
+			return out.toString();
+		}
+	}
+}
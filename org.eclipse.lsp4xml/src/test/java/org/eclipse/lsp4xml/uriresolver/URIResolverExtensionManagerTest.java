@@ -0,0 +1,102 @@
+/*******************************************************************************
+* Copyright (c) 2019 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+
+package org.eclipse.lsp4xml.uriresolver;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Tests for the resolved URIs cache of {@link URIResolverExtensionManager}.
+ *
+ */
+public class URIResolverExtensionManagerTest {
+
+	private static class CountingResolver implements URIResolverExtension {
+
+		private final String publicId;
+
+		private final String resolved;
+
+		private final boolean cacheable;
+
+		private int count;
+
+		CountingResolver(String publicId, String resolved, boolean cacheable) {
+			this.publicId = publicId;
+			this.resolved = resolved;
+			this.cacheable = cacheable;
+		}
+
+		@Override
+		public String resolve(String baseLocation, String publicId, String systemId) {
+			count++;
+			return this.publicId.equals(publicId) ? resolved : null;
+		}
+
+		@Override
+		public boolean isCacheable() {
+			return cacheable;
+		}
+	}
+
+	@Test
+	public void cachedResolvedURI() {
+		URIResolverExtensionManager manager = new URIResolverExtensionManager();
+		CountingResolver resolver = new CountingResolver("ns", "file:///ns.xsd", true);
+		manager.registerResolver(resolver);
+
+		assertEquals("file:///ns.xsd", manager.resolve("file:///test.xml", "ns", null));
+		assertEquals("file:///ns.xsd", manager.resolve("file:///test.xml", "ns", null));
+		assertEquals(1, resolver.count);
+
+		// Negative result of the resolver is cached too
+		assertEquals("file:///foo.xsd", manager.resolve("file:///test.xml", "other", "foo.xsd"));
+		assertEquals("file:///foo.xsd", manager.resolve("file:///test.xml", "other", "foo.xsd"));
+		assertEquals(2, resolver.count);
+
+		// Settings of resolvers changed
+		manager.clearResolvedURIs();
+		assertEquals("file:///ns.xsd", manager.resolve("file:///test.xml", "ns", null));
+		assertEquals(3, resolver.count);
+	}
+
+	@Test
+	public void notCacheableResolver() {
+		URIResolverExtensionManager manager = new URIResolverExtensionManager();
+		CountingResolver notCacheable = new CountingResolver("dynamic", "file:///dynamic.xsd", false);
+		CountingResolver cacheable = new CountingResolver("ns", "file:///ns.xsd", true);
+		manager.registerResolver(notCacheable);
+		manager.registerResolver(cacheable);
+
+		// Result of the not cacheable resolver is never cached
+		assertEquals("file:///dynamic.xsd", manager.resolve("file:///test.xml", "dynamic", null));
+		assertEquals("file:///dynamic.xsd", manager.resolve("file:///test.xml", "dynamic", null));
+		assertEquals(2, notCacheable.count);
+
+		// Not cacheable resolver which has priority is called again
+		assertEquals("file:///ns.xsd", manager.resolve("file:///test.xml", "ns", null));
+		assertEquals("file:///ns.xsd", manager.resolve("file:///test.xml", "ns", null));
+		assertEquals(4, notCacheable.count);
+		assertEquals(1, cacheable.count);
+	}
+
+	@Test
+	public void unregisterResolver() {
+		URIResolverExtensionManager manager = new URIResolverExtensionManager();
+		CountingResolver resolver = new CountingResolver("ns", "file:///ns.xsd", true);
+		manager.registerResolver(resolver);
+		assertEquals("file:///ns.xsd", manager.resolve("file:///test.xml", "ns", null));
+
+		manager.unregisterResolver(resolver);
+		assertEquals(null, manager.resolve("file:///test.xml", "ns", null));
+	}
+}
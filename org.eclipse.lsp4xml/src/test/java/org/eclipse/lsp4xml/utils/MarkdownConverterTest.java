@@ -13,6 +13,13 @@ package org.eclipse.lsp4xml.utils;
 import static org.eclipse.lsp4xml.utils.MarkdownConverter.convert;
 import static org.junit.Assert.assertEquals;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import org.junit.Test;
 
 /**
@@ -67,4 +74,22 @@ public class MarkdownConverterTest {
 		assertEquals("The `<project>` element is the root of the descriptor.", convert("The `&lt;project&gt;` element is the root of the descriptor."));
 	}
 
+	@Test
+	public void testConcurrentConversion() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<String>> results = new ArrayList<>();
+			for (int i = 0; i < 100; i++) {
+				int index = i;
+				Callable<String> conversion = () -> convert("<p>Element <b>" + index + "</b> uses <code>my code</code></p>");
+				results.add(executor.submit(conversion));
+			}
+			for (int i = 0; i < results.size(); i++) {
+				assertEquals("Element **" + i + "** uses `my code`", results.get(i).get());
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
 }
\ No newline at end of file
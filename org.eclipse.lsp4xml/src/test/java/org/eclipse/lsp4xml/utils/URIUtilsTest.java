@@ -0,0 +1,47 @@
+/**
+ *  Copyright (c) 2019 Red Hat Inc. and others.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v2.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v20.html
+ *
+ *  Contributors:
+ *  Red Hat Inc. - initial API and implementation
+ */
+package org.eclipse.lsp4xml.utils;
+
+import static org.eclipse.lsp4xml.utils.URIUtils.normalizeFileURI;
+import static org.junit.Assert.assertEquals;
+
+import java.nio.file.Paths;
+
+import org.junit.Test;
+
+/**
+ * {@link URIUtils} tests.
+ *
+ */
+public class URIUtilsTest {
+
+	@Test
+	public void normalizeClientAndPathURIs() {
+		// URI sent by VS Code and URI built by Path#toUri on Windows
+		assertEquals("file:///c:/my%20folder/note.xml", normalizeFileURI("file:///c%3A/my%20folder/note.xml"));
+		assertEquals("file:///c:/my%20folder/note.xml", normalizeFileURI("file:///C:/my%20folder/note.xml"));
+		// 'file:/' prefix
+		assertEquals("file:///home/note.xml", normalizeFileURI("file:/home/note.xml"));
+		assertEquals(Paths.get("/home/note.xml").toUri().toString(), normalizeFileURI("file:/home/note.xml"));
+		// non ASCII characters
+		assertEquals("file:///home/%C3%A9t%C3%A9.xml", normalizeFileURI("file:///home/\u00e9t\u00e9.xml"));
+		// UNC path
+		assertEquals("file://server/share/note.xml", normalizeFileURI("file://server/share/note.xml"));
+	}
+
+	@Test
+	public void normalizeNotFileURIs() {
+		assertEquals(null, normalizeFileURI(null));
+		assertEquals("http://www.w3.org/2001/XMLSchema", normalizeFileURI("http://www.w3.org/2001/XMLSchema"));
+		assertEquals("file:c:/note.xml", normalizeFileURI("file:c:/note.xml"));
+		assertEquals("file:///home/not valid.xml", normalizeFileURI("file:///home/not valid.xml"));
+	}
+}
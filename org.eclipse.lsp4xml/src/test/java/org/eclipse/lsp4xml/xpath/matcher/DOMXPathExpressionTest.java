@@ -0,0 +1,98 @@
+/*******************************************************************************
+* Copyright (c) 2019 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lsp4xml.xpath.matcher;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpressionException;
+import javax.xml.xpath.XPathFactory;
+
+import org.eclipse.lsp4xml.dom.DOMDocument;
+import org.eclipse.lsp4xml.dom.DOMNode;
+import org.eclipse.lsp4xml.dom.DOMParser;
+import org.junit.Test;
+import org.w3c.dom.NodeList;
+
+/**
+ * Tests for the XPath expression evaluated on the DOM nodes.
+ *
+ */
+public class DOMXPathExpressionTest {
+
+	private static final String XML = "<web-app>\r\n" + //
+			"	<servlet>\r\n" + //
+			"		<servlet-name>ServletA</servlet-name>\r\n" + //
+			"	</servlet>\r\n" + //
+			"	<servlet type=\"internal\">\r\n" + //
+			"		<servlet-name><![CDATA[ServletB]]></servlet-name>\r\n" + //
+			"	</servlet>\r\n" + //
+			"	<filter>\r\n" + //
+			"		<servlet>\r\n" + //
+			"			<servlet-name>Nested</servlet-name>\r\n" + //
+			"		</servlet>\r\n" + //
+			"	</filter>\r\n" + //
+			"	<servlet-mapping>\r\n" + //
+			"		<servlet-name>ServletA</servlet-name>\r\n" + //
+			"	</servlet-mapping>\r\n" + //
+			"</web-app>";
+
+	@Test
+	public void supportedExpressions() {
+		assertTrue(DOMXPathExpression.isSupported("/web-app/servlet"));
+		assertTrue(DOMXPathExpression.isSupported("//servlet/servlet-name/text()"));
+		assertTrue(DOMXPathExpression.isSupported("//*[local-name()='servlet']/*[local-name() ='servlet-name']/text()"));
+		assertTrue(DOMXPathExpression.isSupported("//*:servlet[@type='internal']/@type"));
+		assertTrue(DOMXPathExpression.isSupported("//web-app//servlet-name"));
+
+		assertFalse(DOMXPathExpression.isSupported("servlet/servlet-name"));
+		assertFalse(DOMXPathExpression.isSupported("/web-app//servlet-name"));
+		assertFalse(DOMXPathExpression.isSupported("//servlet[1]"));
+		assertFalse(DOMXPathExpression.isSupported("//servlet[@type]"));
+		assertFalse(DOMXPathExpression.isSupported("//servlet/../filter"));
+		assertFalse(DOMXPathExpression.isSupported("//servlet | //filter"));
+		assertFalse(DOMXPathExpression.isSupported("//servlet[contains(@type, 'int')]"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void unsupportedExpression() {
+		new DOMXPathExpression("ancestor::servlet");
+	}
+
+	@Test
+	public void sameResultAsJAXP() throws XPathExpressionException {
+		DOMDocument document = DOMParser.getInstance().parse(XML, "web.xml", null);
+		assertSameResult("//*[local-name()='servlet']/*[local-name() ='servlet-name']/text()", document, 3);
+		assertSameResult("/web-app/servlet/servlet-name/text()", document, 2);
+		assertSameResult("/web-app/servlet", document, 2);
+		assertSameResult("/servlet", document, 0);
+		assertSameResult("//filter//servlet-name", document, 1);
+		assertSameResult("//servlet[@type='internal']/servlet-name", document, 1);
+		assertSameResult("//servlet/@type", document, 1);
+	}
+
+	private static void assertSameResult(String expression, DOMDocument document, int expectedSize)
+			throws XPathExpressionException {
+		List<DOMNode> actual = new DOMXPathExpression(expression).evaluate(document);
+		NodeList expected = (NodeList) XPathFactory.newInstance().newXPath().compile(expression).evaluate(document,
+				XPathConstants.NODESET);
+		List<DOMNode> expectedNodes = new ArrayList<>();
+		for (int i = 0; i < expected.getLength(); i++) {
+			expectedNodes.add((DOMNode) expected.item(i));
+		}
+		assertEquals(expression, expectedNodes, actual);
+		assertEquals(expression, expectedSize, actual.size());
+	}
+}